@@ -20,8 +20,13 @@ import io.vertx.lang.groovy.InternalHelper
 import java.util.List
 import io.vertx.ext.mongo.WriteOption
 import io.vertx.groovy.core.Vertx
+import io.vertx.groovy.core.streams.ReadStream
 import io.vertx.ext.mongo.FindOptions
+import io.vertx.ext.mongo.TailOptions
+import io.vertx.ext.mongo.OplogOptions
+import io.vertx.ext.mongo.AggregateOptions
 import io.vertx.core.json.JsonObject
+import io.vertx.core.json.JsonArray
 import io.vertx.core.AsyncResult
 import io.vertx.core.Handler
 import io.vertx.ext.mongo.UpdateOptions
@@ -59,6 +64,23 @@ public class MongoClient {
     def ret= InternalHelper.safeCreate(io.vertx.ext.mongo.MongoClient.createShared((io.vertx.core.Vertx)vertx.getDelegate(), config != null ? new io.vertx.core.json.JsonObject(config) : null, dataSourceName), io.vertx.ext.mongo.MongoClient.class, io.vertx.groovy.ext.mongo.MongoClient.class);
     return ret;
   }
+  /**
+   * Like {@link io.vertx.groovy.ext.mongo.MongoClient#createShared} but the data source is warmed up: when it is
+   * created, {@code minPoolSize} connections are opened, at least one, and the server is pinged.
+   * <p>
+   * The {@code readyHandler} is called when the data source is usable, or with the failure that prevented it. Clients
+   * sharing a data source that is already warm are ready straight away. When the data source is configured with
+   * {@code lazy}, nothing is opened and the client is ready straight away.
+   * @param vertx the Vert.x instance
+   * @param config the configuration
+   * @param dataSourceName the data source name
+   * @param readyHandler called when the client is ready to be used
+   * @return the client
+   */
+  public static MongoClient createShared(Vertx vertx, Map<String, Object> config, String dataSourceName, Handler<AsyncResult<Void>> readyHandler) {
+    def ret= InternalHelper.safeCreate(io.vertx.ext.mongo.MongoClient.createShared((io.vertx.core.Vertx)vertx.getDelegate(), config != null ? new io.vertx.core.json.JsonObject(config) : null, dataSourceName, readyHandler), io.vertx.ext.mongo.MongoClient.class, io.vertx.groovy.ext.mongo.MongoClient.class);
+    return ret;
+  }
   /**
    * Like {@link io.vertx.groovy.ext.mongo.MongoClient#createShared} but with the default data source name
    * @param vertx the Vert.x instance
@@ -69,6 +91,20 @@ public class MongoClient {
     def ret= InternalHelper.safeCreate(io.vertx.ext.mongo.MongoClient.createShared((io.vertx.core.Vertx)vertx.getDelegate(), config != null ? new io.vertx.core.json.JsonObject(config) : null), io.vertx.ext.mongo.MongoClient.class, io.vertx.groovy.ext.mongo.MongoClient.class);
     return ret;
   }
+  /**
+   * Create a Mongo client routing the operations over several clusters by the shard key of the documents.
+   * <p>
+   * The configuration has the {@code clusters}, each one with a {@code name}, the {@code config} of its data source
+   * and optionally its {@code dataSourceName}, which defaults to its name. The {@code shardKey} is the field placing
+   * the documents, with the {@code hash} or {@code range} {@code placement}.
+   * @param vertx the Vert.x instance
+   * @param config the routing configuration
+   * @return the client
+   */
+  public static MongoClient createRouting(Vertx vertx, Map<String, Object> config) {
+    def ret= InternalHelper.safeCreate(io.vertx.ext.mongo.MongoClient.createRouting((io.vertx.core.Vertx)vertx.getDelegate(), config != null ? new io.vertx.core.json.JsonObject(config) : null), io.vertx.ext.mongo.MongoClient.class, io.vertx.groovy.ext.mongo.MongoClient.class);
+    return ret;
+  }
   /**
    * Save a document in the specified collection
    * @param collection the collection
@@ -214,6 +250,49 @@ public class MongoClient {
     });
     return this;
   }
+  /**
+   * Like {@link io.vertx.groovy.ext.mongo.MongoClient#findWithOptions} but streams the matching documents.
+   * <p>
+   * Documents are fetched from the server batch by batch as the stream is consumed, so a paused stream holds at most
+   * one batch in memory whatever the size of the result.
+   * @param collection the collection
+   * @param query query used to match documents
+   * @param options options to configure the find (see <a href="../../../../../../../cheatsheet/FindOptions.html">FindOptions</a>)
+   * @return a stream of documents, the query starts when a handler is set
+   */
+  public ReadStream<Map<String, Object>> findStream(String collection, Map<String, Object> query, Map<String, Object> options) {
+    def ret= InternalHelper.safeCreate(this.delegate.findStream(collection, query != null ? new io.vertx.core.json.JsonObject(query) : null, options != null ? new io.vertx.ext.mongo.FindOptions(new io.vertx.core.json.JsonObject(options)) : null), io.vertx.core.streams.ReadStream.class, io.vertx.groovy.core.streams.ReadStreamImpl.class);
+    return ret;
+  }
+  /**
+   * Tail a capped collection, streaming the matching documents as they are inserted.
+   * <p>
+   * The stream is backed by a tailable cursor and never ends. If the cursor dies, e.g. the collection was empty or
+   * the connection was lost, a new one is opened transparently, resuming after the {@code _id} of the last document
+   * received. Resuming therefore requires documents to be inserted with increasing ids, as generated ids are.
+   * @param collection the capped collection
+   * @param query query used to match documents
+   * @param options options to configure the cursor (see <a href="../../../../../../../cheatsheet/TailOptions.html">TailOptions</a>)
+   * @return a stream of documents, tailing starts when a handler is set and stops when the handler is unset
+   */
+  public ReadStream<Map<String, Object>> tail(String collection, Map<String, Object> query, Map<String, Object> options) {
+    def ret= InternalHelper.safeCreate(this.delegate.tail(collection, query != null ? new io.vertx.core.json.JsonObject(query) : null, options != null ? new io.vertx.ext.mongo.TailOptions(new io.vertx.core.json.JsonObject(options)) : null), io.vertx.core.streams.ReadStream.class, io.vertx.groovy.core.streams.ReadStreamImpl.class);
+    return ret;
+  }
+  /**
+   * Stream the entries of the replica set oplog, {@code local.oplog.rs}, as they are written.
+   * <p>
+   * The stream is backed by a tailable cursor and never ends. If the cursor dies, a new one is opened transparently,
+   * resuming after the {@code ts} of the last entry received. Storing the {@code ts} of the last entry processed and
+   * passing it as <a href="../../../../../../../cheatsheet/OplogOptions.html">OplogOptions</a> allows a consumer to resume after a restart.
+   * Only available when connected to a replica set member.
+   * @param options options to filter the entries and configure the cursor (see <a href="../../../../../../../cheatsheet/OplogOptions.html">OplogOptions</a>)
+   * @return a stream of oplog entries, tailing starts when a handler is set and stops when the handler is unset
+   */
+  public ReadStream<Map<String, Object>> oplog(Map<String, Object> options) {
+    def ret= InternalHelper.safeCreate(this.delegate.oplog(options != null ? new io.vertx.ext.mongo.OplogOptions(new io.vertx.core.json.JsonObject(options)) : null), io.vertx.core.streams.ReadStream.class, io.vertx.groovy.core.streams.ReadStreamImpl.class);
+    return ret;
+  }
   /**
    * Find a single matching document in the specified collection
    * @param collection the collection
@@ -322,6 +401,67 @@ public class MongoClient {
     this.delegate.dropCollection(collection, resultHandler);
     return this;
   }
+  /**
+   * Get the distinct values of a field across the matching documents of the specified collection
+   * @param collection the collection
+   * @param fieldName the field name
+   * @param query query used to match documents
+   * @param resultHandler will be provided with the distinct values
+   * @return 
+   */
+  public MongoClient distinct(String collection, String fieldName, Map<String, Object> query, Handler<AsyncResult<List<Object>>> resultHandler) {
+    this.delegate.distinct(collection, fieldName, query != null ? new io.vertx.core.json.JsonObject(query) : null, new Handler<AsyncResult<io.vertx.core.json.JsonArray>>() {
+      public void handle(AsyncResult<io.vertx.core.json.JsonArray> event) {
+        AsyncResult<List<Object>> f
+        if (event.succeeded()) {
+          f = InternalHelper.<List<Object>>result((List<Object>)InternalHelper.wrapObject(event.result()))
+        } else {
+          f = InternalHelper.<List<Object>>failure(event.cause())
+        }
+        resultHandler.handle(f)
+      }
+    });
+    return this;
+  }
+  /**
+   * Run an aggregation pipeline against the specified collection
+   * @param collection the collection
+   * @param pipeline the pipeline stages, each one a json object
+   * @param options options to configure the aggregation (see <a href="../../../../../../../cheatsheet/AggregateOptions.html">AggregateOptions</a>)
+   * @param resultHandler will be provided with list of result documents
+   * @return 
+   */
+  public MongoClient aggregate(String collection, List<Object> pipeline, Map<String, Object> options, Handler<AsyncResult<List<Map<String, Object>>>> resultHandler) {
+    this.delegate.aggregate(collection, pipeline != null ? new io.vertx.core.json.JsonArray(pipeline) : null, options != null ? new io.vertx.ext.mongo.AggregateOptions(new io.vertx.core.json.JsonObject(options)) : null, new Handler<AsyncResult<List<JsonObject>>>() {
+      public void handle(AsyncResult<List<JsonObject>> event) {
+        AsyncResult<List<Map<String, Object>>> f
+        if (event.succeeded()) {
+          f = InternalHelper.<List<Map<String, Object>>>result(event.result().collect({
+            io.vertx.core.json.JsonObject element ->
+            InternalHelper.wrapObject(element)
+          }) as List)
+        } else {
+          f = InternalHelper.<List<Map<String, Object>>>failure(event.cause())
+        }
+        resultHandler.handle(f)
+      }
+    });
+    return this;
+  }
+  /**
+   * Run an aggregation pipeline against the specified collection, streaming the result documents.
+   * <p>
+   * Results are fetched from the server batch by batch as the stream is consumed, so the result set is not
+   * limited by the maximum document size and is never held in memory as a whole.
+   * @param collection the collection
+   * @param pipeline the pipeline stages, each one a json object
+   * @param options options to configure the aggregation (see <a href="../../../../../../../cheatsheet/AggregateOptions.html">AggregateOptions</a>)
+   * @return a stream of result documents, the aggregation starts when a handler is set
+   */
+  public ReadStream<Map<String, Object>> aggregateStream(String collection, List<Object> pipeline, Map<String, Object> options) {
+    def ret= InternalHelper.safeCreate(this.delegate.aggregateStream(collection, pipeline != null ? new io.vertx.core.json.JsonArray(pipeline) : null, options != null ? new io.vertx.ext.mongo.AggregateOptions(new io.vertx.core.json.JsonObject(options)) : null), io.vertx.core.streams.ReadStream.class, io.vertx.groovy.core.streams.ReadStreamImpl.class);
+    return ret;
+  }
   /**
    * Run an arbitrary MongoDB command.
    * @param commandName the name of the command
@@ -343,6 +483,65 @@ public class MongoClient {
     });
     return this;
   }
+  /**
+   * Get a view of the client operating on another database of the same deployment.
+   * <p>
+   * The view shares the driver client and the connection pool of this client, so any number of databases, e.g. one
+   * per tenant, can be used with a single pool. The views of up to 1024 databases are cached, calling this method
+   * again with the same name returns the same view. A view can be used as long as this client is open, closing a view
+   * does nothing.
+   * @param name the database name
+   * @return the view of the database
+   */
+  public MongoClient database(String name) {
+    def ret= InternalHelper.safeCreate(this.delegate.database(name), io.vertx.ext.mongo.MongoClient.class, io.vertx.groovy.ext.mongo.MongoClient.class);
+    return ret;
+  }
+  /**
+   * Get a view of the client running its operations on one of the named {@code pools} of the data source.
+   * <p>
+   * Each named pool has its own connections, so long running work, e.g. reports or migrations, can be kept away from
+   * the connections serving interactive requests. The view uses the same database as this client and is cached like
+   * the views of {@link io.vertx.groovy.ext.mongo.MongoClient#database}, closing it does nothing.
+   * @param name the pool name, as configured in {@code pools}
+   * @return the view of the pool
+   */
+  public MongoClient pool(String name) {
+    def ret= InternalHelper.safeCreate(this.delegate.pool(name), io.vertx.ext.mongo.MongoClient.class, io.vertx.groovy.ext.mongo.MongoClient.class);
+    return ret;
+  }
+  /**
+   * Update the configuration of the data source without closing it, e.g. to change the pool size, the socket timeouts
+   * or the read preference.
+   * <p>
+   * The changes are merged into the configuration of the data source. New driver clients are created from it and
+   * warmed up, then new operations, including the ones of the other clients of the data source, switch to them. The
+   * previous driver clients are closed once their operations in flight completed and their streams are closed, or after
+   * {@code drainTimeoutMS}.
+   * The handler fails, and the data source keeps its configuration, when the configuration is invalid or the new
+   * clients cannot reach the server.
+   * @param config the configuration changes
+   * @param resultHandler will be called when new operations use the new configuration
+   * @return 
+   */
+  public MongoClient updateConfig(Map<String, Object> config, Handler<AsyncResult<Void>> resultHandler) {
+    this.delegate.updateConfig(config != null ? new io.vertx.core.json.JsonObject(config) : null, resultHandler);
+    return this;
+  }
+  /**
+   * Get the metrics of the connection pools of the data source, one entry per partition in {@code partitions}.
+   * <p>
+   * Each entry has the configured {@code minPoolSize} and {@code maxPoolSize}, the operations {@code inFlight} and the
+   * {@code limit} of operations in flight. With an adaptive pool it also has the operations {@code queued} for the
+   * limit, the average {@code latencyMS}, {@code baselineLatencyMS} and {@code waitMS} of the last interval, and the
+   * number of {@code increases} and {@code decreases} of the limit. The entries of the named pools have the {@code pool}
+   * name.
+   * @return the metrics
+   */
+  public Map<String, Object> poolMetrics() {
+    def ret = (Map<String, Object>)InternalHelper.wrapObject(this.delegate.poolMetrics());
+    return ret;
+  }
   /**
    * Close the client and release its resources
    */
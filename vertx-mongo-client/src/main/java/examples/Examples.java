@@ -19,7 +19,10 @@ package examples;
 import io.vertx.core.Vertx;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
+import io.vertx.ext.mongo.AggregateOptions;
 import io.vertx.ext.mongo.MongoClient;
+import io.vertx.ext.mongo.OplogOptions;
+import io.vertx.ext.mongo.TailOptions;
 import io.vertx.ext.mongo.UpdateOptions;
 
 import java.util.List;
@@ -42,6 +45,96 @@ public class Examples {
 
   }
 
+  public void exampleCreateWarm(Vertx vertx, JsonObject config) {
+
+    MongoClient client = MongoClient.createShared(vertx, config, "MyPoolName", ready -> {
+
+      if (ready.succeeded()) {
+
+        System.out.println("Connected to MongoDB");
+
+      } else {
+
+        ready.cause().printStackTrace();
+
+      }
+
+    });
+
+  }
+
+  public void exampleCreateRouting(Vertx vertx) {
+
+    JsonObject config = new JsonObject()
+      .put("shardKey", "tenant")
+      .put("placement", "hash")
+      .put("clusters", new JsonArray()
+        .add(new JsonObject().put("name", "eu").put("config", new JsonObject().put("connection_string", "mongodb://eu-1,eu-2/?replicaSet=eu")))
+        .add(new JsonObject().put("name", "us").put("config", new JsonObject().put("connection_string", "mongodb://us-1,us-2/?replicaSet=us"))));
+
+    MongoClient client = MongoClient.createRouting(vertx, config);
+
+  }
+
+  public void examplePool(Vertx vertx) {
+
+    JsonObject config = new JsonObject()
+      .put("maxPoolSize", 50)
+      .put("pools", new JsonObject().put("batch", new JsonObject().put("maxPoolSize", 4)));
+
+    MongoClient mongoClient = MongoClient.createShared(vertx, config);
+
+    // The export uses at most 4 connections, the 50 other ones keep serving the requests
+    JsonObject pipeline = new JsonObject().put("$match", new JsonObject().put("status", "shipped"));
+    mongoClient.pool("batch").aggregateStream("orders", new JsonArray().add(pipeline), new AggregateOptions())
+      .handler(order -> System.out.println("Exporting " + order.getString("_id")));
+
+  }
+
+  public void exampleUpdateConfig(MongoClient mongoClient) {
+
+    // Only the changed options are given, the other ones are kept
+    JsonObject changes = new JsonObject()
+      .put("maxPoolSize", 200)
+      .put("socketTimeoutMS", 5000);
+
+    mongoClient.updateConfig(changes, res -> {
+
+      if (res.succeeded()) {
+
+        System.out.println("New operations use the new pool");
+
+      } else {
+
+        res.cause().printStackTrace();
+
+      }
+
+    });
+
+  }
+
+  public void exampleDatabase(MongoClient mongoClient, String tenant) {
+
+    // The view shares the pool of the client
+    MongoClient tenantClient = mongoClient.database("tenant_" + tenant);
+
+    tenantClient.find("orders", new JsonObject(), res -> {
+
+      if (res.succeeded()) {
+
+        System.out.println("Orders of " + tenant + ": " + res.result().size());
+
+      } else {
+
+        res.cause().printStackTrace();
+
+      }
+
+    });
+
+  }
+
   public void exampleCreateNonShared(Vertx vertx, JsonObject config) {
 
     MongoClient client = MongoClient.createNonShared(vertx, config);
@@ -252,6 +345,31 @@ public class Examples {
 
   }
 
+  public void example9_1(MongoClient mongoClient) {
+
+    // will match all the events of the orders service
+    JsonObject query = new JsonObject().put("service", "orders");
+
+    mongoClient.tail("events", query, new TailOptions())
+      .exceptionHandler(Throwable::printStackTrace)
+      .handler(json -> System.out.println(json.encodePrettily()));
+
+  }
+
+  public void example9_2(MongoClient mongoClient, JsonObject lastTimestamp) {
+
+    // will match the inserts and updates of the books collection, after the last entry processed
+    OplogOptions options = new OplogOptions()
+      .setNamespaces(new JsonArray().add("library.books"))
+      .setOperations(new JsonArray().add("i").add("u"))
+      .setTimestamp(lastTimestamp);
+
+    mongoClient.oplog(options)
+      .exceptionHandler(Throwable::printStackTrace)
+      .handler(entry -> System.out.println(entry.getString("op") + " " + entry.getJsonObject("ts")));
+
+  }
+
   public void example10(MongoClient mongoClient) {
 
     JsonObject query = new JsonObject().put("author", "J. R. R. Tolkien");
@@ -341,6 +459,25 @@ public class Examples {
 
   }
 
+  public void example11_4(MongoClient mongoClient) {
+
+    JsonObject query = new JsonObject().put("author", "J. R. R. Tolkien");
+
+    mongoClient.distinct("books", "publisher", query, res -> {
+
+      if (res.succeeded()) {
+
+        JsonArray publishers = res.result();
+
+      } else {
+
+        res.cause().printStackTrace();
+
+      }
+    });
+
+  }
+
   public void example12(MongoClient mongoClient) {
 
     JsonObject command = new JsonObject()
@@ -358,6 +495,47 @@ public class Examples {
 
   }
 
+  public void example12_1(MongoClient mongoClient) {
+
+    JsonArray pipeline = new JsonArray()
+      .add(new JsonObject().put("$group", new JsonObject()
+        .put("_id", "$author")
+        .put("count", new JsonObject().put("$sum", 1))));
+
+    mongoClient.aggregate("books", pipeline, new AggregateOptions(), res -> {
+
+      if (res.succeeded()) {
+
+        for (JsonObject json : res.result()) {
+
+          System.out.println(json.getString("_id") + " wrote " + json.getInteger("count") + " books");
+
+        }
+
+      } else {
+
+        res.cause().printStackTrace();
+
+      }
+
+    });
+
+  }
+
+  public void example12_2(MongoClient mongoClient) {
+
+    JsonArray pipeline = new JsonArray()
+      .add(new JsonObject().put("$sort", new JsonObject().put("publicationDate", 1)));
+
+    AggregateOptions options = new AggregateOptions().setAllowDiskUse(true).setBatchSize(100);
+
+    mongoClient.aggregateStream("books", pipeline, options)
+      .exceptionHandler(Throwable::printStackTrace)
+      .endHandler(v -> System.out.println("Done"))
+      .handler(json -> System.out.println(json.encodePrettily()));
+
+  }
+
   public void example13_0(MongoClient mongoService) {
 
     JsonObject document = new JsonObject().put("title", "The Hobbit")
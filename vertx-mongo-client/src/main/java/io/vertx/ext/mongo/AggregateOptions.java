@@ -0,0 +1,163 @@
+package io.vertx.ext.mongo;
+
+import io.vertx.codegen.annotations.DataObject;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Options used to configure aggregate operations.
+ */
+@DataObject
+public class AggregateOptions {
+
+  /**
+   * The default value of allowDiskUse = false
+   */
+  public static final boolean DEFAULT_ALLOW_DISK_USE = false;
+
+  /**
+   * The default value of batchSize = 0, signifying the server default
+   */
+  public static final int DEFAULT_BATCH_SIZE = 0;
+
+  /**
+   * The default value of maxTimeMS = 0, signifying no time limit
+   */
+  public static final long DEFAULT_MAX_TIME_MS = 0;
+
+  private boolean allowDiskUse;
+  private int batchSize;
+  private long maxTimeMS;
+
+  /**
+   * Default constructor
+   */
+  public AggregateOptions() {
+    this.allowDiskUse = DEFAULT_ALLOW_DISK_USE;
+    this.batchSize = DEFAULT_BATCH_SIZE;
+    this.maxTimeMS = DEFAULT_MAX_TIME_MS;
+  }
+
+  /**
+   * Copy constructor
+   *
+   * @param other  the one to copy
+   */
+  public AggregateOptions(AggregateOptions other) {
+    this.allowDiskUse = other.allowDiskUse;
+    this.batchSize = other.batchSize;
+    this.maxTimeMS = other.maxTimeMS;
+  }
+
+  /**
+   * Constructor from JSON
+   *
+   * @param json  the JSON
+   */
+  public AggregateOptions(JsonObject json) {
+    this.allowDiskUse = json.getBoolean("allowDiskUse", DEFAULT_ALLOW_DISK_USE);
+    this.batchSize = json.getInteger("batchSize", DEFAULT_BATCH_SIZE);
+    this.maxTimeMS = json.getLong("maxTimeMS", DEFAULT_MAX_TIME_MS);
+  }
+
+  /**
+   * Convert to JSON
+   *
+   * @return  the JSON
+   */
+  public JsonObject toJson() {
+    JsonObject json = new JsonObject();
+    if (allowDiskUse) {
+      json.put("allowDiskUse", true);
+    }
+    if (batchSize != DEFAULT_BATCH_SIZE) {
+      json.put("batchSize", batchSize);
+    }
+    if (maxTimeMS != DEFAULT_MAX_TIME_MS) {
+      json.put("maxTimeMS", maxTimeMS);
+    }
+
+    return json;
+  }
+
+  /**
+   * Get whether the pipeline stages may write to temporary files on the server
+   *
+   * @return allowDiskUse is enabled?
+   */
+  public boolean isAllowDiskUse() {
+    return allowDiskUse;
+  }
+
+  /**
+   * Set whether the pipeline stages may write to temporary files on the server
+   *
+   * @param allowDiskUse  true if enabled
+   * @return reference to this, for fluency
+   */
+  public AggregateOptions setAllowDiskUse(boolean allowDiskUse) {
+    this.allowDiskUse = allowDiskUse;
+    return this;
+  }
+
+  /**
+   * Get the batch size - this determines the number of documents fetched from the server at once
+   *
+   * @return  the batch size
+   */
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  /**
+   * Set the batch size
+   *
+   * @param batchSize  the batch size
+   * @return reference to this, for fluency
+   */
+  public AggregateOptions setBatchSize(int batchSize) {
+    this.batchSize = batchSize;
+    return this;
+  }
+
+  /**
+   * Get the maximum execution time on the server for the aggregation, in milliseconds
+   *
+   * @return  the max time
+   */
+  public long getMaxTimeMS() {
+    return maxTimeMS;
+  }
+
+  /**
+   * Set the maximum execution time on the server for the aggregation, in milliseconds
+   *
+   * @param maxTimeMS  the max time
+   * @return reference to this, for fluency
+   */
+  public AggregateOptions setMaxTimeMS(long maxTimeMS) {
+    this.maxTimeMS = maxTimeMS;
+    return this;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+
+    AggregateOptions options = (AggregateOptions) o;
+
+    if (allowDiskUse != options.allowDiskUse) return false;
+    if (batchSize != options.batchSize) return false;
+    if (maxTimeMS != options.maxTimeMS) return false;
+
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    int result = allowDiskUse ? 1 : 0;
+    result = 31 * result + batchSize;
+    result = 31 * result + (int) (maxTimeMS ^ (maxTimeMS >>> 32));
+    return result;
+  }
+}
@@ -21,10 +21,16 @@ public class FindOptions {
    */
   public static final int DEFAULT_SKIP = 0;
 
+  /**
+   * The default value of maxTimeMS = 0, signifying no time limit
+   */
+  public static final long DEFAULT_MAX_TIME_MS = 0;
+
   private JsonObject fields;
   private JsonObject sort;
   private int limit;
   private int skip;
+  private long maxTimeMS;
 
   /**
    * Default constructor
@@ -32,6 +38,7 @@ public class FindOptions {
   public FindOptions() {
     this.limit = DEFAULT_LIMIT;
     this.skip = DEFAULT_SKIP;
+    this.maxTimeMS = DEFAULT_MAX_TIME_MS;
   }
 
   /**
@@ -44,6 +51,7 @@ public class FindOptions {
     this.sort = other.sort;
     this.limit = other.limit;
     this.skip = other.skip;
+    this.maxTimeMS = other.maxTimeMS;
   }
 
   /**
@@ -56,6 +64,7 @@ public class FindOptions {
     this.sort = json.getJsonObject("sort");
     this.limit = json.getInteger("limit", DEFAULT_LIMIT);
     this.skip = json.getInteger("skip", DEFAULT_SKIP);
+    this.maxTimeMS = json.getLong("maxTimeMS", DEFAULT_MAX_TIME_MS);
   }
 
   /**
@@ -77,6 +86,9 @@ public class FindOptions {
     if (skip != DEFAULT_SKIP) {
       json.put("skip", skip);
     }
+    if (maxTimeMS != DEFAULT_MAX_TIME_MS) {
+      json.put("maxTimeMS", maxTimeMS);
+    }
 
     return json;
   }
@@ -160,6 +172,26 @@ public class FindOptions {
     return this;
   }
 
+  /**
+   * Get the maximum execution time on the server for the query, in milliseconds
+   *
+   * @return  the max time
+   */
+  public long getMaxTimeMS() {
+    return maxTimeMS;
+  }
+
+  /**
+   * Set the maximum execution time on the server for the query, in milliseconds
+   *
+   * @param maxTimeMS  the max time
+   * @return reference to this, for fluency
+   */
+  public FindOptions setMaxTimeMS(long maxTimeMS) {
+    this.maxTimeMS = maxTimeMS;
+    return this;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) return true;
@@ -169,6 +201,7 @@ public class FindOptions {
 
     if (limit != options.limit) return false;
     if (skip != options.skip) return false;
+    if (maxTimeMS != options.maxTimeMS) return false;
     if (fields != null ? !fields.equals(options.fields) : options.fields != null) return false;
     if (sort != null ? !sort.equals(options.sort) : options.sort != null) return false;
 
@@ -181,6 +214,7 @@ public class FindOptions {
     result = 31 * result + (sort != null ? sort.hashCode() : 0);
     result = 31 * result + limit;
     result = 31 * result + skip;
+    result = 31 * result + (int) (maxTimeMS ^ (maxTimeMS >>> 32));
     return result;
   }
 }
@@ -1,12 +1,16 @@
 package io.vertx.ext.mongo;
 
 import io.vertx.codegen.annotations.Fluent;
+import io.vertx.codegen.annotations.GenIgnore;
 import io.vertx.codegen.annotations.VertxGen;
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
+import io.vertx.core.streams.ReadStream;
 import io.vertx.ext.mongo.impl.MongoClientImpl;
+import io.vertx.ext.mongo.impl.RoutingMongoClient;
 
 import java.util.List;
 import java.util.UUID;
@@ -29,6 +33,11 @@ public interface MongoClient {
    */
   static final String DEFAULT_DB_NAME = "DEFAULT_DB";
 
+  /**
+   * The default time given to the operations in flight on the previous driver client after a configuration update
+   */
+  static final long DEFAULT_DRAIN_TIMEOUT_MS = 30000;
+
   /**
    * Create a Mongo client which maintains its own data source.
    *
@@ -53,6 +62,24 @@ public interface MongoClient {
     return new MongoClientImpl(vertx, config, dataSourceName);
   }
 
+  /**
+   * Like {@link #createShared(io.vertx.core.Vertx, JsonObject, String)} but the data source is warmed up: when it is
+   * created, {@code minPoolSize} connections are opened, at least one, and the server is pinged.
+   * <p>
+   * The {@code readyHandler} is called when the data source is usable, or with the failure that prevented it. Clients
+   * sharing a data source that is already warm are ready straight away. When the data source is configured with
+   * {@code lazy}, nothing is opened and the client is ready straight away.
+   *
+   * @param vertx  the Vert.x instance
+   * @param config  the configuration
+   * @param dataSourceName  the data source name
+   * @param readyHandler  called when the client is ready to be used
+   * @return the client
+   */
+  static MongoClient createShared(Vertx vertx, JsonObject config, String dataSourceName, Handler<AsyncResult<Void>> readyHandler) {
+    return new MongoClientImpl(vertx, config, dataSourceName, readyHandler);
+  }
+
   /**
    * Like {@link #createShared(io.vertx.core.Vertx, JsonObject, String)} but with the default data source name
    * @param vertx  the Vert.x instance
@@ -64,6 +91,21 @@ public interface MongoClient {
   }
 
 
+  /**
+   * Create a Mongo client routing the operations over several clusters by the shard key of the documents.
+   * <p>
+   * The configuration has the {@code clusters}, each one with a {@code name}, the {@code config} of its data source
+   * and optionally its {@code dataSourceName}, which defaults to its name. The {@code shardKey} is the field placing
+   * the documents, with the {@code hash} or {@code range} {@code placement}.
+   *
+   * @param vertx  the Vert.x instance
+   * @param config  the routing configuration
+   * @return the client
+   */
+  static MongoClient createRouting(Vertx vertx, JsonObject config) {
+    return new RoutingMongoClient(vertx, config);
+  }
+
   /**
    * Save a document in the specified collection
    *
@@ -173,6 +215,46 @@ public interface MongoClient {
   @Fluent
   MongoClient findWithOptions(String collection, JsonObject query, FindOptions options, Handler<AsyncResult<List<JsonObject>>> resultHandler);
 
+  /**
+   * Like {@link #findWithOptions(String, JsonObject, FindOptions, Handler)} but streams the matching documents.
+   * <p>
+   * Documents are fetched from the server batch by batch as the stream is consumed, so a paused stream holds at most
+   * one batch in memory whatever the size of the result.
+   *
+   * @param collection  the collection
+   * @param query  query used to match documents
+   * @param options options to configure the find
+   * @return a stream of documents, the query starts when a handler is set
+   */
+  ReadStream<JsonObject> findStream(String collection, JsonObject query, FindOptions options);
+
+  /**
+   * Tail a capped collection, streaming the matching documents as they are inserted.
+   * <p>
+   * The stream is backed by a tailable cursor and never ends. If the cursor dies, e.g. the collection was empty or
+   * the connection was lost, a new one is opened transparently, resuming after the {@code _id} of the last document
+   * received. Resuming therefore requires documents to be inserted with increasing ids, as generated ids are.
+   *
+   * @param collection  the capped collection
+   * @param query  query used to match documents
+   * @param options  options to configure the cursor
+   * @return a stream of documents, tailing starts when a handler is set and stops when the handler is unset
+   */
+  ReadStream<JsonObject> tail(String collection, JsonObject query, TailOptions options);
+
+  /**
+   * Stream the entries of the replica set oplog, {@code local.oplog.rs}, as they are written.
+   * <p>
+   * The stream is backed by a tailable cursor and never ends. If the cursor dies, a new one is opened transparently,
+   * resuming after the {@code ts} of the last entry received. Storing the {@code ts} of the last entry processed and
+   * passing it as {@link OplogOptions#setTimestamp(JsonObject)} allows a consumer to resume after a restart.
+   * Only available when connected to a replica set member.
+   *
+   * @param options  options to filter the entries and configure the cursor
+   * @return a stream of oplog entries, tailing starts when a handler is set and stops when the handler is unset
+   */
+  ReadStream<JsonObject> oplog(OplogOptions options);
+
   /**
    * Find a single matching document in the specified collection
    *
@@ -262,6 +344,54 @@ public interface MongoClient {
   @Fluent
   MongoClient dropCollection(String collection, Handler<AsyncResult<Void>> resultHandler);
 
+  /**
+   * Get the distinct values of a field across the matching documents of the specified collection
+   *
+   * @param collection  the collection
+   * @param fieldName  the field name
+   * @param query  query used to match documents
+   * @param resultHandler  will be provided with the distinct values
+   */
+  @Fluent
+  MongoClient distinct(String collection, String fieldName, JsonObject query, Handler<AsyncResult<JsonArray>> resultHandler);
+
+  /**
+   * Like {@link #distinct(String, String, JsonObject, Handler)} but streams the distinct values.
+   * <p>
+   * Each value is delivered as decoded, i.e. a string, number, boolean, {@link JsonObject} or {@link JsonArray}.
+   *
+   * @param collection  the collection
+   * @param fieldName  the field name
+   * @param query  query used to match documents
+   * @return a stream of distinct values, the operation starts when a handler is set
+   */
+  @GenIgnore
+  ReadStream<Object> distinctStream(String collection, String fieldName, JsonObject query);
+
+  /**
+   * Run an aggregation pipeline against the specified collection
+   *
+   * @param collection  the collection
+   * @param pipeline  the pipeline stages, each one a json object
+   * @param options  options to configure the aggregation
+   * @param resultHandler  will be provided with list of result documents
+   */
+  @Fluent
+  MongoClient aggregate(String collection, JsonArray pipeline, AggregateOptions options, Handler<AsyncResult<List<JsonObject>>> resultHandler);
+
+  /**
+   * Run an aggregation pipeline against the specified collection, streaming the result documents.
+   * <p>
+   * Results are fetched from the server batch by batch as the stream is consumed, so the result set is not
+   * limited by the maximum document size and is never held in memory as a whole.
+   *
+   * @param collection  the collection
+   * @param pipeline  the pipeline stages, each one a json object
+   * @param options  options to configure the aggregation
+   * @return a stream of result documents, the aggregation starts when a handler is set
+   */
+  ReadStream<JsonObject> aggregateStream(String collection, JsonArray pipeline, AggregateOptions options);
+
   /**
    * Run an arbitrary MongoDB command.
    *
@@ -272,6 +402,62 @@ public interface MongoClient {
   @Fluent
   MongoClient runCommand(String commandName, JsonObject command, Handler<AsyncResult<JsonObject>> resultHandler);
 
+  /**
+   * Get a view of the client operating on another database of the same deployment.
+   * <p>
+   * The view shares the driver client and the connection pool of this client, so any number of databases, e.g. one
+   * per tenant, can be used with a single pool. The views of up to 1024 databases are cached, calling this method
+   * again with the same name returns the same view. A view can be used as long as this client is open, closing a view
+   * does nothing.
+   *
+   * @param name  the database name
+   * @return the view of the database
+   */
+  MongoClient database(String name);
+
+  /**
+   * Get a view of the client running its operations on one of the named {@code pools} of the data source.
+   * <p>
+   * Each named pool has its own connections, so long running work, e.g. reports or migrations, can be kept away from
+   * the connections serving interactive requests. The view uses the same database as this client and is cached like
+   * the views of {@link #database(String)}, closing it does nothing.
+   *
+   * @param name  the pool name, as configured in {@code pools}
+   * @return the view of the pool
+   * @throws IllegalArgumentException if no pool has this name
+   */
+  MongoClient pool(String name);
+
+  /**
+   * Update the configuration of the data source without closing it, e.g. to change the pool size, the socket timeouts
+   * or the read preference.
+   * <p>
+   * The changes are merged into the configuration of the data source. New driver clients are created from it and
+   * warmed up, then new operations, including the ones of the other clients of the data source, switch to them. The
+   * previous driver clients are closed once their operations in flight completed and their streams are closed, or after
+   * {@code drainTimeoutMS}.
+   * The handler fails, and the data source keeps its configuration, when the configuration is invalid or the new
+   * clients cannot reach the server.
+   *
+   * @param config  the configuration changes
+   * @param resultHandler  will be called when new operations use the new configuration
+   */
+  @Fluent
+  MongoClient updateConfig(JsonObject config, Handler<AsyncResult<Void>> resultHandler);
+
+  /**
+   * Get the metrics of the connection pools of the data source, one entry per partition in {@code partitions}.
+   * <p>
+   * Each entry has the configured {@code minPoolSize} and {@code maxPoolSize}, the operations {@code inFlight} and the
+   * {@code limit} of operations in flight. With an adaptive pool it also has the operations {@code queued} for the
+   * limit, the average {@code latencyMS}, {@code baselineLatencyMS} and {@code waitMS} of the last interval, and the
+   * number of {@code increases} and {@code decreases} of the limit. The entries of the named pools have the {@code pool}
+   * name.
+   *
+   * @return the metrics
+   */
+  JsonObject poolMetrics();
+
   /**
    * Close the client and release its resources
    */
@@ -0,0 +1,216 @@
+package io.vertx.ext.mongo;
+
+import io.vertx.codegen.annotations.DataObject;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Options used to configure oplog streams.
+ */
+@DataObject
+public class OplogOptions {
+
+  /**
+   * The default value of batchSize = 0, signifying the server default
+   */
+  public static final int DEFAULT_BATCH_SIZE = 0;
+
+  /**
+   * The default value of reconnectDelayMS = 1000
+   */
+  public static final long DEFAULT_RECONNECT_DELAY_MS = 1000;
+
+  private JsonArray namespaces;
+  private JsonArray operations;
+  private JsonObject timestamp;
+  private int batchSize;
+  private long reconnectDelayMS;
+
+  /**
+   * Default constructor
+   */
+  public OplogOptions() {
+    this.batchSize = DEFAULT_BATCH_SIZE;
+    this.reconnectDelayMS = DEFAULT_RECONNECT_DELAY_MS;
+  }
+
+  /**
+   * Copy constructor
+   *
+   * @param other  the one to copy
+   */
+  public OplogOptions(OplogOptions other) {
+    this.namespaces = other.namespaces;
+    this.operations = other.operations;
+    this.timestamp = other.timestamp;
+    this.batchSize = other.batchSize;
+    this.reconnectDelayMS = other.reconnectDelayMS;
+  }
+
+  /**
+   * Constructor from JSON
+   *
+   * @param json  the JSON
+   */
+  public OplogOptions(JsonObject json) {
+    this.namespaces = json.getJsonArray("namespaces");
+    this.operations = json.getJsonArray("operations");
+    this.timestamp = json.getJsonObject("timestamp");
+    this.batchSize = json.getInteger("batchSize", DEFAULT_BATCH_SIZE);
+    this.reconnectDelayMS = json.getLong("reconnectDelayMS", DEFAULT_RECONNECT_DELAY_MS);
+  }
+
+  /**
+   * Convert to JSON
+   *
+   * @return  the JSON
+   */
+  public JsonObject toJson() {
+    JsonObject json = new JsonObject();
+    if (namespaces != null) {
+      json.put("namespaces", namespaces);
+    }
+    if (operations != null) {
+      json.put("operations", operations);
+    }
+    if (timestamp != null) {
+      json.put("timestamp", timestamp);
+    }
+    if (batchSize != DEFAULT_BATCH_SIZE) {
+      json.put("batchSize", batchSize);
+    }
+    if (reconnectDelayMS != DEFAULT_RECONNECT_DELAY_MS) {
+      json.put("reconnectDelayMS", reconnectDelayMS);
+    }
+
+    return json;
+  }
+
+  /**
+   * Get the namespaces, i.e. {@code database.collection} names, of the entries to stream
+   *
+   * @return the namespaces, {@code null} means all namespaces
+   */
+  public JsonArray getNamespaces() {
+    return namespaces;
+  }
+
+  /**
+   * Set the namespaces, i.e. {@code database.collection} names, of the entries to stream
+   *
+   * @param namespaces  the namespaces
+   * @return reference to this, for fluency
+   */
+  public OplogOptions setNamespaces(JsonArray namespaces) {
+    this.namespaces = namespaces;
+    return this;
+  }
+
+  /**
+   * Get the operation types of the entries to stream, e.g. {@code i} for inserts, {@code u} for updates and
+   * {@code d} for deletes
+   *
+   * @return the operation types, {@code null} means all types
+   */
+  public JsonArray getOperations() {
+    return operations;
+  }
+
+  /**
+   * Set the operation types of the entries to stream
+   *
+   * @param operations  the operation types
+   * @return reference to this, for fluency
+   */
+  public OplogOptions setOperations(JsonArray operations) {
+    this.operations = operations;
+    return this;
+  }
+
+  /**
+   * Get the timestamp to start after. This is the {@code ts} field of an oplog entry, in the
+   * {@code {"$timestamp": {"t": ..., "i": ...}}} form.
+   *
+   * @return the timestamp, {@code null} means the stream starts after the latest entry
+   */
+  public JsonObject getTimestamp() {
+    return timestamp;
+  }
+
+  /**
+   * Set the timestamp to start after, usually the {@code ts} field of the last entry processed
+   *
+   * @param timestamp  the timestamp
+   * @return reference to this, for fluency
+   */
+  public OplogOptions setTimestamp(JsonObject timestamp) {
+    this.timestamp = timestamp;
+    return this;
+  }
+
+  /**
+   * Get the batch size - this determines the number of entries fetched from the server at once
+   *
+   * @return  the batch size
+   */
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  /**
+   * Set the batch size
+   *
+   * @param batchSize  the batch size
+   * @return reference to this, for fluency
+   */
+  public OplogOptions setBatchSize(int batchSize) {
+    this.batchSize = batchSize;
+    return this;
+  }
+
+  /**
+   * Get the delay before a new cursor is opened after the previous one died, in milliseconds
+   *
+   * @return  the reconnect delay
+   */
+  public long getReconnectDelayMS() {
+    return reconnectDelayMS;
+  }
+
+  /**
+   * Set the delay before a new cursor is opened after the previous one died, in milliseconds
+   *
+   * @param reconnectDelayMS  the reconnect delay
+   * @return reference to this, for fluency
+   */
+  public OplogOptions setReconnectDelayMS(long reconnectDelayMS) {
+    this.reconnectDelayMS = reconnectDelayMS;
+    return this;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+
+    OplogOptions options = (OplogOptions) o;
+
+    if (batchSize != options.batchSize) return false;
+    if (reconnectDelayMS != options.reconnectDelayMS) return false;
+    if (namespaces != null ? !namespaces.equals(options.namespaces) : options.namespaces != null) return false;
+    if (operations != null ? !operations.equals(options.operations) : options.operations != null) return false;
+    if (timestamp != null ? !timestamp.equals(options.timestamp) : options.timestamp != null) return false;
+
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    int result = namespaces != null ? namespaces.hashCode() : 0;
+    result = 31 * result + (operations != null ? operations.hashCode() : 0);
+    result = 31 * result + (timestamp != null ? timestamp.hashCode() : 0);
+    result = 31 * result + batchSize;
+    result = 31 * result + (int) (reconnectDelayMS ^ (reconnectDelayMS >>> 32));
+    return result;
+  }
+}
@@ -0,0 +1,192 @@
+package io.vertx.ext.mongo;
+
+import io.vertx.codegen.annotations.DataObject;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Options used to configure tailable cursors on capped collections.
+ */
+@DataObject
+public class TailOptions {
+
+  /**
+   * The default value of awaitData = true, the server blocks for a while waiting for new documents
+   */
+  public static final boolean DEFAULT_AWAIT_DATA = true;
+
+  /**
+   * The default value of batchSize = 0, signifying the server default
+   */
+  public static final int DEFAULT_BATCH_SIZE = 0;
+
+  /**
+   * The default value of reconnectDelayMS = 1000
+   */
+  public static final long DEFAULT_RECONNECT_DELAY_MS = 1000;
+
+  private JsonObject fields;
+  private boolean awaitData;
+  private int batchSize;
+  private long reconnectDelayMS;
+
+  /**
+   * Default constructor
+   */
+  public TailOptions() {
+    this.awaitData = DEFAULT_AWAIT_DATA;
+    this.batchSize = DEFAULT_BATCH_SIZE;
+    this.reconnectDelayMS = DEFAULT_RECONNECT_DELAY_MS;
+  }
+
+  /**
+   * Copy constructor
+   *
+   * @param other  the one to copy
+   */
+  public TailOptions(TailOptions other) {
+    this.fields = other.fields;
+    this.awaitData = other.awaitData;
+    this.batchSize = other.batchSize;
+    this.reconnectDelayMS = other.reconnectDelayMS;
+  }
+
+  /**
+   * Constructor from JSON
+   *
+   * @param json  the JSON
+   */
+  public TailOptions(JsonObject json) {
+    this.fields = json.getJsonObject("fields");
+    this.awaitData = json.getBoolean("awaitData", DEFAULT_AWAIT_DATA);
+    this.batchSize = json.getInteger("batchSize", DEFAULT_BATCH_SIZE);
+    this.reconnectDelayMS = json.getLong("reconnectDelayMS", DEFAULT_RECONNECT_DELAY_MS);
+  }
+
+  /**
+   * Convert to JSON
+   *
+   * @return  the JSON
+   */
+  public JsonObject toJson() {
+    JsonObject json = new JsonObject();
+    if (fields != null) {
+      json.put("fields", fields);
+    }
+    if (awaitData != DEFAULT_AWAIT_DATA) {
+      json.put("awaitData", awaitData);
+    }
+    if (batchSize != DEFAULT_BATCH_SIZE) {
+      json.put("batchSize", batchSize);
+    }
+    if (reconnectDelayMS != DEFAULT_RECONNECT_DELAY_MS) {
+      json.put("reconnectDelayMS", reconnectDelayMS);
+    }
+
+    return json;
+  }
+
+  /**
+   * Get the fields
+   *
+   * @return the fields
+   */
+  public JsonObject getFields() {
+    return fields;
+  }
+
+  /**
+   * Set the fields
+   *
+   * @param fields  the fields
+   * @return reference to this, for fluency
+   */
+  public TailOptions setFields(JsonObject fields) {
+    this.fields = fields;
+    return this;
+  }
+
+  /**
+   * Get whether the cursor is a {@code TailableAwait} cursor, i.e. the server waits for new documents before
+   * returning an empty batch
+   *
+   * @return awaitData is enabled?
+   */
+  public boolean isAwaitData() {
+    return awaitData;
+  }
+
+  /**
+   * Set whether the cursor is a {@code TailableAwait} cursor rather than a plain {@code Tailable} one
+   *
+   * @param awaitData  true if enabled
+   * @return reference to this, for fluency
+   */
+  public TailOptions setAwaitData(boolean awaitData) {
+    this.awaitData = awaitData;
+    return this;
+  }
+
+  /**
+   * Get the batch size - this determines the number of documents fetched from the server at once
+   *
+   * @return  the batch size
+   */
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  /**
+   * Set the batch size
+   *
+   * @param batchSize  the batch size
+   * @return reference to this, for fluency
+   */
+  public TailOptions setBatchSize(int batchSize) {
+    this.batchSize = batchSize;
+    return this;
+  }
+
+  /**
+   * Get the delay before a new cursor is opened after the previous one died, in milliseconds
+   *
+   * @return  the reconnect delay
+   */
+  public long getReconnectDelayMS() {
+    return reconnectDelayMS;
+  }
+
+  /**
+   * Set the delay before a new cursor is opened after the previous one died, in milliseconds
+   *
+   * @param reconnectDelayMS  the reconnect delay
+   * @return reference to this, for fluency
+   */
+  public TailOptions setReconnectDelayMS(long reconnectDelayMS) {
+    this.reconnectDelayMS = reconnectDelayMS;
+    return this;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+
+    TailOptions options = (TailOptions) o;
+
+    if (awaitData != options.awaitData) return false;
+    if (batchSize != options.batchSize) return false;
+    if (reconnectDelayMS != options.reconnectDelayMS) return false;
+    if (fields != null ? !fields.equals(options.fields) : options.fields != null) return false;
+
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    int result = fields != null ? fields.hashCode() : 0;
+    result = 31 * result + (awaitData ? 1 : 0);
+    result = 31 * result + batchSize;
+    result = 31 * result + (int) (reconnectDelayMS ^ (reconnectDelayMS >>> 32));
+    return result;
+  }
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mongo.impl;
+
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Limits the number of operations in flight on a connection pool, i.e. its effective size, between a minimum and a
+ * maximum.
+ * <p>
+ * The limit is adjusted at most once per interval, when an operation completes. It grows when operations had to wait
+ * for the limit while the server latency stayed close to its baseline, and shrinks when the latency grows beyond the
+ * tolerated ratio of the baseline, since more concurrency would only queue on the server, or when most of the allowed
+ * operations were not used. Connections that are not used anymore are closed by the pool after {@code maxIdleTimeMS}.
+ */
+class AdaptiveLimiter {
+
+  static final long DEFAULT_INTERVAL_MS = 1000;
+  static final double DEFAULT_LATENCY_TOLERANCE = 2.0;
+
+  private static final Logger log = LoggerFactory.getLogger(AdaptiveLimiter.class);
+
+  private final int min;
+  private final int max;
+  private final long intervalNanos;
+  private final double tolerance;
+  private final AtomicInteger inFlight;
+  private final LongSupplier clock;
+  private final Queue<Pending> queue = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger queued = new AtomicInteger();
+  private final AtomicInteger peakInFlight = new AtomicInteger();
+  private final LongAdder latencySum = new LongAdder();
+  private final LongAdder completions = new LongAdder();
+  private final LongAdder waitSum = new LongAdder();
+  private final LongAdder waits = new LongAdder();
+  private final AtomicLong nextAdjustment;
+  private final AtomicLong increases = new AtomicLong();
+  private final AtomicLong decreases = new AtomicLong();
+
+  private volatile int limit;
+  private volatile long latency;
+  private volatile long baseline;
+  private volatile long wait;
+
+  /**
+   * @param min  the minimum limit
+   * @param max  the maximum limit, also the initial one
+   * @param intervalMS  the minimum time between adjustments, in milliseconds
+   * @param tolerance  the ratio of the baseline latency above which the limit shrinks
+   * @param inFlight  the counter of operations in flight
+   * @param clock  the clock, in nanoseconds
+   */
+  AdaptiveLimiter(int min, int max, long intervalMS, double tolerance, AtomicInteger inFlight, LongSupplier clock) {
+    if (min < 1 || max < min) {
+      throw new IllegalArgumentException("Invalid adaptive pool bounds " + min + " - " + max);
+    }
+    if (intervalMS <= 0 || tolerance < 1) {
+      throw new IllegalArgumentException("Invalid adaptive pool interval " + intervalMS + " or latency tolerance " + tolerance);
+    }
+    this.min = min;
+    this.max = max;
+    this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMS);
+    this.tolerance = tolerance;
+    this.inFlight = inFlight;
+    this.clock = clock;
+    this.limit = max;
+    this.nextAdjustment = new AtomicLong(clock.getAsLong() + intervalNanos);
+  }
+
+  /**
+   * Start an operation now if the limit allows it, or when another operation completes.
+   *
+   * @param operation  starts the operation, it must call {@link #completed(long)} once done
+   */
+  void execute(Runnable operation) {
+    if (tryAcquire()) {
+      run(operation);
+    } else {
+      queue.add(new Pending(operation, clock.getAsLong()));
+      queued.incrementAndGet();
+      // An operation may have completed meanwhile
+      drain();
+    }
+  }
+
+  /**
+   * @return the time now, to pass to {@link #completed(long)}
+   */
+  long now() {
+    return clock.getAsLong();
+  }
+
+  /**
+   * Signal an operation completed.
+   *
+   * @param start  the time the operation started
+   */
+  void completed(long start) {
+    long now = clock.getAsLong();
+    latencySum.add(now - start);
+    completions.increment();
+    inFlight.decrementAndGet();
+    maybeAdjust(now);
+    drain();
+  }
+
+  int limit() {
+    return limit;
+  }
+
+  boolean isBusy() {
+    return inFlight.get() >= limit;
+  }
+
+  JsonObject metrics() {
+    return new JsonObject()
+        .put("limit", limit)
+        .put("queued", queued.get())
+        .put("latencyMS", toMillis(latency))
+        .put("baselineLatencyMS", toMillis(baseline))
+        .put("waitMS", toMillis(wait))
+        .put("increases", increases.get())
+        .put("decreases", decreases.get());
+  }
+
+  private boolean tryAcquire() {
+    while (true) {
+      int count = inFlight.get();
+      if (count >= limit) {
+        return false;
+      }
+      if (inFlight.compareAndSet(count, count + 1)) {
+        int peak = peakInFlight.get();
+        while (count + 1 > peak && !peakInFlight.compareAndSet(peak, count + 1)) {
+          peak = peakInFlight.get();
+        }
+        return true;
+      }
+    }
+  }
+
+  private void drain() {
+    while (queued.get() > 0 && tryAcquire()) {
+      Pending pending = queue.poll();
+      if (pending == null) {
+        inFlight.decrementAndGet();
+        return;
+      }
+      queued.decrementAndGet();
+      waitSum.add(clock.getAsLong() - pending.queued);
+      waits.increment();
+      try {
+        run(pending.operation);
+      } catch (RuntimeException e) {
+        // The caller is gone, there is nobody else to tell
+        log.error("Could not start a queued operation", e);
+      }
+    }
+  }
+
+  private void run(Runnable operation) {
+    try {
+      operation.run();
+    } catch (RuntimeException e) {
+      inFlight.decrementAndGet();
+      throw e;
+    }
+  }
+
+  private void maybeAdjust(long now) {
+    long next = nextAdjustment.get();
+    if (now < next || !nextAdjustment.compareAndSet(next, now + intervalNanos)) {
+      return;
+    }
+    long count = completions.sumThenReset();
+    long sum = latencySum.sumThenReset();
+    long waitCount = waits.sumThenReset();
+    long waitTotal = waitSum.sumThenReset();
+    int peak = peakInFlight.getAndSet(inFlight.get());
+    latency = count > 0 ? sum / count : 0;
+    wait = waitCount > 0 ? waitTotal / waitCount : 0;
+    if (latency > 0) {
+      // The baseline follows decreases at once and increases slowly, so that it approximates the unloaded latency
+      long current = baseline;
+      baseline = current == 0 || latency < current ? latency : current + (latency - current) / 20;
+    }
+
+    int current = limit;
+    int step = Math.max(1, current / 10);
+    int updated = current;
+    if (latency > baseline * tolerance) {
+      updated = Math.max(min, current - step);
+    } else if (waitCount > 0) {
+      updated = Math.min(max, current + step);
+    } else if (peak < current / 2) {
+      updated = Math.max(min, Math.max(peak, current - step));
+    }
+    if (updated != current) {
+      limit = updated;
+      (updated > current ? increases : decreases).incrementAndGet();
+      if (log.isDebugEnabled()) {
+        log.debug("Adaptive pool limit " + current + " -> " + updated + ", latency " + toMillis(latency) + "ms, baseline "
+            + toMillis(baseline) + "ms, wait " + toMillis(wait) + "ms, peak " + peak);
+      }
+    }
+  }
+
+  private static double toMillis(long nanos) {
+    return nanos / 1_000_000d;
+  }
+
+  private static class Pending {
+    final Runnable operation;
+    final long queued;
+
+    Pending(Runnable operation, long queued) {
+      this.operation = operation;
+      this.queued = queued;
+    }
+  }
+}
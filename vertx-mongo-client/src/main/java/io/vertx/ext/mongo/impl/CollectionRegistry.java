@@ -0,0 +1,134 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mongo.impl;
+
+import com.mongodb.ReadPreference;
+import com.mongodb.WriteConcern;
+import com.mongodb.async.client.MongoCollection;
+import com.mongodb.async.client.MongoDatabase;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.mongo.WriteOption;
+import io.vertx.ext.mongo.impl.config.CollectionSettingsParser;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A registry of the {@link MongoCollection} views of a database.
+ * <p>
+ * Views are immutable, so they are created once per collection and write option and then shared by all the
+ * operations, instead of being looked up and derived on every call. The number of cached collections is bounded,
+ * views of collections over the limit are created on demand.
+ */
+class CollectionRegistry {
+
+  static final int MAX_CACHED_COLLECTIONS = 1024;
+
+  private static final Map<WriteOption, WriteConcern> WRITE_CONCERNS = new EnumMap<>(WriteOption.class);
+
+  static {
+    for (WriteOption option : WriteOption.values()) {
+      WRITE_CONCERNS.put(option, WriteConcern.valueOf(option.name()));
+    }
+  }
+
+  private final MongoDatabase db;
+  private final CollectionSettingsParser settings;
+  private final ConcurrentMap<String, Views> views = new ConcurrentHashMap<>();
+
+  CollectionRegistry(MongoDatabase db, CollectionSettingsParser settings) {
+    this.db = db;
+    this.settings = settings;
+  }
+
+  MongoDatabase database() {
+    return db;
+  }
+
+  /**
+   * Get the view of a collection
+   *
+   * @param name  the collection name
+   * @param writeOption  the write option overriding the collection default, may be {@code null}
+   * @return the view
+   */
+  MongoCollection<JsonObject> get(String name, WriteOption writeOption) {
+    Views collectionViews = views.get(name);
+    if (collectionViews == null) {
+      collectionViews = new Views(create(name));
+      if (views.size() < MAX_CACHED_COLLECTIONS) {
+        Views previous = views.putIfAbsent(name, collectionViews);
+        if (previous != null) {
+          collectionViews = previous;
+        }
+      }
+    }
+    return collectionViews.get(writeOption);
+  }
+
+  /**
+   * Forget the views of a collection, e.g. when it is dropped
+   *
+   * @param name  the collection name
+   */
+  void remove(String name) {
+    views.remove(name);
+  }
+
+  int size() {
+    return views.size();
+  }
+
+  private MongoCollection<JsonObject> create(String name) {
+    MongoCollection<JsonObject> coll = db.getCollection(name, JsonObject.class);
+    WriteConcern writeConcern = settings.writeConcern(name);
+    if (writeConcern != null) {
+      coll = coll.withWriteConcern(writeConcern);
+    }
+    ReadPreference readPreference = settings.readPreference(name);
+    if (readPreference != null) {
+      coll = coll.withReadPreference(readPreference);
+    }
+    return coll;
+  }
+
+  private static class Views {
+    final MongoCollection<JsonObject> collection;
+    final AtomicReferenceArray<MongoCollection<JsonObject>> withWriteOption =
+        new AtomicReferenceArray<>(WriteOption.values().length);
+
+    Views(MongoCollection<JsonObject> collection) {
+      this.collection = collection;
+    }
+
+    MongoCollection<JsonObject> get(WriteOption writeOption) {
+      if (writeOption == null) {
+        return collection;
+      }
+      MongoCollection<JsonObject> coll = withWriteOption.get(writeOption.ordinal());
+      if (coll == null) {
+        // Racing threads create equivalent views, keeping either one is fine
+        coll = collection.withWriteConcern(WRITE_CONCERNS.get(writeOption));
+        withWriteOption.set(writeOption.ordinal(), coll);
+      }
+      return coll;
+    }
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.mongo.impl;
+
+import io.vertx.core.Handler;
+import io.vertx.core.streams.ReadStream;
+
+import java.util.List;
+
+/**
+ * A {@link ReadStream} merging the items of several streams, in the order they arrive.
+ * <p>
+ * The stream ends when all the streams ended. When one of them fails, the others are stopped and the failure is
+ * reported.
+ */
+class MergedReadStream<T> implements ReadStream<T> {
+
+  private final List<ReadStream<T>> streams;
+
+  private Handler<Throwable> exceptionHandler;
+  private Handler<Void> endHandler;
+  private int ended;
+  private boolean closed;
+
+  MergedReadStream(List<ReadStream<T>> streams) {
+    this.streams = streams;
+    for (ReadStream<T> stream : streams) {
+      stream.exceptionHandler(this::handleException);
+      stream.endHandler(v -> streamEnded());
+    }
+  }
+
+  @Override
+  public synchronized MergedReadStream<T> exceptionHandler(Handler<Throwable> handler) {
+    this.exceptionHandler = handler;
+    return this;
+  }
+
+  @Override
+  public synchronized MergedReadStream<T> handler(Handler<T> handler) {
+    if (handler == null) {
+      close();
+    } else if (!closed) {
+      for (ReadStream<T> stream : streams) {
+        stream.handler(item -> handleItem(handler, item));
+      }
+    }
+    return this;
+  }
+
+  @Override
+  public synchronized MergedReadStream<T> pause() {
+    for (ReadStream<T> stream : streams) {
+      stream.pause();
+    }
+    return this;
+  }
+
+  @Override
+  public synchronized MergedReadStream<T> resume() {
+    for (ReadStream<T> stream : streams) {
+      stream.resume();
+    }
+    return this;
+  }
+
+  @Override
+  public synchronized MergedReadStream<T> endHandler(Handler<Void> handler) {
+    this.endHandler = handler;
+    return this;
+  }
+
+  private void handleItem(Handler<T> handler, T item) {
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+    }
+    handler.handle(item);
+  }
+
+  private void streamEnded() {
+    Handler<Void> handler;
+    synchronized (this) {
+      if (closed || ++ended < streams.size()) {
+        return;
+      }
+      closed = true;
+      handler = endHandler;
+    }
+    if (handler != null) {
+      handler.handle(null);
+    }
+  }
+
+  private void handleException(Throwable t) {
+    Handler<Throwable> handler;
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      handler = exceptionHandler;
+      close();
+    }
+    if (handler != null) {
+      handler.handle(t);
+    }
+  }
+
+  private void close() {
+    if (!closed) {
+      closed = true;
+      for (ReadStream<T> stream : streams) {
+        stream.handler(null);
+      }
+    }
+  }
+}
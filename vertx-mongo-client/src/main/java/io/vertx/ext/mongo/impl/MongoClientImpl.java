@@ -16,30 +16,55 @@
 
 package io.vertx.ext.mongo.impl;
 
-import com.mongodb.WriteConcern;
+import com.mongodb.CursorType;
 import com.mongodb.async.SingleResultCallback;
+import com.mongodb.async.client.AggregateIterable;
+import com.mongodb.async.client.DistinctIterable;
 import com.mongodb.async.client.FindIterable;
+import com.mongodb.async.client.MongoClientSettings;
 import com.mongodb.async.client.MongoClients;
 import com.mongodb.async.client.MongoCollection;
-import com.mongodb.async.client.MongoDatabase;
+import com.mongodb.async.client.MongoIterable;
+import com.mongodb.connection.ConnectionPoolSettings;
+import io.netty.util.concurrent.EventExecutor;
 import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
+import io.vertx.core.impl.VertxInternal;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
 import io.vertx.core.shareddata.LocalMap;
 import io.vertx.core.shareddata.Shareable;
+import io.vertx.core.streams.ReadStream;
+import io.vertx.ext.mongo.AggregateOptions;
 import io.vertx.ext.mongo.FindOptions;
+import io.vertx.ext.mongo.OplogOptions;
+import io.vertx.ext.mongo.TailOptions;
 import io.vertx.ext.mongo.UpdateOptions;
 import io.vertx.ext.mongo.WriteOption;
+import io.vertx.ext.mongo.impl.config.CollectionSettingsParser;
 import io.vertx.ext.mongo.impl.config.MongoClientOptionsParser;
 import org.bson.conversions.Bson;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 import static java.util.Objects.requireNonNull;
@@ -54,25 +79,158 @@ public class MongoClientImpl implements io.vertx.ext.mongo.MongoClient {
   private static final UpdateOptions DEFAULT_UPDATE_OPTIONS = new UpdateOptions();
   private static final FindOptions DEFAULT_FIND_OPTIONS = new FindOptions();
   private static final String ID_FIELD = "_id";
+  private static final String LOCAL_DB = "local";
+  private static final String OPLOG_COLLECTION = "oplog.rs";
+  private static final String OPLOG_TS_FIELD = "ts";
 
+  private static final long DRAIN_CHECK_INTERVAL_MS = 100;
   private static final String DS_LOCAL_MAP_NAME = "__vertx.MongoClient.datasources";
 
+  // Creating a data source and closing the empty map take this lock, not the monitor of the Vert.x instance other libraries share
+  private static final Object DS_LOCK = new Object();
+
   private final Vertx vertx;
-  protected com.mongodb.async.client.MongoClient mongo;
   protected final MongoHolder holder;
+  private final String database;
+  private final String pool;
+  private final ConcurrentMap<String, MongoClientImpl> views;
+  private final boolean view;
+  private final AtomicBoolean closed = new AtomicBoolean();
 
   public MongoClientImpl(Vertx vertx, JsonObject config, String dataSourceName) {
+    this(vertx, config, dataSourceName, null);
+  }
+
+  public MongoClientImpl(Vertx vertx, JsonObject config, String dataSourceName, Handler<AsyncResult<Void>> readyHandler) {
     Objects.requireNonNull(vertx);
     Objects.requireNonNull(config);
     Objects.requireNonNull(dataSourceName);
     this.vertx = vertx;
     this.holder = lookupHolder(dataSourceName, config);
-    this.mongo = holder.mongo();
+    this.database = null;
+    this.pool = null;
+    this.views = new ConcurrentHashMap<>();
+    this.view = false;
+    // The first client of a data source decides, the configuration of the other ones is not used
+    boolean lazy = holder.config.getBoolean("lazy", false);
+    boolean warm = readyHandler != null || holder.config.getBoolean("warmUp", false);
+    if (!lazy) {
+      try {
+        if (warm) {
+          holder.partitions();
+        } else {
+          // The driver clients are created by the first operation, the configuration is checked right away
+          holder.validate();
+        }
+      } catch (RuntimeException e) {
+        // Invalid configuration, do not leak the reference
+        holder.close();
+        throw e;
+      }
+    }
+    if (warm) {
+      Context context = vertx.getOrCreateContext();
+      Handler<AsyncResult<Void>> handler = readyHandler != null ? readyHandler : ar -> {
+        if (ar.failed()) {
+          log.warn("Could not warm up the data source " + dataSourceName, ar.cause());
+        }
+      };
+      if (lazy) {
+        context.runOnContext(v -> handler.handle(Future.succeededFuture()));
+      } else {
+        warmUp(context, handler);
+      }
+    }
+  }
+
+  private MongoClientImpl(MongoClientImpl client, String database, String pool) {
+    this.vertx = client.vertx;
+    this.holder = client.holder;
+    this.database = database;
+    this.pool = pool;
+    this.views = client.views;
+    this.view = true;
+  }
+
+  private void warmUp(Context context, Handler<AsyncResult<Void>> readyHandler) {
+    if (holder.ready) {
+      context.runOnContext(v -> readyHandler.handle(Future.succeededFuture()));
+      return;
+    }
+    ping(holder.allPartitions(), ar -> {
+      if (ar.succeeded()) {
+        holder.ready = true;
+      }
+      context.runOnContext(v -> readyHandler.handle(ar));
+    });
+  }
+
+  /**
+   * Open at least {@code minPoolSize} connections in each partition, the handler is called on a driver thread
+   */
+  private static void ping(List<Partition> partitions, Handler<AsyncResult<Void>> handler) {
+    // Concurrent commands cannot share a connection, so each ping makes a pool open one more connection
+    int connections = 0;
+    for (Partition partition : partitions) {
+      connections += Math.max(1, partition.minPoolSize);
+    }
+    AtomicInteger pending = new AtomicInteger(connections);
+    AtomicBoolean failed = new AtomicBoolean();
+    Bson ping = wrap(new JsonObject().put("ping", 1));
+    for (Partition partition : partitions) {
+      for (int i = 0; i < Math.max(1, partition.minPoolSize); i++) {
+        partition.db.runCommand(ping, JsonObject.class, (result, error) -> {
+          if (error != null) {
+            if (failed.compareAndSet(false, true)) {
+              handler.handle(Future.failedFuture(error));
+            }
+          } else if (pending.decrementAndGet() == 0 && !failed.get()) {
+            handler.handle(Future.succeededFuture());
+          }
+        });
+      }
+    }
+  }
+
+  @Override
+  public io.vertx.ext.mongo.MongoClient database(String name) {
+    requireNonNull(name, "name cannot be null");
+    return view(name, pool);
+  }
+
+  @Override
+  public io.vertx.ext.mongo.MongoClient pool(String name) {
+    requireNonNull(name, "name cannot be null");
+    JsonObject pools = holder.config.getJsonObject("pools");
+    if (pools == null || !pools.containsKey(name)) {
+      throw new IllegalArgumentException("Unknown pool " + name);
+    }
+    return view(database, name);
+  }
+
+  private io.vertx.ext.mongo.MongoClient view(String database, String pool) {
+    // Database names cannot contain a slash
+    String key = pool + "/" + database;
+    MongoClientImpl client = views.get(key);
+    if (client == null) {
+      client = new MongoClientImpl(this, database, pool);
+      // Like the registries of the partitions, the cache is bounded, views over the limit are created on demand
+      if (views.size() < Partition.MAX_CACHED_DATABASES) {
+        MongoClientImpl previous = views.putIfAbsent(key, client);
+        if (previous != null) {
+          client = previous;
+        }
+      }
+    }
+    return client;
   }
 
   @Override
   public void close() {
-    holder.close();
+    // Views do not own a reference to the data source
+    if (!view && closed.compareAndSet(false, true)) {
+      holder.close();
+    }
   }
 
   @Override
@@ -87,12 +245,13 @@ public class MongoClientImpl implements io.vertx.ext.mongo.MongoClient {
     requireNonNull(document, "document cannot be null");
     requireNonNull(resultHandler, "resultHandler cannot be null");
 
-    MongoCollection<JsonObject> coll = getCollection(collection, writeOption);
+    Partition partition = holder.partition(pool);
+    MongoCollection<JsonObject> coll = partition.collection(database, collection, writeOption);
     Object id = document.getValue(ID_FIELD);
     if (id == null) {
-      coll.insertOne(document, convertCallback(resultHandler, wr -> document.getString(ID_FIELD)));
+      partition.execute(() -> coll.insertOne(document, convertCallback(partition, resultHandler, wr -> document.getString(ID_FIELD))));
     } else {
-      coll.replaceOne(wrap(new JsonObject().put(ID_FIELD, document.getValue(ID_FIELD))), document, convertCallback(resultHandler, result -> null));
+      partition.execute(() -> coll.replaceOne(wrap(new JsonObject().put(ID_FIELD, document.getValue(ID_FIELD))), document, convertCallback(partition, resultHandler, result -> null)));
     }
     return this;
   }
@@ -111,14 +270,15 @@ public class MongoClientImpl implements io.vertx.ext.mongo.MongoClient {
 
     boolean id = document.containsKey(ID_FIELD);
 
-    MongoCollection<JsonObject> coll = getCollection(collection, writeOption);
-    coll.insertOne(document, convertCallback(resultHandler, wr -> {
+    Partition partition = holder.partition(pool);
+    MongoCollection<JsonObject> coll = partition.collection(database, collection, writeOption);
+    partition.execute(() -> coll.insertOne(document, convertCallback(partition, resultHandler, wr -> {
       if (id) {
         return null;
       } else {
         return document.getString(ID_FIELD);
       }
-    }));
+    })));
     return this;
   }
 
@@ -136,13 +296,14 @@ public class MongoClientImpl implements io.vertx.ext.mongo.MongoClient {
     requireNonNull(options, "options cannot be null");
     requireNonNull(resultHandler, "resultHandler cannot be null");
 
-    MongoCollection<JsonObject> coll = getCollection(collection, options.getWriteOption());
+    Partition partition = holder.partition(pool);
+    MongoCollection<JsonObject> coll = partition.collection(database, collection, options.getWriteOption());
     Bson bquery = wrap(query);
     Bson bupdate = wrap(update);
     if (options.isMulti()) {
-      coll.updateMany(bquery, bupdate, mongoUpdateOptions(options), convertCallback(resultHandler, result -> null));
+      partition.execute(() -> coll.updateMany(bquery, bupdate, mongoUpdateOptions(options), convertCallback(partition, resultHandler, result -> null)));
     } else {
-      coll.updateOne(bquery, bupdate, mongoUpdateOptions(options), convertCallback(resultHandler, result -> null));
+      partition.execute(() -> coll.updateOne(bquery, bupdate, mongoUpdateOptions(options), convertCallback(partition, resultHandler, result -> null)));
     }
     return this;
   }
@@ -161,9 +322,10 @@ public class MongoClientImpl implements io.vertx.ext.mongo.MongoClient {
     requireNonNull(options, "options cannot be null");
     requireNonNull(resultHandler, "resultHandler cannot be null");
 
-    MongoCollection<JsonObject> coll = getCollection(collection, options.getWriteOption());
+    Partition partition = holder.partition(pool);
+    MongoCollection<JsonObject> coll = partition.collection(database, collection, options.getWriteOption());
     Bson bquery = wrap(query);
-    coll.replaceOne(bquery, replace, mongoUpdateOptions(options), convertCallback(resultHandler, result -> null));
+    partition.execute(() -> coll.replaceOne(bquery, replace, mongoUpdateOptions(options), convertCallback(partition, resultHandler, result -> null)));
     return this;
   }
 
@@ -179,12 +341,90 @@ public class MongoClientImpl implements io.vertx.ext.mongo.MongoClient {
     requireNonNull(query, "query cannot be null");
     requireNonNull(resultHandler, "resultHandler cannot be null");
 
-    FindIterable<JsonObject> view = doFind(collection, query, options);
+    Partition partition = holder.partition(pool);
+    FindIterable<JsonObject> view = doFind(partition, collection, query, options);
     List<JsonObject> results = new ArrayList<>();
-    view.into(results, wrapCallback(resultHandler));
+    partition.execute(() -> view.into(results, wrapCallback(partition, resultHandler)));
     return this;
   }
 
+  @Override
+  public ReadStream<JsonObject> findStream(String collection, JsonObject query, FindOptions options) {
+    requireNonNull(collection, "collection cannot be null");
+    requireNonNull(query, "query cannot be null");
+    requireNonNull(options, "options cannot be null");
+
+    return stream(vertx.getOrCreateContext(), partition -> doFind(partition, collection, query, options));
+  }
+
+  @Override
+  public ReadStream<JsonObject> tail(String collection, JsonObject query, TailOptions options) {
+    requireNonNull(collection, "collection cannot be null");
+    requireNonNull(query, "query cannot be null");
+    requireNonNull(options, "options cannot be null");
+
+    Context context = vertx.getOrCreateContext();
+    // Each cursor looks up the partition, so the stream moves to the new driver client after a configuration update
+    return new TailingStream(vertx, context, lastId -> stream(context, partition -> {
+      MongoCollection<JsonObject> coll = partition.collection(database, collection, null);
+      FindIterable<JsonObject> find = coll.find(wrap(TailingStream.resumeQuery(query, ID_FIELD, lastId)), JsonObject.class);
+      find.cursorType(options.isAwaitData() ? CursorType.TailableAwait : CursorType.Tailable);
+      if (options.getFields() != null) {
+        find.projection(wrap(options.getFields()));
+      }
+      if (options.getBatchSize() > 0) {
+        find.batchSize(options.getBatchSize());
+      }
+      return find;
+    }), ID_FIELD, options.getReconnectDelayMS(), null);
+  }
+
+  @Override
+  public ReadStream<JsonObject> oplog(OplogOptions options) {
+    requireNonNull(options, "options cannot be null");
+
+    JsonObject filter = new JsonObject();
+    if (options.getNamespaces() != null) {
+      filter.put("ns", new JsonObject().put("$in", options.getNamespaces()));
+    }
+    if (options.getOperations() != null) {
+      filter.put("op", new JsonObject().put("$in", options.getOperations()));
+    }
+    Handler<Handler<AsyncResult<Object>>> latest = null;
+    if (options.getTimestamp() == null) {
+      // Without a timestamp the stream starts after the latest entry rather than replaying the whole oplog
+      latest = handler -> {
+        Partition partition = holder.partition(pool);
+        partition.execute(() -> oplog(partition).find()
+            .sort(wrap(new JsonObject().put("$natural", -1)))
+            .projection(wrap(new JsonObject().put(OPLOG_TS_FIELD, 1)))
+            .first(convertCallback(partition, handler, entry -> entry == null ? null : entry.getValue(OPLOG_TS_FIELD))));
+      };
+    }
+    Context context = vertx.getOrCreateContext();
+    return new TailingStream(vertx, context, lastTs -> stream(context, partition -> {
+      JsonObject query = new JsonObject();
+      if (lastTs != null) {
+        // The ts condition must be a top level field for the server to skip straight to the entry
+        query.put(OPLOG_TS_FIELD, new JsonObject().put("$gt", lastTs));
+      }
+      query.mergeIn(filter);
+      FindIterable<JsonObject> find = oplog(partition).find(wrap(query), JsonObject.class);
+      find.cursorType(CursorType.TailableAwait);
+      if (lastTs != null) {
+        find.oplogReplay(true);
+      }
+      if (options.getBatchSize() > 0) {
+        find.batchSize(options.getBatchSize());
+      }
+      return find;
+    }), OPLOG_TS_FIELD, options.getReconnectDelayMS(), options.getTimestamp(), latest);
+  }
+
+  private static MongoCollection<JsonObject> oplog(Partition partition) {
+    return partition.mongo.getDatabase(LOCAL_DB).getCollection(OPLOG_COLLECTION, JsonObject.class);
+  }
+
   @Override
   public io.vertx.ext.mongo.MongoClient findOne(String collection, JsonObject query, JsonObject fields, Handler<AsyncResult<JsonObject>> resultHandler) {
     requireNonNull(collection, "collection cannot be null");
@@ -193,7 +433,8 @@ public class MongoClientImpl implements io.vertx.ext.mongo.MongoClient {
 
     Bson bquery = wrap(query);
     Bson bfields = wrap(fields);
-    getCollection(collection).find(bquery).projection(bfields).first(wrapCallback(resultHandler));
+    Partition partition = holder.partition(pool);
+    partition.execute(() -> partition.collection(database, collection, null).find(bquery).projection(bfields).first(wrapCallback(partition, resultHandler)));
     return this;
   }
 
@@ -204,8 +445,9 @@ public class MongoClientImpl implements io.vertx.ext.mongo.MongoClient {
     requireNonNull(resultHandler, "resultHandler cannot be null");
 
     Bson bquery = wrap(query);
-    MongoCollection<JsonObject> coll = getCollection(collection);
-    coll.count(bquery, wrapCallback(resultHandler));
+    Partition partition = holder.partition(pool);
+    MongoCollection<JsonObject> coll = partition.collection(database, collection, null);
+    partition.execute(() -> coll.count(bquery, wrapCallback(partition, resultHandler)));
     return this;
   }
 
@@ -221,9 +463,10 @@ public class MongoClientImpl implements io.vertx.ext.mongo.MongoClient {
     requireNonNull(query, "query cannot be null");
     requireNonNull(resultHandler, "resultHandler cannot be null");
 
-    MongoCollection<JsonObject> coll = getCollection(collection, writeOption);
+    Partition partition = holder.partition(pool);
+    MongoCollection<JsonObject> coll = partition.collection(database, collection, writeOption);
     Bson bquery = wrap(query);
-    coll.deleteMany(bquery, convertCallback(resultHandler, result -> null));
+    partition.execute(() -> coll.deleteMany(bquery, convertCallback(partition, resultHandler, result -> null)));
     return this;
   }
 
@@ -239,9 +482,10 @@ public class MongoClientImpl implements io.vertx.ext.mongo.MongoClient {
     requireNonNull(query, "query cannot be null");
     requireNonNull(resultHandler, "resultHandler cannot be null");
 
-    MongoCollection<JsonObject> coll = getCollection(collection, writeOption);
+    Partition partition = holder.partition(pool);
+    MongoCollection<JsonObject> coll = partition.collection(database, collection, writeOption);
     Bson bquery = wrap(query);
-    coll.deleteOne(bquery, convertCallback(resultHandler, result -> null));
+    partition.execute(() -> coll.deleteOne(bquery, convertCallback(partition, resultHandler, result -> null)));
     return this;
   }
 
@@ -250,7 +494,8 @@ public class MongoClientImpl implements io.vertx.ext.mongo.MongoClient {
     requireNonNull(collection, "collection cannot be null");
     requireNonNull(resultHandler, "resultHandler cannot be null");
 
-    holder.db.createCollection(collection, wrapCallback(resultHandler));
+    Partition partition = holder.partition(pool);
+    partition.execute(() -> partition.db(database).createCollection(collection, wrapCallback(partition, resultHandler)));
     return this;
   }
 
@@ -258,7 +503,8 @@ public class MongoClientImpl implements io.vertx.ext.mongo.MongoClient {
   public io.vertx.ext.mongo.MongoClient getCollections(Handler<AsyncResult<List<String>>> resultHandler) {
     requireNonNull(resultHandler, "resultHandler cannot be null");
     List<String> names = new ArrayList<>();
-    holder.db.listCollectionNames().into(names, (res, error) -> {
+    Partition partition = holder.partition(pool);
+    partition.execute(() -> partition.db(database).listCollectionNames().into(names, partition.track((res, error) -> {
       vertx.runOnContext(v -> {
         if (error != null) {
           resultHandler.handle(Future.failedFuture(error));
@@ -266,7 +512,7 @@ public class MongoClientImpl implements io.vertx.ext.mongo.MongoClient {
           resultHandler.handle(Future.succeededFuture(names));
         }
       });
-    });
+    })));
     return this;
   }
 
@@ -275,11 +521,50 @@ public class MongoClientImpl implements io.vertx.ext.mongo.MongoClient {
     requireNonNull(collection, "collection cannot be null");
     requireNonNull(resultHandler, "resultHandler cannot be null");
 
-    MongoCollection<JsonObject> coll = getCollection(collection);
-    coll.drop(wrapCallback(resultHandler));
+    Partition partition = holder.partition(pool);
+    MongoCollection<JsonObject> coll = partition.collection(database, collection, null);
+    partition.execute(() -> coll.drop(wrapCallback(partition, resultHandler)));
+    holder.forgetCollection(database, collection);
+    return this;
+  }
+
+  @Override
+  public io.vertx.ext.mongo.MongoClient distinct(String collection, String fieldName, JsonObject query, Handler<AsyncResult<JsonArray>> resultHandler) {
+    requireDistinct(collection, fieldName, query);
+    requireNonNull(resultHandler, "resultHandler cannot be null");
+
+    Partition partition = holder.partition(pool);
+    DistinctIterable<Object> view = doDistinct(partition, collection, fieldName, query);
+    List<Object> results = new ArrayList<>();
+    partition.execute(() -> view.into(results, convertCallback(partition, resultHandler, list -> new JsonArray(list))));
+    return this;
+  }
+
+  @Override
+  public ReadStream<Object> distinctStream(String collection, String fieldName, JsonObject query) {
+    requireDistinct(collection, fieldName, query);
+
+    return stream(vertx.getOrCreateContext(), partition -> doDistinct(partition, collection, fieldName, query));
+  }
+
+  @Override
+  public io.vertx.ext.mongo.MongoClient aggregate(String collection, JsonArray pipeline, AggregateOptions options, Handler<AsyncResult<List<JsonObject>>> resultHandler) {
+    requireNonNull(resultHandler, "resultHandler cannot be null");
+
+    List<Bson> stages = stages(collection, pipeline, options);
+    Partition partition = holder.partition(pool);
+    AggregateIterable<JsonObject> view = doAggregate(partition, collection, stages, options);
+    List<JsonObject> results = new ArrayList<>();
+    partition.execute(() -> view.into(results, wrapCallback(partition, resultHandler)));
     return this;
   }
 
+  @Override
+  public ReadStream<JsonObject> aggregateStream(String collection, JsonArray pipeline, AggregateOptions options) {
+    List<Bson> stages = stages(collection, pipeline, options);
+    return stream(vertx.getOrCreateContext(), partition -> doAggregate(partition, collection, stages, options));
+  }
+
   @Override
   public io.vertx.ext.mongo.MongoClient runCommand(String commandName, JsonObject command, Handler<AsyncResult<JsonObject>> resultHandler) {
     requireNonNull(commandName, "commandName cannot be null");
@@ -299,12 +584,38 @@ public class MongoClientImpl implements io.vertx.ext.mongo.MongoClient {
       }
     });
 
-    holder.db.runCommand(wrap(json), JsonObject.class, wrapCallback(resultHandler));
+    Partition partition = holder.partition(pool);
+    partition.execute(() -> partition.db(database).runCommand(wrap(json), JsonObject.class, wrapCallback(partition, resultHandler)));
+    return this;
+  }
+
+  @Override
+  public io.vertx.ext.mongo.MongoClient updateConfig(JsonObject config, Handler<AsyncResult<Void>> resultHandler) {
+    requireNonNull(config, "config cannot be null");
+    requireNonNull(resultHandler, "resultHandler cannot be null");
+
+    Context context = vertx.getOrCreateContext();
+    holder.update(vertx, config, ar -> context.runOnContext(v -> resultHandler.handle(ar)));
     return this;
   }
 
-  private <T, R> SingleResultCallback<T> convertCallback(Handler<AsyncResult<R>> resultHandler, Function<T, R> converter) {
-    return (result, error) -> {
+  @Override
+  public JsonObject poolMetrics() {
+    JsonArray partitions = new JsonArray();
+    Generation generation = holder.generation();
+    for (Partition partition : generation.partitions) {
+      partitions.add(partition.metrics());
+    }
+    generation.pools.forEach((name, pool) -> {
+      for (Partition partition : pool) {
+        partitions.add(partition.metrics().put("pool", name));
+      }
+    });
+    return new JsonObject().put("partitions", partitions);
+  }
+
+  private <T, R> SingleResultCallback<T> convertCallback(Partition partition, Handler<AsyncResult<R>> resultHandler, Function<T, R> converter) {
+    return partition.track((result, error) -> {
       vertx.runOnContext(v -> {
         if (error != null) {
           resultHandler.handle(Future.failedFuture(error));
@@ -312,11 +623,11 @@ public class MongoClientImpl implements io.vertx.ext.mongo.MongoClient {
           resultHandler.handle(Future.succeededFuture(converter.apply(result)));
         }
       });
-    };
+    });
   }
 
-  private <T> SingleResultCallback<T> wrapCallback(Handler<AsyncResult<T>> resultHandler) {
-    return (result, error) -> {
+  private <T> SingleResultCallback<T> wrapCallback(Partition partition, Handler<AsyncResult<T>> resultHandler) {
+    return partition.track((result, error) -> {
       vertx.runOnContext(v -> {
         if (error != null) {
           resultHandler.handle(Future.failedFuture(error));
@@ -324,15 +635,15 @@ public class MongoClientImpl implements io.vertx.ext.mongo.MongoClient {
           resultHandler.handle(Future.succeededFuture(result));
         }
       });
-    };
+    });
   }
 
-  private FindIterable<JsonObject> doFind(String collection, JsonObject query, FindOptions options) {
-    return doFind(collection, null, query, options);
+  private FindIterable<JsonObject> doFind(Partition partition, String collection, JsonObject query, FindOptions options) {
+    return doFind(partition, collection, null, query, options);
   }
 
-  private FindIterable<JsonObject> doFind(String collection, WriteOption writeOption, JsonObject query, FindOptions options) {
-    MongoCollection<JsonObject> coll = getCollection(collection, writeOption);
+  private FindIterable<JsonObject> doFind(Partition partition, String collection, WriteOption writeOption, JsonObject query, FindOptions options) {
+    MongoCollection<JsonObject> coll = partition.collection(database, collection, writeOption);
     Bson bquery = wrap(query);
     FindIterable<JsonObject> find = coll.find(bquery, JsonObject.class);
     if (options.getLimit() != -1) {
@@ -347,19 +658,71 @@ public class MongoClientImpl implements io.vertx.ext.mongo.MongoClient {
     if (options.getFields() != null) {
       find.projection(wrap(options.getFields()));
     }
+    if (options.getMaxTimeMS() > 0) {
+      find.maxTime(options.getMaxTimeMS(), TimeUnit.MILLISECONDS);
+    }
     return find;
   }
 
-  private MongoCollection<JsonObject> getCollection(String name) {
-    return getCollection(name, null);
+  /**
+   * The stream acquires a partition when its handler is first set and releases it when it is closed, so a stream which
+   * is never read, or fails before its cursor is opened, does not keep the partition acquired
+   */
+  private <T> MongoIterableStream<T> stream(Context context, Function<Partition, MongoIterable<T>> view) {
+    AtomicReference<Partition> acquired = new AtomicReference<>();
+    return new MongoIterableStream<>(context, () -> {
+      Partition partition = holder.partition(pool);
+      acquired.set(partition);
+      return view.apply(partition);
+    }, () -> {
+      Partition partition = acquired.getAndSet(null);
+      if (partition != null) {
+        partition.release();
+      }
+    });
   }
 
-  private MongoCollection<JsonObject> getCollection(String name, WriteOption writeOption) {
-    MongoCollection<JsonObject> coll = holder.db.getCollection(name, JsonObject.class);
-    if (coll != null && writeOption != null) {
-      coll = coll.withWriteConcern(WriteConcern.valueOf(writeOption.name()));
+  private static void requireDistinct(String collection, String fieldName, JsonObject query) {
+    requireNonNull(collection, "collection cannot be null");
+    requireNonNull(fieldName, "fieldName cannot be null");
+    requireNonNull(query, "query cannot be null");
+  }
+
+  private DistinctIterable<Object> doDistinct(Partition partition, String collection, String fieldName, JsonObject query) {
+    // Values are decoded on their own by the registry's Object codec, without a wrapping document
+    return partition.collection(database, collection, null).distinct(fieldName, Object.class).filter(wrap(query));
+  }
+
+  /**
+   * Validate the arguments before a partition is picked, an operation that is not started would keep it acquired
+   */
+  private List<Bson> stages(String collection, JsonArray pipeline, AggregateOptions options) {
+    requireNonNull(collection, "collection cannot be null");
+    requireNonNull(pipeline, "pipeline cannot be null");
+    requireNonNull(options, "options cannot be null");
+
+    List<Bson> stages = new ArrayList<>(pipeline.size());
+    for (Object stage : pipeline) {
+      if (!(stage instanceof JsonObject)) {
+        throw new IllegalArgumentException("pipeline stages must be json objects");
+      }
+      stages.add(wrap((JsonObject) stage));
+    }
+    return stages;
+  }
+
+  private AggregateIterable<JsonObject> doAggregate(Partition partition, String collection, List<Bson> stages, AggregateOptions options) {
+    AggregateIterable<JsonObject> aggregate = partition.collection(database, collection, null).aggregate(stages, JsonObject.class);
+    if (options.isAllowDiskUse()) {
+      aggregate.allowDiskUse(true);
+    }
+    if (options.getBatchSize() > 0) {
+      aggregate.batchSize(options.getBatchSize());
     }
-    return coll;
+    if (options.getMaxTimeMS() > 0) {
+      aggregate.maxTime(options.getMaxTimeMS(), TimeUnit.MILLISECONDS);
+    }
+    return aggregate;
   }
 
   private static com.mongodb.client.model.UpdateOptions mongoUpdateOptions(UpdateOptions options) {
@@ -370,64 +733,409 @@ public class MongoClientImpl implements io.vertx.ext.mongo.MongoClient {
     return jsonObject == null ? null : new JsonObjectBsonAdapter(jsonObject);
   }
 
-  private void removeFromMap(LocalMap<String, MongoHolder> map, String dataSourceName) {
-    synchronized (vertx) {
-      map.remove(dataSourceName);
+  private void removeFromMap(LocalMap<String, MongoHolder> map, String dataSourceName, MongoHolder holder) {
+    synchronized (DS_LOCK) {
+      map.removeIfPresent(dataSourceName, holder);
       if (map.isEmpty()) {
         map.close();
       }
     }
   }
 
+  /**
+   * @return the number of event loops of the Vert.x instance, rather than the default of the machine, so that each
+   * event loop gets its own partition
+   */
+  private static int eventLoops(Vertx vertx) {
+    if (!(vertx instanceof VertxInternal)) {
+      return VertxOptions.DEFAULT_EVENT_LOOP_POOL_SIZE;
+    }
+    int count = 0;
+    for (EventExecutor ignored : ((VertxInternal) vertx).getEventLoopGroup()) {
+      count++;
+    }
+    return Math.max(1, count);
+  }
+
   private MongoHolder lookupHolder(String datasourceName, JsonObject config) {
-    synchronized (vertx) {
-      LocalMap<String, MongoHolder> map = vertx.sharedData().getLocalMap(DS_LOCAL_MAP_NAME);
-      MongoHolder theHolder = map.get(datasourceName);
-      if (theHolder == null) {
-        theHolder = new MongoHolder(config, () -> removeFromMap(map, datasourceName));
-        map.put(datasourceName, theHolder);
-      } else {
-        theHolder.incRefCount();
+    while (true) {
+      // Lock free for an open data source: the map cannot be closed while it holds a holder that can still be acquired
+      LocalMap<String, MongoHolder> current = vertx.sharedData().getLocalMap(DS_LOCAL_MAP_NAME);
+      MongoHolder theHolder = current.get(datasourceName);
+      if (theHolder != null && theHolder.tryIncRefCount()) {
+        return theHolder;
+      }
+      // Creating a data source and closing the empty map take the lock, the holder is never put in a closed map
+      synchronized (DS_LOCK) {
+        LocalMap<String, MongoHolder> map = vertx.sharedData().getLocalMap(DS_LOCAL_MAP_NAME);
+        theHolder = map.get(datasourceName);
+        if (theHolder == null) {
+          MongoHolder newHolder = new MongoHolder(config, eventLoops(vertx), closedHolder -> removeFromMap(map, datasourceName, closedHolder));
+          map.put(datasourceName, newHolder);
+          return newHolder;
+        }
+        if (theHolder.tryIncRefCount()) {
+          return theHolder;
+        }
+        // The holder is being closed, make sure it is gone before creating a new one
+        map.removeIfPresent(datasourceName, theHolder);
+      }
+    }
+  }
+
+  /**
+   * The driver clients of a data source, replaced as a whole when the configuration is updated
+   */
+  private static class Generation {
+    final Partition[] partitions;
+    final Map<String, Partition[]> pools;
+
+    Generation(Partition[] partitions, Map<String, Partition[]> pools) {
+      this.partitions = partitions;
+      this.pools = pools;
+    }
+
+    List<Partition> all() {
+      List<Partition> result = new ArrayList<>(Arrays.asList(partitions));
+      for (Partition[] pool : pools.values()) {
+        result.addAll(Arrays.asList(pool));
+      }
+      return result;
+    }
+
+    /**
+     * @return the operations and streams using the driver clients, from the time they picked a partition
+     */
+    int users() {
+      int users = 0;
+      for (Partition partition : all()) {
+        users += partition.users();
+      }
+      return users;
+    }
+
+    void close() {
+      for (Partition partition : all()) {
+        partition.mongo.close();
       }
-      return theHolder;
     }
   }
 
-  private static class MongoHolder implements Shareable{
-    com.mongodb.async.client.MongoClient mongo;
-    MongoDatabase db;
-    JsonObject config;
-    Runnable closeRunner;
-    int refCount = 1;
+  private static class MongoHolder implements Shareable {
+    final Consumer<MongoHolder> closeRunner;
+    final int eventLoops;
+    final AtomicInteger refCount = new AtomicInteger(1);
+    final ConcurrentMap<Thread, Integer> eventLoopPartitions = new ConcurrentHashMap<>();
+    final AtomicInteger nextPartition = new AtomicInteger();
+    final AtomicBoolean updating = new AtomicBoolean();
+    final Set<Generation> draining = ConcurrentHashMap.newKeySet();
+    volatile JsonObject config;
+    volatile Generation generation;
+    volatile boolean ready;
 
-    public MongoHolder(JsonObject config, Runnable closeRunner) {
+    /**
+     * @param config  the configuration
+     * @param eventLoops  the number of event loops of the Vert.x instance, the partitions of {@code eventLoopPools}
+     * @param closeRunner  called when the last client released the holder
+     */
+    public MongoHolder(JsonObject config, int eventLoops, Consumer<MongoHolder> closeRunner) {
       this.config = config;
+      this.eventLoops = eventLoops;
       this.closeRunner = closeRunner;
     }
 
-    synchronized com.mongodb.async.client.MongoClient mongo() {
-      if (mongo == null) {
-        MongoClientOptionsParser parser = new MongoClientOptionsParser(config);
-        mongo = MongoClients.create(parser.settings());
-        String dbName = config.getString("db_name", DEFAULT_DB_NAME);
-        db = mongo.getDatabase(dbName);
+    Generation generation() {
+      Generation result = generation;
+      if (result == null) {
+        // Only the clients racing to use a new data source wait here
+        synchronized (this) {
+          result = generation;
+          if (result == null) {
+            result = create(config, eventLoops);
+            generation = result;
+          }
+        }
       }
-      return mongo;
+      return result;
     }
 
-    synchronized void incRefCount() {
-      refCount++;
+    Partition[] partitions() {
+      return generation().partitions;
     }
 
-    synchronized void close() {
-      if (--refCount == 0) {
-        if (mongo != null) {
-          mongo.close();
+    /**
+     * Parse the configuration without creating the driver clients, an invalid configuration fails here rather than at
+     * the first operation
+     */
+    void validate() {
+      if (generation == null) {
+        int count = partitionCount(config, eventLoops);
+        adaptivePool(config);
+        new CollectionSettingsParser(config);
+        settings(config, null, count);
+        JsonObject named = namedPools(config);
+        for (String name : named.fieldNames()) {
+          settings(config, named.getJsonObject(name), count);
         }
-        if (closeRunner != null) {
-          closeRunner.run();
+      }
+    }
+
+    /**
+     * @return the partitions of the named pool, or of the data source when {@code pool} is {@code null}
+     */
+    private static Partition[] partitions(Generation current, String pool) {
+      if (pool == null) {
+        return current.partitions;
+      }
+      Partition[] result = current.pools.get(pool);
+      if (result == null) {
+        throw new IllegalArgumentException("Unknown pool " + pool);
+      }
+      return result;
+    }
+
+    /**
+     * @return the partitions of the data source followed by the ones of the named pools
+     */
+    List<Partition> allPartitions() {
+      return generation().all();
+    }
+
+    private static Generation create(JsonObject config, int eventLoops) {
+      int count = partitionCount(config, eventLoops);
+      JsonObject adaptive = adaptivePool(config);
+      JsonObject named = namedPools(config);
+      // Parse everything first, an invalid configuration must not leak driver clients
+      CollectionSettingsParser collectionSettings = new CollectionSettingsParser(config);
+      MongoClientSettings[] settings = settings(config, null, count);
+      Map<String, MongoClientSettings[]> poolSettings = new LinkedHashMap<>();
+      for (String name : named.fieldNames()) {
+        poolSettings.put(name, settings(config, named.getJsonObject(name), count));
+      }
+      String dbName = config.getString("db_name", DEFAULT_DB_NAME);
+      Map<String, Partition[]> pools = new LinkedHashMap<>();
+      poolSettings.forEach((name, s) -> pools.put(name, create(s, dbName, collectionSettings, adaptive)));
+      return new Generation(create(settings, dbName, collectionSettings, adaptive), pools);
+    }
+
+    private static MongoClientSettings[] settings(JsonObject config, JsonObject pool, int count) {
+      MongoClientSettings[] settings = new MongoClientSettings[count];
+      for (int i = 0; i < count; i++) {
+        settings[i] = new MongoClientOptionsParser(config, pool, count, i).settings();
+      }
+      return settings;
+    }
+
+    private static Partition[] create(MongoClientSettings[] settings, String dbName,
+                                      CollectionSettingsParser collectionSettings, JsonObject adaptive) {
+      int count = settings.length;
+      Partition[] result = new Partition[count];
+      for (int i = 0; i < count; i++) {
+        com.mongodb.async.client.MongoClient mongo = MongoClients.create(settings[i]);
+        ConnectionPoolSettings pool = settings[i].getConnectionPoolSettings();
+        result[i] = new Partition(mongo, dbName, collectionSettings, pool.getMinSize(), pool.getMaxSize(), adaptive);
+      }
+      return result;
+    }
+
+    /**
+     * Pick the partition of the pool to use for an operation or a stream started by the calling thread. The partition is
+     * acquired, it must be released when the operation completes or the stream is closed.
+     */
+    Partition partition(String pool) {
+      while (true) {
+        Generation current = generation();
+        Partition part = pick(partitions(current, pool));
+        part.acquire();
+        // A configuration update may have replaced the generation meanwhile, it would not wait for this operation
+        if (current == generation) {
+          return part;
+        }
+        part.release();
+      }
+    }
+
+    private Partition pick(Partition[] parts) {
+      if (parts.length == 1) {
+        return parts[0];
+      }
+      Partition home = null;
+      if (Context.isOnEventLoopThread()) {
+        Thread thread = Thread.currentThread();
+        Integer index = eventLoopPartitions.get(thread);
+        if (index == null) {
+          // Event loops are given a partition in turn, the first time they use the data source, the index is the
+          // same in every pool
+          index = nextPartition.getAndIncrement() & Integer.MAX_VALUE;
+          Integer previous = eventLoopPartitions.putIfAbsent(thread, index);
+          if (previous != null) {
+            index = previous;
+          }
+        }
+        // The number of partitions may change with the configuration
+        home = parts[index % parts.length];
+        if (!home.isBusy()) {
+          return home;
+        }
+      }
+      // Steal the least loaded partition
+      Partition least = home;
+      for (Partition part : parts) {
+        if (least == null || part.inFlight() < least.inFlight()) {
+          least = part;
+        }
+      }
+      return least;
+    }
+
+    void forgetCollection(String database, String name) {
+      for (Partition part : allPartitions()) {
+        part.registry(database).remove(name);
+      }
+    }
+
+    /**
+     * Replace the driver clients by new ones created from the configuration merged with {@code changes}. The new
+     * clients are warmed up before new operations use them, the previous ones are closed once their operations in
+     * flight completed and their streams are closed, or after {@code drainTimeoutMS}. The handler is called on a driver or event loop thread.
+     */
+    void update(Vertx vertx, JsonObject changes, Handler<AsyncResult<Void>> handler) {
+      if (!updating.compareAndSet(false, true)) {
+        handler.handle(Future.failedFuture(new IllegalStateException("The configuration is already being updated")));
+        return;
+      }
+      JsonObject updated = config.copy().mergeIn(changes);
+      Generation next;
+      synchronized (this) {
+        if (generation == null) {
+          // Nothing was created yet, like the initial configuration of a lazy client it is used by the first operation
+          config = updated;
+          updating.set(false);
+          handler.handle(Future.succeededFuture());
+          return;
+        }
+        try {
+          next = create(updated, eventLoops);
+        } catch (RuntimeException e) {
+          updating.set(false);
+          handler.handle(Future.failedFuture(e));
+          return;
         }
       }
+      ping(next.all(), ar -> {
+        if (ar.failed()) {
+          next.close();
+          updating.set(false);
+          handler.handle(ar);
+          return;
+        }
+        Generation previous;
+        synchronized (this) {
+          if (refCount.get() == 0) {
+            next.close();
+            updating.set(false);
+            handler.handle(Future.failedFuture(new IllegalStateException("The client is closed")));
+            return;
+          }
+          previous = generation;
+          config = updated;
+          generation = next;
+          draining.add(previous);
+        }
+        updating.set(false);
+        long deadline = System.currentTimeMillis() + updated.getLong("drainTimeoutMS", DEFAULT_DRAIN_TIMEOUT_MS);
+        drain(vertx, previous, deadline);
+        handler.handle(Future.succeededFuture());
+      });
+    }
+
+    private void drain(Vertx vertx, Generation previous, long deadline) {
+      if (previous.users() > 0 && System.currentTimeMillis() < deadline) {
+        vertx.setTimer(DRAIN_CHECK_INTERVAL_MS, id -> drain(vertx, previous, deadline));
+      } else if (draining.remove(previous)) {
+        previous.close();
+      }
+    }
+
+    /**
+     * @return false when the holder is already closed, it must not be used anymore
+     */
+    boolean tryIncRefCount() {
+      while (true) {
+        int count = refCount.get();
+        if (count == 0) {
+          return false;
+        }
+        if (refCount.compareAndSet(count, count + 1)) {
+          return true;
+        }
+      }
+    }
+
+    void close() {
+      if (refCount.decrementAndGet() == 0) {
+        closeRunner.accept(this);
+        Generation current;
+        synchronized (this) {
+          current = generation;
+        }
+        if (current != null) {
+          current.close();
+        }
+        for (Generation previous : draining) {
+          if (draining.remove(previous)) {
+            previous.close();
+          }
+        }
+      }
+    }
+
+    private static JsonObject adaptivePool(JsonObject config) {
+      Object value = config.getValue("adaptivePool");
+      if (value == null || Boolean.FALSE.equals(value)) {
+        return null;
+      } else if (Boolean.TRUE.equals(value)) {
+        return new JsonObject();
+      } else if (value instanceof JsonObject) {
+        JsonObject adaptive = (JsonObject) value;
+        long interval = adaptive.getLong("intervalMS", AdaptiveLimiter.DEFAULT_INTERVAL_MS);
+        double tolerance = adaptive.getDouble("latencyTolerance", AdaptiveLimiter.DEFAULT_LATENCY_TOLERANCE);
+        if (interval <= 0 || tolerance < 1) {
+          throw new IllegalArgumentException("Invalid adaptivePool " + value + ", intervalMS must be positive and latencyTolerance at least 1");
+        }
+        return adaptive;
+      } else {
+        throw new IllegalArgumentException("Invalid adaptivePool " + value + ", a boolean or an object is expected");
+      }
+    }
+
+    private static JsonObject namedPools(JsonObject config) {
+      Object value = config.getValue("pools");
+      if (value == null) {
+        return new JsonObject();
+      } else if (!(value instanceof JsonObject)) {
+        throw new IllegalArgumentException("Invalid pools " + value + ", an object is expected");
+      }
+      JsonObject pools = (JsonObject) value;
+      for (String name : pools.fieldNames()) {
+        if (!(pools.getValue(name) instanceof JsonObject)) {
+          throw new IllegalArgumentException("Invalid pool " + name + ", an object is expected");
+        }
+      }
+      return pools;
+    }
+
+    private static int partitionCount(JsonObject config, int eventLoops) {
+      Object value = config.getValue("eventLoopPools");
+      if (value == null || Boolean.FALSE.equals(value)) {
+        return 1;
+      } else if (Boolean.TRUE.equals(value)) {
+        return eventLoops;
+      } else if (value instanceof Integer && (Integer) value > 0) {
+        return (Integer) value;
+      } else {
+        throw new IllegalArgumentException("Invalid eventLoopPools " + value + ", a boolean or a positive number is expected");
+      }
     }
   }
 
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mongo.impl;
+
+import com.mongodb.async.AsyncBatchCursor;
+import com.mongodb.async.client.MongoIterable;
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.streams.ReadStream;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * A {@link ReadStream} over the batch cursor of a {@link MongoIterable}.
+ * <p>
+ * Batches are only requested from the server when the previous one has been delivered, so a paused stream
+ * holds at most one batch in memory. All handlers are called on the context the stream was created on. The iterable
+ * is only created when the handler is first set, so a stream which is never read holds no resources.
+ */
+public class MongoIterableStream<T> implements ReadStream<T> {
+
+  private final Context context;
+  private final Supplier<MongoIterable<T>> iterable;
+  private final Runnable closeHandler;
+  private final Deque<T> queue = new ArrayDeque<>();
+
+  private AsyncBatchCursor<T> cursor;
+  private Handler<T> handler;
+  private Handler<Throwable> exceptionHandler;
+  private Handler<Void> endHandler;
+  private boolean opening;
+  private boolean fetching;
+  private boolean exhausted;
+  private boolean paused;
+  private boolean closed;
+
+  public MongoIterableStream(Context context, MongoIterable<T> iterable) {
+    this(context, iterable, null);
+  }
+
+  /**
+   * @param context  the context handlers are called on
+   * @param iterable  the iterable
+   * @param closeHandler  called once when the stream ends, fails or its handler is removed, may be {@code null}
+   */
+  public MongoIterableStream(Context context, MongoIterable<T> iterable, Runnable closeHandler) {
+    this(context, () -> iterable, closeHandler);
+  }
+
+  /**
+   * @param context  the context handlers are called on
+   * @param iterable  creates the iterable when the handler is first set, its failure fails the stream
+   * @param closeHandler  called once when the stream ends, fails or its handler is removed, may be {@code null}
+   */
+  public MongoIterableStream(Context context, Supplier<MongoIterable<T>> iterable, Runnable closeHandler) {
+    this.context = context;
+    this.iterable = iterable;
+    this.closeHandler = closeHandler;
+  }
+
+  @Override
+  public synchronized MongoIterableStream<T> exceptionHandler(Handler<Throwable> handler) {
+    this.exceptionHandler = handler;
+    return this;
+  }
+
+  @Override
+  public synchronized MongoIterableStream<T> handler(Handler<T> handler) {
+    if (handler == null) {
+      close();
+    } else {
+      this.handler = handler;
+      if (cursor == null) {
+        open();
+      } else {
+        doRead();
+      }
+    }
+    return this;
+  }
+
+  @Override
+  public synchronized MongoIterableStream<T> pause() {
+    paused = true;
+    return this;
+  }
+
+  @Override
+  public synchronized MongoIterableStream<T> resume() {
+    if (paused) {
+      paused = false;
+      doRead();
+    }
+    return this;
+  }
+
+  @Override
+  public synchronized MongoIterableStream<T> endHandler(Handler<Void> handler) {
+    this.endHandler = handler;
+    return this;
+  }
+
+  private void open() {
+    if (opening || closed) {
+      return;
+    }
+    opening = true;
+    MongoIterable<T> iterable;
+    try {
+      iterable = this.iterable.get();
+    } catch (RuntimeException e) {
+      handleException(e);
+      return;
+    }
+    iterable.batchCursor((cursor, error) -> context.runOnContext(v -> {
+      synchronized (this) {
+        if (error != null) {
+          handleException(error);
+        } else if (closed) {
+          cursor.close();
+        } else {
+          this.cursor = cursor;
+          doRead();
+        }
+      }
+    }));
+  }
+
+  private void doRead() {
+    while (!paused && !closed && handler != null && !queue.isEmpty()) {
+      handler.handle(queue.poll());
+    }
+    if (paused || closed || handler == null || !queue.isEmpty() || cursor == null) {
+      return;
+    }
+    if (exhausted) {
+      end();
+    } else {
+      fetch();
+    }
+  }
+
+  private void fetch() {
+    if (fetching) {
+      return;
+    }
+    fetching = true;
+    cursor.next((batch, error) -> context.runOnContext(v -> handleBatch(batch, error)));
+  }
+
+  private synchronized void handleBatch(List<T> batch, Throwable error) {
+    fetching = false;
+    if (closed) {
+      return;
+    }
+    if (error != null) {
+      handleException(error);
+      return;
+    }
+    if (batch == null) {
+      exhausted = true;
+    } else {
+      queue.addAll(batch);
+    }
+    doRead();
+  }
+
+  private void handleException(Throwable error) {
+    Handler<Throwable> exceptionHandler = this.exceptionHandler;
+    close();
+    if (exceptionHandler != null) {
+      exceptionHandler.handle(error);
+    }
+  }
+
+  private void end() {
+    Handler<Void> endHandler = this.endHandler;
+    close();
+    if (endHandler != null) {
+      endHandler.handle(null);
+    }
+  }
+
+  private void close() {
+    if (!closed) {
+      closed = true;
+      queue.clear();
+      if (cursor != null) {
+        cursor.close();
+      }
+      if (closeHandler != null) {
+        closeHandler.run();
+      }
+    }
+  }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mongo.impl;
+
+import com.mongodb.async.SingleResultCallback;
+import com.mongodb.async.client.MongoClient;
+import com.mongodb.async.client.MongoCollection;
+import com.mongodb.async.client.MongoDatabase;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.mongo.WriteOption;
+import io.vertx.ext.mongo.impl.config.CollectionSettingsParser;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A driver client and its connection pool. A data source has a single partition, unless it is configured with one
+ * partition per event loop.
+ */
+class Partition {
+
+  static final int MAX_CACHED_DATABASES = 1024;
+
+  final MongoClient mongo;
+  final MongoDatabase db;
+  final CollectionRegistry collections;
+  private final CollectionSettingsParser collectionSettings;
+  private final ConcurrentMap<String, CollectionRegistry> databases = new ConcurrentHashMap<>();
+  final int minPoolSize;
+  final int maxPoolSize;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicInteger users = new AtomicInteger();
+  private final AdaptiveLimiter limiter;
+
+  /**
+   * @param mongo  the driver client
+   * @param dbName  the name of the default database
+   * @param collectionSettings  the settings of the collections
+   * @param minPoolSize  the minimum size of the pool of the driver client
+   * @param maxPoolSize  the maximum size of the pool of the driver client
+   * @param adaptive  the adaptive pool configuration, or {@code null} when the pool is used up to its maximum size
+   */
+  Partition(MongoClient mongo, String dbName, CollectionSettingsParser collectionSettings, int minPoolSize,
+            int maxPoolSize, JsonObject adaptive) {
+    this.mongo = mongo;
+    this.db = mongo.getDatabase(dbName);
+    this.collections = new CollectionRegistry(db, collectionSettings);
+    this.collectionSettings = collectionSettings;
+    this.minPoolSize = minPoolSize;
+    this.maxPoolSize = maxPoolSize;
+    this.limiter = adaptive == null ? null : new AdaptiveLimiter(Math.max(1, minPoolSize), maxPoolSize,
+        adaptive.getLong("intervalMS", AdaptiveLimiter.DEFAULT_INTERVAL_MS),
+        adaptive.getDouble("latencyTolerance", AdaptiveLimiter.DEFAULT_LATENCY_TOLERANCE), inFlight, System::nanoTime);
+  }
+
+  /**
+   * The registries of at most {@link #MAX_CACHED_DATABASES} databases are cached, the other ones are created on demand.
+   *
+   * @param database  the database name, {@code null} for the default database
+   * @return the collection views of the database
+   */
+  CollectionRegistry registry(String database) {
+    if (database == null) {
+      return collections;
+    }
+    CollectionRegistry registry = databases.get(database);
+    if (registry == null) {
+      registry = new CollectionRegistry(mongo.getDatabase(database), collectionSettings);
+      if (databases.size() < MAX_CACHED_DATABASES) {
+        CollectionRegistry previous = databases.putIfAbsent(database, registry);
+        if (previous != null) {
+          registry = previous;
+        }
+      }
+    }
+    return registry;
+  }
+
+  int cachedDatabases() {
+    return databases.size();
+  }
+
+  MongoDatabase db(String database) {
+    return registry(database).database();
+  }
+
+  MongoCollection<JsonObject> collection(String database, String name, WriteOption writeOption) {
+    return registry(database).get(name, writeOption);
+  }
+
+  /**
+   * @return the number of operations in flight, used to balance the partitions and to drain them
+   */
+  int inFlight() {
+    return inFlight.get();
+  }
+
+  /**
+   * Count an operation or a stream as using the driver client, from the time it picked the partition until it is
+   * released. The operations release the partition when their callback is called, see {@link #track(SingleResultCallback)}.
+   */
+  void acquire() {
+    users.incrementAndGet();
+  }
+
+  void release() {
+    users.decrementAndGet();
+  }
+
+  /**
+   * @return the number of operations and streams using the driver client, it can only be closed once there are none
+   */
+  int users() {
+    return users.get();
+  }
+
+  /**
+   * @return true when all the connections of the pool are likely in use, or the adaptive limit is reached
+   */
+  boolean isBusy() {
+    return limiter != null ? limiter.isBusy() : inFlight.get() >= maxPoolSize;
+  }
+
+  /**
+   * Start an operation, right away unless the adaptive limit is reached. The operation must create the callback it
+   * passes to the driver with {@link #track(SingleResultCallback)}.
+   *
+   * @param operation  starts the operation
+   */
+  void execute(Runnable operation) {
+    if (limiter == null) {
+      operation.run();
+    } else {
+      limiter.execute(operation);
+    }
+  }
+
+  /**
+   * Count an operation as in flight until its callback is called, the callback then releases the partition.
+   *
+   * @param callback  the callback of the operation
+   * @return the callback to pass to the driver
+   */
+  <T> SingleResultCallback<T> track(SingleResultCallback<T> callback) {
+    if (limiter == null) {
+      inFlight.incrementAndGet();
+      return (result, error) -> {
+        inFlight.decrementAndGet();
+        users.decrementAndGet();
+        callback.onResult(result, error);
+      };
+    }
+    // The limiter counted the operation when it was started
+    long start = limiter.now();
+    return (result, error) -> {
+      limiter.completed(start);
+      users.decrementAndGet();
+      callback.onResult(result, error);
+    };
+  }
+
+  /**
+   * @return the metrics of the pool and of the adaptive limit
+   */
+  JsonObject metrics() {
+    JsonObject metrics = new JsonObject()
+        .put("minPoolSize", minPoolSize)
+        .put("maxPoolSize", maxPoolSize)
+        .put("inFlight", inFlight.get());
+    if (limiter != null) {
+      metrics.mergeIn(limiter.metrics());
+    } else {
+      metrics.put("limit", maxPoolSize);
+    }
+    return metrics;
+  }
+}
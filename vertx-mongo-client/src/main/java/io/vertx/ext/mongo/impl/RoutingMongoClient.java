@@ -0,0 +1,650 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.mongo.impl;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.streams.ReadStream;
+import io.vertx.ext.mongo.AggregateOptions;
+import io.vertx.ext.mongo.FindOptions;
+import io.vertx.ext.mongo.MongoClient;
+import io.vertx.ext.mongo.OplogOptions;
+import io.vertx.ext.mongo.TailOptions;
+import io.vertx.ext.mongo.UpdateOptions;
+import io.vertx.ext.mongo.WriteOption;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A client routing the operations over several clusters, each one with its own data source, by the shard key of the
+ * documents.
+ * <p>
+ * Operations on a single document, and queries matching the shard key by equality, go to the cluster of the key.
+ * Other queries are sent to all the clusters and their results are merged. Like a {@code mongos} router, updates,
+ * replaces and removes of a single document require the shard key in the query, and the shard key of a document
+ * cannot be changed.
+ */
+public class RoutingMongoClient implements MongoClient {
+
+  /**
+   * The stages that cannot run on each cluster separately, their results would not be the result of the pipeline
+   */
+  private static final Set<String> GLOBAL_STAGES = new HashSet<>(Arrays.asList("$group", "$sort", "$limit", "$skip", "$out"));
+
+  private final List<String> names;
+  private final List<MongoClient> clusters;
+  private final ShardRouter router;
+  private final ConcurrentMap<String, RoutingMongoClient> views;
+  private final boolean view;
+  private final AtomicBoolean closed = new AtomicBoolean();
+
+  public RoutingMongoClient(Vertx vertx, JsonObject config) {
+    requireNonNull(vertx, "vertx cannot be null");
+    requireNonNull(config, "config cannot be null");
+    JsonArray json = config.getJsonArray("clusters");
+    if (json == null || json.isEmpty()) {
+      throw new IllegalArgumentException("clusters are required");
+    }
+    List<String> names = new ArrayList<>();
+    List<JsonObject> configs = new ArrayList<>();
+    for (Object item : json) {
+      if (!(item instanceof JsonObject) || ((JsonObject) item).getString("name") == null) {
+        throw new IllegalArgumentException("Invalid cluster " + item + ", a name and a config are expected");
+      }
+      JsonObject cluster = (JsonObject) item;
+      if (names.contains(cluster.getString("name"))) {
+        throw new IllegalArgumentException("Duplicate cluster " + cluster.getString("name"));
+      }
+      names.add(cluster.getString("name"));
+      configs.add(cluster);
+    }
+    // Parse everything first, an invalid configuration must not leak data sources
+    this.router = new ShardRouter(config, names);
+    List<MongoClient> clusters = new ArrayList<>();
+    try {
+      for (JsonObject cluster : configs) {
+        String dataSourceName = cluster.getString("dataSourceName", cluster.getString("name"));
+        clusters.add(new MongoClientImpl(vertx, cluster.getJsonObject("config", new JsonObject()), dataSourceName));
+      }
+    } catch (RuntimeException e) {
+      clusters.forEach(MongoClient::close);
+      throw e;
+    }
+    this.names = Collections.unmodifiableList(names);
+    this.clusters = Collections.unmodifiableList(clusters);
+    this.views = new ConcurrentHashMap<>();
+    this.view = false;
+  }
+
+  private RoutingMongoClient(RoutingMongoClient client, Function<MongoClient, MongoClient> view) {
+    this.names = client.names;
+    List<MongoClient> clusters = new ArrayList<>();
+    for (MongoClient cluster : client.clusters) {
+      clusters.add(view.apply(cluster));
+    }
+    this.clusters = Collections.unmodifiableList(clusters);
+    this.router = client.router;
+    // Each view caches its own views, they differ by database and pool
+    this.views = new ConcurrentHashMap<>();
+    this.view = true;
+  }
+
+  @Override
+  public MongoClient save(String collection, JsonObject document, Handler<AsyncResult<String>> resultHandler) {
+    saveWithOptions(collection, document, null, resultHandler);
+    return this;
+  }
+
+  @Override
+  public MongoClient saveWithOptions(String collection, JsonObject document, WriteOption writeOption, Handler<AsyncResult<String>> resultHandler) {
+    requireNonNull(document, "document cannot be null");
+    clusterOf(document).saveWithOptions(collection, document, writeOption, resultHandler);
+    return this;
+  }
+
+  @Override
+  public MongoClient insert(String collection, JsonObject document, Handler<AsyncResult<String>> resultHandler) {
+    insertWithOptions(collection, document, null, resultHandler);
+    return this;
+  }
+
+  @Override
+  public MongoClient insertWithOptions(String collection, JsonObject document, WriteOption writeOption, Handler<AsyncResult<String>> resultHandler) {
+    requireNonNull(document, "document cannot be null");
+    clusterOf(document).insertWithOptions(collection, document, writeOption, resultHandler);
+    return this;
+  }
+
+  @Override
+  public MongoClient update(String collection, JsonObject query, JsonObject update, Handler<AsyncResult<Void>> resultHandler) {
+    updateWithOptions(collection, query, update, new UpdateOptions(), resultHandler);
+    return this;
+  }
+
+  @Override
+  public MongoClient updateWithOptions(String collection, JsonObject query, JsonObject update, UpdateOptions options, Handler<AsyncResult<Void>> resultHandler) {
+    requireNonNull(query, "query cannot be null");
+    requireNonNull(options, "options cannot be null");
+    requireNonNull(resultHandler, "resultHandler cannot be null");
+    requireNonNull(update, "update cannot be null");
+    if (router.modifiesKey(update)) {
+      throw new IllegalArgumentException("An update cannot change the shard key " + router.shardKey());
+    }
+    Object key = router.keyOfQuery(query);
+    if (key != null) {
+      route(key).updateWithOptions(collection, query, update, options, resultHandler);
+    } else {
+      requireMulti(options.isMulti() && !options.isUpsert(), "update");
+      all((cluster, handler) -> cluster.updateWithOptions(collection, query, update, options, handler), voidHandler(resultHandler));
+    }
+    return this;
+  }
+
+  @Override
+  public MongoClient replace(String collection, JsonObject query, JsonObject replace, Handler<AsyncResult<Void>> resultHandler) {
+    replaceWithOptions(collection, query, replace, new UpdateOptions(), resultHandler);
+    return this;
+  }
+
+  @Override
+  public MongoClient replaceWithOptions(String collection, JsonObject query, JsonObject replace, UpdateOptions options, Handler<AsyncResult<Void>> resultHandler) {
+    requireNonNull(query, "query cannot be null");
+    requireNonNull(replace, "replace cannot be null");
+    Object key = router.keyOfQuery(query);
+    requireMulti(key != null, "replace");
+    if (!ShardRouter.sameKey(key, router.keyOf(replace))) {
+      throw new IllegalArgumentException("A replacement must keep the shard key " + router.shardKey() + " of the query");
+    }
+    route(key).replaceWithOptions(collection, query, replace, options, resultHandler);
+    return this;
+  }
+
+  @Override
+  public MongoClient find(String collection, JsonObject query, Handler<AsyncResult<List<JsonObject>>> resultHandler) {
+    findWithOptions(collection, query, new FindOptions(), resultHandler);
+    return this;
+  }
+
+  @Override
+  public MongoClient findWithOptions(String collection, JsonObject query, FindOptions options, Handler<AsyncResult<List<JsonObject>>> resultHandler) {
+    requireNonNull(query, "query cannot be null");
+    requireNonNull(options, "options cannot be null");
+    requireNonNull(resultHandler, "resultHandler cannot be null");
+    Object key = router.keyOfQuery(query);
+    if (key != null) {
+      route(key).findWithOptions(collection, query, options, resultHandler);
+      return this;
+    }
+    // Each cluster returns its first skip + limit documents, the merged documents are then sorted, skipped and limited
+    FindOptions clusterOptions = new FindOptions(options).setSkip(0);
+    if (options.getLimit() > 0) {
+      clusterOptions.setLimit(options.getSkip() + options.getLimit());
+    }
+    this.<List<JsonObject>>all((cluster, handler) -> cluster.findWithOptions(collection, query, clusterOptions, handler), ar -> {
+      if (ar.failed()) {
+        resultHandler.handle(Future.failedFuture(ar.cause()));
+        return;
+      }
+      List<JsonObject> merged = new ArrayList<>();
+      ar.result().forEach(merged::addAll);
+      if (options.getSort() != null && !options.getSort().isEmpty()) {
+        merged.sort(sortComparator(options.getSort()));
+      }
+      int from = Math.min(options.getSkip(), merged.size());
+      int to = options.getLimit() > 0 ? Math.min(merged.size(), from + options.getLimit()) : merged.size();
+      resultHandler.handle(Future.succeededFuture(new ArrayList<>(merged.subList(from, to))));
+    });
+    return this;
+  }
+
+  @Override
+  public ReadStream<JsonObject> findStream(String collection, JsonObject query, FindOptions options) {
+    requireNonNull(query, "query cannot be null");
+    requireNonNull(options, "options cannot be null");
+    Object key = router.keyOfQuery(query);
+    if (key != null) {
+      return route(key).findStream(collection, query, options);
+    }
+    // Merged streams interleave the documents of the clusters as they arrive
+    if ((options.getSort() != null && !options.getSort().isEmpty()) || options.getSkip() > 0 || options.getLimit() > 0) {
+      throw new IllegalArgumentException("A stream over several clusters cannot be sorted, skipped or limited, use findWithOptions");
+    }
+    return merge(cluster -> cluster.findStream(collection, query, options));
+  }
+
+  @Override
+  public ReadStream<JsonObject> tail(String collection, JsonObject query, TailOptions options) {
+    requireNonNull(query, "query cannot be null");
+    Object key = router.keyOfQuery(query);
+    if (key != null) {
+      return route(key).tail(collection, query, options);
+    }
+    return merge(cluster -> cluster.tail(collection, query, options));
+  }
+
+  @Override
+  public ReadStream<JsonObject> oplog(OplogOptions options) {
+    return merge(cluster -> cluster.oplog(options));
+  }
+
+  @Override
+  public MongoClient findOne(String collection, JsonObject query, JsonObject fields, Handler<AsyncResult<JsonObject>> resultHandler) {
+    requireNonNull(query, "query cannot be null");
+    requireNonNull(resultHandler, "resultHandler cannot be null");
+    Object key = router.keyOfQuery(query);
+    if (key != null) {
+      route(key).findOne(collection, query, fields, resultHandler);
+      return this;
+    }
+    this.<JsonObject>all((cluster, handler) -> cluster.findOne(collection, query, fields, handler), ar -> {
+      if (ar.failed()) {
+        resultHandler.handle(Future.failedFuture(ar.cause()));
+      } else {
+        JsonObject found = ar.result().stream().filter(doc -> doc != null).findFirst().orElse(null);
+        resultHandler.handle(Future.succeededFuture(found));
+      }
+    });
+    return this;
+  }
+
+  @Override
+  public MongoClient count(String collection, JsonObject query, Handler<AsyncResult<Long>> resultHandler) {
+    requireNonNull(query, "query cannot be null");
+    requireNonNull(resultHandler, "resultHandler cannot be null");
+    Object key = router.keyOfQuery(query);
+    if (key != null) {
+      route(key).count(collection, query, resultHandler);
+      return this;
+    }
+    this.<Long>all((cluster, handler) -> cluster.count(collection, query, handler), ar -> {
+      if (ar.failed()) {
+        resultHandler.handle(Future.failedFuture(ar.cause()));
+      } else {
+        resultHandler.handle(Future.succeededFuture(ar.result().stream().mapToLong(Long::longValue).sum()));
+      }
+    });
+    return this;
+  }
+
+  @Override
+  public MongoClient remove(String collection, JsonObject query, Handler<AsyncResult<Void>> resultHandler) {
+    removeWithOptions(collection, query, null, resultHandler);
+    return this;
+  }
+
+  @Override
+  public MongoClient removeWithOptions(String collection, JsonObject query, WriteOption writeOption, Handler<AsyncResult<Void>> resultHandler) {
+    requireNonNull(query, "query cannot be null");
+    requireNonNull(resultHandler, "resultHandler cannot be null");
+    Object key = router.keyOfQuery(query);
+    if (key != null) {
+      route(key).removeWithOptions(collection, query, writeOption, resultHandler);
+    } else {
+      all((cluster, handler) -> cluster.removeWithOptions(collection, query, writeOption, handler), voidHandler(resultHandler));
+    }
+    return this;
+  }
+
+  @Override
+  public MongoClient removeOne(String collection, JsonObject query, Handler<AsyncResult<Void>> resultHandler) {
+    removeOneWithOptions(collection, query, null, resultHandler);
+    return this;
+  }
+
+  @Override
+  public MongoClient removeOneWithOptions(String collection, JsonObject query, WriteOption writeOption, Handler<AsyncResult<Void>> resultHandler) {
+    requireNonNull(query, "query cannot be null");
+    Object key = router.keyOfQuery(query);
+    requireMulti(key != null, "removeOne");
+    route(key).removeOneWithOptions(collection, query, writeOption, resultHandler);
+    return this;
+  }
+
+  @Override
+  public MongoClient createCollection(String collectionName, Handler<AsyncResult<Void>> resultHandler) {
+    requireNonNull(resultHandler, "resultHandler cannot be null");
+    all((cluster, handler) -> cluster.createCollection(collectionName, handler), voidHandler(resultHandler));
+    return this;
+  }
+
+  @Override
+  public MongoClient getCollections(Handler<AsyncResult<List<String>>> resultHandler) {
+    requireNonNull(resultHandler, "resultHandler cannot be null");
+    this.<List<String>>all(MongoClient::getCollections, ar -> {
+      if (ar.failed()) {
+        resultHandler.handle(Future.failedFuture(ar.cause()));
+      } else {
+        Set<String> names = new LinkedHashSet<>();
+        ar.result().forEach(names::addAll);
+        resultHandler.handle(Future.succeededFuture(new ArrayList<>(names)));
+      }
+    });
+    return this;
+  }
+
+  @Override
+  public MongoClient dropCollection(String collection, Handler<AsyncResult<Void>> resultHandler) {
+    requireNonNull(resultHandler, "resultHandler cannot be null");
+    all((cluster, handler) -> cluster.dropCollection(collection, handler), voidHandler(resultHandler));
+    return this;
+  }
+
+  @Override
+  public MongoClient distinct(String collection, String fieldName, JsonObject query, Handler<AsyncResult<JsonArray>> resultHandler) {
+    requireNonNull(query, "query cannot be null");
+    requireNonNull(resultHandler, "resultHandler cannot be null");
+    Object key = router.keyOfQuery(query);
+    if (key != null) {
+      route(key).distinct(collection, fieldName, query, resultHandler);
+      return this;
+    }
+    this.<JsonArray>all((cluster, handler) -> cluster.distinct(collection, fieldName, query, handler), ar -> {
+      if (ar.failed()) {
+        resultHandler.handle(Future.failedFuture(ar.cause()));
+      } else {
+        Set<Object> values = new LinkedHashSet<>();
+        ar.result().forEach(array -> values.addAll(array.getList()));
+        resultHandler.handle(Future.succeededFuture(new JsonArray(new ArrayList<>(values))));
+      }
+    });
+    return this;
+  }
+
+  @Override
+  public ReadStream<Object> distinctStream(String collection, String fieldName, JsonObject query) {
+    requireNonNull(query, "query cannot be null");
+    Object key = router.keyOfQuery(query);
+    if (key != null) {
+      return route(key).distinctStream(collection, fieldName, query);
+    }
+    return merge(cluster -> cluster.distinctStream(collection, fieldName, query));
+  }
+
+  @Override
+  public MongoClient aggregate(String collection, JsonArray pipeline, AggregateOptions options, Handler<AsyncResult<List<JsonObject>>> resultHandler) {
+    requireNonNull(pipeline, "pipeline cannot be null");
+    requireNonNull(resultHandler, "resultHandler cannot be null");
+    Object key = keyOfPipeline(pipeline);
+    if (key != null) {
+      route(key).aggregate(collection, pipeline, options, resultHandler);
+      return this;
+    }
+    requireLocalStages(pipeline);
+    this.<List<JsonObject>>all((cluster, handler) -> cluster.aggregate(collection, pipeline, options, handler), ar -> {
+      if (ar.failed()) {
+        resultHandler.handle(Future.failedFuture(ar.cause()));
+      } else {
+        List<JsonObject> merged = new ArrayList<>();
+        ar.result().forEach(merged::addAll);
+        resultHandler.handle(Future.succeededFuture(merged));
+      }
+    });
+    return this;
+  }
+
+  @Override
+  public ReadStream<JsonObject> aggregateStream(String collection, JsonArray pipeline, AggregateOptions options) {
+    requireNonNull(pipeline, "pipeline cannot be null");
+    Object key = keyOfPipeline(pipeline);
+    if (key != null) {
+      return route(key).aggregateStream(collection, pipeline, options);
+    }
+    requireLocalStages(pipeline);
+    return merge(cluster -> cluster.aggregateStream(collection, pipeline, options));
+  }
+
+  @Override
+  public MongoClient runCommand(String commandName, JsonObject command, Handler<AsyncResult<JsonObject>> resultHandler) {
+    requireNonNull(resultHandler, "resultHandler cannot be null");
+    this.<JsonObject>all((cluster, handler) -> cluster.runCommand(commandName, command, handler), ar -> {
+      if (ar.failed()) {
+        resultHandler.handle(Future.failedFuture(ar.cause()));
+      } else {
+        JsonObject results = new JsonObject();
+        for (int i = 0; i < names.size(); i++) {
+          results.put(names.get(i), ar.result().get(i));
+        }
+        resultHandler.handle(Future.succeededFuture(results));
+      }
+    });
+    return this;
+  }
+
+  @Override
+  public MongoClient database(String name) {
+    requireNonNull(name, "name cannot be null");
+    return view("database/" + name, cluster -> cluster.database(name));
+  }
+
+  @Override
+  public MongoClient pool(String name) {
+    requireNonNull(name, "name cannot be null");
+    return view("pool/" + name, cluster -> cluster.pool(name));
+  }
+
+  private MongoClient view(String key, Function<MongoClient, MongoClient> view) {
+    RoutingMongoClient client = views.get(key);
+    if (client == null) {
+      client = new RoutingMongoClient(this, view);
+      RoutingMongoClient previous = views.putIfAbsent(key, client);
+      if (previous != null) {
+        client = previous;
+      }
+    }
+    return client;
+  }
+
+  @Override
+  public MongoClient updateConfig(JsonObject config, Handler<AsyncResult<Void>> resultHandler) {
+    requireNonNull(config, "config cannot be null");
+    requireNonNull(resultHandler, "resultHandler cannot be null");
+    // The changes apply to every cluster, each one keeps its own connection settings
+    all((cluster, handler) -> cluster.updateConfig(config, handler), voidHandler(resultHandler));
+    return this;
+  }
+
+  @Override
+  public JsonObject poolMetrics() {
+    JsonArray partitions = new JsonArray();
+    for (int i = 0; i < clusters.size(); i++) {
+      for (Object partition : clusters.get(i).poolMetrics().getJsonArray("partitions")) {
+        partitions.add(((JsonObject) partition).copy().put("cluster", names.get(i)));
+      }
+    }
+    return new JsonObject().put("partitions", partitions);
+  }
+
+  @Override
+  public void close() {
+    // Views do not own the data sources
+    if (!view && closed.compareAndSet(false, true)) {
+      clusters.forEach(MongoClient::close);
+    }
+  }
+
+  private MongoClient route(Object key) {
+    return clusters.get(router.route(key));
+  }
+
+  private MongoClient clusterOf(JsonObject document) {
+    Object key = router.keyOf(document);
+    if (key == null) {
+      throw new IllegalArgumentException("document does not contain the shard key " + router.shardKey());
+    }
+    return route(key);
+  }
+
+  private void requireMulti(boolean routed, String operation) {
+    if (!routed) {
+      throw new IllegalArgumentException("The query of a single document " + operation + " or of an upsert must match" +
+          " the shard key " + router.shardKey() + " by equality");
+    }
+  }
+
+  /**
+   * The results of the clusters are concatenated, so the stages combining documents must be routed by the shard key
+   */
+  private static void requireLocalStages(JsonArray pipeline) {
+    for (Object stage : pipeline) {
+      if (stage instanceof JsonObject) {
+        for (String name : ((JsonObject) stage).fieldNames()) {
+          if (GLOBAL_STAGES.contains(name)) {
+            throw new IllegalArgumentException("A pipeline with a " + name + " stage must start with a $match of the shard key");
+          }
+        }
+      }
+    }
+  }
+
+  private Object keyOfPipeline(JsonArray pipeline) {
+    if (pipeline.isEmpty() || !(pipeline.getValue(0) instanceof JsonObject)) {
+      return null;
+    }
+    JsonObject match = pipeline.getJsonObject(0).getJsonObject("$match");
+    return match == null ? null : router.keyOfQuery(match);
+  }
+
+  /**
+   * Run an operation on all the clusters, the results are in the order of the clusters
+   */
+  private <T> void all(BiConsumer<MongoClient, Handler<AsyncResult<T>>> operation, Handler<AsyncResult<List<T>>> resultHandler) {
+    Object[] results = new Object[clusters.size()];
+    AtomicInteger pending = new AtomicInteger(clusters.size());
+    AtomicBoolean failed = new AtomicBoolean();
+    for (int i = 0; i < clusters.size(); i++) {
+      int index = i;
+      operation.accept(clusters.get(i), ar -> {
+        if (ar.failed()) {
+          if (failed.compareAndSet(false, true)) {
+            resultHandler.handle(Future.failedFuture(ar.cause()));
+          }
+        } else {
+          results[index] = ar.result();
+          if (pending.decrementAndGet() == 0 && !failed.get()) {
+            @SuppressWarnings("unchecked")
+            List<T> list = (List<T>) Arrays.asList(results);
+            resultHandler.handle(Future.succeededFuture(list));
+          }
+        }
+      });
+    }
+  }
+
+  private static <T> Handler<AsyncResult<List<T>>> voidHandler(Handler<AsyncResult<Void>> resultHandler) {
+    return ar -> resultHandler.handle(ar.failed() ? Future.failedFuture(ar.cause()) : Future.succeededFuture());
+  }
+
+  private <T> ReadStream<T> merge(Function<MongoClient, ReadStream<T>> factory) {
+    List<ReadStream<T>> streams = new ArrayList<>();
+    for (MongoClient cluster : clusters) {
+      streams.add(factory.apply(cluster));
+    }
+    return new MergedReadStream<>(streams);
+  }
+
+  static Comparator<JsonObject> sortComparator(JsonObject sort) {
+    Comparator<JsonObject> comparator = (a, b) -> 0;
+    for (Map.Entry<String, Object> field : sort) {
+      String[] path = field.getKey().split("\\.");
+      boolean descending = field.getValue() instanceof Number && ((Number) field.getValue()).intValue() < 0;
+      Comparator<JsonObject> byField = (a, b) -> compareValues(valueAt(a, path), valueAt(b, path));
+      comparator = comparator.thenComparing(descending ? byField.reversed() : byField);
+    }
+    return comparator;
+  }
+
+  private static Object valueAt(JsonObject document, String[] path) {
+    Object value = document;
+    for (String name : path) {
+      if (!(value instanceof JsonObject)) {
+        return null;
+      }
+      value = ((JsonObject) value).getValue(name);
+    }
+    return value;
+  }
+
+  /**
+   * Compare values like the server does for the types that can be compared in JSON: null, numbers, strings, then
+   * dates in extended JSON
+   */
+  private static int compareValues(Object a, Object b) {
+    int rank = Integer.compare(typeRank(a), typeRank(b));
+    if (rank != 0) {
+      return rank;
+    }
+    if (a instanceof Number) {
+      return Double.compare(((Number) a).doubleValue(), ((Number) b).doubleValue());
+    }
+    if (a instanceof String) {
+      return ((String) a).compareTo((String) b);
+    }
+    if (a instanceof Boolean) {
+      return Boolean.compare((Boolean) a, (Boolean) b);
+    }
+    if (isDate(a)) {
+      // Dates with different offsets are the same instant, their strings cannot be compared
+      return instant(a).compareTo(instant(b));
+    }
+    return 0;
+  }
+
+  private static int typeRank(Object value) {
+    if (value == null) {
+      return 0;
+    } else if (value instanceof Number) {
+      return 1;
+    } else if (value instanceof String) {
+      return 2;
+    } else if (value instanceof Boolean) {
+      return 4;
+    } else if (isDate(value)) {
+      return 5;
+    } else {
+      return 3;
+    }
+  }
+
+  private static boolean isDate(Object value) {
+    return value instanceof JsonObject && ((JsonObject) value).getValue("$date") instanceof String;
+  }
+
+  private static Instant instant(Object date) {
+    return OffsetDateTime.parse(((JsonObject) date).getString("$date")).toInstant();
+  }
+}
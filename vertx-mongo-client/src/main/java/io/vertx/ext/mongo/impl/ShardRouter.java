@@ -0,0 +1,249 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.mongo.impl;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Places shard keys on clusters, either on a consistent hash ring or by explicit key ranges.
+ * <p>
+ * The shard key is a field of the documents, possibly a dotted path. It is read from the documents written, and from
+ * the queries that match it by equality.
+ */
+class ShardRouter {
+
+  static final int DEFAULT_VIRTUAL_NODES = 160;
+
+  private final String shardKey;
+  private final TreeMap<Long, Integer> ring;
+  private final List<Range> ranges;
+
+  /**
+   * @param config  the routing configuration
+   * @param clusters  the names of the clusters, in order
+   */
+  ShardRouter(JsonObject config, List<String> clusters) {
+    this.shardKey = config.getString("shardKey");
+    if (shardKey == null || shardKey.isEmpty()) {
+      throw new IllegalArgumentException("shardKey is required");
+    }
+    String placement = config.getString("placement", "hash");
+    switch (placement) {
+      case "hash":
+        int virtualNodes = config.getInteger("virtualNodes", DEFAULT_VIRTUAL_NODES);
+        if (virtualNodes < 1) {
+          throw new IllegalArgumentException("Invalid virtualNodes " + virtualNodes);
+        }
+        ring = new TreeMap<>();
+        for (int i = 0; i < clusters.size(); i++) {
+          for (int node = 0; node < virtualNodes; node++) {
+            // Only the names of the clusters place the nodes, so adding a cluster only moves the keys it takes over
+            ring.put(hash(clusters.get(i) + "#" + node), i);
+          }
+        }
+        ranges = null;
+        break;
+      case "range":
+        ring = null;
+        ranges = parseRanges(config.getJsonArray("ranges"), clusters);
+        break;
+      default:
+        throw new IllegalArgumentException("Invalid placement " + placement + ", hash or range is expected");
+    }
+  }
+
+  String shardKey() {
+    return shardKey;
+  }
+
+  /**
+   * @param document  a document
+   * @return the shard key of the document, or {@code null} when it has none
+   */
+  Object keyOf(JsonObject document) {
+    Object value = document;
+    for (String name : shardKey.split("\\.")) {
+      if (!(value instanceof JsonObject)) {
+        return null;
+      }
+      value = ((JsonObject) value).getValue(name);
+    }
+    return value;
+  }
+
+  /**
+   * @param query  a query
+   * @return the shard key the query matches by equality, or {@code null} when the query may match several keys
+   */
+  Object keyOfQuery(JsonObject query) {
+    Object value = query.getValue(shardKey);
+    if (value instanceof JsonObject) {
+      JsonObject condition = (JsonObject) value;
+      if (condition.size() == 1 && condition.containsKey("$eq")) {
+        return condition.getValue("$eq");
+      }
+      // Operators, or an embedded document
+      return condition.fieldNames().stream().anyMatch(name -> name.startsWith("$")) ? null : condition;
+    }
+    if (value instanceof JsonArray) {
+      // Matches the arrays containing the value as well
+      return null;
+    }
+    return value;
+  }
+
+  /**
+   * @param update  an update document, with operators or replacing the document
+   * @return true when the update sets, unsets or renames the shard key, or a field containing it
+   */
+  boolean modifiesKey(JsonObject update) {
+    for (String name : update.fieldNames()) {
+      if (!name.startsWith("$")) {
+        // A replacement document
+        return true;
+      }
+      Object fields = update.getValue(name);
+      if (fields instanceof JsonObject) {
+        for (Map.Entry<String, Object> field : (JsonObject) fields) {
+          if (overlapsKey(field.getKey()) || ("$rename".equals(name) && field.getValue() instanceof String
+              && overlapsKey((String) field.getValue()))) {
+            return true;
+          }
+        }
+      }
+    }
+    return false;
+  }
+
+  private boolean overlapsKey(String path) {
+    return path.equals(shardKey) || shardKey.startsWith(path + ".") || path.startsWith(shardKey + ".");
+  }
+
+  /**
+   * @return true when both keys are the same shard key, integers and longs of the same value are the same key
+   */
+  static boolean sameKey(Object a, Object b) {
+    if (a instanceof Number && b instanceof Number) {
+      return keyString(a).equals(keyString(b));
+    }
+    return a != null && a.equals(b);
+  }
+
+  /**
+   * @param key  a shard key
+   * @return the index of the cluster of the key
+   */
+  int route(Object key) {
+    if (ring != null) {
+      Map.Entry<Long, Integer> node = ring.ceilingEntry(hash(keyString(key)));
+      return node != null ? node.getValue() : ring.firstEntry().getValue();
+    }
+    for (int i = ranges.size() - 1; i >= 0; i--) {
+      Range range = ranges.get(i);
+      if (range.min == null || compare(key, range.min) >= 0) {
+        return range.cluster;
+      }
+    }
+    throw new IllegalArgumentException("No range for shard key " + key);
+  }
+
+  private static String keyString(Object key) {
+    if (key instanceof Number) {
+      Number number = (Number) key;
+      // Integers and longs of the same value, as decoded from documents or queries, are the same key
+      if (number.doubleValue() == number.longValue()) {
+        return Long.toString(number.longValue());
+      }
+    }
+    return String.valueOf(key);
+  }
+
+  private static List<Range> parseRanges(JsonArray json, List<String> clusters) {
+    if (json == null || json.isEmpty()) {
+      throw new IllegalArgumentException("ranges are required by the range placement");
+    }
+    List<Range> ranges = new ArrayList<>();
+    for (Object item : json) {
+      if (!(item instanceof JsonObject)) {
+        throw new IllegalArgumentException("Invalid range " + item);
+      }
+      JsonObject range = (JsonObject) item;
+      String cluster = range.getString("cluster");
+      int index = clusters.indexOf(cluster);
+      if (index == -1) {
+        throw new IllegalArgumentException("Unknown cluster " + cluster + " in range " + range);
+      }
+      Object min = range.getValue("min");
+      if (min != null && !(min instanceof Number) && !(min instanceof String)) {
+        throw new IllegalArgumentException("Invalid range " + range + ", min must be a number or a string");
+      }
+      ranges.add(new Range(min, index));
+    }
+    Comparator<Range> byMin = (a, b) -> a.min == null ? (b.min == null ? 0 : -1) : b.min == null ? 1 : compare(a.min, b.min);
+    ranges.sort(byMin);
+    for (int i = 1; i < ranges.size(); i++) {
+      if (ranges.get(i).min == null || byMin.compare(ranges.get(i - 1), ranges.get(i)) == 0) {
+        throw new IllegalArgumentException("Ranges must have distinct min values, only one can be unbounded");
+      }
+    }
+    return ranges;
+  }
+
+  private static int compare(Object key, Object bound) {
+    if (key instanceof Number && bound instanceof Number) {
+      return Double.compare(((Number) key).doubleValue(), ((Number) bound).doubleValue());
+    }
+    if (key instanceof String && bound instanceof String) {
+      return ((String) key).compareTo((String) bound);
+    }
+    throw new IllegalArgumentException("Shard key " + key + " cannot be compared with range bound " + bound);
+  }
+
+  /**
+   * FNV-1a followed by the MurmurHash3 finalizer, which spreads similar keys over the whole ring
+   */
+  static long hash(String s) {
+    long h = 0xcbf29ce484222325L;
+    for (byte b : s.getBytes(StandardCharsets.UTF_8)) {
+      h ^= b;
+      h *= 0x100000001b3L;
+    }
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+
+  private static class Range {
+    final Object min;
+    final int cluster;
+
+    Range(Object min, int cluster) {
+      this.min = min;
+      this.cluster = cluster;
+    }
+  }
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mongo.impl;
+
+import com.mongodb.MongoCursorNotFoundException;
+import com.mongodb.MongoSocketException;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import io.vertx.core.streams.ReadStream;
+import io.vertx.ext.mongo.impl.codec.json.JsonObjectCodec;
+import org.bson.types.ObjectId;
+
+import java.util.function.Function;
+
+/**
+ * A long lived {@link ReadStream} over a tailable cursor.
+ * <p>
+ * When the cursor dies, because it was exhausted, the server discarded it or the connection was lost, a new cursor is
+ * opened after a delay. The new cursor only matches documents whose resume field is greater than the last one seen,
+ * so consumers see each document once as long as the resume field is monotonic.
+ */
+public class TailingStream implements ReadStream<JsonObject> {
+
+  private static final Logger log = LoggerFactory.getLogger(TailingStream.class);
+
+  private final Vertx vertx;
+  private final Context context;
+  private final Function<Object, MongoIterableStream<JsonObject>> cursorFactory;
+  private final String resumeField;
+  private final long reconnectDelay;
+
+  private Handler<Handler<AsyncResult<Object>>> startResolver;
+  private MongoIterableStream<JsonObject> current;
+  private Object lastValue;
+  private Handler<JsonObject> handler;
+  private Handler<Throwable> exceptionHandler;
+  private Handler<Void> endHandler;
+  private long timerID = -1;
+  private boolean resolving;
+  private boolean paused;
+  private boolean closed;
+
+  /**
+   * @param vertx  the Vert.x instance
+   * @param context  the context handlers are called on
+   * @param cursorFactory  creates the stream of a tailable cursor on {@code context}, given the last seen value of the
+   *                       resume field or {@code null}
+   * @param resumeField  the field used to resume after the cursor died
+   * @param reconnectDelay  the delay before opening a new cursor, in milliseconds
+   * @param startValue  the value of the resume field to start after, may be {@code null}
+   */
+  public TailingStream(Vertx vertx, Context context, Function<Object, MongoIterableStream<JsonObject>> cursorFactory,
+                       String resumeField, long reconnectDelay, Object startValue) {
+    this(vertx, context, cursorFactory, resumeField, reconnectDelay, startValue, null);
+  }
+
+  /**
+   * @param vertx  the Vert.x instance
+   * @param context  the context handlers are called on
+   * @param cursorFactory  creates the stream of a tailable cursor on {@code context}, given the last seen value of the
+   *                       resume field or {@code null}
+   * @param resumeField  the field used to resume after the cursor died
+   * @param reconnectDelay  the delay before opening a new cursor, in milliseconds
+   * @param startValue  the value of the resume field to start after, may be {@code null}
+   * @param startResolver  when not {@code null}, looks up the value to start after before the first cursor is opened
+   */
+  public TailingStream(Vertx vertx, Context context, Function<Object, MongoIterableStream<JsonObject>> cursorFactory,
+                       String resumeField, long reconnectDelay, Object startValue,
+                       Handler<Handler<AsyncResult<Object>>> startResolver) {
+    this.vertx = vertx;
+    this.context = context;
+    this.cursorFactory = cursorFactory;
+    this.resumeField = resumeField;
+    this.reconnectDelay = Math.max(1, reconnectDelay);
+    this.lastValue = startValue;
+    this.startResolver = startResolver;
+  }
+
+  /**
+   * Build the query of a resumed cursor
+   * <p>
+   * Object ids are read as hex strings, so a string that is a valid object id also matches the object ids after it:
+   * the server only compares values of the same type.
+   *
+   * @param query  the original query
+   * @param resumeField  the resume field
+   * @param lastValue  the last seen value, or {@code null}
+   * @return the query matching the documents after {@code lastValue}
+   */
+  public static JsonObject resumeQuery(JsonObject query, String resumeField, Object lastValue) {
+    if (lastValue == null) {
+      return query;
+    }
+    JsonObject after = new JsonObject().put(resumeField, new JsonObject().put("$gt", lastValue));
+    if (lastValue instanceof String && ObjectId.isValid((String) lastValue)) {
+      JsonObject oid = new JsonObject().put(JsonObjectCodec.OID_FIELD, lastValue);
+      after = new JsonObject().put("$or", new JsonArray()
+          .add(after)
+          .add(new JsonObject().put(resumeField, new JsonObject().put("$gt", oid))));
+    }
+    if (query.isEmpty()) {
+      return after;
+    }
+    return new JsonObject().put("$and", new JsonArray().add(query).add(after));
+  }
+
+  @Override
+  public synchronized TailingStream exceptionHandler(Handler<Throwable> handler) {
+    this.exceptionHandler = handler;
+    return this;
+  }
+
+  @Override
+  public synchronized TailingStream handler(Handler<JsonObject> handler) {
+    if (handler == null) {
+      close();
+    } else {
+      this.handler = handler;
+      if (current == null && timerID == -1 && !resolving && !closed) {
+        open();
+      }
+    }
+    return this;
+  }
+
+  @Override
+  public synchronized TailingStream pause() {
+    paused = true;
+    if (current != null) {
+      current.pause();
+    }
+    return this;
+  }
+
+  @Override
+  public synchronized TailingStream resume() {
+    paused = false;
+    if (current != null) {
+      current.resume();
+    }
+    return this;
+  }
+
+  @Override
+  public synchronized TailingStream endHandler(Handler<Void> handler) {
+    this.endHandler = handler;
+    return this;
+  }
+
+  private void open() {
+    if (startResolver != null) {
+      resolving = true;
+      startResolver.handle(ar -> context.runOnContext(v -> started(ar)));
+      return;
+    }
+    MongoIterableStream<JsonObject> stream = cursorFactory.apply(lastValue);
+    current = stream;
+    stream.exceptionHandler(this::handleException);
+    stream.endHandler(v -> cursorDied());
+    if (paused) {
+      stream.pause();
+    }
+    stream.handler(this::handleDocument);
+  }
+
+  private synchronized void started(AsyncResult<Object> ar) {
+    resolving = false;
+    if (closed) {
+      return;
+    }
+    if (ar.succeeded()) {
+      startResolver = null;
+      if (ar.result() != null) {
+        lastValue = ar.result();
+      }
+      open();
+    } else {
+      // As for a cursor, a lost connection is retried and the start value resolved again, other failures end the stream
+      handleException(ar.cause());
+    }
+  }
+
+  private synchronized void handleDocument(JsonObject document) {
+    Object value = document.getValue(resumeField);
+    if (value != null) {
+      lastValue = value;
+    }
+    if (handler != null) {
+      handler.handle(document);
+    }
+  }
+
+  private synchronized void cursorDied() {
+    current = null;
+    if (!closed) {
+      timerID = vertx.setTimer(reconnectDelay, id -> reopen());
+    }
+  }
+
+  private synchronized void reopen() {
+    timerID = -1;
+    if (!closed) {
+      open();
+    }
+  }
+
+  private synchronized void handleException(Throwable t) {
+    if (t instanceof MongoCursorNotFoundException || t instanceof MongoSocketException) {
+      log.debug("Tailable cursor died, resuming after " + lastValue, t);
+      cursorDied();
+    } else {
+      Handler<Throwable> exceptionHandler = this.exceptionHandler;
+      close();
+      if (exceptionHandler != null) {
+        exceptionHandler.handle(t);
+      }
+    }
+  }
+
+  private void close() {
+    if (!closed) {
+      closed = true;
+      if (current != null) {
+        current.handler(null);
+        current = null;
+      }
+      if (timerID != -1) {
+        vertx.cancelTimer(timerID);
+        timerID = -1;
+      }
+    }
+  }
+}
@@ -18,6 +18,7 @@ package io.vertx.ext.mongo.impl.codec;
 
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.mongo.impl.codec.json.JsonObjectCodec;
+import io.vertx.ext.mongo.impl.codec.json.JsonValueCodec;
 import org.bson.codecs.Codec;
 import org.bson.codecs.configuration.CodecRegistry;
 
@@ -25,13 +26,16 @@ import org.bson.codecs.configuration.CodecRegistry;
  * @author <a href="mailto:nscavell@redhat.com">Nick Scavelli</a>
  */
 public class VertxCodecRegistry implements CodecRegistry {
-  private Codec<JsonObject> jsonObjectCodec = new JsonObjectCodec();
+  private JsonObjectCodec jsonObjectCodec = new JsonObjectCodec();
+  private Codec<Object> jsonValueCodec = new JsonValueCodec(jsonObjectCodec);
 
   @Override
   @SuppressWarnings("unchecked")
   public <T> Codec<T> get(Class<T> clazz) {
     if (clazz == JsonObject.class) {
       return (Codec<T>) jsonObjectCodec;
+    } else if (clazz == Object.class) {
+      return (Codec<T>) jsonValueCodec;
     } else {
       throw new IllegalArgumentException("No codec support for type " + clazz);
     }
@@ -2,10 +2,12 @@ package io.vertx.ext.mongo.impl.codec.json;
 
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
+import org.bson.BsonBinary;
 import org.bson.BsonDocument;
 import org.bson.BsonDocumentWriter;
 import org.bson.BsonReader;
 import org.bson.BsonString;
+import org.bson.BsonTimestamp;
 import org.bson.BsonType;
 import org.bson.BsonValue;
 import org.bson.BsonWriter;
@@ -17,6 +19,7 @@ import org.bson.types.ObjectId;
 import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.util.Base64;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
@@ -28,6 +31,12 @@ import static java.time.format.DateTimeFormatter.ISO_OFFSET_DATE_TIME;
 public class JsonObjectCodec extends AbstractJsonCodec<JsonObject, JsonArray> implements CollectibleCodec<JsonObject> {
   public static final String ID_FIELD = "_id";
   public static final String DATE_FIELD = "$date";
+  public static final String TIMESTAMP_FIELD = "$timestamp";
+  public static final String TIMESTAMP_TIME_FIELD = "t";
+  public static final String TIMESTAMP_INC_FIELD = "i";
+  public static final String BINARY_FIELD = "$binary";
+  public static final String TYPE_FIELD = "$type";
+  public static final String OID_FIELD = "$oid";
 
   @Override
   public JsonObject generateIdIfAbsentFromDocument(JsonObject json) {
@@ -129,22 +138,22 @@ public class JsonObjectCodec extends AbstractJsonCodec<JsonObject, JsonArray> im
       JsonObject obj = (JsonObject) value;
       if (obj.containsKey(DATE_FIELD)) {
         return BsonType.DATE_TIME;
+      } else if (obj.containsKey(TIMESTAMP_FIELD)) {
+        return BsonType.TIMESTAMP;
+      } else if (obj.containsKey(BINARY_FIELD)) {
+        return BsonType.BINARY;
+      } else if (isObjectId(obj)) {
+        return BsonType.OBJECT_ID;
       }
       //not supported yet
-      /*else if (obj.containsKey("$binary")) {
-        return BsonType.BINARY;
-      } else if (obj.containsKey("$maxKey")) {
+      /*else if (obj.containsKey("$maxKey")) {
         return BsonType.MAX_KEY;
       } else if (obj.containsKey("$minKey")) {
         return BsonType.MIN_KEY;
-      } else if (obj.containsKey("$oid")) {
-        return BsonType.OBJECT_ID;
       } else if (obj.containsKey("$regex")) {
         return BsonType.REGULAR_EXPRESSION;
       } else if (obj.containsKey("$symbol")) {
         return BsonType.SYMBOL;
-      } else if (obj.containsKey("$timestamp")) {
-        return BsonType.TIMESTAMP;
       } else if (obj.containsKey("$undefined")) {
         return BsonType.UNDEFINED;
       } else if (obj.containsKey("$numberLong")) {
@@ -156,6 +165,17 @@ public class JsonObjectCodec extends AbstractJsonCodec<JsonObject, JsonArray> im
     return type;
   }
 
+  /**
+   * Only a document with a single valid {@code $oid} field is an ObjectId, any other document is written as it is
+   */
+  private static boolean isObjectId(JsonObject obj) {
+    if (obj.size() != 1) {
+      return false;
+    }
+    Object oid = obj.getValue(OID_FIELD);
+    return oid instanceof String && ObjectId.isValid((String) oid);
+  }
+
   //---------- Support additional mappings
 
   @Override
@@ -163,6 +183,11 @@ public class JsonObjectCodec extends AbstractJsonCodec<JsonObject, JsonArray> im
     return reader.readObjectId().toHexString();
   }
 
+  @Override
+  protected void writeObjectId(BsonWriter writer, String name, Object value, EncoderContext ctx) {
+    writer.writeObjectId(new ObjectId(((JsonObject) value).getString(OID_FIELD)));
+  }
+
   @Override
   protected Object readDateTime(BsonReader reader, DecoderContext ctx) {
     final JsonObject result = new JsonObject();
@@ -175,4 +200,37 @@ public class JsonObjectCodec extends AbstractJsonCodec<JsonObject, JsonArray> im
   protected void writeDateTime(BsonWriter writer, String name, Object value, EncoderContext ctx) {
     writer.writeDateTime(OffsetDateTime.parse(((JsonObject) value).getString(DATE_FIELD)).toInstant().toEpochMilli());
   }
+
+  @Override
+  protected Object readTimeStamp(BsonReader reader, DecoderContext ctx) {
+    BsonTimestamp timestamp = reader.readTimestamp();
+    final JsonObject result = new JsonObject();
+    result.put(TIMESTAMP_FIELD, new JsonObject()
+        .put(TIMESTAMP_TIME_FIELD, timestamp.getTime())
+        .put(TIMESTAMP_INC_FIELD, timestamp.getInc()));
+    return result;
+  }
+
+  @Override
+  protected void writeTimeStamp(BsonWriter writer, String name, Object value, EncoderContext ctx) {
+    JsonObject timestamp = ((JsonObject) value).getJsonObject(TIMESTAMP_FIELD);
+    writer.writeTimestamp(new BsonTimestamp(timestamp.getInteger(TIMESTAMP_TIME_FIELD),
+        timestamp.getInteger(TIMESTAMP_INC_FIELD)));
+  }
+
+  @Override
+  protected Object readBinary(BsonReader reader, DecoderContext ctx) {
+    BsonBinary binary = reader.readBinaryData();
+    final JsonObject result = new JsonObject();
+    result.put(BINARY_FIELD, Base64.getEncoder().encodeToString(binary.getData()));
+    result.put(TYPE_FIELD, String.format("%02x", binary.getType()));
+    return result;
+  }
+
+  @Override
+  protected void writeBinary(BsonWriter writer, String name, Object value, EncoderContext ctx) {
+    JsonObject json = (JsonObject) value;
+    byte type = (byte) Integer.parseInt(json.getString(TYPE_FIELD, "00"), 16);
+    writer.writeBinaryData(new BsonBinary(type, Base64.getDecoder().decode(json.getString(BINARY_FIELD))));
+  }
 }
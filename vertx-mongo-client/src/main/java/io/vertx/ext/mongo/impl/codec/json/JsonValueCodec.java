@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2011-2014 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mongo.impl.codec.json;
+
+import org.bson.BsonReader;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+/**
+ * Codec for a single BSON value, mapped to the same JSON types as {@link JsonObjectCodec} uses for document fields:
+ * scalars decode to their JSON counterpart, documents to {@link io.vertx.core.json.JsonObject} and arrays to
+ * {@link io.vertx.core.json.JsonArray}.
+ */
+public class JsonValueCodec implements Codec<Object> {
+
+  private final JsonObjectCodec codec;
+
+  public JsonValueCodec(JsonObjectCodec codec) {
+    this.codec = codec;
+  }
+
+  @Override
+  public Object decode(BsonReader reader, DecoderContext decoderContext) {
+    return codec.readValue(reader, decoderContext);
+  }
+
+  @Override
+  public void encode(BsonWriter writer, Object value, EncoderContext encoderContext) {
+    codec.writeValue(writer, null, value, encoderContext);
+  }
+
+  @Override
+  public Class<Object> getEncoderClass() {
+    return Object.class;
+  }
+}
@@ -8,6 +8,8 @@ import com.mongodb.connection.ClusterType;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -47,6 +49,48 @@ class ClusterSettingsParser {
     return settings;
   }
 
+  /**
+   * The driver only connects over TCP, so reject the Unix domain socket addresses of a connection string, e.g.
+   * {@code mongodb:///tmp/mongodb-27017.sock} or {@code mongodb://%2Ftmp%2Fmongodb-27017.sock}, with a clearer message
+   * than the driver would give.
+   *
+   * @param connectionString  the connection string
+   */
+  static void checkConnectionString(String connectionString) {
+    String prefix = "mongodb://";
+    if (!connectionString.startsWith(prefix)) {
+      return;
+    }
+    String rest = connectionString.substring(prefix.length());
+    int end = rest.indexOf('/');
+    if (end == -1) {
+      end = rest.indexOf('?');
+    }
+    String hosts = end == -1 ? rest : rest.substring(0, end);
+    hosts = hosts.substring(hosts.lastIndexOf('@') + 1);
+    if (hosts.isEmpty() && end != -1 && rest.substring(end).contains(".sock")) {
+      throw domainSocket(rest.substring(end));
+    }
+    for (String host : hosts.split(",")) {
+      try {
+        checkHost(URLDecoder.decode(host, "UTF-8"));
+      } catch (UnsupportedEncodingException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+
+  private static void checkHost(String host) {
+    if (host.startsWith("/") || host.endsWith(".sock")) {
+      throw domainSocket(host);
+    }
+  }
+
+  private static IllegalArgumentException domainSocket(String path) {
+    return new IllegalArgumentException("Unix domain socket " + path + " is not supported, the driver only connects " +
+        "over TCP. Use the address mongod listens on instead, e.g. localhost:27017");
+  }
+
   private static List<ServerAddress> parseHosts(JsonObject config) {
     List<ServerAddress> hosts = new ArrayList<>();
     JsonArray jsonHosts = config.getJsonArray("hosts");
@@ -74,6 +118,7 @@ class ClusterSettingsParser {
     if (host == null) {
       return null;
     } else {
+      checkHost(host);
       if (port == null) {
         return new ServerAddress(host);
       }
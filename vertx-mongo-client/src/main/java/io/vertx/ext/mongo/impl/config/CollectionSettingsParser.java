@@ -0,0 +1,51 @@
+package io.vertx.ext.mongo.impl.config;
+
+import com.mongodb.ReadPreference;
+import com.mongodb.WriteConcern;
+import io.vertx.core.json.JsonObject;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Parses the per-collection defaults of the {@code collections} configuration object, e.g.
+ * {@code {"collections": {"events": {"writeConcern": "UNACKNOWLEDGED", "readPreference": "secondaryPreferred"}}}}.
+ */
+public class CollectionSettingsParser {
+  private final Map<String, WriteConcern> writeConcerns = new HashMap<>();
+  private final Map<String, ReadPreference> readPreferences = new HashMap<>();
+
+  public CollectionSettingsParser(JsonObject config) {
+    JsonObject collections = config.getJsonObject("collections");
+    if (collections != null) {
+      collections.forEach(entry -> {
+        if (!(entry.getValue() instanceof JsonObject)) {
+          throw new IllegalArgumentException("Invalid settings for collection " + entry.getKey() + ", a json object is expected");
+        }
+        JsonObject settings = (JsonObject) entry.getValue();
+        WriteConcern writeConcern = new WriteConcernParser(settings).writeConcern();
+        if (writeConcern != null) {
+          writeConcerns.put(entry.getKey(), writeConcern);
+        }
+        ReadPreference readPreference = new ReadPreferenceParser(settings).readPreference();
+        if (readPreference != null) {
+          readPreferences.put(entry.getKey(), readPreference);
+        }
+      });
+    }
+  }
+
+  /**
+   * @return the default write concern of the collection, or {@code null} to use the client one
+   */
+  public WriteConcern writeConcern(String collection) {
+    return writeConcerns.get(collection);
+  }
+
+  /**
+   * @return the default read preference of the collection, or {@code null} to use the client one
+   */
+  public ReadPreference readPreference(String collection) {
+    return readPreferences.get(collection);
+  }
+}
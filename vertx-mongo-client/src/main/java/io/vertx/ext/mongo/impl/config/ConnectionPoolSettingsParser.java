@@ -14,42 +14,36 @@ class ConnectionPoolSettingsParser {
   private final ConnectionPoolSettings settings;
 
   public ConnectionPoolSettingsParser(ConnectionString connectionString, JsonObject config) {
+    this(connectionString, config, 1, 0);
+  }
+
+  /**
+   * Parse the settings of one of the partitions of a pool, each partition gets its share of the configured sizes
+   */
+  public ConnectionPoolSettingsParser(ConnectionString connectionString, JsonObject config, int partitions, int partition) {
+    this(connectionString, config, null, partitions, partition);
+  }
+
+  /**
+   * Parse the settings of one of the partitions of a named pool, the options of the named pool override the ones of
+   * the data source
+   */
+  public ConnectionPoolSettingsParser(ConnectionString connectionString, JsonObject config, JsonObject pool, int partitions, int partition) {
     ConnectionPoolSettings.Builder settings = ConnectionPoolSettings.builder();
     if (connectionString != null) {
       settings.applyConnectionString(connectionString);
     } else {
-      Integer maxPoolSize = config.getInteger("maxPoolSize");
-      if (maxPoolSize != null) {
-        settings.maxSize(maxPoolSize);
-      }
-      Integer minPoolSize = config.getInteger("minPoolSize");
-      if (minPoolSize != null) {
-        settings.minSize(minPoolSize);
-      }
-      Long maxIdleTimeMS = config.getLong("maxIdleTimeMS");
-      if (maxIdleTimeMS != null) {
-        settings.maxConnectionIdleTime(maxIdleTimeMS, MILLISECONDS);
-      }
-      Long maxLifeTimeMS = config.getLong("maxLifeTimeMS");
-      if (maxLifeTimeMS != null) {
-        settings.maxConnectionLifeTime(maxLifeTimeMS, MILLISECONDS);
-      }
-      Integer waitQueueMultiple = config.getInteger("waitQueueMultiple");
-      if (waitQueueMultiple != null) {
-        settings.maxWaitQueueSize(waitQueueMultiple);
-      }
-      Long waitQueueTimeoutMS = config.getLong("waitQueueTimeoutMS");
-      if (waitQueueTimeoutMS != null) {
-        settings.maxWaitTime(waitQueueTimeoutMS, MILLISECONDS);
-      }
-      Long maintenanceInitialDelayMS = config.getLong("maintenanceInitialDelayMS");
-      if (maintenanceInitialDelayMS != null) {
-        settings.maintenanceInitialDelay(maintenanceInitialDelayMS, MILLISECONDS);
-      }
-      Long maintenanceFrequencyMS = config.getLong("maintenanceFrequencyMS");
-      if (maintenanceFrequencyMS != null) {
-        settings.maintenanceFrequency(maintenanceFrequencyMS, MILLISECONDS);
-      }
+      apply(settings, config);
+    }
+    if (pool != null) {
+      apply(settings, pool);
+    }
+
+    if (partitions > 1) {
+      ConnectionPoolSettings total = settings.build();
+      settings.maxSize(Math.max(1, share(total.getMaxSize(), partitions, partition)));
+      settings.minSize(share(total.getMinSize(), partitions, partition));
+      settings.maxWaitQueueSize(Math.max(1, share(total.getMaxWaitQueueSize(), partitions, partition)));
     }
 
     this.settings = settings.build();
@@ -58,4 +52,43 @@ class ConnectionPoolSettingsParser {
   public ConnectionPoolSettings settings() {
     return settings;
   }
+
+  private static void apply(ConnectionPoolSettings.Builder settings, JsonObject config) {
+    Integer maxPoolSize = config.getInteger("maxPoolSize");
+    if (maxPoolSize != null) {
+      settings.maxSize(maxPoolSize);
+    }
+    Integer minPoolSize = config.getInteger("minPoolSize");
+    if (minPoolSize != null) {
+      settings.minSize(minPoolSize);
+    }
+    Long maxIdleTimeMS = config.getLong("maxIdleTimeMS");
+    if (maxIdleTimeMS != null) {
+      settings.maxConnectionIdleTime(maxIdleTimeMS, MILLISECONDS);
+    }
+    Long maxLifeTimeMS = config.getLong("maxLifeTimeMS");
+    if (maxLifeTimeMS != null) {
+      settings.maxConnectionLifeTime(maxLifeTimeMS, MILLISECONDS);
+    }
+    Integer waitQueueMultiple = config.getInteger("waitQueueMultiple");
+    if (waitQueueMultiple != null) {
+      settings.maxWaitQueueSize(waitQueueMultiple);
+    }
+    Long waitQueueTimeoutMS = config.getLong("waitQueueTimeoutMS");
+    if (waitQueueTimeoutMS != null) {
+      settings.maxWaitTime(waitQueueTimeoutMS, MILLISECONDS);
+    }
+    Long maintenanceInitialDelayMS = config.getLong("maintenanceInitialDelayMS");
+    if (maintenanceInitialDelayMS != null) {
+      settings.maintenanceInitialDelay(maintenanceInitialDelayMS, MILLISECONDS);
+    }
+    Long maintenanceFrequencyMS = config.getLong("maintenanceFrequencyMS");
+    if (maintenanceFrequencyMS != null) {
+      settings.maintenanceFrequency(maintenanceFrequencyMS, MILLISECONDS);
+    }
+  }
+
+  private static int share(int total, int partitions, int partition) {
+    return total / partitions + (partition < total % partitions ? 1 : 0);
+  }
 }
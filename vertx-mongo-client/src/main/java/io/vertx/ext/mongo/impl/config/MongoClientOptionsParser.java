@@ -20,6 +20,29 @@ public class MongoClientOptionsParser {
   private final MongoClientSettings settings;
 
   public MongoClientOptionsParser(JsonObject config) {
+    this(config, 1, 0);
+  }
+
+  /**
+   * Parse the settings of one of the partitions of a data source, the connection pool is shared between partitions
+   *
+   * @param config  the configuration
+   * @param partitions  the number of partitions
+   * @param partition  the index of the partition
+   */
+  public MongoClientOptionsParser(JsonObject config, int partitions, int partition) {
+    this(config, null, partitions, partition);
+  }
+
+  /**
+   * Parse the settings of one of the partitions of a named pool of a data source
+   *
+   * @param config  the configuration
+   * @param pool  the connection pool options of the named pool, or {@code null} for the pool of the data source
+   * @param partitions  the number of partitions
+   * @param partition  the index of the partition
+   */
+  public MongoClientOptionsParser(JsonObject config, JsonObject pool, int partitions, int partition) {
     Objects.requireNonNull(config);
 
     MongoClientSettings.Builder options = MongoClientSettings.builder();
@@ -27,6 +50,9 @@ public class MongoClientOptionsParser {
 
     // All parsers should support connection_string first
     String cs = config.getString("connection_string");
+    if (cs != null) {
+      ClusterSettingsParser.checkConnectionString(cs);
+    }
     ConnectionString connectionString = (cs == null) ? null : new ConnectionString(cs);
 
     // ClusterSettings
@@ -34,7 +60,7 @@ public class MongoClientOptionsParser {
     options.clusterSettings(clusterSettings);
 
     // ConnectionPoolSettings
-    ConnectionPoolSettings connectionPoolSettings = new ConnectionPoolSettingsParser(connectionString, config).settings();
+    ConnectionPoolSettings connectionPoolSettings = new ConnectionPoolSettingsParser(connectionString, config, pool, partitions, partition).settings();
     options.connectionPoolSettings(connectionPoolSettings);
 
     // Credentials
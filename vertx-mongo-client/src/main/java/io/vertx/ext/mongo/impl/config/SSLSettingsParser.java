@@ -13,15 +13,20 @@ public class SSLSettingsParser {
   public SSLSettingsParser(ConnectionString connectionString, JsonObject config) {
     SslSettings.Builder settings = SslSettings.builder();
     Boolean ssl;
+    Boolean invalidHostNameAllowed = null;
     if (connectionString != null) {
       ssl = connectionString.getSslEnabled();
     } else {
       ssl = config.getBoolean("ssl");
+      invalidHostNameAllowed = config.getBoolean("sslInvalidHostNameAllowed");
     }
 
     if (ssl != null) {
       settings.enabled(ssl);
     }
+    if (invalidHostNameAllowed != null) {
+      settings.invalidHostNameAllowed(invalidHostNameAllowed);
+    }
     this.settings = settings.build();
   }
 
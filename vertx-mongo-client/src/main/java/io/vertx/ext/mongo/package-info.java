@@ -93,6 +93,105 @@
  * Use this way of creating if you wish different groups of clients to have different pools, e.g. they're
  * interacting with different databases.
  *
+ * === Using several databases
+ *
+ * A client operates on the database of its `db_name` configuration. To use other databases of the same deployment,
+ * e.g. one database per tenant, get a view of the client with {@link io.vertx.ext.mongo.MongoClient#database(String)}
+ * rather than creating one client per database:
+ *
+ * [source,java]
+ * ----
+ * {@link examples.Examples#exampleDatabase}
+ * ----
+ *
+ * All the views share the driver client and the connection pool of the client. The views of up to 1024 databases are
+ * cached, so getting the view of a database on every call is cheap. The `collections` configuration applies to the
+ * collections of every database.
+ * A view can be used as long as the client is open, closing a view does nothing.
+ *
+ * === Separating workloads
+ *
+ * Long running operations, e.g. reports, exports or migrations, hold connections of the pool for their whole
+ * duration, so a burst of them can make interactive requests wait for a connection. Configure named `pools`, each
+ * with its own connections, and run such work on a view of one of them, given by
+ * {@link io.vertx.ext.mongo.MongoClient#pool(String)}:
+ *
+ * [source,java]
+ * ----
+ * {@link examples.Examples#examplePool}
+ * ----
+ *
+ * Each named pool has its own driver client, configured like the data source except for the connection pool options
+ * of the named pool, e.g. `maxPoolSize` or `waitQueueTimeoutMS`, which override the ones of the data source, including
+ * the ones of the `connection_string`. The operations of the client itself keep using the connections of the data
+ * source, which the named pools cannot exhaust.
+ *
+ * === Warming up the pool
+ *
+ * The client checks its configuration when it is created, but the driver client is only created by the first
+ * operation, which then pays for connecting, authenticating and selecting a server. To avoid this latency, e.g. during
+ * a rolling restart, pass a handler to
+ * {@link io.vertx.ext.mongo.MongoClient#createShared(io.vertx.core.Vertx, io.vertx.core.json.JsonObject, String, io.vertx.core.Handler)}:
+ *
+ * [source,java]
+ * ----
+ * {@link examples.Examples#exampleCreateWarm}
+ * ----
+ *
+ * The pool then opens `minPoolSize` connections, at least one, and pings the server. The handler is called once the
+ * pool is usable, or with the failure that prevented it, e.g. when no server could be selected. Setting the `warmUp`
+ * configuration option to `true` warms up the data source the same way for the factories without a handler, a failure
+ * is then only logged.
+ *
+ * Conversely, when startup time matters more than the latency of the first operations, set the `lazy` configuration
+ * option to `true`: the configuration is not even checked before the first operation. Configuration errors are then
+ * reported by this operation instead of when the client is created, and a data source is never warmed up.
+ *
+ * === Updating the configuration
+ *
+ * The driver settings of a data source, e.g. its pool sizes, socket timeouts or read preference, can be changed
+ * while it is in use with {@link io.vertx.ext.mongo.MongoClient#updateConfig(io.vertx.core.json.JsonObject, io.vertx.core.Handler)}:
+ *
+ * [source,java]
+ * ----
+ * {@link examples.Examples#exampleUpdateConfig}
+ * ----
+ *
+ * The changes are merged into the configuration of the data source, so they apply to all its clients. New driver
+ * clients are created and warmed up in the background, then new operations switch to them. The previous driver
+ * clients finish their operations in flight and their open streams, and are closed once they are done, or after
+ * `drainTimeoutMS`. Tail and oplog streams move to the new driver clients when they reopen their cursor, other streams
+ * still open after `drainTimeoutMS` fail.
+ *
+ * When the new configuration is invalid, or the new driver clients cannot reach the server, the handler fails and the
+ * data source keeps its configuration.
+ *
+ * === Routing over several clusters
+ *
+ * When the data outgrows a deployment, it can be split over several clusters by a shard key, e.g. the tenant of the
+ * documents. {@link io.vertx.ext.mongo.MongoClient#createRouting(io.vertx.core.Vertx, io.vertx.core.json.JsonObject)}
+ * creates a client routing the operations over the clusters:
+ *
+ * [source,java]
+ * ----
+ * {@link examples.Examples#exampleCreateRouting}
+ * ----
+ *
+ * Each cluster has its own data source, shared with the other clients using its `dataSourceName`. The `hash`
+ * placement puts the keys on a consistent hash ring of `virtualNodes` nodes per cluster (defaults to `160`), so adding
+ * a cluster only moves the keys it takes over. The `range` placement puts each key in the range with the greatest
+ * `min` lower than or equal to it, numbers and strings can be used as bounds and one range can be unbounded.
+ *
+ * Inserts and saves go to the cluster of the shard key of the document, which is then required. Operations whose
+ * query matches the shard key by equality, e.g. `{"tenant": "acme"}`, go to the cluster of the key, as well as
+ * aggregations starting with such a `$match` stage. Other operations are sent to all the clusters and their results
+ * are merged: counts are added, documents found are sorted, skipped and limited again, distinct values are
+ * deduplicated, and streams are merged. Aggregation pipelines sent to all the clusters cannot have `$group`, `$sort`,
+ * `$limit`, `$skip` or `$out` stages, as they would not combine the documents of different clusters. Like with a
+ * `mongos` router, updates, replaces and removes of a single document, as well as upserts, require the shard key in the
+ * query, and updates and replaces cannot change the shard key of a document. Commands run on every cluster and their
+ * results are keyed by cluster name.
+ *
  * === Creating a client with a non shared data pool
  *
  * In most cases you will want to share a pool between different client instances.
@@ -230,6 +329,12 @@
  * `sort`:: The fields to sort by. Defaults to `null`.
  * `limit`:: The limit of the number of results to return. Default to `-1`, meaning all results will be returned.
  * `skip`:: The number of documents to skip before returning the results. Defaults to `0`.
+ * `maxTimeMS`:: The maximum execution time of the query on the server. Defaults to `0`, meaning no limit.
+ *
+ * To process large results without holding them in memory, use {@link io.vertx.ext.mongo.MongoClient#findStream}
+ * with the same options: the documents are fetched batch by batch as the stream is consumed. The event bus proxy of
+ * the service sends them in chunks of 100 documents, at most two chunks ahead of a paused consumer, rather than in a
+ * single message.
  *
  * === Finding a single document
  *
@@ -237,6 +342,60 @@
  *
  * This works just like {@link io.vertx.ext.mongo.MongoClient#find} but it returns just the first matching document.
  *
+ * === Tailing capped collections
+ *
+ * http://docs.mongodb.org/manual/core/capped-collections[Capped collections] can be used as lightweight event logs.
+ * Instead of polling them with {@link io.vertx.ext.mongo.MongoClient#find}, you can use
+ * {@link io.vertx.ext.mongo.MongoClient#tail} to get a {@link io.vertx.core.streams.ReadStream} delivering the matching
+ * documents as soon as they are inserted:
+ *
+ * [source,$lang]
+ * ----
+ * {@link examples.Examples#example9_1}
+ * ----
+ *
+ * The stream is backed by a tailable cursor and configured with an instance of {@link io.vertx.ext.mongo.TailOptions},
+ * which has the following fields:
+ *
+ * `fields`:: The fields to return in the results. Defaults to `null`, meaning all fields will be returned. The `\_id`
+ * field must not be excluded.
+ * `awaitData`:: Set to true to use a `TailableAwait` cursor, the server then waits a little for new documents
+ * instead of returning empty batches straight away. Defaults to `true`.
+ * `batchSize`:: The number of documents fetched from the server at once. Defaults to `0`, meaning the server default.
+ * `reconnectDelayMS`:: The time to wait before opening a new cursor when the previous one died. Defaults to `1000`.
+ *
+ * A tailable cursor dies when the collection is empty, when the server discards it or when the connection is lost.
+ * The stream then transparently opens a new cursor matching only the documents inserted after the last one it
+ * delivered, based on their `\_id`. Resuming therefore requires ids to be increasing, like the ones generated
+ * by the client.
+ *
+ * The stream never ends, unset its handler to stop tailing the collection.
+ *
+ * === Streaming the oplog
+ *
+ * When connected to a replica set, {@link io.vertx.ext.mongo.MongoClient#oplog} streams the entries of the
+ * http://docs.mongodb.org/manual/core/replica-set-oplog[oplog] as they are written, which is handy to propagate
+ * changes to caches or search indexes:
+ *
+ * [source,$lang]
+ * ----
+ * {@link examples.Examples#example9_2}
+ * ----
+ *
+ * The stream is configured with an instance of {@link io.vertx.ext.mongo.OplogOptions}, which has the following fields:
+ *
+ * `namespaces`:: The `database.collection` names of the entries to stream. Defaults to `null`, meaning all namespaces.
+ * `operations`:: The operation types of the entries to stream, e.g. `i`, `u` and `d` for inserts, updates and deletes.
+ * Defaults to `null`, meaning all operations.
+ * `timestamp`:: The `ts` of the entry to start after. Defaults to `null`, meaning the stream starts after the latest
+ * entry.
+ * `batchSize`:: The number of entries fetched from the server at once. Defaults to `0`, meaning the server default.
+ * `reconnectDelayMS`:: The time to wait before opening a new cursor when the previous one died. Defaults to `1000`.
+ *
+ * Timestamps are represented as `{"$timestamp": {"t": seconds, "i": increment}}` objects. Storing the `ts` of the last
+ * entry processed lets a consumer resume where it left off after a restart, as long as the entry is still in the
+ * oplog. Like tailing streams, oplog streams apply back pressure and never end.
+ *
  * === Removing documents
  *
  * To remove documents use {@link io.vertx.ext.mongo.MongoClient#remove}.
@@ -295,6 +454,50 @@
  * ----
  *
  *
+ * === Getting distinct values
+ *
+ * To get the distinct values of a field across the documents matching a query you use
+ * {@link io.vertx.ext.mongo.MongoClient#distinct}.
+ *
+ * The values are returned as a json array, without any wrapping document:
+ *
+ * [source,$lang]
+ * ----
+ * {@link examples.Examples#example11_4}
+ * ----
+ *
+ * Alternatively {@link io.vertx.ext.mongo.MongoClient#distinctStream} delivers the values one by one as a
+ * {@link io.vertx.core.streams.ReadStream}.
+ *
+ * === Running aggregation pipelines
+ *
+ * To run an http://docs.mongodb.org/manual/core/aggregation-pipeline[aggregation pipeline] you use
+ * {@link io.vertx.ext.mongo.MongoClient#aggregate} and pass the pipeline stages as a json array.
+ *
+ * The pipeline is configured with an instance of {@link io.vertx.ext.mongo.AggregateOptions}, which has the following
+ * fields:
+ *
+ * `allowDiskUse`:: set to true to let the pipeline stages write temporary files on the server. Defaults to `false`.
+ * `batchSize`:: The number of documents fetched from the server at once. Defaults to `0`, meaning the server default.
+ * `maxTimeMS`:: The maximum execution time of the pipeline on the server. Defaults to `0`, meaning no limit.
+ *
+ * Here's an example that counts the books of each author:
+ *
+ * [source,$lang]
+ * ----
+ * {@link examples.Examples#example12_1}
+ * ----
+ *
+ * The results are returned as a list of json objects in the result handler. For large result sets use
+ * {@link io.vertx.ext.mongo.MongoClient#aggregateStream} instead: the results are delivered as a
+ * {@link io.vertx.core.streams.ReadStream} and fetched from the server batch by batch as the stream is consumed,
+ * so they are neither limited by the maximum document size nor held in memory as a whole.
+ *
+ * [source,$lang]
+ * ----
+ * {@link examples.Examples#example12_2}
+ * ----
+ *
  * === Running other MongoDB commands
  *
  * You can run arbitrary MongoDB commands with {@link io.vertx.ext.mongo.MongoClient#runCommand}.
@@ -314,7 +517,11 @@
  *
  * === MongoDB Extended JSON support
  *
- * For now, only date type is supported (cf http://docs.mongodb.org/manual/reference/mongodb-extended-json )
+ * For now, only the date type and ObjectIds are supported (cf http://docs.mongodb.org/manual/reference/mongodb-extended-json )
+ *
+ * A document with a single `$oid` field holding a valid ObjectId, e.g. `{"$oid": "55b9bbcd6abcf3b3a5e7ab0b"}`, is
+ * stored as an ObjectId, and read back as the hex string of the ObjectId. Any other document with a `$oid` field is
+ * stored as a document.
  *
  * Here's an example of inserting a document with a date field
  *
@@ -331,7 +538,35 @@
  *
  *
  * `db_name`:: Name of the database in the mongoDB instance to use. Defaults to `default_db`
+ * `lazy`:: Set to `true` to check the configuration on the first operation rather than when the client is created.
+ * The driver client is always created by the first operation unless the data source is warmed up. Defaults to `false`.
+ * `warmUp`:: Set to `true` to create the driver client and open the pool when the client is created, as when a ready
+ * handler is given. Ignored when `lazy` is `true`. Defaults to `false`.
+ * `eventLoopPools`:: Set to `true`, or to the number of event loops, to split the connection pool into one
+ * partition per event loop, each with its own driver client. The `maxPoolSize`, `minPoolSize` and `waitQueueMultiple`
+ * options are shared between the partitions. Operations use the partition of the event loop calling them, or the
+ * least busy one when it has as many operations in flight as connections. This avoids contention on a single pool
+ * when many verticle instances share a data source. `true` uses the number of event loops of the Vert.x instance.
+ * Defaults to `false`.
+ * `adaptivePool`:: Set to `true`, or to an object, to adapt the number of operations in flight on the pool, i.e. its
+ * effective size, between `minPoolSize` (at least 1) and `maxPoolSize`. The limit grows when operations wait for it
+ * while the server latency stays close to its lowest observed value, and shrinks when the latency grows beyond
+ * `latencyTolerance` times this value (defaults to `2.0`) or when the allowed operations are not used. Operations
+ * above the limit wait in the client, and connections left idle are closed after `maxIdleTimeMS`. The limit is
+ * adjusted at most every `intervalMS` (defaults to `1000`). The decisions are reported by
+ * {@link io.vertx.ext.mongo.MongoClient#poolMetrics()}. Defaults to `false`.
+ * `pools`:: Named connection pools used by the views given by {@link io.vertx.ext.mongo.MongoClient#pool(String)},
+ * keyed by name. Each entry supports the connection pool options, e.g.
+ * `{"batch": {"maxPoolSize": 4, "waitQueueTimeoutMS": 60000}}`. Named pools are split between partitions and adapted
+ * like the pool of the data source.
+ * `drainTimeoutMS`:: The time given to the operations in flight and the open streams on the previous driver clients
+ * after a configuration update, in milliseconds. Defaults to `30000`.
  * `useObjectId`:: Toggle this option to support persisting and retrieving ObjectId's as strings. Defaults to `false`.
+ * `collections`:: Default options of individual collections, keyed by collection name. Each entry supports the
+ * driver write concern options (`writeConcern`, or `w`, `wtimeoutMS`, `j` and `fsync`) and read preference options
+ * (`readPreference` and `readPreferenceTags`), e.g.
+ * `{"events": {"writeConcern": "UNACKNOWLEDGED", "readPreference": "secondaryPreferred"}}`. A write option given to an
+ * operation overrides the default write concern of the collection.
  *
  * The mongo client tries to support most options that are allowed by the driver. There are two ways to configure mongo
  * for use by the driver, either by a connection string or by separate configuration options.
@@ -340,6 +575,8 @@
  *
  * `connection_string`:: The connection string the driver uses to create the client. E.g. `mongodb://localhost:27017`.
  * For more information on the format of the connection string please consult the driver documentation.
+ * The driver only connects over TCP: Unix domain socket addresses, e.g. `mongodb:///tmp/mongodb-27017.sock`, are
+ * rejected. Use the loopback address of a co-located `mongod` instead.
  *
  * *Specific driver configuration options*
  *
@@ -400,6 +637,10 @@
  *   // Server Settings
  *   "heartbeatFrequencyMS" :    1000 // long
  *   "minHeartbeatFrequencyMS" : 500 // long
+ *
+ *   // SSL Settings
+ *   "ssl" : true,                      // boolean
+ *   "sslInvalidHostNameAllowed" : true // boolean
  * }
  * ----
  *
@@ -432,6 +673,9 @@
  * `heartbeat.socket`:: Configures the socket settings for the cluster monitor of the MongoDB java driver.
  * `heartbeatFrequencyMS`:: The frequency that the cluster monitor attempts to reach each server. Default is `5000` (5 seconds)
  * `minHeartbeatFrequencyMS`:: The minimum heartbeat frequency. The default value is `1000` (1 second)
+ * `ssl`:: Enable SSL connections to the server. The driver then uses Netty with the JDK `SSLEngine` of the default
+ * `SSLContext`, so the protocols and cipher suites are configured with the JDK security properties. Default is `false`
+ * `sslInvalidHostNameAllowed`:: Accept server certificates that do not match the host name. Default is `false`
  *
  * NOTE: Most of the default values listed above use the default values of the MongoDB Java Driver.
  * Please consult the driver documentation for up to date information.
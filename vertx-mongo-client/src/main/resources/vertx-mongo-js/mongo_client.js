@@ -16,6 +16,7 @@
 
 /** @module vertx-mongo-js/mongo_client */
 var utils = require('vertx-js/util/utils');
+var ReadStream = require('vertx-js/read_stream');
 
 var io = Packages.io;
 var JsonObject = io.vertx.core.json.JsonObject;
@@ -23,6 +24,9 @@ var JMongoClient = io.vertx.ext.mongo.MongoClient;
 var UpdateOptions = io.vertx.ext.mongo.UpdateOptions;
 var UpdateOptions = io.vertx.ext.mongo.UpdateOptions;
 var FindOptions = io.vertx.ext.mongo.FindOptions;
+var TailOptions = io.vertx.ext.mongo.TailOptions;
+var OplogOptions = io.vertx.ext.mongo.OplogOptions;
+var AggregateOptions = io.vertx.ext.mongo.AggregateOptions;
 
 /**
  A Vert.x service used to interact with MongoDB server instances.
@@ -273,6 +277,64 @@ var MongoClient = function(j_val) {
     } else utils.invalidArgs();
   };
 
+  /**
+   Like <a href="../../vertx-mongo-js/mongo_client.html#findWithOptions">MongoClient#findWithOptions</a> but streams the matching documents.
+   <p>
+   Documents are fetched from the server batch by batch as the stream is consumed, so a paused stream holds at most
+   one batch in memory whatever the size of the result.
+
+   @public
+   @param collection {string} the collection 
+   @param query {Object} query used to match documents 
+   @param options {Object} options to configure the find 
+   @return {ReadStream} a stream of documents, the query starts when a handler is set
+   */
+  this.findStream = function(collection, query, options) {
+    var __args = arguments;
+    if (__args.length === 3 && typeof __args[0] === 'string' && typeof __args[1] === 'object' && typeof __args[2] === 'object') {
+      return utils.convReturnVertxGen(j_mongoClient["findStream(java.lang.String,io.vertx.core.json.JsonObject,io.vertx.ext.mongo.FindOptions)"](collection, utils.convParamJsonObject(query), options != null ? new FindOptions(new JsonObject(JSON.stringify(options))) : null), ReadStream);
+    } else utils.invalidArgs();
+  };
+
+  /**
+   Tail a capped collection, streaming the matching documents as they are inserted.
+   <p>
+   The stream is backed by a tailable cursor and never ends. If the cursor dies, e.g. the collection was empty or
+   the connection was lost, a new one is opened transparently, resuming after the <code>_id</code> of the last document
+   received. Resuming therefore requires documents to be inserted with increasing ids, as generated ids are.
+
+   @public
+   @param collection {string} the capped collection 
+   @param query {Object} query used to match documents 
+   @param options {Object} options to configure the cursor 
+   @return {ReadStream} a stream of documents, tailing starts when a handler is set and stops when the handler is unset
+   */
+  this.tail = function(collection, query, options) {
+    var __args = arguments;
+    if (__args.length === 3 && typeof __args[0] === 'string' && typeof __args[1] === 'object' && typeof __args[2] === 'object') {
+      return utils.convReturnVertxGen(j_mongoClient["tail(java.lang.String,io.vertx.core.json.JsonObject,io.vertx.ext.mongo.TailOptions)"](collection, utils.convParamJsonObject(query), options != null ? new TailOptions(new JsonObject(JSON.stringify(options))) : null), ReadStream);
+    } else utils.invalidArgs();
+  };
+
+  /**
+   Stream the entries of the replica set oplog, <code>local.oplog.rs</code>, as they are written.
+   <p>
+   The stream is backed by a tailable cursor and never ends. If the cursor dies, a new one is opened transparently,
+   resuming after the <code>ts</code> of the last entry received. Storing the <code>ts</code> of the last entry processed and
+   passing it as <a href="../../cheatsheet/OplogOptions.html">OplogOptions</a> allows a consumer to resume after a restart.
+   Only available when connected to a replica set member.
+
+   @public
+   @param options {Object} options to filter the entries and configure the cursor 
+   @return {ReadStream} a stream of oplog entries, tailing starts when a handler is set and stops when the handler is unset
+   */
+  this.oplog = function(options) {
+    var __args = arguments;
+    if (__args.length === 1 && typeof __args[0] === 'object') {
+      return utils.convReturnVertxGen(j_mongoClient["oplog(io.vertx.ext.mongo.OplogOptions)"](options != null ? new OplogOptions(new JsonObject(JSON.stringify(options))) : null), ReadStream);
+    } else utils.invalidArgs();
+  };
+
   /**
    Find a single matching document in the specified collection
 
@@ -479,6 +541,73 @@ var MongoClient = function(j_val) {
     } else utils.invalidArgs();
   };
 
+  /**
+   Get the distinct values of a field across the matching documents of the specified collection
+
+   @public
+   @param collection {string} the collection 
+   @param fieldName {string} the field name 
+   @param query {Object} query used to match documents 
+   @param resultHandler {function} will be provided with the distinct values 
+   @return {MongoClient}
+   */
+  this.distinct = function(collection, fieldName, query, resultHandler) {
+    var __args = arguments;
+    if (__args.length === 4 && typeof __args[0] === 'string' && typeof __args[1] === 'string' && typeof __args[2] === 'object' && typeof __args[3] === 'function') {
+      j_mongoClient["distinct(java.lang.String,java.lang.String,io.vertx.core.json.JsonObject,io.vertx.core.Handler)"](collection, fieldName, utils.convParamJsonObject(query), function(ar) {
+      if (ar.succeeded()) {
+        resultHandler(utils.convReturnJson(ar.result()), null);
+      } else {
+        resultHandler(null, ar.cause());
+      }
+    });
+      return that;
+    } else utils.invalidArgs();
+  };
+
+  /**
+   Run an aggregation pipeline against the specified collection
+
+   @public
+   @param collection {string} the collection 
+   @param pipeline {Array} the pipeline stages, each one a json object 
+   @param options {Object} options to configure the aggregation 
+   @param resultHandler {function} will be provided with list of result documents 
+   @return {MongoClient}
+   */
+  this.aggregate = function(collection, pipeline, options, resultHandler) {
+    var __args = arguments;
+    if (__args.length === 4 && typeof __args[0] === 'string' && typeof __args[1] === 'object' && typeof __args[2] === 'object' && typeof __args[3] === 'function') {
+      j_mongoClient["aggregate(java.lang.String,io.vertx.core.json.JsonArray,io.vertx.ext.mongo.AggregateOptions,io.vertx.core.Handler)"](collection, utils.convParamJsonArray(pipeline), options != null ? new AggregateOptions(new JsonObject(JSON.stringify(options))) : null, function(ar) {
+      if (ar.succeeded()) {
+        resultHandler(utils.convReturnListSetJson(ar.result()), null);
+      } else {
+        resultHandler(null, ar.cause());
+      }
+    });
+      return that;
+    } else utils.invalidArgs();
+  };
+
+  /**
+   Run an aggregation pipeline against the specified collection, streaming the result documents.
+   <p>
+   Results are fetched from the server batch by batch as the stream is consumed, so the result set is not
+   limited by the maximum document size and is never held in memory as a whole.
+
+   @public
+   @param collection {string} the collection 
+   @param pipeline {Array} the pipeline stages, each one a json object 
+   @param options {Object} options to configure the aggregation 
+   @return {ReadStream} a stream of result documents, the aggregation starts when a handler is set
+   */
+  this.aggregateStream = function(collection, pipeline, options) {
+    var __args = arguments;
+    if (__args.length === 3 && typeof __args[0] === 'string' && typeof __args[1] === 'object' && typeof __args[2] === 'object') {
+      return utils.convReturnVertxGen(j_mongoClient["aggregateStream(java.lang.String,io.vertx.core.json.JsonArray,io.vertx.ext.mongo.AggregateOptions)"](collection, utils.convParamJsonArray(pipeline), options != null ? new AggregateOptions(new JsonObject(JSON.stringify(options))) : null), ReadStream);
+    } else utils.invalidArgs();
+  };
+
   /**
    Run an arbitrary MongoDB command.
 
@@ -502,6 +631,92 @@ var MongoClient = function(j_val) {
     } else utils.invalidArgs();
   };
 
+  /**
+   Get a view of the client operating on another database of the same deployment.
+   <p>
+   The view shares the driver client and the connection pool of this client, so any number of databases, e.g. one
+   per tenant, can be used with a single pool. The views of up to 1024 databases are cached, calling this method
+   again with the same name returns the same view. A view can be used as long as this client is open, closing a view
+   does nothing.
+
+   @public
+   @param name {string} the database name 
+   @return {MongoClient} the view of the database
+   */
+  this.database = function(name) {
+    var __args = arguments;
+    if (__args.length === 1 && typeof __args[0] === 'string') {
+      return utils.convReturnVertxGen(j_mongoClient["database(java.lang.String)"](name), MongoClient);
+    } else utils.invalidArgs();
+  };
+
+  /**
+   Get a view of the client running its operations on one of the named <code>pools</code> of the data source.
+   <p>
+   Each named pool has its own connections, so long running work, e.g. reports or migrations, can be kept away from
+   the connections serving interactive requests. The view uses the same database as this client and is cached like
+   the views of <a href="../../vertx-mongo-js/mongo_client.html#database">MongoClient#database</a>, closing it does nothing.
+
+   @public
+   @param name {string} the pool name, as configured in <code>pools</code> 
+   @return {MongoClient} the view of the pool
+   */
+  this.pool = function(name) {
+    var __args = arguments;
+    if (__args.length === 1 && typeof __args[0] === 'string') {
+      return utils.convReturnVertxGen(j_mongoClient["pool(java.lang.String)"](name), MongoClient);
+    } else utils.invalidArgs();
+  };
+
+  /**
+   Update the configuration of the data source without closing it, e.g. to change the pool size, the socket timeouts
+   or the read preference.
+   <p>
+   The changes are merged into the configuration of the data source. New driver clients are created from it and
+   warmed up, then new operations, including the ones of the other clients of the data source, switch to them. The
+   previous driver clients are closed once their operations in flight completed and their streams are closed, or after
+   <code>drainTimeoutMS</code>.
+   The handler fails, and the data source keeps its configuration, when the configuration is invalid or the new
+   clients cannot reach the server.
+
+   @public
+   @param config {Object} the configuration changes 
+   @param resultHandler {function} will be called when new operations use the new configuration 
+   @return {MongoClient}
+   */
+  this.updateConfig = function(config, resultHandler) {
+    var __args = arguments;
+    if (__args.length === 2 && typeof __args[0] === 'object' && typeof __args[1] === 'function') {
+      j_mongoClient["updateConfig(io.vertx.core.json.JsonObject,io.vertx.core.Handler)"](utils.convParamJsonObject(config), function(ar) {
+      if (ar.succeeded()) {
+        resultHandler(null, null);
+      } else {
+        resultHandler(null, ar.cause());
+      }
+    });
+      return that;
+    } else utils.invalidArgs();
+  };
+
+  /**
+   Get the metrics of the connection pools of the data source, one entry per partition in <code>partitions</code>.
+   <p>
+   Each entry has the configured <code>minPoolSize</code> and <code>maxPoolSize</code>, the operations <code>inFlight</code> and the
+   <code>limit</code> of operations in flight. With an adaptive pool it also has the operations <code>queued</code> for the
+   limit, the average <code>latencyMS</code>, <code>baselineLatencyMS</code> and <code>waitMS</code> of the last interval, and the
+   number of <code>increases</code> and <code>decreases</code> of the limit. The entries of the named pools have the <code>pool</code>
+   name.
+
+   @public
+   @return {Object} the metrics
+   */
+  this.poolMetrics = function() {
+    var __args = arguments;
+    if (__args.length === 0) {
+      return utils.convReturnJson(j_mongoClient["poolMetrics()"]());
+    } else utils.invalidArgs();
+  };
+
   /**
    Close the client and release its resources
 
@@ -552,6 +767,33 @@ MongoClient.createShared = function() {
     return utils.convReturnVertxGen(JMongoClient["createShared(io.vertx.core.Vertx,io.vertx.core.json.JsonObject)"](__args[0]._jdel, utils.convParamJsonObject(__args[1])), MongoClient);
   }else if (__args.length === 3 && typeof __args[0] === 'object' && __args[0]._jdel && typeof __args[1] === 'object' && typeof __args[2] === 'string') {
     return utils.convReturnVertxGen(JMongoClient["createShared(io.vertx.core.Vertx,io.vertx.core.json.JsonObject,java.lang.String)"](__args[0]._jdel, utils.convParamJsonObject(__args[1]), __args[2]), MongoClient);
+  }else if (__args.length === 4 && typeof __args[0] === 'object' && __args[0]._jdel && typeof __args[1] === 'object' && typeof __args[2] === 'string' && typeof __args[3] === 'function') {
+    return utils.convReturnVertxGen(JMongoClient["createShared(io.vertx.core.Vertx,io.vertx.core.json.JsonObject,java.lang.String,io.vertx.core.Handler)"](__args[0]._jdel, utils.convParamJsonObject(__args[1]), __args[2], function(ar) {
+      if (ar.succeeded()) {
+        __args[3](null, null);
+      } else {
+        __args[3](null, ar.cause());
+      }
+    }), MongoClient);
+  } else utils.invalidArgs();
+};
+
+/**
+ Create a Mongo client routing the operations over several clusters by the shard key of the documents.
+ <p>
+ The configuration has the <code>clusters</code>, each one with a <code>name</code>, the <code>config</code> of its data source
+ and optionally its <code>dataSourceName</code>, which defaults to its name. The <code>shardKey</code> is the field placing
+ the documents, with the <code>hash</code> or <code>range</code> <code>placement</code>.
+
+ @memberof module:vertx-mongo-js/mongo_client
+ @param vertx {Vertx} the Vert.x instance 
+ @param config {Object} the routing configuration 
+ @return {MongoClient} the client
+ */
+MongoClient.createRouting = function(vertx, config) {
+  var __args = arguments;
+  if (__args.length === 2 && typeof __args[0] === 'object' && __args[0]._jdel && typeof __args[1] === 'object') {
+    return utils.convReturnVertxGen(JMongoClient["createRouting(io.vertx.core.Vertx,io.vertx.core.json.JsonObject)"](vertx._jdel, utils.convParamJsonObject(config)), MongoClient);
   } else utils.invalidArgs();
 };
 
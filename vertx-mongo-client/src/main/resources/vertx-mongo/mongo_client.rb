@@ -1,3 +1,4 @@
+require 'vertx/read_stream'
 require 'vertx/util/utils.rb'
 # Generated from io.vertx.ext.mongo.MongoClient
 module VertxMongo
@@ -28,15 +29,32 @@ module VertxMongo
     # @param [::Vertx::Vertx] vertx the Vert.x instance
     # @param [Hash{String => Object}] config the configuration
     # @param [String] dataSourceName the data source name
+    # @yield called when the client is ready to be used
     # @return [::VertxMongo::MongoClient] the client
     def self.create_shared(vertx=nil,config=nil,dataSourceName=nil)
       if vertx.class.method_defined?(:j_del) && config.class == Hash && !block_given? && dataSourceName == nil
         return ::Vertx::Util::Utils.safe_create(Java::IoVertxExtMongo::MongoClient.java_method(:createShared, [Java::IoVertxCore::Vertx.java_class,Java::IoVertxCoreJson::JsonObject.java_class]).call(vertx.j_del,::Vertx::Util::Utils.to_json_object(config)),::VertxMongo::MongoClient)
       elsif vertx.class.method_defined?(:j_del) && config.class == Hash && dataSourceName.class == String && !block_given?
         return ::Vertx::Util::Utils.safe_create(Java::IoVertxExtMongo::MongoClient.java_method(:createShared, [Java::IoVertxCore::Vertx.java_class,Java::IoVertxCoreJson::JsonObject.java_class,Java::java.lang.String.java_class]).call(vertx.j_del,::Vertx::Util::Utils.to_json_object(config),dataSourceName),::VertxMongo::MongoClient)
+      elsif vertx.class.method_defined?(:j_del) && config.class == Hash && dataSourceName.class == String && block_given?
+        return ::Vertx::Util::Utils.safe_create(Java::IoVertxExtMongo::MongoClient.java_method(:createShared, [Java::IoVertxCore::Vertx.java_class,Java::IoVertxCoreJson::JsonObject.java_class,Java::java.lang.String.java_class,Java::IoVertxCore::Handler.java_class]).call(vertx.j_del,::Vertx::Util::Utils.to_json_object(config),dataSourceName,(Proc.new { |ar| yield(ar.failed ? ar.cause : nil) })),::VertxMongo::MongoClient)
       end
       raise ArgumentError, "Invalid arguments when calling create_shared(vertx,config,dataSourceName)"
     end
+    #  Create a Mongo client routing the operations over several clusters by the shard key of the documents.
+    #  <p>
+    #  The configuration has the clusters, each one with a name, the config of its data source
+    #  and optionally its dataSourceName, which defaults to its name. The shardKey is the field placing
+    #  the documents, with the hash or range placement.
+    # @param [::Vertx::Vertx] vertx the Vert.x instance
+    # @param [Hash{String => Object}] config the routing configuration
+    # @return [::VertxMongo::MongoClient] the client
+    def self.create_routing(vertx=nil,config=nil)
+      if vertx.class.method_defined?(:j_del) && config.class == Hash && !block_given?
+        return ::Vertx::Util::Utils.safe_create(Java::IoVertxExtMongo::MongoClient.java_method(:createRouting, [Java::IoVertxCore::Vertx.java_class,Java::IoVertxCoreJson::JsonObject.java_class]).call(vertx.j_del,::Vertx::Util::Utils.to_json_object(config)),::VertxMongo::MongoClient)
+      end
+      raise ArgumentError, "Invalid arguments when calling create_routing(vertx,config)"
+    end
     #  Save a document in the specified collection
     # @param [String] collection the collection
     # @param [Hash{String => Object}] document the document
@@ -166,6 +184,49 @@ module VertxMongo
       end
       raise ArgumentError, "Invalid arguments when calling find_with_options(collection,query,options)"
     end
+    #  Like {::VertxMongo::MongoClient#find_with_options} but streams the matching documents.
+    #  <p>
+    #  Documents are fetched from the server batch by batch as the stream is consumed, so a paused stream holds at most
+    #  one batch in memory whatever the size of the result.
+    # @param [String] collection the collection
+    # @param [Hash{String => Object}] query query used to match documents
+    # @param [Hash] options options to configure the find
+    # @return [::Vertx::ReadStream] a stream of documents, the query starts when a handler is set
+    def find_stream(collection=nil,query=nil,options=nil)
+      if collection.class == String && query.class == Hash && options.class == Hash && !block_given?
+        return ::Vertx::Util::Utils.safe_create(@j_del.java_method(:findStream, [Java::java.lang.String.java_class,Java::IoVertxCoreJson::JsonObject.java_class,Java::IoVertxExtMongo::FindOptions.java_class]).call(collection,::Vertx::Util::Utils.to_json_object(query),Java::IoVertxExtMongo::FindOptions.new(::Vertx::Util::Utils.to_json_object(options))),::Vertx::ReadStream)
+      end
+      raise ArgumentError, "Invalid arguments when calling find_stream(collection,query,options)"
+    end
+    #  Tail a capped collection, streaming the matching documents as they are inserted.
+    #  <p>
+    #  The stream is backed by a tailable cursor and never ends. If the cursor dies, e.g. the collection was empty or
+    #  the connection was lost, a new one is opened transparently, resuming after the _id of the last document
+    #  received. Resuming therefore requires documents to be inserted with increasing ids, as generated ids are.
+    # @param [String] collection the capped collection
+    # @param [Hash{String => Object}] query query used to match documents
+    # @param [Hash] options options to configure the cursor
+    # @return [::Vertx::ReadStream] a stream of documents, tailing starts when a handler is set and stops when the handler is unset
+    def tail(collection=nil,query=nil,options=nil)
+      if collection.class == String && query.class == Hash && options.class == Hash && !block_given?
+        return ::Vertx::Util::Utils.safe_create(@j_del.java_method(:tail, [Java::java.lang.String.java_class,Java::IoVertxCoreJson::JsonObject.java_class,Java::IoVertxExtMongo::TailOptions.java_class]).call(collection,::Vertx::Util::Utils.to_json_object(query),Java::IoVertxExtMongo::TailOptions.new(::Vertx::Util::Utils.to_json_object(options))),::Vertx::ReadStream)
+      end
+      raise ArgumentError, "Invalid arguments when calling tail(collection,query,options)"
+    end
+    #  Stream the entries of the replica set oplog, local.oplog.rs, as they are written.
+    #  <p>
+    #  The stream is backed by a tailable cursor and never ends. If the cursor dies, a new one is opened transparently,
+    #  resuming after the ts of the last entry received. Storing the ts of the last entry processed and
+    #  passing it as OplogOptions allows a consumer to resume after a restart.
+    #  Only available when connected to a replica set member.
+    # @param [Hash] options options to filter the entries and configure the cursor
+    # @return [::Vertx::ReadStream] a stream of oplog entries, tailing starts when a handler is set and stops when the handler is unset
+    def oplog(options=nil)
+      if options.class == Hash && !block_given?
+        return ::Vertx::Util::Utils.safe_create(@j_del.java_method(:oplog, [Java::IoVertxExtMongo::OplogOptions.java_class]).call(Java::IoVertxExtMongo::OplogOptions.new(::Vertx::Util::Utils.to_json_object(options))),::Vertx::ReadStream)
+      end
+      raise ArgumentError, "Invalid arguments when calling oplog(options)"
+    end
     #  Find a single matching document in the specified collection
     # @param [String] collection the collection
     # @param [Hash{String => Object}] query the query used to match the document
@@ -273,6 +334,46 @@ module VertxMongo
       end
       raise ArgumentError, "Invalid arguments when calling drop_collection(collection)"
     end
+    #  Get the distinct values of a field across the matching documents of the specified collection
+    # @param [String] collection the collection
+    # @param [String] fieldName the field name
+    # @param [Hash{String => Object}] query query used to match documents
+    # @yield will be provided with the distinct values
+    # @return [self]
+    def distinct(collection=nil,fieldName=nil,query=nil)
+      if collection.class == String && fieldName.class == String && query.class == Hash && block_given?
+        @j_del.java_method(:distinct, [Java::java.lang.String.java_class,Java::java.lang.String.java_class,Java::IoVertxCoreJson::JsonObject.java_class,Java::IoVertxCore::Handler.java_class]).call(collection,fieldName,::Vertx::Util::Utils.to_json_object(query),(Proc.new { |ar| yield(ar.failed ? ar.cause : nil, ar.succeeded ? ar.result != nil ? JSON.parse(ar.result.encode) : nil : nil) }))
+        return self
+      end
+      raise ArgumentError, "Invalid arguments when calling distinct(collection,fieldName,query)"
+    end
+    #  Run an aggregation pipeline against the specified collection
+    # @param [String] collection the collection
+    # @param [Array<String,Object>] pipeline the pipeline stages, each one a json object
+    # @param [Hash] options options to configure the aggregation
+    # @yield will be provided with list of result documents
+    # @return [self]
+    def aggregate(collection=nil,pipeline=nil,options=nil)
+      if collection.class == String && pipeline.class == Array && options.class == Hash && block_given?
+        @j_del.java_method(:aggregate, [Java::java.lang.String.java_class,Java::IoVertxCoreJson::JsonArray.java_class,Java::IoVertxExtMongo::AggregateOptions.java_class,Java::IoVertxCore::Handler.java_class]).call(collection,::Vertx::Util::Utils.to_json_array(pipeline),Java::IoVertxExtMongo::AggregateOptions.new(::Vertx::Util::Utils.to_json_object(options)),(Proc.new { |ar| yield(ar.failed ? ar.cause : nil, ar.succeeded ? ar.result.to_a.map { |elt| elt != nil ? JSON.parse(elt.encode) : nil } : nil) }))
+        return self
+      end
+      raise ArgumentError, "Invalid arguments when calling aggregate(collection,pipeline,options)"
+    end
+    #  Run an aggregation pipeline against the specified collection, streaming the result documents.
+    #  <p>
+    #  Results are fetched from the server batch by batch as the stream is consumed, so the result set is not
+    #  limited by the maximum document size and is never held in memory as a whole.
+    # @param [String] collection the collection
+    # @param [Array<String,Object>] pipeline the pipeline stages, each one a json object
+    # @param [Hash] options options to configure the aggregation
+    # @return [::Vertx::ReadStream] a stream of result documents, the aggregation starts when a handler is set
+    def aggregate_stream(collection=nil,pipeline=nil,options=nil)
+      if collection.class == String && pipeline.class == Array && options.class == Hash && !block_given?
+        return ::Vertx::Util::Utils.safe_create(@j_del.java_method(:aggregateStream, [Java::java.lang.String.java_class,Java::IoVertxCoreJson::JsonArray.java_class,Java::IoVertxExtMongo::AggregateOptions.java_class]).call(collection,::Vertx::Util::Utils.to_json_array(pipeline),Java::IoVertxExtMongo::AggregateOptions.new(::Vertx::Util::Utils.to_json_object(options))),::Vertx::ReadStream)
+      end
+      raise ArgumentError, "Invalid arguments when calling aggregate_stream(collection,pipeline,options)"
+    end
     #  Run an arbitrary MongoDB command.
     # @param [String] commandName the name of the command
     # @param [Hash{String => Object}] command the command
@@ -285,6 +386,66 @@ module VertxMongo
       end
       raise ArgumentError, "Invalid arguments when calling run_command(commandName,command)"
     end
+    #  Get a view of the client operating on another database of the same deployment.
+    #  <p>
+    #  The view shares the driver client and the connection pool of this client, so any number of databases, e.g. one
+    #  per tenant, can be used with a single pool. The views of up to 1024 databases are cached, calling this method
+    #  again with the same name returns the same view. A view can be used as long as this client is open, closing a view
+    #  does nothing.
+    # @param [String] name the database name
+    # @return [::VertxMongo::MongoClient] the view of the database
+    def database(name=nil)
+      if name.class == String && !block_given?
+        return ::Vertx::Util::Utils.safe_create(@j_del.java_method(:database, [Java::java.lang.String.java_class]).call(name),::VertxMongo::MongoClient)
+      end
+      raise ArgumentError, "Invalid arguments when calling database(name)"
+    end
+    #  Get a view of the client running its operations on one of the named pools of the data source.
+    #  <p>
+    #  Each named pool has its own connections, so long running work, e.g. reports or migrations, can be kept away from
+    #  the connections serving interactive requests. The view uses the same database as this client and is cached like
+    #  the views of {::VertxMongo::MongoClient#database}, closing it does nothing.
+    # @param [String] name the pool name, as configured in pools
+    # @return [::VertxMongo::MongoClient] the view of the pool
+    def pool(name=nil)
+      if name.class == String && !block_given?
+        return ::Vertx::Util::Utils.safe_create(@j_del.java_method(:pool, [Java::java.lang.String.java_class]).call(name),::VertxMongo::MongoClient)
+      end
+      raise ArgumentError, "Invalid arguments when calling pool(name)"
+    end
+    #  Update the configuration of the data source without closing it, e.g. to change the pool size, the socket timeouts
+    #  or the read preference.
+    #  <p>
+    #  The changes are merged into the configuration of the data source. New driver clients are created from it and
+    #  warmed up, then new operations, including the ones of the other clients of the data source, switch to them. The
+    #  previous driver clients are closed once their operations in flight completed and their streams are closed, or after
+    #  drainTimeoutMS.
+    #  The handler fails, and the data source keeps its configuration, when the configuration is invalid or the new
+    #  clients cannot reach the server.
+    # @param [Hash{String => Object}] config the configuration changes
+    # @yield will be called when new operations use the new configuration
+    # @return [self]
+    def update_config(config=nil)
+      if config.class == Hash && block_given?
+        @j_del.java_method(:updateConfig, [Java::IoVertxCoreJson::JsonObject.java_class,Java::IoVertxCore::Handler.java_class]).call(::Vertx::Util::Utils.to_json_object(config),(Proc.new { |ar| yield(ar.failed ? ar.cause : nil) }))
+        return self
+      end
+      raise ArgumentError, "Invalid arguments when calling update_config(config)"
+    end
+    #  Get the metrics of the connection pools of the data source, one entry per partition in partitions.
+    #  <p>
+    #  Each entry has the configured minPoolSize and maxPoolSize, the operations inFlight and the
+    #  limit of operations in flight. With an adaptive pool it also has the operations queued for the
+    #  limit, the average latencyMS, baselineLatencyMS and waitMS of the last interval, and the
+    #  number of increases and decreases of the limit. The entries of the named pools have the pool
+    #  name.
+    # @return [Hash{String => Object}] the metrics
+    def pool_metrics
+      if !block_given?
+        return @j_del.java_method(:poolMetrics, []).call() != nil ? JSON.parse(@j_del.java_method(:poolMetrics, []).call().encode) : nil
+      end
+      raise ArgumentError, "Invalid arguments when calling pool_metrics()"
+    end
     #  Close the client and release its resources
     # @return [void]
     def close
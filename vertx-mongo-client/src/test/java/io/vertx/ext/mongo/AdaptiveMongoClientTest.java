@@ -0,0 +1,66 @@
+package io.vertx.ext.mongo;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the client tests with an adaptive pool.
+ */
+public class AdaptiveMongoClientTest extends MongoClientTest {
+
+  @Override
+  protected JsonObject getConfig() {
+    return super.getConfig()
+        .put("minPoolSize", 2)
+        .put("maxPoolSize", 20)
+        .put("adaptivePool", new JsonObject().put("intervalMS", 50));
+  }
+
+  @Test
+  public void testPoolMetricsUnderLoad() throws Exception {
+    int num = 2000;
+    String collection = randomCollection();
+    AtomicInteger done = new AtomicInteger();
+    long start = System.currentTimeMillis();
+    for (int i = 0; i < num; i++) {
+      mongoClient.insert(collection, createDoc(i), onSuccess(id -> {
+        if (done.incrementAndGet() == num) {
+          JsonArray partitions = mongoClient.poolMetrics().getJsonArray("partitions");
+          assertEquals(1, partitions.size());
+          JsonObject metrics = partitions.getJsonObject(0);
+          assertEquals(2, (int) metrics.getInteger("minPoolSize"));
+          assertEquals(20, (int) metrics.getInteger("maxPoolSize"));
+          assertEquals(0, (int) metrics.getInteger("inFlight"));
+          assertEquals(0, (int) metrics.getInteger("queued"));
+          int limit = metrics.getInteger("limit");
+          assertTrue(limit >= 2 && limit <= 20);
+          if (System.currentTimeMillis() - start > 50) {
+            // At least one interval elapsed under load
+            assertTrue(metrics.getDouble("baselineLatencyMS") > 0);
+          }
+          mongoClient.count(collection, new JsonObject(), onSuccess(count -> {
+            assertEquals(num, count.intValue());
+            testComplete();
+          }));
+        }
+      }));
+    }
+    await();
+  }
+
+  @Test
+  public void testInvalidAdaptivePool() {
+    JsonObject config = super.getConfig().put("adaptivePool", new JsonObject().put("latencyTolerance", 0.5));
+    try {
+      MongoClient.createNonShared(vertx, config);
+      fail("Should throw");
+    } catch (IllegalArgumentException expected) {
+      // ok
+    }
+    // The data source of the test client is the only one left
+    assertEquals(1, vertx.sharedData().getLocalMap("__vertx.MongoClient.datasources").size());
+  }
+}
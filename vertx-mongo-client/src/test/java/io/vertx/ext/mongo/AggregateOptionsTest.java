@@ -0,0 +1,85 @@
+package io.vertx.ext.mongo;
+
+import io.vertx.core.json.JsonObject;
+import io.vertx.test.core.TestUtils;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class AggregateOptionsTest {
+  @Test
+  public void testOptions() {
+    AggregateOptions options = new AggregateOptions();
+
+    boolean allowDiskUse = TestUtils.randomBoolean();
+    assertEquals(options, options.setAllowDiskUse(allowDiskUse));
+    assertEquals(allowDiskUse, options.isAllowDiskUse());
+
+    int batchSize = TestUtils.randomPositiveInt();
+    assertEquals(options, options.setBatchSize(batchSize));
+    assertEquals(batchSize, options.getBatchSize());
+
+    long maxTimeMS = TestUtils.randomPositiveLong();
+    assertEquals(options, options.setMaxTimeMS(maxTimeMS));
+    assertEquals(maxTimeMS, options.getMaxTimeMS());
+  }
+
+  @Test
+  public void testDefaultOptions() {
+    AggregateOptions options = new AggregateOptions();
+    assertFalse(options.isAllowDiskUse());
+    assertEquals(0, options.getBatchSize());
+    assertEquals(0, options.getMaxTimeMS());
+  }
+
+  @Test
+  public void testOptionsJson() {
+    JsonObject json = new JsonObject();
+
+    boolean allowDiskUse = TestUtils.randomBoolean();
+    json.put("allowDiskUse", allowDiskUse);
+
+    int batchSize = TestUtils.randomPositiveInt();
+    json.put("batchSize", batchSize);
+
+    long maxTimeMS = TestUtils.randomPositiveLong();
+    json.put("maxTimeMS", maxTimeMS);
+
+    AggregateOptions options = new AggregateOptions(json);
+    assertEquals(allowDiskUse, options.isAllowDiskUse());
+    assertEquals(batchSize, options.getBatchSize());
+    assertEquals(maxTimeMS, options.getMaxTimeMS());
+  }
+
+  @Test
+  public void testDefaultOptionsJson() {
+    AggregateOptions options = new AggregateOptions(new JsonObject());
+    AggregateOptions def = new AggregateOptions();
+    assertEquals(def.isAllowDiskUse(), options.isAllowDiskUse());
+    assertEquals(def.getBatchSize(), options.getBatchSize());
+    assertEquals(def.getMaxTimeMS(), options.getMaxTimeMS());
+  }
+
+  @Test
+  public void testCopyOptions() {
+    AggregateOptions options = new AggregateOptions();
+    options.setAllowDiskUse(TestUtils.randomBoolean());
+    options.setBatchSize(TestUtils.randomPositiveInt());
+    options.setMaxTimeMS(TestUtils.randomPositiveLong());
+
+    AggregateOptions copy = new AggregateOptions(options);
+    assertEquals(options.isAllowDiskUse(), copy.isAllowDiskUse());
+    assertEquals(options.getBatchSize(), copy.getBatchSize());
+    assertEquals(options.getMaxTimeMS(), copy.getMaxTimeMS());
+  }
+
+  @Test
+  public void testToJson() {
+    AggregateOptions options = new AggregateOptions();
+    options.setAllowDiskUse(true);
+    options.setBatchSize(TestUtils.randomPositiveInt());
+    options.setMaxTimeMS(TestUtils.randomPositiveLong());
+
+    assertEquals(options, new AggregateOptions(options.toJson()));
+  }
+}
@@ -29,6 +29,10 @@ public class FindOptionsTest {
     int skip = TestUtils.randomInt();
     assertEquals(options, options.setSkip(skip));
     assertEquals(skip, options.getSkip());
+
+    long maxTimeMS = TestUtils.randomPositiveLong();
+    assertEquals(options, options.setMaxTimeMS(maxTimeMS));
+    assertEquals(maxTimeMS, options.getMaxTimeMS());
   }
 
   @Test
@@ -38,6 +42,7 @@ public class FindOptionsTest {
     assertNull(options.getSort());
     assertEquals(-1, options.getLimit());
     assertEquals(0, options.getSkip());
+    assertEquals(0, options.getMaxTimeMS());
   }
 
   @Test
@@ -56,11 +61,15 @@ public class FindOptionsTest {
     int skip = TestUtils.randomInt();
     json.put("skip", skip);
 
+    long maxTimeMS = TestUtils.randomPositiveLong();
+    json.put("maxTimeMS", maxTimeMS);
+
     FindOptions options = new FindOptions(json);
     assertEquals(fields, options.getFields());
     assertEquals(sort, options.getSort());
     assertEquals(limit, options.getLimit());
     assertEquals(skip, options.getSkip());
+    assertEquals(maxTimeMS, options.getMaxTimeMS());
   }
 
   @Test
@@ -71,6 +80,7 @@ public class FindOptionsTest {
     assertEquals(def.getSort(), options.getSort());
     assertEquals(def.getLimit(), options.getLimit());
     assertEquals(def.getSkip(), options.getSkip());
+    assertEquals(def.getMaxTimeMS(), options.getMaxTimeMS());
   }
 
   @Test
@@ -84,12 +94,14 @@ public class FindOptionsTest {
     options.setSort(sort);
     options.setLimit(limit);
     options.setSkip(skip);
+    options.setMaxTimeMS(TestUtils.randomPositiveLong());
 
     FindOptions copy = new FindOptions(options);
     assertEquals(options.getFields(), copy.getFields());
     assertEquals(options.getSort(), copy.getSort());
     assertEquals(options.getLimit(), copy.getLimit());
     assertEquals(options.getSkip(), copy.getSkip());
+    assertEquals(options.getMaxTimeMS(), copy.getMaxTimeMS());
   }
 
   private static JsonObject randomJsonObject() {
@@ -112,6 +124,7 @@ public class FindOptionsTest {
     options.setSort(sort);
     options.setLimit(limit);
     options.setSkip(skip);
+    options.setMaxTimeMS(TestUtils.randomPositiveLong());
 
     assertEquals(options, new FindOptions(options.toJson()));
   }
@@ -1,8 +1,22 @@
 package io.vertx.ext.mongo;
 
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Handler;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
+import io.vertx.core.streams.ReadStream;
+import org.bson.types.ObjectId;
+import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assume.assumeTrue;
 
 /**
  * @author <a href="http://tfox.org">Tim Fox</a>
@@ -25,4 +39,342 @@ public class MongoClientTest extends MongoClientTestBase {
     super.tearDown();
   }
 
+  @Test
+  public void testDistinctStream() throws Exception {
+    int num = 10;
+    String collection = randomCollection();
+    insertDocs(collection, num, onSuccess(res -> {
+      Set<Object> values = new HashSet<>();
+      ReadStream<Object> stream = mongoClient.distinctStream(collection, "foo", new JsonObject());
+      stream.exceptionHandler(err -> fail(err.getMessage()));
+      stream.endHandler(v -> {
+        assertEquals(num, values.size());
+        assertTrue(values.contains("bar0"));
+        testComplete();
+      });
+      stream.handler(value -> {
+        assertTrue(value instanceof String);
+        values.add(value);
+      });
+    }));
+    await();
+  }
+
+  @Test
+  public void testAggregateStream() throws Exception {
+    int num = 25;
+    String collection = randomCollection();
+    JsonArray pipeline = new JsonArray().add(new JsonObject().put("$sort", new JsonObject().put("foo", 1)));
+    insertDocs(collection, num, onSuccess(res -> {
+      List<JsonObject> results = new ArrayList<>();
+      ReadStream<JsonObject> stream = mongoClient.aggregateStream(collection, pipeline, new AggregateOptions().setBatchSize(4));
+      stream.exceptionHandler(err -> fail(err.getMessage()));
+      stream.endHandler(v -> {
+        assertEquals(num, results.size());
+        assertEquals("bar0", results.get(0).getString("foo"));
+        testComplete();
+      });
+      stream.handler(doc -> {
+        results.add(doc);
+        if (results.size() % 5 == 0) {
+          // Check the stream honours back pressure
+          stream.pause();
+          vertx.setTimer(10, id -> stream.resume());
+        }
+      });
+    }));
+    await();
+  }
+
+  @Test
+  public void testAggregateStreamFailure() throws Exception {
+    String collection = randomCollection();
+    JsonArray pipeline = new JsonArray().add(new JsonObject().put("$nosuchstage", 1));
+    ReadStream<JsonObject> stream = mongoClient.aggregateStream(collection, pipeline, new AggregateOptions());
+    stream.endHandler(v -> fail("Should not end"));
+    stream.exceptionHandler(err -> testComplete());
+    stream.handler(doc -> fail("Should not receive documents"));
+    await();
+  }
+
+  @Test
+  public void testTail() throws Exception {
+    String collection = randomCollection();
+    createCapped(collection, onSuccess(v -> {
+      List<JsonObject> received = new ArrayList<>();
+      ReadStream<JsonObject> stream = mongoClient.tail(collection, new JsonObject().put("num", 123), new TailOptions().setReconnectDelayMS(20));
+      stream.exceptionHandler(err -> fail(err.getMessage()));
+      stream.handler(doc -> {
+        received.add(doc);
+        if (received.size() == 10) {
+          for (int i = 0; i < received.size(); i++) {
+            assertEquals("bar" + i, received.get(i).getString("foo"));
+          }
+          stream.handler(null);
+          testComplete();
+        }
+      });
+      // The cursor on the empty collection dies straight away, documents must be received after it is reopened
+      vertx.setTimer(100, id -> insertSequentially(collection, 0, 10));
+    }));
+    await();
+  }
+
+  @Test
+  public void testTailResumesAfterLastDocument() throws Exception {
+    String collection = randomCollection();
+    createCapped(collection, onSuccess(v -> {
+      insertSequentially(collection, 0, 5);
+      List<JsonObject> received = new ArrayList<>();
+      // Non await cursors on a collection without new documents die repeatedly
+      ReadStream<JsonObject> stream = mongoClient.tail(collection, new JsonObject(), new TailOptions().setAwaitData(false).setReconnectDelayMS(20));
+      stream.exceptionHandler(err -> fail(err.getMessage()));
+      stream.handler(doc -> {
+        received.add(doc);
+        if (received.size() == 5) {
+          vertx.setTimer(200, id -> insertSequentially(collection, 5, 10));
+        } else if (received.size() == 10) {
+          for (int i = 0; i < received.size(); i++) {
+            assertEquals("bar" + i, received.get(i).getString("foo"));
+          }
+          vertx.setTimer(100, id -> {
+            assertEquals(10, received.size());
+            stream.handler(null);
+            testComplete();
+          });
+        }
+      });
+    }));
+    await();
+  }
+
+  @Test
+  public void testTailResumesAfterObjectId() throws Exception {
+    String collection = randomCollection();
+    createCapped(collection, onSuccess(v -> {
+      insertObjectIds(collection, 0, 5);
+      List<JsonObject> received = new ArrayList<>();
+      // Object ids are read as strings, the resumed cursors must still match the object ids after the last one
+      ReadStream<JsonObject> stream = mongoClient.tail(collection, new JsonObject(), new TailOptions().setAwaitData(false).setReconnectDelayMS(20));
+      stream.exceptionHandler(err -> fail(err.getMessage()));
+      stream.handler(doc -> {
+        received.add(doc);
+        if (received.size() == 5) {
+          vertx.setTimer(200, id -> insertObjectIds(collection, 5, 10));
+        } else if (received.size() == 10) {
+          for (int i = 0; i < received.size(); i++) {
+            assertEquals("bar" + i, received.get(i).getString("foo"));
+          }
+          vertx.setTimer(100, id -> {
+            assertEquals(10, received.size());
+            stream.handler(null);
+            testComplete();
+          });
+        }
+      });
+    }));
+    await();
+  }
+
+  @Test
+  public void testTailNonCappedCollection() throws Exception {
+    String collection = randomCollection();
+    mongoClient.createCollection(collection, onSuccess(v -> {
+      ReadStream<JsonObject> stream = mongoClient.tail(collection, new JsonObject(), new TailOptions());
+      stream.exceptionHandler(err -> testComplete());
+      stream.handler(doc -> fail("Should not receive documents"));
+    }));
+    await();
+  }
+
+  @Test
+  public void testOplog() throws Exception {
+    assumeReplicaSet();
+    String collection = randomCollection();
+    JsonArray namespaces = new JsonArray().add(namespace(collection));
+    List<JsonObject> received = new ArrayList<>();
+    ReadStream<JsonObject> stream = mongoClient.oplog(new OplogOptions()
+        .setNamespaces(namespaces)
+        .setOperations(new JsonArray().add("i"))
+        .setReconnectDelayMS(20));
+    stream.exceptionHandler(err -> fail(err.getMessage()));
+    stream.handler(entry -> {
+      assertEquals(namespace(collection), entry.getString("ns"));
+      assertEquals("i", entry.getString("op"));
+      assertNotNull(entry.getJsonObject("ts").getJsonObject("$timestamp"));
+      received.add(entry.getJsonObject("o"));
+      if (received.size() == 10) {
+        for (int i = 0; i < received.size(); i++) {
+          assertEquals("bar" + i, received.get(i).getString("foo"));
+        }
+        stream.handler(null);
+        testComplete();
+      }
+    });
+    // Entries written before the stream was opened are skipped, give it time to look up the latest entry
+    vertx.setTimer(200, id -> insertSequentially(collection, 0, 10));
+    await();
+  }
+
+  @Test
+  public void testOplogResumesFromTimestamp() throws Exception {
+    assumeReplicaSet();
+    String collection = randomCollection();
+    OplogOptions options = new OplogOptions().setNamespaces(new JsonArray().add(namespace(collection)));
+    List<JsonObject> first = new ArrayList<>();
+    ReadStream<JsonObject> stream = mongoClient.oplog(options);
+    stream.exceptionHandler(err -> fail(err.getMessage()));
+    stream.handler(entry -> {
+      first.add(entry);
+      if (first.size() == 5) {
+        stream.handler(null);
+        // Start a new stream after the third entry, as a consumer restarting from its stored position would
+        List<JsonObject> resumed = new ArrayList<>();
+        ReadStream<JsonObject> other = mongoClient.oplog(new OplogOptions(options).setTimestamp(first.get(2).getJsonObject("ts")));
+        other.exceptionHandler(err -> fail(err.getMessage()));
+        other.handler(entry2 -> {
+          resumed.add(entry2);
+          if (resumed.size() == 2) {
+            assertEquals(first.get(3), resumed.get(0));
+            assertEquals(first.get(4), entry2);
+            other.handler(null);
+            testComplete();
+          }
+        });
+      }
+    });
+    vertx.setTimer(200, id -> insertSequentially(collection, 0, 5));
+    await();
+  }
+
+  @Test
+  public void testDatabase() throws Exception {
+    String name = getConfig().getString("db_name", MongoClient.DEFAULT_DB_NAME) + "_view";
+    MongoClient other = mongoClient.database(name);
+    assertSame(other, mongoClient.database(name));
+    assertSame(other, other.database(name));
+    String collection = randomCollection();
+    other.insert(collection, createDoc(0), onSuccess(id -> {
+      other.count(collection, new JsonObject(), onSuccess(count -> {
+        assertEquals(1, count.longValue());
+        mongoClient.count(collection, new JsonObject(), onSuccess(count2 -> {
+          // The collection of the default database is another one
+          assertEquals(0, count2.longValue());
+          // Closing a view leaves the client open
+          other.close();
+          other.runCommand("dropDatabase", new JsonObject().put("dropDatabase", 1), onSuccess(res -> testComplete()));
+        }));
+      }));
+    }));
+    await();
+  }
+
+  @Test
+  public void testPool() throws Exception {
+    JsonObject config = getConfig().put("pools", new JsonObject().put("batch", new JsonObject().put("maxPoolSize", 2)));
+    MongoClient client = MongoClient.createNonShared(vertx, config);
+    MongoClient batch = client.pool("batch");
+    assertSame(batch, client.pool("batch"));
+    assertSame(batch.database("other"), client.database("other").pool("batch"));
+    try {
+      client.pool("nosuchpool");
+      fail("Should not accept an unknown pool");
+    } catch (IllegalArgumentException expected) {
+    }
+    String collection = randomCollection();
+    batch.insert(collection, createDoc(0), onSuccess(id -> {
+      client.count(collection, new JsonObject(), onSuccess(count -> {
+        assertEquals(1, count.longValue());
+        JsonArray partitions = client.poolMetrics().getJsonArray("partitions");
+        assertEquals(2, partitions.size());
+        assertNull(partitions.getJsonObject(0).getString("pool"));
+        assertEquals("batch", partitions.getJsonObject(1).getString("pool"));
+        assertEquals(2, (int) partitions.getJsonObject(1).getInteger("maxPoolSize"));
+        client.close();
+        testComplete();
+      }));
+    }));
+    await();
+  }
+
+  @Test
+  public void testUpdateConfig() throws Exception {
+    String collection = randomCollection();
+    // An operation in flight during the update completes on the previous driver client
+    insertDocs(collection, 10, onSuccess(inserted -> {
+      mongoClient.count(collection, new JsonObject(), onSuccess(count -> assertEquals(10, count.longValue())));
+      mongoClient.updateConfig(new JsonObject().put("maxPoolSize", 7), onSuccess(v -> {
+        assertEquals(7, (int) mongoClient.poolMetrics().getJsonArray("partitions").getJsonObject(0).getInteger("maxPoolSize"));
+        mongoClient.count(collection, new JsonObject(), onSuccess(count -> {
+          assertEquals(10, count.longValue());
+          mongoClient.updateConfig(new JsonObject().put("eventLoopPools", -1), onFailure(err -> {
+            assertTrue(err instanceof IllegalArgumentException);
+            // The data source keeps its configuration
+            assertEquals(7, (int) mongoClient.poolMetrics().getJsonArray("partitions").getJsonObject(0).getInteger("maxPoolSize"));
+            testComplete();
+          }));
+        }));
+      }));
+    }));
+    await();
+  }
+
+  @Test
+  public void testUpdateConfigKeepsOpenStreams() throws Exception {
+    int num = 250;
+    String collection = randomCollection();
+    insertDocs(collection, num, onSuccess(inserted -> {
+      AtomicInteger received = new AtomicInteger();
+      ReadStream<JsonObject> stream = mongoClient.findStream(collection, new JsonObject(), new FindOptions());
+      stream.exceptionHandler(err -> fail(err.getMessage()));
+      stream.endHandler(v -> {
+        assertEquals(num, received.get());
+        testComplete();
+      });
+      stream.handler(doc -> {
+        if (received.incrementAndGet() == 1) {
+          // The next batches of the cursor are fetched from the previous driver client, which must not be closed yet
+          stream.pause();
+          mongoClient.updateConfig(new JsonObject().put("maxPoolSize", 7), onSuccess(v -> {
+            vertx.setTimer(300, id -> stream.resume());
+          }));
+        }
+      });
+    }));
+    await();
+  }
+
+  private void assumeReplicaSet() throws Exception {
+    CountDownLatch latch = new CountDownLatch(1);
+    AtomicBoolean replicaSet = new AtomicBoolean();
+    mongoClient.runCommand("isMaster", new JsonObject().put("isMaster", 1), onSuccess(res -> {
+      replicaSet.set(res.containsKey("setName"));
+      latch.countDown();
+    }));
+    awaitLatch(latch);
+    // e.g. -Dconnection_string=mongodb://localhost:27017/?replicaSet=rs0 for a local single node replica set
+    assumeTrue("The oplog is only available on replica sets", replicaSet.get());
+  }
+
+  private String namespace(String collection) {
+    return getConfig().getString("db_name", MongoClient.DEFAULT_DB_NAME) + "." + collection;
+  }
+
+  private void createCapped(String collection, Handler<AsyncResult<JsonObject>> resultHandler) {
+    JsonObject command = new JsonObject().put("create", collection).put("capped", true).put("size", 100000);
+    mongoClient.runCommand("create", command, resultHandler);
+  }
+
+  private void insertObjectIds(String collection, int from, int to) {
+    if (from < to) {
+      JsonObject doc = createDoc(from).put("_id", new JsonObject().put("$oid", new ObjectId().toHexString()));
+      mongoClient.insert(collection, doc, onSuccess(id -> insertObjectIds(collection, from + 1, to)));
+    }
+  }
+
+  private void insertSequentially(String collection, int from, int to) {
+    if (from < to) {
+      mongoClient.insert(collection, createDoc(from), onSuccess(id -> insertSequentially(collection, from + 1, to)));
+    }
+  }
 }
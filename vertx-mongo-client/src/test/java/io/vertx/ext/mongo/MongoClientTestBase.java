@@ -5,6 +5,7 @@ import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
+import io.vertx.core.streams.ReadStream;
 import io.vertx.test.core.TestUtils;
 import org.junit.Test;
 
@@ -492,6 +493,30 @@ public abstract class MongoClientTestBase extends MongoTestBase {
     });
   }
 
+  @Test
+  public void testFindStream() throws Exception {
+    // More documents than fit in the chunks sent ahead of a paused consumer of the event bus proxy
+    int num = 450;
+    String collection = randomCollection();
+    insertDocs(collection, num, onSuccess(res -> {
+      Set<String> values = new HashSet<>();
+      ReadStream<JsonObject> stream = mongoClient.findStream(collection, new JsonObject(), new FindOptions());
+      stream.exceptionHandler(err -> fail(err.getMessage()));
+      stream.endHandler(v -> {
+        assertEquals(num, values.size());
+        testComplete();
+      });
+      stream.handler(doc -> {
+        assertTrue(values.add(doc.getString("foo")));
+        if (values.size() % 150 == 0) {
+          stream.pause();
+          vertx.setTimer(50, id -> stream.resume());
+        }
+      });
+    }));
+    await();
+  }
+
   @Test
   public void testFindWithFields() throws Exception {
     int num = 10;
@@ -563,6 +588,106 @@ public abstract class MongoClientTestBase extends MongoTestBase {
     await();
   }
 
+  @Test
+  public void testDistinct() throws Exception {
+    int num = 10;
+    String collection = randomCollection();
+    insertDocs(collection, num, onSuccess(res -> {
+      mongoClient.distinct(collection, "foo", new JsonObject(), onSuccess(values -> {
+        assertEquals(num, values.size());
+        assertTrue(values.contains("bar0"));
+        assertTrue(values.contains("bar9"));
+        mongoClient.distinct(collection, "num", new JsonObject(), onSuccess(nums -> {
+          assertEquals(new JsonArray().add(123), nums);
+          testComplete();
+        }));
+      }));
+    }));
+    await();
+  }
+
+  @Test
+  public void testDistinctWithQuery() throws Exception {
+    int num = 10;
+    String collection = randomCollection();
+    insertDocs(collection, num, onSuccess(res -> {
+      JsonObject query = new JsonObject().put("foo", new JsonObject().put("$in", new JsonArray().add("bar1").add("bar2")));
+      mongoClient.distinct(collection, "foo", query, onSuccess(values -> {
+        assertEquals(2, values.size());
+        assertTrue(values.contains("bar1"));
+        assertTrue(values.contains("bar2"));
+        testComplete();
+      }));
+    }));
+    await();
+  }
+
+  @Test
+  public void testDistinctDocuments() throws Exception {
+    int num = 10;
+    String collection = randomCollection();
+    insertDocs(collection, num, onSuccess(res -> {
+      mongoClient.distinct(collection, "other", new JsonObject(), onSuccess(values -> {
+        assertEquals(1, values.size());
+        assertEquals("flib", values.getJsonObject(0).getString("quux"));
+        testComplete();
+      }));
+    }));
+    await();
+  }
+
+  @Test
+  public void testAggregate() throws Exception {
+    int num = 10;
+    JsonArray pipeline = new JsonArray()
+      .add(new JsonObject().put("$match", new JsonObject().put("num", 123)))
+      .add(new JsonObject().put("$group", new JsonObject().put("_id", "$num").put("count", new JsonObject().put("$sum", 1))));
+    doTestAggregate(num, pipeline, new AggregateOptions(), results -> {
+      assertEquals(1, results.size());
+      assertEquals(123, (int) results.get(0).getInteger("_id"));
+      assertEquals(num, (int) results.get(0).getInteger("count"));
+    });
+  }
+
+  @Test
+  public void testAggregateWithOptions() throws Exception {
+    int num = 10;
+    JsonArray pipeline = new JsonArray()
+      .add(new JsonObject().put("$sort", new JsonObject().put("foo", 1)))
+      .add(new JsonObject().put("$limit", 3))
+      .add(new JsonObject().put("$project", new JsonObject().put("foo", true)));
+    AggregateOptions options = new AggregateOptions().setAllowDiskUse(true).setBatchSize(2).setMaxTimeMS(10000);
+    doTestAggregate(num, pipeline, options, results -> {
+      assertEquals(3, results.size());
+      assertEquals("bar0", results.get(0).getString("foo"));
+      assertEquals("bar1", results.get(1).getString("foo"));
+      assertEquals(2, results.get(0).size()); // Contains _id too
+    });
+  }
+
+  @Test
+  public void testAggregateInvalidStage() throws Exception {
+    String collection = randomCollection();
+    JsonArray pipeline = new JsonArray().add(new JsonObject().put("$nosuchstage", 1));
+    mongoClient.aggregate(collection, pipeline, new AggregateOptions(), onFailure(ex -> {
+      testComplete();
+    }));
+    await();
+  }
+
+  private void doTestAggregate(int numDocs, JsonArray pipeline, AggregateOptions options, Consumer<List<JsonObject>> resultConsumer) throws Exception {
+    String collection = randomCollection();
+    mongoClient.createCollection(collection, onSuccess(res -> {
+      insertDocs(collection, numDocs, onSuccess(res2 -> {
+        mongoClient.aggregate(collection, pipeline, options, onSuccess(res3 -> {
+          resultConsumer.accept(res3);
+          testComplete();
+        }));
+      }));
+    }));
+    await();
+  }
+
   @Test
   public void testReplace() {
     String collection = randomCollection();
@@ -773,7 +898,7 @@ public abstract class MongoClientTestBase extends MongoTestBase {
         new JsonArray().add("blah").add(true).add(312)));
   }
 
-  private JsonObject createDoc(int num) {
+  protected JsonObject createDoc(int num) {
     return new JsonObject().put("foo", "bar" + (num != -1 ? num : "")).put("num", 123).put("big", true).putNull("nullentry").
       put("arr", new JsonArray().add("x").add(true).add(12).add(1.23).addNull().add(new JsonObject().put("wib", "wob"))).
       put("date", new JsonObject().put("$date", "2015-05-30T22:50:02Z")).
@@ -781,7 +906,7 @@ public abstract class MongoClientTestBase extends MongoTestBase {
         new JsonArray().add("blah").add(true).add(312)));
   }
 
-  private void insertDocs(String collection, int num, Handler<AsyncResult<Void>> resultHandler) {
+  protected void insertDocs(String collection, int num, Handler<AsyncResult<Void>> resultHandler) {
     if (num != 0) {
       AtomicInteger cnt = new AtomicInteger();
       for (int i = 0; i < num; i++) {
@@ -832,7 +957,7 @@ public abstract class MongoClientTestBase extends MongoTestBase {
   }
 
 
-  private String randomCollection() {
+  protected String randomCollection() {
     return "ext-mongo" + TestUtils.randomAlphaString(20);
   }
 
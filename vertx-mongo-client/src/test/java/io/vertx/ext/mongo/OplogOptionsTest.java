@@ -0,0 +1,114 @@
+package io.vertx.ext.mongo;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.test.core.TestUtils;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class OplogOptionsTest {
+  @Test
+  public void testOptions() {
+    OplogOptions options = new OplogOptions();
+
+    JsonArray namespaces = new JsonArray().add(TestUtils.randomAlphaString(10) + "." + TestUtils.randomAlphaString(10));
+    assertEquals(options, options.setNamespaces(namespaces));
+    assertEquals(namespaces, options.getNamespaces());
+
+    JsonArray operations = new JsonArray().add("i").add("u");
+    assertEquals(options, options.setOperations(operations));
+    assertEquals(operations, options.getOperations());
+
+    JsonObject timestamp = randomTimestamp();
+    assertEquals(options, options.setTimestamp(timestamp));
+    assertEquals(timestamp, options.getTimestamp());
+
+    int batchSize = TestUtils.randomPositiveInt();
+    assertEquals(options, options.setBatchSize(batchSize));
+    assertEquals(batchSize, options.getBatchSize());
+
+    long reconnectDelayMS = TestUtils.randomPositiveLong();
+    assertEquals(options, options.setReconnectDelayMS(reconnectDelayMS));
+    assertEquals(reconnectDelayMS, options.getReconnectDelayMS());
+  }
+
+  @Test
+  public void testDefaultOptions() {
+    OplogOptions options = new OplogOptions();
+    assertNull(options.getNamespaces());
+    assertNull(options.getOperations());
+    assertNull(options.getTimestamp());
+    assertEquals(0, options.getBatchSize());
+    assertEquals(1000, options.getReconnectDelayMS());
+  }
+
+  @Test
+  public void testOptionsJson() {
+    JsonObject json = new JsonObject();
+
+    JsonArray namespaces = new JsonArray().add(TestUtils.randomAlphaString(10) + "." + TestUtils.randomAlphaString(10));
+    json.put("namespaces", namespaces);
+
+    JsonArray operations = new JsonArray().add("d");
+    json.put("operations", operations);
+
+    JsonObject timestamp = randomTimestamp();
+    json.put("timestamp", timestamp);
+
+    int batchSize = TestUtils.randomPositiveInt();
+    json.put("batchSize", batchSize);
+
+    long reconnectDelayMS = TestUtils.randomPositiveLong();
+    json.put("reconnectDelayMS", reconnectDelayMS);
+
+    OplogOptions options = new OplogOptions(json);
+    assertEquals(namespaces, options.getNamespaces());
+    assertEquals(operations, options.getOperations());
+    assertEquals(timestamp, options.getTimestamp());
+    assertEquals(batchSize, options.getBatchSize());
+    assertEquals(reconnectDelayMS, options.getReconnectDelayMS());
+  }
+
+  @Test
+  public void testDefaultOptionsJson() {
+    OplogOptions options = new OplogOptions(new JsonObject());
+    OplogOptions def = new OplogOptions();
+    assertEquals(def.getNamespaces(), options.getNamespaces());
+    assertEquals(def.getOperations(), options.getOperations());
+    assertEquals(def.getTimestamp(), options.getTimestamp());
+    assertEquals(def.getBatchSize(), options.getBatchSize());
+    assertEquals(def.getReconnectDelayMS(), options.getReconnectDelayMS());
+  }
+
+  @Test
+  public void testCopyOptions() {
+    OplogOptions options = new OplogOptions();
+    options.setNamespaces(new JsonArray().add("db.foo"));
+    options.setOperations(new JsonArray().add("i"));
+    options.setTimestamp(randomTimestamp());
+    options.setBatchSize(TestUtils.randomPositiveInt());
+    options.setReconnectDelayMS(TestUtils.randomPositiveLong());
+
+    OplogOptions copy = new OplogOptions(options);
+    assertEquals(options, copy);
+  }
+
+  @Test
+  public void testToJson() {
+    OplogOptions options = new OplogOptions();
+    options.setNamespaces(new JsonArray().add("db.foo"));
+    options.setOperations(new JsonArray().add("i"));
+    options.setTimestamp(randomTimestamp());
+    options.setBatchSize(TestUtils.randomPositiveInt());
+    options.setReconnectDelayMS(TestUtils.randomPositiveLong());
+
+    assertEquals(options, new OplogOptions(options.toJson()));
+  }
+
+  private static JsonObject randomTimestamp() {
+    return new JsonObject().put("$timestamp", new JsonObject()
+        .put("t", TestUtils.randomPositiveInt())
+        .put("i", TestUtils.randomPositiveInt()));
+  }
+}
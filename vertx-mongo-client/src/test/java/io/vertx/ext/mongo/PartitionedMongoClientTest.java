@@ -0,0 +1,43 @@
+package io.vertx.ext.mongo;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
+import io.vertx.core.json.JsonObject;
+import org.junit.Test;
+
+/**
+ * Runs the client tests with a data source partitioned per event loop.
+ */
+public class PartitionedMongoClientTest extends MongoClientTest {
+
+  @Override
+  protected JsonObject getConfig() {
+    return super.getConfig().put("eventLoopPools", 4);
+  }
+
+  @Test
+  public void testEventLoopPoolsOfTheInstance() {
+    Vertx other = Vertx.vertx(new VertxOptions().setEventLoopPoolSize(3));
+    try {
+      // One partition per event loop of the instance the client uses, whatever the number of cores
+      MongoClient client = MongoClient.createNonShared(other, super.getConfig().put("eventLoopPools", true));
+      assertEquals(3, client.poolMetrics().getJsonArray("partitions").size());
+      client.close();
+    } finally {
+      other.close();
+    }
+  }
+
+  @Test
+  public void testInvalidEventLoopPools() {
+    JsonObject config = super.getConfig().put("eventLoopPools", 0);
+    try {
+      MongoClient.createNonShared(vertx, config);
+      fail("Should throw");
+    } catch (IllegalArgumentException expected) {
+      // ok
+    }
+    // The data source of the test client is the only one left
+    assertEquals(1, vertx.sharedData().getLocalMap("__vertx.MongoClient.datasources").size());
+  }
+}
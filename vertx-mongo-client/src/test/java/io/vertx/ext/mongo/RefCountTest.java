@@ -20,6 +20,13 @@ import io.vertx.core.json.JsonObject;
 import io.vertx.core.shareddata.LocalMap;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
 /**
  * @author <a href="http://tfox.org">Tim Fox</a>
  */
@@ -101,4 +108,166 @@ public class RefCountTest extends MongoTestBase {
     assertEquals(0, map.size());
     assertNotSame(map, getLocalMap());
   }
+
+  @Test
+  public void testSharedReady() throws Exception {
+    LocalMap<String, Object> map = getLocalMap();
+    JsonObject config = getConfig().put("minPoolSize", 3);
+    MongoClient client1 = MongoClient.createShared(vertx, config, "warm", onSuccess(v -> {
+      assertEquals(1, map.size());
+      // The data source is already warm
+      MongoClient client2 = MongoClient.createShared(vertx, config, "warm", onSuccess(v2 -> {
+        assertEquals(1, map.size());
+        testComplete();
+      }));
+      client2.close();
+    }));
+    await();
+    client1.close();
+    assertEquals(0, map.size());
+  }
+
+  @Test
+  public void testLazy() throws Exception {
+    LocalMap<String, Object> map = getLocalMap();
+    // The invalid connection string is only parsed by the first operation
+    JsonObject config = new JsonObject().put("connection_string", "foo").put("lazy", true);
+    MongoClient client = MongoClient.createShared(vertx, config, "lazy", onSuccess(v -> testComplete()));
+    await();
+    assertEquals(1, map.size());
+    try {
+      client.getCollections(ar -> fail("Should not be called"));
+      fail("Should throw");
+    } catch (IllegalArgumentException expected) {
+      // ok
+    }
+    client.close();
+    assertEquals(0, map.size());
+  }
+
+  @Test
+  public void testInvalidConfigNotLazy() throws Exception {
+    LocalMap<String, Object> map = getLocalMap();
+    // The driver client is created by the first operation, but the configuration is still checked right away
+    JsonObject config = new JsonObject().put("connection_string", "foo");
+    try {
+      MongoClient.createShared(vertx, config, "invalid");
+      fail("Should throw");
+    } catch (IllegalArgumentException expected) {
+      // ok
+    }
+    assertEquals(0, map.size());
+  }
+
+  @Test
+  public void testSharedCreateCloseStorm() throws Exception {
+    LocalMap<String, Object> map = getLocalMap();
+    JsonObject config = getConfig();
+    MongoClient anchor = MongoClient.createShared(vertx, config, "storm");
+    int threads = 16;
+    int iterations = 200;
+    CyclicBarrier barrier = new CyclicBarrier(threads);
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    List<Thread> workers = new ArrayList<>();
+    for (int i = 0; i < threads; i++) {
+      Thread worker = new Thread(() -> {
+        try {
+          barrier.await();
+          for (int j = 0; j < iterations; j++) {
+            MongoClient client = MongoClient.createShared(vertx, config, "storm");
+            client.close();
+            // Closing twice must not release the data source of the other clients
+            client.close();
+          }
+        } catch (Throwable t) {
+          failure.compareAndSet(null, t);
+        }
+      });
+      workers.add(worker);
+      worker.start();
+    }
+    for (Thread worker : workers) {
+      worker.join();
+    }
+    assertNull(failure.get());
+    assertEquals(1, map.size());
+
+    // The data source held by the anchor client must still be open
+    anchor.getCollections(onSuccess(names -> {
+      anchor.close();
+      assertEquals(0, map.size());
+      assertNotSame(map, getLocalMap());
+      testComplete();
+    }));
+    await();
+  }
+
+  @Test
+  public void testNoVertxMonitor() throws Exception {
+    LocalMap<String, Object> map = getLocalMap();
+    CountDownLatch locked = new CountDownLatch(1);
+    CountDownLatch done = new CountDownLatch(1);
+    // Another library holding the monitor of the Vert.x instance must not block the data sources
+    Thread holder = new Thread(() -> {
+      synchronized (vertx) {
+        locked.countDown();
+        try {
+          done.await();
+        } catch (InterruptedException ignore) {
+        }
+      }
+    });
+    holder.start();
+    awaitLatch(locked);
+    try {
+      MongoClient client = MongoClient.createShared(vertx, getConfig(), "unlocked");
+      assertEquals(1, map.size());
+      client.close();
+      assertEquals(0, map.size());
+      assertNotSame(map, getLocalMap());
+    } finally {
+      done.countDown();
+      holder.join();
+    }
+  }
+
+  @Test
+  public void testSharedRecreateStorm() throws Exception {
+    LocalMap<String, Object> map = getLocalMap();
+    JsonObject config = getConfig();
+    int threads = 4;
+    int iterations = 10;
+    CyclicBarrier barrier = new CyclicBarrier(threads);
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    List<Thread> workers = new ArrayList<>();
+    for (int i = 0; i < threads; i++) {
+      Thread worker = new Thread(() -> {
+        try {
+          barrier.await();
+          // The data source is closed and created again while other threads look it up
+          for (int j = 0; j < iterations; j++) {
+            MongoClient client = MongoClient.createShared(vertx, config, "recreate");
+            CountDownLatch latch = new CountDownLatch(1);
+            client.getCollections(ar -> {
+              if (ar.failed()) {
+                failure.compareAndSet(null, ar.cause());
+              }
+              latch.countDown();
+            });
+            latch.await(10, TimeUnit.SECONDS);
+            client.close();
+          }
+        } catch (Throwable t) {
+          failure.compareAndSet(null, t);
+        }
+      });
+      workers.add(worker);
+      worker.start();
+    }
+    for (Thread worker : workers) {
+      worker.join();
+    }
+    assertNull(failure.get());
+    assertEquals(0, map.size());
+  }
 }
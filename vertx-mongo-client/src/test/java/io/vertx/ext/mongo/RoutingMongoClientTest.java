@@ -0,0 +1,196 @@
+package io.vertx.ext.mongo;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Routes over two databases of the test server, standing for two clusters.
+ */
+public class RoutingMongoClientTest extends MongoTestBase {
+
+  private MongoClient routing;
+  private MongoClient first;
+  private MongoClient second;
+
+  @Override
+  public void setUp() throws Exception {
+    super.setUp();
+    routing = MongoClient.createRouting(vertx, new JsonObject()
+        .put("shardKey", "tenant")
+        .put("placement", "range")
+        .put("ranges", new JsonArray()
+            .add(new JsonObject().put("cluster", "first"))
+            .add(new JsonObject().put("cluster", "second").put("min", "m")))
+        .put("clusters", new JsonArray()
+            .add(cluster("first"))
+            .add(cluster("second"))));
+    first = MongoClient.createShared(vertx, new JsonObject(), "routing.first");
+    second = MongoClient.createShared(vertx, new JsonObject(), "routing.second");
+    CountDownLatch latch = new CountDownLatch(1);
+    routing.runCommand("dropDatabase", new JsonObject().put("dropDatabase", 1), onSuccess(res -> latch.countDown()));
+    awaitLatch(latch);
+  }
+
+  @Override
+  public void tearDown() throws Exception {
+    first.close();
+    second.close();
+    routing.close();
+    super.tearDown();
+  }
+
+  private JsonObject cluster(String name) {
+    JsonObject config = getConfig().put("db_name", "routing_" + name);
+    return new JsonObject().put("name", name).put("dataSourceName", "routing." + name).put("config", config);
+  }
+
+  private void insertTenants(Runnable done) {
+    String[] tenants = {"alice", "bob", "mallory", "trent", "zoe"};
+    AtomicInteger pending = new AtomicInteger(tenants.length);
+    for (int i = 0; i < tenants.length; i++) {
+      JsonObject doc = new JsonObject().put("tenant", tenants[i]).put("num", i);
+      routing.insert("docs", doc, onSuccess(id -> {
+        if (pending.decrementAndGet() == 0) {
+          done.run();
+        }
+      }));
+    }
+  }
+
+  @Test
+  public void testPlacement() {
+    insertTenants(() -> {
+      first.count("docs", new JsonObject(), onSuccess(count -> {
+        assertEquals(2, count.intValue());
+        second.count("docs", new JsonObject(), onSuccess(count2 -> {
+          assertEquals(3, count2.intValue());
+          testComplete();
+        }));
+      }));
+    });
+    await();
+  }
+
+  @Test
+  public void testRoutedQuery() {
+    insertTenants(() -> {
+      routing.find("docs", new JsonObject().put("tenant", "trent"), onSuccess(docs -> {
+        assertEquals(1, docs.size());
+        assertEquals(3, (int) docs.get(0).getInteger("num"));
+        testComplete();
+      }));
+    });
+    await();
+  }
+
+  @Test
+  public void testScatterGather() {
+    insertTenants(() -> {
+      routing.count("docs", new JsonObject(), onSuccess(count -> {
+        assertEquals(5, count.intValue());
+        FindOptions options = new FindOptions().setSort(new JsonObject().put("num", -1)).setSkip(1).setLimit(3);
+        routing.findWithOptions("docs", new JsonObject().put("num", new JsonObject().put("$gte", 0)), options, onSuccess(docs -> {
+          assertEquals(3, docs.size());
+          assertEquals(3, (int) docs.get(0).getInteger("num"));
+          assertEquals(2, (int) docs.get(1).getInteger("num"));
+          assertEquals(1, (int) docs.get(2).getInteger("num"));
+          testComplete();
+        }));
+      }));
+    });
+    await();
+  }
+
+  @Test
+  public void testScatterStream() {
+    insertTenants(() -> {
+      AtomicInteger received = new AtomicInteger();
+      routing.aggregateStream("docs", new JsonArray(), new AggregateOptions())
+          .exceptionHandler(err -> fail(err.getMessage()))
+          .endHandler(v -> {
+            assertEquals(5, received.get());
+            testComplete();
+          })
+          .handler(doc -> received.incrementAndGet());
+    });
+    await();
+  }
+
+  @Test
+  public void testSingleDocumentWriteRequiresShardKey() {
+    try {
+      routing.insert("docs", new JsonObject().put("foo", "bar"), onSuccess(id -> fail("Should not insert")));
+      fail("Should throw");
+    } catch (IllegalArgumentException expected) {
+      // ok
+    }
+    try {
+      routing.removeOne("docs", new JsonObject().put("foo", "bar"), onSuccess(v -> fail("Should not remove")));
+      fail("Should throw");
+    } catch (IllegalArgumentException expected) {
+      // ok
+    }
+  }
+
+  @Test
+  public void testShardKeyCannotChange() {
+    JsonObject query = new JsonObject().put("tenant", "alice");
+    try {
+      routing.update("docs", query, new JsonObject().put("$set", new JsonObject().put("tenant", "zoe")), onSuccess(v -> fail("Should not update")));
+      fail("Should throw");
+    } catch (IllegalArgumentException expected) {
+      // ok
+    }
+    try {
+      routing.replace("docs", query, new JsonObject().put("tenant", "zoe"), onSuccess(v -> fail("Should not replace")));
+      fail("Should throw");
+    } catch (IllegalArgumentException expected) {
+      // ok
+    }
+  }
+
+  @Test
+  public void testScatterAggregateCannotCombineClusters() {
+    JsonArray pipeline = new JsonArray().add(new JsonObject().put("$group", new JsonObject().put("_id", null)
+        .put("count", new JsonObject().put("$sum", 1))));
+    try {
+      routing.aggregate("docs", pipeline, new AggregateOptions(), onSuccess(docs -> fail("Should not aggregate")));
+      fail("Should throw");
+    } catch (IllegalArgumentException expected) {
+      // ok
+    }
+    // Routed by the shard key, the pipeline runs on a single cluster
+    JsonArray routed = new JsonArray().add(new JsonObject().put("$match", new JsonObject().put("tenant", "bob"))).addAll(pipeline);
+    insertTenants(() -> {
+      routing.aggregate("docs", routed, new AggregateOptions(), onSuccess(docs -> {
+        assertEquals(1, docs.size());
+        assertEquals(1, (int) docs.get(0).getInteger("count"));
+        testComplete();
+      }));
+    });
+    await();
+  }
+
+  @Test
+  public void testScatterSortByDate() {
+    // Read back as 2015-05-30T22:50:02.5Z, which sorts before 2015-05-30T22:50:02Z as a string
+    JsonObject later = new JsonObject().put("tenant", "alice").put("at", new JsonObject().put("$date", "2015-05-30T22:50:02.500Z"));
+    JsonObject earlier = new JsonObject().put("tenant", "zoe").put("at", new JsonObject().put("$date", "2015-05-30T22:50:02Z"));
+    routing.insert("docs", later, onSuccess(id -> {
+      routing.insert("docs", earlier, onSuccess(id2 -> {
+        FindOptions options = new FindOptions().setSort(new JsonObject().put("at", 1));
+        routing.findWithOptions("docs", new JsonObject(), options, onSuccess(docs -> {
+          assertEquals(2, docs.size());
+          assertEquals("zoe", docs.get(0).getString("tenant"));
+          assertEquals("alice", docs.get(1).getString("tenant"));
+          testComplete();
+        }));
+      }));
+    }));
+    await();
+  }
+}
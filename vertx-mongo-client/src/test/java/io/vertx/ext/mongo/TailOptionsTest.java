@@ -0,0 +1,95 @@
+package io.vertx.ext.mongo;
+
+import io.vertx.core.json.JsonObject;
+import io.vertx.test.core.TestUtils;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TailOptionsTest {
+  @Test
+  public void testOptions() {
+    TailOptions options = new TailOptions();
+
+    JsonObject fields = new JsonObject().put(TestUtils.randomAlphaString(10), TestUtils.randomBoolean());
+    assertEquals(options, options.setFields(fields));
+    assertEquals(fields, options.getFields());
+
+    boolean awaitData = TestUtils.randomBoolean();
+    assertEquals(options, options.setAwaitData(awaitData));
+    assertEquals(awaitData, options.isAwaitData());
+
+    int batchSize = TestUtils.randomPositiveInt();
+    assertEquals(options, options.setBatchSize(batchSize));
+    assertEquals(batchSize, options.getBatchSize());
+
+    long reconnectDelayMS = TestUtils.randomPositiveLong();
+    assertEquals(options, options.setReconnectDelayMS(reconnectDelayMS));
+    assertEquals(reconnectDelayMS, options.getReconnectDelayMS());
+  }
+
+  @Test
+  public void testDefaultOptions() {
+    TailOptions options = new TailOptions();
+    assertNull(options.getFields());
+    assertTrue(options.isAwaitData());
+    assertEquals(0, options.getBatchSize());
+    assertEquals(1000, options.getReconnectDelayMS());
+  }
+
+  @Test
+  public void testOptionsJson() {
+    JsonObject json = new JsonObject();
+
+    JsonObject fields = new JsonObject().put(TestUtils.randomAlphaString(10), TestUtils.randomBoolean());
+    json.put("fields", fields);
+
+    boolean awaitData = TestUtils.randomBoolean();
+    json.put("awaitData", awaitData);
+
+    int batchSize = TestUtils.randomPositiveInt();
+    json.put("batchSize", batchSize);
+
+    long reconnectDelayMS = TestUtils.randomPositiveLong();
+    json.put("reconnectDelayMS", reconnectDelayMS);
+
+    TailOptions options = new TailOptions(json);
+    assertEquals(fields, options.getFields());
+    assertEquals(awaitData, options.isAwaitData());
+    assertEquals(batchSize, options.getBatchSize());
+    assertEquals(reconnectDelayMS, options.getReconnectDelayMS());
+  }
+
+  @Test
+  public void testDefaultOptionsJson() {
+    TailOptions options = new TailOptions(new JsonObject());
+    TailOptions def = new TailOptions();
+    assertEquals(def.getFields(), options.getFields());
+    assertEquals(def.isAwaitData(), options.isAwaitData());
+    assertEquals(def.getBatchSize(), options.getBatchSize());
+    assertEquals(def.getReconnectDelayMS(), options.getReconnectDelayMS());
+  }
+
+  @Test
+  public void testCopyOptions() {
+    TailOptions options = new TailOptions();
+    options.setFields(new JsonObject().put("foo", true));
+    options.setAwaitData(false);
+    options.setBatchSize(TestUtils.randomPositiveInt());
+    options.setReconnectDelayMS(TestUtils.randomPositiveLong());
+
+    TailOptions copy = new TailOptions(options);
+    assertEquals(options, copy);
+  }
+
+  @Test
+  public void testToJson() {
+    TailOptions options = new TailOptions();
+    options.setFields(new JsonObject().put("foo", true));
+    options.setAwaitData(false);
+    options.setBatchSize(TestUtils.randomPositiveInt());
+    options.setReconnectDelayMS(TestUtils.randomPositiveLong());
+
+    assertEquals(options, new TailOptions(options.toJson()));
+  }
+}
@@ -0,0 +1,126 @@
+package io.vertx.ext.mongo.impl;
+
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class AdaptiveLimiterTest {
+
+  private final AtomicLong clock = new AtomicLong();
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final Deque<Long> started = new ArrayDeque<>();
+
+  private AdaptiveLimiter limiter(int min, int max) {
+    return new AdaptiveLimiter(min, max, 100, 2.0, inFlight, clock::get);
+  }
+
+  private void advance(long ms) {
+    clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(ms));
+  }
+
+  private void execute(AdaptiveLimiter limiter, int count) {
+    for (int i = 0; i < count; i++) {
+      limiter.execute(() -> started.add(limiter.now()));
+    }
+  }
+
+  private void complete(AdaptiveLimiter limiter, int count) {
+    for (int i = 0; i < count; i++) {
+      limiter.completed(started.poll());
+    }
+  }
+
+  /**
+   * Run batches of concurrent operations until the interval elapsed, the last completion adjusts the limit
+   */
+  private void runInterval(AdaptiveLimiter limiter, int concurrency, long latencyMS) {
+    for (long elapsed = 0; elapsed < 100; elapsed += latencyMS) {
+      execute(limiter, concurrency);
+      advance(latencyMS);
+      complete(limiter, concurrency);
+    }
+  }
+
+  @Test
+  public void testQueuesAboveLimit() {
+    AdaptiveLimiter limiter = limiter(1, 2);
+    execute(limiter, 3);
+    assertEquals(2, started.size());
+    assertEquals(2, inFlight.get());
+    assertEquals(1, (int) limiter.metrics().getInteger("queued"));
+    assertTrue(limiter.isBusy());
+
+    // The queued operation starts when another one completes
+    complete(limiter, 1);
+    assertEquals(2, started.size());
+    assertEquals(2, inFlight.get());
+    assertEquals(0, (int) limiter.metrics().getInteger("queued"));
+
+    complete(limiter, 2);
+    assertEquals(0, inFlight.get());
+    assertFalse(limiter.isBusy());
+  }
+
+  @Test
+  public void testStartsAtMax() {
+    AdaptiveLimiter limiter = limiter(1, 4);
+    assertEquals(4, limiter.limit());
+    runInterval(limiter, 4, 10);
+    // Fully used at a steady latency, nothing to change
+    assertEquals(4, limiter.limit());
+    assertEquals(10d, limiter.metrics().getDouble("baselineLatencyMS"), 0.001);
+  }
+
+  @Test
+  public void testShrinksWhenLatencyGrows() {
+    AdaptiveLimiter limiter = limiter(1, 4);
+    runInterval(limiter, 4, 10);
+    runInterval(limiter, 4, 100);
+    assertEquals(3, limiter.limit());
+    assertEquals(1, (long) limiter.metrics().getLong("decreases"));
+  }
+
+  @Test
+  public void testGrowsWhenOperationsWait() {
+    AdaptiveLimiter limiter = limiter(1, 4);
+    runInterval(limiter, 4, 10);
+    runInterval(limiter, 4, 100);
+    assertEquals(3, limiter.limit());
+    // Back to the baseline latency, but operations wait for the lower limit
+    runInterval(limiter, 4, 10);
+    assertEquals(4, limiter.limit());
+    assertEquals(1, (long) limiter.metrics().getLong("increases"));
+    assertTrue(limiter.metrics().getDouble("waitMS") > 0);
+  }
+
+  @Test
+  public void testShrinksWhenUnused() {
+    AdaptiveLimiter limiter = limiter(2, 10);
+    for (int i = 0; i < 20; i++) {
+      runInterval(limiter, 1, 10);
+    }
+    assertEquals(2, limiter.limit());
+  }
+
+  @Test
+  public void testInvalidBounds() {
+    try {
+      limiter(0, 2);
+      fail("Should throw");
+    } catch (IllegalArgumentException expected) {
+      // ok
+    }
+    try {
+      limiter(3, 2);
+      fail("Should throw");
+    } catch (IllegalArgumentException expected) {
+      // ok
+    }
+  }
+}
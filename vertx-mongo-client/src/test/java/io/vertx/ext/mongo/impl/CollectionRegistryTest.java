@@ -0,0 +1,93 @@
+package io.vertx.ext.mongo.impl;
+
+import com.mongodb.ReadPreference;
+import com.mongodb.WriteConcern;
+import com.mongodb.async.client.MongoClient;
+import com.mongodb.async.client.MongoClients;
+import com.mongodb.async.client.MongoCollection;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.mongo.WriteOption;
+import io.vertx.ext.mongo.impl.config.CollectionSettingsParser;
+import io.vertx.ext.mongo.impl.config.MongoClientOptionsParser;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CollectionRegistryTest {
+
+  private MongoClient mongo;
+
+  @Before
+  public void setUp() {
+    // Views are created locally, no server is needed
+    mongo = MongoClients.create(new MongoClientOptionsParser(new JsonObject()).settings());
+  }
+
+  @After
+  public void tearDown() {
+    mongo.close();
+  }
+
+  private CollectionRegistry registry(JsonObject config) {
+    return new CollectionRegistry(mongo.getDatabase("test"), new CollectionSettingsParser(config));
+  }
+
+  @Test
+  public void testViewsAreCached() {
+    CollectionRegistry registry = registry(new JsonObject());
+    MongoCollection<JsonObject> coll = registry.get("foo", null);
+    assertEquals("foo", coll.getNamespace().getCollectionName());
+    assertSame(coll, registry.get("foo", null));
+    assertNotSame(coll, registry.get("bar", null));
+    assertEquals(2, registry.size());
+  }
+
+  @Test
+  public void testWriteOptionViews() {
+    CollectionRegistry registry = registry(new JsonObject());
+    for (WriteOption option : WriteOption.values()) {
+      MongoCollection<JsonObject> coll = registry.get("foo", option);
+      assertEquals(WriteConcern.valueOf(option.name()), coll.getWriteConcern());
+      assertSame(coll, registry.get("foo", option));
+    }
+    assertEquals(1, registry.size());
+  }
+
+  @Test
+  public void testCollectionDefaults() {
+    JsonObject config = new JsonObject().put("collections", new JsonObject()
+        .put("events", new JsonObject().put("writeConcern", "UNACKNOWLEDGED").put("readPreference", "secondaryPreferred")));
+    CollectionRegistry registry = registry(config);
+
+    MongoCollection<JsonObject> events = registry.get("events", null);
+    assertEquals(WriteConcern.UNACKNOWLEDGED, events.getWriteConcern());
+    assertEquals(ReadPreference.secondaryPreferred(), events.getReadPreference());
+
+    // The write option overrides the default write concern, but keeps the default read preference
+    MongoCollection<JsonObject> majority = registry.get("events", WriteOption.MAJORITY);
+    assertEquals(WriteConcern.MAJORITY, majority.getWriteConcern());
+    assertEquals(ReadPreference.secondaryPreferred(), majority.getReadPreference());
+
+    assertEquals(ReadPreference.primary(), registry.get("orders", null).getReadPreference());
+  }
+
+  @Test
+  public void testRemove() {
+    CollectionRegistry registry = registry(new JsonObject());
+    MongoCollection<JsonObject> coll = registry.get("foo", null);
+    registry.remove("foo");
+    assertEquals(0, registry.size());
+    assertNotSame(coll, registry.get("foo", null));
+  }
+
+  @Test
+  public void testMaxCachedCollections() {
+    CollectionRegistry registry = registry(new JsonObject());
+    for (int i = 0; i < CollectionRegistry.MAX_CACHED_COLLECTIONS + 10; i++) {
+      assertEquals("coll" + i, registry.get("coll" + i, null).getNamespace().getCollectionName());
+    }
+    assertEquals(CollectionRegistry.MAX_CACHED_COLLECTIONS, registry.size());
+  }
+}
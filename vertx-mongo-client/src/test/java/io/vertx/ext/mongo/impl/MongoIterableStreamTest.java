@@ -0,0 +1,41 @@
+package io.vertx.ext.mongo.impl;
+
+import io.vertx.core.json.JsonObject;
+import io.vertx.test.core.VertxTestBase;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class MongoIterableStreamTest extends VertxTestBase {
+
+  @Test
+  public void testUnreadStreamHoldsNothing() {
+    AtomicInteger closed = new AtomicInteger();
+    MongoIterableStream<JsonObject> stream = new MongoIterableStream<>(vertx.getOrCreateContext(), () -> {
+      throw new AssertionError("The iterable must not be created");
+    }, closed::incrementAndGet);
+    stream.handler(null);
+    assertEquals(1, closed.get());
+  }
+
+  @Test
+  public void testIterableFailure() throws Exception {
+    AtomicInteger created = new AtomicInteger();
+    AtomicInteger closed = new AtomicInteger();
+    MongoIterableStream<JsonObject> stream = new MongoIterableStream<>(vertx.getOrCreateContext(), () -> {
+      created.incrementAndGet();
+      throw new IllegalArgumentException("invalid");
+    }, closed::incrementAndGet);
+    stream.exceptionHandler(err -> {
+      // The resources acquired for the iterable are released
+      assertEquals("invalid", err.getMessage());
+      assertEquals(1, closed.get());
+      testComplete();
+    });
+    // The iterable is only created when the stream is read
+    assertEquals(0, created.get());
+    stream.handler(doc -> fail("No document expected"));
+    assertEquals(1, created.get());
+    await();
+  }
+}
@@ -0,0 +1,47 @@
+package io.vertx.ext.mongo.impl;
+
+import com.mongodb.async.client.MongoClient;
+import com.mongodb.async.client.MongoClients;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.mongo.impl.config.CollectionSettingsParser;
+import io.vertx.ext.mongo.impl.config.MongoClientOptionsParser;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PartitionTest {
+
+  private MongoClient mongo;
+
+  @Before
+  public void setUp() {
+    // Views are created locally, no server is needed
+    mongo = MongoClients.create(new MongoClientOptionsParser(new JsonObject()).settings());
+  }
+
+  @After
+  public void tearDown() {
+    mongo.close();
+  }
+
+  @Test
+  public void testDatabaseRegistriesAreCached() {
+    Partition partition = new Partition(mongo, "test", new CollectionSettingsParser(new JsonObject()), 0, 100, null);
+    assertSame(partition.collections, partition.registry(null));
+    CollectionRegistry registry = partition.registry("tenant");
+    assertEquals("tenant", registry.database().getName());
+    assertSame(registry, partition.registry("tenant"));
+    assertEquals(1, partition.cachedDatabases());
+  }
+
+  @Test
+  public void testMaxCachedDatabases() {
+    Partition partition = new Partition(mongo, "test", new CollectionSettingsParser(new JsonObject()), 0, 100, null);
+    for (int i = 0; i < Partition.MAX_CACHED_DATABASES + 10; i++) {
+      assertEquals("tenant" + i, partition.db("tenant" + i).getName());
+    }
+    assertEquals(Partition.MAX_CACHED_DATABASES, partition.cachedDatabases());
+  }
+}
@@ -0,0 +1,139 @@
+package io.vertx.ext.mongo.impl;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ShardRouterTest {
+
+  private static final List<String> CLUSTERS = Arrays.asList("a", "b", "c");
+
+  @Test
+  public void testHashPlacementSpreadsKeys() {
+    ShardRouter router = new ShardRouter(new JsonObject().put("shardKey", "tenant"), CLUSTERS);
+    int[] counts = new int[CLUSTERS.size()];
+    for (int i = 0; i < 30000; i++) {
+      counts[router.route("tenant" + i)]++;
+    }
+    for (int count : counts) {
+      assertTrue("Unbalanced " + Arrays.toString(counts), count > 8000 && count < 12000);
+    }
+  }
+
+  @Test
+  public void testHashPlacementIsConsistent() {
+    ShardRouter router = new ShardRouter(new JsonObject().put("shardKey", "tenant"), CLUSTERS);
+    ShardRouter grown = new ShardRouter(new JsonObject().put("shardKey", "tenant"), Arrays.asList("a", "b", "c", "d"));
+    int moved = 0;
+    for (int i = 0; i < 10000; i++) {
+      int before = router.route(i);
+      int after = grown.route(i);
+      assertEquals(before, router.route((long) i));
+      if (before != after) {
+        // Keys only move to the new cluster
+        assertEquals(3, after);
+        moved++;
+      }
+    }
+    assertTrue(moved > 1500 && moved < 3500);
+  }
+
+  @Test
+  public void testRangePlacement() {
+    JsonObject config = new JsonObject().put("shardKey", "age").put("placement", "range").put("ranges", new JsonArray()
+        .add(new JsonObject().put("cluster", "c").put("min", 65))
+        .add(new JsonObject().put("cluster", "a"))
+        .add(new JsonObject().put("cluster", "b").put("min", 18)));
+    ShardRouter router = new ShardRouter(config, CLUSTERS);
+    assertEquals(0, router.route(-5));
+    assertEquals(0, router.route(17.5));
+    assertEquals(1, router.route(18));
+    assertEquals(1, router.route(64));
+    assertEquals(2, router.route(65L));
+    try {
+      router.route("eighteen");
+      fail("Should throw");
+    } catch (IllegalArgumentException expected) {
+      // ok
+    }
+  }
+
+  @Test
+  public void testRangeWithoutLowerBound() {
+    JsonObject config = new JsonObject().put("shardKey", "name").put("placement", "range").put("ranges", new JsonArray()
+        .add(new JsonObject().put("cluster", "a").put("min", "a"))
+        .add(new JsonObject().put("cluster", "b").put("min", "n")));
+    ShardRouter router = new ShardRouter(config, CLUSTERS);
+    assertEquals(0, router.route("john"));
+    assertEquals(1, router.route("paul"));
+    try {
+      router.route("Adam");
+      fail("Should throw");
+    } catch (IllegalArgumentException expected) {
+      // ok
+    }
+  }
+
+  @Test
+  public void testInvalidConfig() {
+    assertInvalid(new JsonObject());
+    assertInvalid(new JsonObject().put("shardKey", "k").put("placement", "random"));
+    assertInvalid(new JsonObject().put("shardKey", "k").put("placement", "range"));
+    assertInvalid(new JsonObject().put("shardKey", "k").put("placement", "range").put("ranges", new JsonArray()
+        .add(new JsonObject().put("cluster", "z"))));
+    assertInvalid(new JsonObject().put("shardKey", "k").put("placement", "range").put("ranges", new JsonArray()
+        .add(new JsonObject().put("cluster", "a"))
+        .add(new JsonObject().put("cluster", "b"))));
+  }
+
+  @Test
+  public void testKeyOfDocument() {
+    ShardRouter router = new ShardRouter(new JsonObject().put("shardKey", "owner.id"), CLUSTERS);
+    assertEquals("x", router.keyOf(new JsonObject().put("owner", new JsonObject().put("id", "x"))));
+    assertNull(router.keyOf(new JsonObject().put("owner", "x")));
+    assertNull(router.keyOf(new JsonObject()));
+  }
+
+  @Test
+  public void testKeyOfQuery() {
+    ShardRouter router = new ShardRouter(new JsonObject().put("shardKey", "tenant"), CLUSTERS);
+    assertEquals("x", router.keyOfQuery(new JsonObject().put("tenant", "x").put("foo", 1)));
+    assertEquals("x", router.keyOfQuery(new JsonObject().put("tenant", new JsonObject().put("$eq", "x"))));
+    assertNull(router.keyOfQuery(new JsonObject().put("tenant", new JsonObject().put("$in", new JsonArray().add("x")))));
+    assertNull(router.keyOfQuery(new JsonObject().put("tenant", new JsonArray().add("x"))));
+    assertNull(router.keyOfQuery(new JsonObject().put("foo", "x")));
+  }
+
+  @Test
+  public void testModifiesKey() {
+    ShardRouter router = new ShardRouter(new JsonObject().put("shardKey", "owner.id"), CLUSTERS);
+    assertFalse(router.modifiesKey(new JsonObject().put("$set", new JsonObject().put("foo", 1))));
+    assertFalse(router.modifiesKey(new JsonObject().put("$set", new JsonObject().put("owner.name", "x"))));
+    assertTrue(router.modifiesKey(new JsonObject().put("$set", new JsonObject().put("owner.id", "x"))));
+    assertTrue(router.modifiesKey(new JsonObject().put("$unset", new JsonObject().put("owner", ""))));
+    assertTrue(router.modifiesKey(new JsonObject().put("$rename", new JsonObject().put("foo", "owner.id"))));
+    assertTrue(router.modifiesKey(new JsonObject().put("owner", new JsonObject().put("id", "x"))));
+  }
+
+  @Test
+  public void testSameKey() {
+    assertTrue(ShardRouter.sameKey(3, 3L));
+    assertTrue(ShardRouter.sameKey("x", "x"));
+    assertFalse(ShardRouter.sameKey("x", "y"));
+    assertFalse(ShardRouter.sameKey("x", null));
+  }
+
+  private static void assertInvalid(JsonObject config) {
+    try {
+      new ShardRouter(config, CLUSTERS);
+      fail("Should throw for " + config);
+    } catch (IllegalArgumentException expected) {
+      // ok
+    }
+  }
+}
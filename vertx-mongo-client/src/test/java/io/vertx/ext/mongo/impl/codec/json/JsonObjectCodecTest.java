@@ -1,14 +1,18 @@
 package io.vertx.ext.mongo.impl.codec.json;
 
 import io.vertx.core.json.JsonObject;
+import org.bson.BsonBinary;
+import org.bson.BsonBinarySubType;
 import org.bson.BsonDateTime;
 import org.bson.BsonDocument;
 import org.bson.BsonDocumentReader;
 import org.bson.BsonDocumentWriter;
+import org.bson.BsonTimestamp;
 import org.bson.BsonType;
 import org.bson.BsonValue;
 import org.bson.codecs.DecoderContext;
 import org.bson.codecs.EncoderContext;
+import org.bson.types.ObjectId;
 import org.junit.Test;
 
 import java.time.Instant;
@@ -95,4 +99,100 @@ public class JsonObjectCodecTest {
     // we encode always in UTC
     assertEquals("2011-12-03T09:15:30.5Z", back);
   }
+
+  @Test
+  public void getBsonType_returnsTimestampType_WhenValueIsJsonObjectAndContainsTimestampField() {
+    JsonObjectCodec codec = new JsonObjectCodec();
+
+    JsonObject value = new JsonObject();
+    value.put(JsonObjectCodec.TIMESTAMP_FIELD, new JsonObject().put("t", 1).put("i", 2));
+
+    assertEquals(BsonType.TIMESTAMP, codec.getBsonType(value));
+  }
+
+  @Test
+  public void readDocument_supportBsonTimestamp() {
+    JsonObjectCodec codec = new JsonObjectCodec();
+
+    BsonDocument bson = new BsonDocument();
+    bson.append("test", new BsonTimestamp(1443434400, 7));
+
+    BsonDocumentReader reader = new BsonDocumentReader(bson);
+
+    JsonObject result = codec.readDocument(reader, DecoderContext.builder().build());
+
+    JsonObject resultValue = result.getJsonObject("test").getJsonObject(JsonObjectCodec.TIMESTAMP_FIELD);
+    assertEquals(1443434400, (int) resultValue.getInteger(JsonObjectCodec.TIMESTAMP_TIME_FIELD));
+    assertEquals(7, (int) resultValue.getInteger(JsonObjectCodec.TIMESTAMP_INC_FIELD));
+  }
+
+  @Test
+  public void writeDocument_supportBsonTimestamp() {
+    JsonObjectCodec codec = new JsonObjectCodec();
+
+    JsonObject timestamp = new JsonObject().put(JsonObjectCodec.TIMESTAMP_FIELD, new JsonObject()
+        .put(JsonObjectCodec.TIMESTAMP_TIME_FIELD, 1443434400)
+        .put(JsonObjectCodec.TIMESTAMP_INC_FIELD, 7));
+    JsonObject value = new JsonObject();
+    value.put("test", timestamp);
+
+    BsonDocument bsonResult = new BsonDocument();
+    BsonDocumentWriter writer = new BsonDocumentWriter(bsonResult);
+
+    codec.writeDocument(writer, "", value, EncoderContext.builder().build());
+
+    BsonValue resultValue = bsonResult.get("test");
+    assertEquals(BsonType.TIMESTAMP, resultValue.getBsonType());
+    assertEquals(new BsonTimestamp(1443434400, 7), resultValue.asTimestamp());
+  }
+
+  @Test
+  public void readAndWriteDocument_supportBsonBinary() {
+    JsonObjectCodec codec = new JsonObjectCodec();
+
+    byte[] data = new byte[]{1, 2, 3, 4};
+    BsonDocument bson = new BsonDocument();
+    bson.append("test", new BsonBinary(BsonBinarySubType.UUID_STANDARD, data));
+
+    JsonObject result = codec.readDocument(new BsonDocumentReader(bson), DecoderContext.builder().build());
+
+    JsonObject resultValue = result.getJsonObject("test");
+    assertEquals("AQIDBA==", resultValue.getString(JsonObjectCodec.BINARY_FIELD));
+    assertEquals("04", resultValue.getString(JsonObjectCodec.TYPE_FIELD));
+
+    BsonDocument bsonResult = new BsonDocument();
+    codec.writeDocument(new BsonDocumentWriter(bsonResult), "", result, EncoderContext.builder().build());
+
+    assertEquals(bson, bsonResult);
+  }
+
+  @Test
+  public void writeDocument_supportObjectId() {
+    JsonObjectCodec codec = new JsonObjectCodec();
+
+    ObjectId id = new ObjectId();
+    JsonObject value = new JsonObject().put("test", new JsonObject().put(JsonObjectCodec.OID_FIELD, id.toHexString()));
+    assertEquals(BsonType.OBJECT_ID, codec.getBsonType(value.getValue("test")));
+
+    BsonDocument bsonResult = new BsonDocument();
+    codec.writeDocument(new BsonDocumentWriter(bsonResult), "", value, EncoderContext.builder().build());
+
+    assertEquals(id, bsonResult.getObjectId("test").getValue());
+  }
+
+  @Test
+  public void writeDocument_keepsOtherOidDocuments() {
+    JsonObjectCodec codec = new JsonObjectCodec();
+
+    // An invalid value, or other fields, make it a document rather than a failure while encoding
+    JsonObject invalid = new JsonObject().put(JsonObjectCodec.OID_FIELD, "not an id");
+    JsonObject other = new JsonObject().put(JsonObjectCodec.OID_FIELD, new ObjectId().toHexString()).put("foo", "bar");
+    assertEquals(BsonType.DOCUMENT, codec.getBsonType(invalid));
+    assertEquals(BsonType.DOCUMENT, codec.getBsonType(other));
+
+    BsonDocument bsonResult = new BsonDocument();
+    codec.writeDocument(new BsonDocumentWriter(bsonResult), "", new JsonObject().put("test", invalid), EncoderContext.builder().build());
+
+    assertEquals("not an id", bsonResult.getDocument("test").getString(JsonObjectCodec.OID_FIELD).getValue());
+  }
 }
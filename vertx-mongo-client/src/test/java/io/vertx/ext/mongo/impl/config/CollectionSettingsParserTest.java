@@ -0,0 +1,45 @@
+package io.vertx.ext.mongo.impl.config;
+
+import com.mongodb.ReadPreference;
+import com.mongodb.WriteConcern;
+import io.vertx.core.json.JsonObject;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CollectionSettingsParserTest {
+
+  @Test
+  public void testNoCollections() {
+    CollectionSettingsParser parser = new CollectionSettingsParser(new JsonObject());
+    assertNull(parser.writeConcern("foo"));
+    assertNull(parser.readPreference("foo"));
+  }
+
+  @Test
+  public void testCollections() {
+    JsonObject config = new JsonObject().put("collections", new JsonObject()
+        .put("events", new JsonObject().put("writeConcern", "UNACKNOWLEDGED").put("readPreference", "secondaryPreferred"))
+        .put("orders", new JsonObject().put("w", "majority").put("wtimeoutMS", 500)));
+
+    CollectionSettingsParser parser = new CollectionSettingsParser(config);
+    assertEquals(WriteConcern.UNACKNOWLEDGED, parser.writeConcern("events"));
+    assertEquals(ReadPreference.secondaryPreferred(), parser.readPreference("events"));
+    assertEquals(new WriteConcern("majority", 500, false, false), parser.writeConcern("orders"));
+    assertNull(parser.readPreference("orders"));
+    assertNull(parser.writeConcern("books"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidCollectionSettings() {
+    JsonObject config = new JsonObject().put("collections", new JsonObject().put("events", "UNACKNOWLEDGED"));
+    new CollectionSettingsParser(config);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidWriteConcern() {
+    JsonObject config = new JsonObject().put("collections", new JsonObject()
+        .put("events", new JsonObject().put("writeConcern", "foo")));
+    new CollectionSettingsParser(config);
+  }
+}
@@ -1,5 +1,6 @@
 package io.vertx.ext.mongo.impl.config;
 
+import com.mongodb.ConnectionString;
 import com.mongodb.connection.ConnectionPoolSettings;
 import io.vertx.core.json.JsonObject;
 import org.junit.Test;
@@ -43,4 +44,55 @@ public class ConnectionPoolSetttingsParserTest {
     assertEquals(maintenanceInitialDelayMS, settings.getMaintenanceInitialDelay(MILLISECONDS));
     assertEquals(maintenanceFrequencyMS, settings.getMaintenanceFrequency(MILLISECONDS));
   }
+
+  @Test
+  public void testPartitionedConnectionPoolSettings() {
+    JsonObject config = new JsonObject();
+    config.put("maxPoolSize", 10);
+    config.put("minPoolSize", 5);
+    config.put("waitQueueMultiple", 100);
+
+    int partitions = 4;
+    int maxPoolSize = 0;
+    int minPoolSize = 0;
+    int waitQueueSize = 0;
+    for (int i = 0; i < partitions; i++) {
+      ConnectionPoolSettings settings = new ConnectionPoolSettingsParser(null, config, partitions, i).settings();
+      assertTrue(settings.getMaxSize() == 2 || settings.getMaxSize() == 3);
+      assertTrue(settings.getMinSize() <= settings.getMaxSize());
+      maxPoolSize += settings.getMaxSize();
+      minPoolSize += settings.getMinSize();
+      waitQueueSize += settings.getMaxWaitQueueSize();
+    }
+    // The partitions share the configured sizes
+    assertEquals(10, maxPoolSize);
+    assertEquals(5, minPoolSize);
+    assertEquals(100, waitQueueSize);
+  }
+
+  @Test
+  public void testPartitionedConnectionPoolSettingsAtLeastOneConnection() {
+    JsonObject config = new JsonObject().put("maxPoolSize", 2);
+    for (int i = 0; i < 4; i++) {
+      assertEquals(1, new ConnectionPoolSettingsParser(null, config, 4, i).settings().getMaxSize());
+    }
+  }
+
+  @Test
+  public void testNamedPoolSettings() {
+    JsonObject config = new JsonObject().put("maxPoolSize", 50).put("waitQueueTimeoutMS", 1000L);
+    JsonObject pool = new JsonObject().put("maxPoolSize", 4);
+    ConnectionPoolSettings settings = new ConnectionPoolSettingsParser(null, config, pool, 1, 0).settings();
+    assertEquals(4, settings.getMaxSize());
+    // The other options are the ones of the data source
+    assertEquals(1000, settings.getMaxWaitTime(MILLISECONDS));
+  }
+
+  @Test
+  public void testNamedPoolSettingsOverrideConnectionString() {
+    ConnectionString connectionString = new ConnectionString("mongodb://localhost:27017/?maxPoolSize=50");
+    JsonObject pool = new JsonObject().put("maxPoolSize", 4);
+    ConnectionPoolSettings settings = new ConnectionPoolSettingsParser(connectionString, new JsonObject(), pool, 2, 0).settings();
+    assertEquals(2, settings.getMaxSize());
+  }
 }
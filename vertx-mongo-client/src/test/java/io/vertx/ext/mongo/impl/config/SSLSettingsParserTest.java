@@ -0,0 +1,36 @@
+package io.vertx.ext.mongo.impl.config;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.connection.SslSettings;
+import io.vertx.core.json.JsonObject;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SSLSettingsParserTest {
+
+  @Test
+  public void testDefaults() {
+    SslSettings settings = new SSLSettingsParser(null, new JsonObject()).settings();
+    assertFalse(settings.isEnabled());
+    assertFalse(settings.isInvalidHostNameAllowed());
+  }
+
+  @Test
+  public void testSslSettings() {
+    JsonObject config = new JsonObject().put("ssl", true).put("sslInvalidHostNameAllowed", true);
+    SslSettings settings = new SSLSettingsParser(null, config).settings();
+    assertTrue(settings.isEnabled());
+    assertTrue(settings.isInvalidHostNameAllowed());
+  }
+
+  @Test
+  public void testConnectionString() {
+    ConnectionString connectionString = new ConnectionString("mongodb://localhost:27017/?ssl=true");
+    // The connection string takes precedence over the configuration
+    JsonObject config = new JsonObject().put("ssl", false).put("sslInvalidHostNameAllowed", true);
+    SslSettings settings = new SSLSettingsParser(connectionString, config).settings();
+    assertTrue(settings.isEnabled());
+    assertFalse(settings.isInvalidHostNameAllowed());
+  }
+}
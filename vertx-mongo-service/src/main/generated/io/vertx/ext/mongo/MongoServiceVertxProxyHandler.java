@@ -42,6 +42,7 @@ import io.vertx.ext.mongo.WriteOption;
 import io.vertx.core.Vertx;
 import io.vertx.ext.mongo.FindOptions;
 import io.vertx.core.json.JsonObject;
+import io.vertx.ext.mongo.AggregateOptions;
 import io.vertx.ext.mongo.MongoService;
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Handler;
@@ -195,10 +196,26 @@ public class MongoServiceVertxProxyHandler extends ProxyHandler {
         service.dropCollection((java.lang.String)json.getValue("collection"), createHandler(msg));
         break;
       }
+      case "distinct": {
+        service.distinct((java.lang.String)json.getValue("collection"), (java.lang.String)json.getValue("fieldName"), (io.vertx.core.json.JsonObject)json.getValue("query"), createHandler(msg));
+        break;
+      }
+      case "aggregate": {
+        service.aggregate((java.lang.String)json.getValue("collection"), (io.vertx.core.json.JsonArray)json.getValue("pipeline"), json.getJsonObject("options") == null ? null : new io.vertx.ext.mongo.AggregateOptions(json.getJsonObject("options")), createListHandler(msg));
+        break;
+      }
       case "runCommand": {
         service.runCommand((java.lang.String)json.getValue("commandName"), (io.vertx.core.json.JsonObject)json.getValue("command"), createHandler(msg));
         break;
       }
+      case "batch": {
+        service.batch((io.vertx.core.json.JsonArray)json.getValue("operations"), (boolean)json.getValue("ordered"), createHandler(msg));
+        break;
+      }
+      case "updateConfig": {
+        service.updateConfig((io.vertx.core.json.JsonObject)json.getValue("config"), createHandler(msg));
+        break;
+      }
       case "close": {
         service.close();
         break;
@@ -23,7 +23,9 @@ import java.util.List;
 import io.vertx.ext.mongo.WriteOption;
 import io.vertx.rxjava.core.Vertx;
 import io.vertx.ext.mongo.FindOptions;
+import io.vertx.ext.mongo.AggregateOptions;
 import io.vertx.core.json.JsonObject;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Handler;
 import io.vertx.ext.mongo.UpdateOptions;
@@ -59,6 +61,35 @@ public class MongoService extends MongoClient {
     return ret;
   }
 
+  /**
+   * Create a proxy to a service that is deployed somewhere on the event bus, waiting for the replies for the given
+   * time. The service runs the queries of the proxy with this time as {@code maxTimeMS}, and does not start the
+   * operations still waiting when it is over.
+   * @param vertx the Vert.x instance
+   * @param address the address the service is listening on on the event bus
+   * @param timeout the time to wait for a reply, in milliseconds
+   * @return the service
+   */
+  public static MongoService createEventBusProxy(Vertx vertx, String address, long timeout) { 
+    MongoService ret= MongoService.newInstance(io.vertx.ext.mongo.MongoService.createEventBusProxy((io.vertx.core.Vertx) vertx.getDelegate(), address, timeout));
+    return ret;
+  }
+
+  /**
+   * Create a proxy to a service that is deployed somewhere on the event bus, identifying its requests with the
+   * given caller. When the operations of the service wait for admission, the service serves the callers fairly, within
+   * the quotas configured for each caller.
+   * @param vertx the Vert.x instance
+   * @param address the address the service is listening on on the event bus
+   * @param timeout the time to wait for a reply, in milliseconds
+   * @param caller the identity of the caller, e.g. the name of a tenant
+   * @return the service
+   */
+  public static MongoService createEventBusProxy(Vertx vertx, String address, long timeout, String caller) { 
+    MongoService ret= MongoService.newInstance(io.vertx.ext.mongo.MongoService.createEventBusProxy((io.vertx.core.Vertx) vertx.getDelegate(), address, timeout, caller));
+    return ret;
+  }
+
   public MongoService save(String collection, JsonObject document, Handler<AsyncResult<String>> resultHandler) { 
     this.delegate.save(collection, document, resultHandler);
     return this;
@@ -268,6 +299,28 @@ public class MongoService extends MongoClient {
     return resultHandler;
   }
 
+  public MongoService distinct(String collection, String fieldName, JsonObject query, Handler<AsyncResult<JsonArray>> resultHandler) { 
+    this.delegate.distinct(collection, fieldName, query, resultHandler);
+    return this;
+  }
+
+  public Observable<JsonArray> distinctObservable(String collection, String fieldName, JsonObject query) { 
+    io.vertx.rx.java.ObservableFuture<JsonArray> resultHandler = io.vertx.rx.java.RxHelper.observableFuture();
+    distinct(collection, fieldName, query, resultHandler.toHandler());
+    return resultHandler;
+  }
+
+  public MongoService aggregate(String collection, JsonArray pipeline, AggregateOptions options, Handler<AsyncResult<List<JsonObject>>> resultHandler) { 
+    this.delegate.aggregate(collection, pipeline, options, resultHandler);
+    return this;
+  }
+
+  public Observable<List<JsonObject>> aggregateObservable(String collection, JsonArray pipeline, AggregateOptions options) { 
+    io.vertx.rx.java.ObservableFuture<List<JsonObject>> resultHandler = io.vertx.rx.java.RxHelper.observableFuture();
+    aggregate(collection, pipeline, options, resultHandler.toHandler());
+    return resultHandler;
+  }
+
   public MongoService runCommand(String commandName, JsonObject command, Handler<AsyncResult<JsonObject>> resultHandler) { 
     this.delegate.runCommand(commandName, command, resultHandler);
     return this;
@@ -279,6 +332,66 @@ public class MongoService extends MongoClient {
     return resultHandler;
   }
 
+  /**
+   * Run several operations with a single request. Each operation is a JSON object with the {@code action}, i.e. the
+   * name of the method, e.g. {@code insert} or {@code find}, and the arguments of the method named after its
+   * parameters, e.g. {@code {"action": "count", "collection": "books", "query": {}}}. Streams and the methods
+   * administering the client can not be batched.
+   * <p>
+   * The result of each operation is a JSON object with either its {@code result} or its {@code error} message. The
+   * service admits each operation of a batch as if it was sent alone, the operations over its limits are rejected.
+   * @param operations the operations
+   * @param ordered {@code true} to run the operations one after the other, stopping at the first failure: the results of the operations not run are {@code null}. {@code false} to run them concurrently.
+   * @param resultHandler will be called with the results, in the order of the operations
+   * @return 
+   */
+  public MongoService batch(JsonArray operations, boolean ordered, Handler<AsyncResult<JsonArray>> resultHandler) { 
+    this.delegate.batch(operations, ordered, resultHandler);
+    return this;
+  }
+
+  /**
+   * Run several operations with a single request. Each operation is a JSON object with the {@code action}, i.e. the
+   * name of the method, e.g. {@code insert} or {@code find}, and the arguments of the method named after its
+   * parameters, e.g. {@code {"action": "count", "collection": "books", "query": {}}}. Streams and the methods
+   * administering the client can not be batched.
+   * <p>
+   * The result of each operation is a JSON object with either its {@code result} or its {@code error} message. The
+   * service admits each operation of a batch as if it was sent alone, the operations over its limits are rejected.
+   * @param operations the operations
+   * @param ordered {@code true} to run the operations one after the other, stopping at the first failure: the results of the operations not run are {@code null}. {@code false} to run them concurrently.
+   * @return 
+   */
+  public Observable<JsonArray> batchObservable(JsonArray operations, boolean ordered) { 
+    io.vertx.rx.java.ObservableFuture<JsonArray> resultHandler = io.vertx.rx.java.RxHelper.observableFuture();
+    batch(operations, ordered, resultHandler.toHandler());
+    return resultHandler;
+  }
+
+  /**
+   * The configuration of the data source can only be updated where the service is deployed, the event bus proxies
+   * fail the update.
+   * @param config 
+   * @param resultHandler 
+   * @return 
+   */
+  public MongoService updateConfig(JsonObject config, Handler<AsyncResult<Void>> resultHandler) { 
+    this.delegate.updateConfig(config, resultHandler);
+    return this;
+  }
+
+  /**
+   * The configuration of the data source can only be updated where the service is deployed, the event bus proxies
+   * fail the update.
+   * @param config 
+   * @return 
+   */
+  public Observable<Void> updateConfigObservable(JsonObject config) { 
+    io.vertx.rx.java.ObservableFuture<Void> resultHandler = io.vertx.rx.java.RxHelper.observableFuture();
+    updateConfig(config, resultHandler.toHandler());
+    return resultHandler;
+  }
+
   public void close() { 
     this.delegate.close();
   }
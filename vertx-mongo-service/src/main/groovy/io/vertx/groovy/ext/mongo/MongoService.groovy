@@ -21,7 +21,9 @@ import java.util.List
 import io.vertx.ext.mongo.WriteOption
 import io.vertx.groovy.core.Vertx
 import io.vertx.ext.mongo.FindOptions
+import io.vertx.ext.mongo.AggregateOptions
 import io.vertx.core.json.JsonObject
+import io.vertx.core.json.JsonArray
 import io.vertx.core.AsyncResult
 import io.vertx.core.Handler
 import io.vertx.ext.mongo.UpdateOptions
@@ -48,6 +50,33 @@ public class MongoService extends MongoClient {
     def ret= InternalHelper.safeCreate(io.vertx.ext.mongo.MongoService.createEventBusProxy((io.vertx.core.Vertx)vertx.getDelegate(), address), io.vertx.ext.mongo.MongoService.class, io.vertx.groovy.ext.mongo.MongoService.class);
     return ret;
   }
+  /**
+   * Create a proxy to a service that is deployed somewhere on the event bus, waiting for the replies for the given
+   * time. The service runs the queries of the proxy with this time as {@code maxTimeMS}, and does not start the
+   * operations still waiting when it is over.
+   * @param vertx the Vert.x instance
+   * @param address the address the service is listening on on the event bus
+   * @param timeout the time to wait for a reply, in milliseconds
+   * @return the service
+   */
+  public static MongoService createEventBusProxy(Vertx vertx, String address, long timeout) {
+    def ret= InternalHelper.safeCreate(io.vertx.ext.mongo.MongoService.createEventBusProxy((io.vertx.core.Vertx)vertx.getDelegate(), address, timeout), io.vertx.ext.mongo.MongoService.class, io.vertx.groovy.ext.mongo.MongoService.class);
+    return ret;
+  }
+  /**
+   * Create a proxy to a service that is deployed somewhere on the event bus, identifying its requests with the
+   * given caller. When the operations of the service wait for admission, the service serves the callers fairly, within
+   * the quotas configured for each caller.
+   * @param vertx the Vert.x instance
+   * @param address the address the service is listening on on the event bus
+   * @param timeout the time to wait for a reply, in milliseconds
+   * @param caller the identity of the caller, e.g. the name of a tenant
+   * @return the service
+   */
+  public static MongoService createEventBusProxy(Vertx vertx, String address, long timeout, String caller) {
+    def ret= InternalHelper.safeCreate(io.vertx.ext.mongo.MongoService.createEventBusProxy((io.vertx.core.Vertx)vertx.getDelegate(), address, timeout, caller), io.vertx.ext.mongo.MongoService.class, io.vertx.groovy.ext.mongo.MongoService.class);
+    return ret;
+  }
   public MongoService save(String collection, Map<String, Object> document, Handler<AsyncResult<String>> resultHandler) {
     this.delegate.save(collection, document != null ? new io.vertx.core.json.JsonObject(document) : null, resultHandler);
     return this;
@@ -160,6 +189,37 @@ public class MongoService extends MongoClient {
     this.delegate.dropCollection(collection, resultHandler);
     return this;
   }
+  public MongoService distinct(String collection, String fieldName, Map<String, Object> query, Handler<AsyncResult<List<Object>>> resultHandler) {
+    this.delegate.distinct(collection, fieldName, query != null ? new io.vertx.core.json.JsonObject(query) : null, new Handler<AsyncResult<io.vertx.core.json.JsonArray>>() {
+      public void handle(AsyncResult<io.vertx.core.json.JsonArray> event) {
+        AsyncResult<List<Object>> f
+        if (event.succeeded()) {
+          f = InternalHelper.<List<Object>>result((List<Object>)InternalHelper.wrapObject(event.result()))
+        } else {
+          f = InternalHelper.<List<Object>>failure(event.cause())
+        }
+        resultHandler.handle(f)
+      }
+    });
+    return this;
+  }
+  public MongoService aggregate(String collection, List<Object> pipeline, Map<String, Object> options, Handler<AsyncResult<List<Map<String, Object>>>> resultHandler) {
+    this.delegate.aggregate(collection, pipeline != null ? new io.vertx.core.json.JsonArray(pipeline) : null, options != null ? new io.vertx.ext.mongo.AggregateOptions(new io.vertx.core.json.JsonObject(options)) : null, new Handler<AsyncResult<List<JsonObject>>>() {
+      public void handle(AsyncResult<List<JsonObject>> event) {
+        AsyncResult<List<Map<String, Object>>> f
+        if (event.succeeded()) {
+          f = InternalHelper.<List<Map<String, Object>>>result(event.result().collect({
+            io.vertx.core.json.JsonObject element ->
+            InternalHelper.wrapObject(element)
+          }) as List)
+        } else {
+          f = InternalHelper.<List<Map<String, Object>>>failure(event.cause())
+        }
+        resultHandler.handle(f)
+      }
+    });
+    return this;
+  }
   public MongoService runCommand(String commandName, Map<String, Object> command, Handler<AsyncResult<Map<String, Object>>> resultHandler) {
     this.delegate.runCommand(commandName, command != null ? new io.vertx.core.json.JsonObject(command) : null, new Handler<AsyncResult<io.vertx.core.json.JsonObject>>() {
       public void handle(AsyncResult<io.vertx.core.json.JsonObject> event) {
@@ -174,6 +234,44 @@ public class MongoService extends MongoClient {
     });
     return this;
   }
+  /**
+   * Run several operations with a single request. Each operation is a JSON object with the {@code action}, i.e. the
+   * name of the method, e.g. {@code insert} or {@code find}, and the arguments of the method named after its
+   * parameters, e.g. {@code {"action": "count", "collection": "books", "query": {}}}. Streams and the methods
+   * administering the client can not be batched.
+   * <p>
+   * The result of each operation is a JSON object with either its {@code result} or its {@code error} message. The
+   * service admits each operation of a batch as if it was sent alone, the operations over its limits are rejected.
+   * @param operations the operations
+   * @param ordered {@code true} to run the operations one after the other, stopping at the first failure: the results of the operations not run are {@code null}. {@code false} to run them concurrently.
+   * @param resultHandler will be called with the results, in the order of the operations
+   * @return 
+   */
+  public MongoService batch(List<Object> operations, boolean ordered, Handler<AsyncResult<List<Object>>> resultHandler) {
+    this.delegate.batch(operations != null ? new io.vertx.core.json.JsonArray(operations) : null, ordered, new Handler<AsyncResult<io.vertx.core.json.JsonArray>>() {
+      public void handle(AsyncResult<io.vertx.core.json.JsonArray> event) {
+        AsyncResult<List<Object>> f
+        if (event.succeeded()) {
+          f = InternalHelper.<List<Object>>result((List<Object>)InternalHelper.wrapObject(event.result()))
+        } else {
+          f = InternalHelper.<List<Object>>failure(event.cause())
+        }
+        resultHandler.handle(f)
+      }
+    });
+    return this;
+  }
+  /**
+   * The configuration of the data source can only be updated where the service is deployed, the event bus proxies
+   * fail the update.
+   * @param config 
+   * @param resultHandler 
+   * @return 
+   */
+  public MongoService updateConfig(Map<String, Object> config, Handler<AsyncResult<Void>> resultHandler) {
+    this.delegate.updateConfig(config != null ? new io.vertx.core.json.JsonObject(config) : null, resultHandler);
+    return this;
+  }
   public void close() {
     this.delegate.close();
   }
@@ -1,24 +1,63 @@
 package io.vertx.ext.mongo;
 
 import io.vertx.codegen.annotations.Fluent;
+import io.vertx.codegen.annotations.GenIgnore;
 import io.vertx.codegen.annotations.ProxyGen;
 import io.vertx.codegen.annotations.ProxyIgnore;
 import io.vertx.codegen.annotations.VertxGen;
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
-import io.vertx.serviceproxy.ProxyHelper;
+import io.vertx.core.streams.ReadStream;
+import io.vertx.ext.mongo.impl.BsonMessageCodec;
+import io.vertx.ext.mongo.impl.DeflateMessageCodec;
+import io.vertx.ext.mongo.impl.LocalMessageCodec;
+import io.vertx.ext.mongo.impl.MongoServiceEBProxy;
+import io.vertx.ext.mongo.impl.ProxyCodecs;
+import io.vertx.ext.mongo.impl.RoutingMongoService;
 
 import java.util.List;
 
 /**
+ * The streams, the views and the metrics of the pool are not part of the generated proxy, they are served by the
+ * proxies created by the factories of this interface. Their streams are sent in chunks, with flow control, and the
+ * operations of their {@link #database} and {@link #pool} views share the limits of the service.
+ * <p>
+ * So {@link #findStream}, {@link #tail}, {@link #oplog}, {@link #distinctStream}, {@link #aggregateStream},
+ * {@link #database}, {@link #pool} and {@link #poolMetrics} are supported by the service deployed by the
+ * {@link MongoServiceVerticle}, by the proxies of {@link #createEventBusProxy}, {@link #createBsonEventBusProxy},
+ * {@link #createCompressedEventBusProxy} and {@link #createLocalEventBusProxy}, and by {@link #createRoutingProxy}.
+ * The generated {@code MongoServiceVertxEBProxy}, created with {@code ProxyHelper}, throws an
+ * {@link UnsupportedOperationException} instead.
+ *
  * @author <a href="http://tfox.org">Tim Fox</a>
  */
 @ProxyGen
 @VertxGen
 public interface MongoService extends MongoClient {
 
+  /**
+   * The failure code of the operations rejected by the service because too many operations are in flight
+   */
+  int REJECTED_FAILURE_CODE = 503;
+
+  /**
+   * The failure code of the operations not run by the service because the caller stopped waiting for their result
+   */
+  int EXPIRED_FAILURE_CODE = 504;
+
+  /**
+   * The failure code of the operations of a view whose database or pool the service does not open to its proxies
+   */
+  int FORBIDDEN_FAILURE_CODE = 403;
+
+  /**
+   * The failure code of the requests the service cannot run, e.g. with invalid arguments or headers
+   */
+  int INVALID_REQUEST_FAILURE_CODE = 400;
+
   /**
    * Create a proxy to a service that is deployed somewhere on the event bus
    *
@@ -27,7 +66,101 @@ public interface MongoService extends MongoClient {
    * @return the service
    */
   static MongoService createEventBusProxy(Vertx vertx, String address) {
-    return ProxyHelper.createProxy(MongoService.class, vertx, address);
+    return new MongoServiceEBProxy(vertx, address);
+  }
+
+  /**
+   * Create a proxy to a service that is deployed somewhere on the event bus, waiting for the replies for the given
+   * time. The service runs the queries of the proxy with this time as {@code maxTimeMS}, and does not start the
+   * operations still waiting when it is over.
+   *
+   * @param vertx  the Vert.x instance
+   * @param address  the address the service is listening on on the event bus
+   * @param timeout  the time to wait for a reply, in milliseconds
+   * @return the service
+   */
+  static MongoService createEventBusProxy(Vertx vertx, String address, long timeout) {
+    return new MongoServiceEBProxy(vertx, address, null, timeout, null);
+  }
+
+  /**
+   * Create a proxy to a service that is deployed somewhere on the event bus, identifying its requests with the
+   * given caller. When the operations of the service wait for admission, the service serves the callers fairly, within
+   * the quotas configured for each caller.
+   *
+   * @param vertx  the Vert.x instance
+   * @param address  the address the service is listening on on the event bus
+   * @param timeout  the time to wait for a reply, in milliseconds
+   * @param caller  the identity of the caller, e.g. the name of a tenant
+   * @return the service
+   */
+  static MongoService createEventBusProxy(Vertx vertx, String address, long timeout, String caller) {
+    return new MongoServiceEBProxy(vertx, address, null, timeout, caller);
+  }
+
+  /**
+   * Create a proxy sending the requests, and receiving the replies, as BSON rather than JSON text. This makes the
+   * messages smaller and cheaper to decode in clustered deployments. The {@link MongoServiceVerticle} accepts both.
+   *
+   * @param vertx  the Vert.x instance
+   * @param address  the address the service is listening on on the event bus
+   * @return the service
+   */
+  @GenIgnore
+  static MongoService createBsonEventBusProxy(Vertx vertx, String address) {
+    ProxyCodecs.register(vertx);
+    return new MongoServiceEBProxy(vertx, address, BsonMessageCodec.NAME, 0, null);
+  }
+
+  /**
+   * Create a proxy receiving the large replies, and sending the large requests, compressed. This trades CPU time for
+   * bandwidth between the nodes of a cluster, e.g. for queries returning many documents. The
+   * {@link MongoServiceVerticle} accepts both.
+   *
+   * @param vertx  the Vert.x instance
+   * @param address  the address the service is listening on on the event bus
+   * @return the service
+   */
+  @GenIgnore
+  static MongoService createCompressedEventBusProxy(Vertx vertx, String address) {
+    ProxyCodecs.register(vertx);
+    return new MongoServiceEBProxy(vertx, address, DeflateMessageCodec.NAME, 0, null);
+  }
+
+  /**
+   * Create a proxy spreading the operations over the services listening on several addresses, e.g. to scale out the
+   * service tier. The {@code addresses} of a {@link RoutingMongoService} created directly can be changed afterwards
+   * with {@link RoutingMongoService#addAddress} and {@link RoutingMongoService#removeAddress}. The {@code routing} is either
+   * {@code collection}, the default, which sends the operations on a collection to the same service, by collection
+   * and {@code shardKey} when one is configured, or {@code leastOutstanding}, which sends each operation to the
+   * service with the fewest requests waiting for their reply.
+   *
+   * @param vertx  the Vert.x instance
+   * @param config  the configuration
+   * @return the proxy
+   */
+  @GenIgnore
+  static MongoService createRoutingProxy(Vertx vertx, JsonObject config) {
+    return new RoutingMongoService(vertx, config);
+  }
+
+  /**
+   * Create a proxy to a service deployed in the same JVM, which hands the documents of the requests and of the
+   * replies over without copying them.
+   * <p>
+   * The ownership of the documents is transferred: once a request is sent, the caller must not use or mutate its
+   * documents anymore, e.g. the document of an insert gets its generated {@code _id} on the service side as it would
+   * with a client. The documents of the replies belong to the caller. The proxy fails to reach a service deployed on
+   * another node of a cluster.
+   *
+   * @param vertx  the Vert.x instance
+   * @param address  the address the service is listening on on the event bus
+   * @return the service
+   */
+  @GenIgnore
+  static MongoService createLocalEventBusProxy(Vertx vertx, String address) {
+    ProxyCodecs.register(vertx);
+    return new MongoServiceEBProxy(vertx, address, LocalMessageCodec.NAME, 0, null);
   }
 
 
@@ -71,6 +204,27 @@ public interface MongoService extends MongoClient {
   @Fluent
   MongoService findWithOptions(String collection, JsonObject query, FindOptions options, Handler<AsyncResult<List<JsonObject>>> resultHandler);
 
+  /**
+   * The event bus proxy sends the documents in chunks, with flow control, rather than in a single message.
+   */
+  @Override
+  @GenIgnore
+  default ReadStream<JsonObject> findStream(String collection, JsonObject query, FindOptions options) {
+    throw new UnsupportedOperationException("findStream is not supported by MongoServiceVertxEBProxy, use a proxy created by MongoService");
+  }
+
+  @Override
+  @GenIgnore
+  default ReadStream<JsonObject> tail(String collection, JsonObject query, TailOptions options) {
+    throw new UnsupportedOperationException("tail is not supported by MongoServiceVertxEBProxy, use a proxy created by MongoService");
+  }
+
+  @Override
+  @GenIgnore
+  default ReadStream<JsonObject> oplog(OplogOptions options) {
+    throw new UnsupportedOperationException("oplog is not supported by MongoServiceVertxEBProxy, use a proxy created by MongoService");
+  }
+
   @Override
   @Fluent
   MongoService findOne(String collection, JsonObject query, JsonObject fields, Handler<AsyncResult<JsonObject>> resultHandler);
@@ -107,10 +261,78 @@ public interface MongoService extends MongoClient {
   @Fluent
   MongoService dropCollection(String collection, Handler<AsyncResult<Void>> resultHandler);
 
+  @Override
+  @Fluent
+  MongoService distinct(String collection, String fieldName, JsonObject query, Handler<AsyncResult<JsonArray>> resultHandler);
+
+  @Override
+  @GenIgnore
+  default ReadStream<Object> distinctStream(String collection, String fieldName, JsonObject query) {
+    throw new UnsupportedOperationException("distinctStream is not supported by MongoServiceVertxEBProxy, use a proxy created by MongoService");
+  }
+
+  @Override
+  @Fluent
+  MongoService aggregate(String collection, JsonArray pipeline, AggregateOptions options, Handler<AsyncResult<List<JsonObject>>> resultHandler);
+
+  @Override
+  @GenIgnore
+  default ReadStream<JsonObject> aggregateStream(String collection, JsonArray pipeline, AggregateOptions options) {
+    throw new UnsupportedOperationException("aggregateStream is not supported by MongoServiceVertxEBProxy, use a proxy created by MongoService");
+  }
+
   @Override
   @Fluent
   MongoService runCommand(String commandName, JsonObject command, Handler<AsyncResult<JsonObject>> resultHandler);
 
+  /**
+   * Run several operations with a single request. Each operation is a JSON object with the {@code action}, i.e. the
+   * name of the method, e.g. {@code insert} or {@code find}, and the arguments of the method named after its
+   * parameters, e.g. {@code {"action": "count", "collection": "books", "query": {}}}. Streams and the methods
+   * administering the client can not be batched.
+   * <p>
+   * The result of each operation is a JSON object with either its {@code result} or its {@code error} message. The
+   * service admits each operation of a batch as if it was sent alone, the operations over its limits are rejected.
+   *
+   * @param operations  the operations
+   * @param ordered  {@code true} to run the operations one after the other, stopping at the first failure: the results
+   *                 of the operations not run are {@code null}. {@code false} to run them concurrently.
+   * @param resultHandler  will be called with the results, in the order of the operations
+   */
+  @Fluent
+  MongoService batch(JsonArray operations, boolean ordered, Handler<AsyncResult<JsonArray>> resultHandler);
+
+  @Override
+  @GenIgnore
+  default MongoClient database(String name) {
+    throw new UnsupportedOperationException("database is not supported by MongoServiceVertxEBProxy, use a proxy created by MongoService");
+  }
+
+  @Override
+  @GenIgnore
+  default MongoClient pool(String name) {
+    throw new UnsupportedOperationException("pool is not supported by MongoServiceVertxEBProxy, use a proxy created by MongoService");
+  }
+
+  /**
+   * The configuration of the data source can only be updated where the service is deployed, the event bus proxies
+   * fail the update.
+   */
+  @Override
+  @Fluent
+  @ProxyIgnore
+  MongoService updateConfig(JsonObject config, Handler<AsyncResult<Void>> resultHandler);
+
+  /**
+   * The event bus proxies report the requests waiting for their reply, the metrics of the pools of the service are
+   * reported by the service itself.
+   */
+  @Override
+  @GenIgnore
+  default JsonObject poolMetrics() {
+    throw new UnsupportedOperationException("poolMetrics is not supported by MongoServiceVertxEBProxy, use a proxy created by MongoService");
+  }
+
   @Override
   @ProxyIgnore
   void close();
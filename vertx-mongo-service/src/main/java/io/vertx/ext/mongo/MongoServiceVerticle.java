@@ -2,29 +2,61 @@ package io.vertx.ext.mongo;
 
 import io.vertx.core.AbstractVerticle;
 import io.vertx.ext.mongo.impl.MongoServiceImpl;
-import io.vertx.serviceproxy.ProxyHelper;
+import io.vertx.ext.mongo.impl.MongoServiceProxyHandler;
+import io.vertx.ext.mongo.impl.ProxyCodecs;
 
 /**
  * A verticle which starts a MongoDB client and registers it to listen on the event bus.
+ * <p>
+ * Each instance of the verticle creates its own client, with its own connection pool. To deploy several instances,
+ * e.g. one per event loop, without multiplying the connections to the server, set {@code dataSourceName} in the
+ * configuration: the instances then share the pool of this data source.
+ * <p>
+ * The {@code admission} object of the configuration limits the operations in flight of each instance:
+ * {@code maxInFlight} overall, {@code operations} maps operation types, e.g. {@code aggregate}, and
+ * {@code collections} maps collection names to their own maximum. Operations over a limit wait in a queue of at most
+ * {@code maxQueued} operations, the ones that do not fit are rejected with {@link MongoService#REJECTED_FAILURE_CODE}.
+ * Each caller identified by its proxy, see {@link MongoService#createEventBusProxy(io.vertx.core.Vertx, String, long, String)},
+ * gets a fair share of the limits: {@code callers} maps caller identities, or {@code default} for the other callers, to
+ * their quotas, {@code maxInFlight}, {@code maxQueued}, {@code rate} in operations per second and {@code weight}.
+ * The state of the limits is reported under {@code admission} by {@link MongoService#poolMetrics()}.
+ * <p>
+ * The views of the proxies, see {@link MongoService#database(String)} and {@link MongoService#pool(String)}, reach
+ * the database of the configuration and the ones listed in the {@code databases} of its {@code views} object, and
+ * only the pools listed in its {@code pools}. Any other view fails with {@link MongoService#FORBIDDEN_FAILURE_CODE}.
  *
  * @author <a href="http://tfox.org">Tim Fox</a>
  */
 public class MongoServiceVerticle extends AbstractVerticle {
 
-  MongoService service;
+  MongoServiceImpl service;
 
   @Override
   public void start() throws Exception {
 
-    // Create the client object
-    service = new MongoServiceImpl(MongoClient.createNonShared(vertx, config()));
-
-    // And register it on the event bus against the configured address
     String address = config().getString("address");
     if (address == null) {
       throw new IllegalStateException("address field must be specified in config for client verticle");
     }
-    ProxyHelper.registerService(MongoService.class, vertx, service, address);
+
+    // Create the client object, the instances of the verticle configured with a data source name share its pool
+    String dataSourceName = config().getString("dataSourceName");
+    MongoClient client = dataSourceName == null ? MongoClient.createNonShared(vertx, config())
+        : MongoClient.createShared(vertx, config(), dataSourceName);
+    try {
+      service = new MongoServiceImpl(client, config());
+    } catch (RuntimeException e) {
+      // Invalid configuration, do not leak the client
+      client.close();
+      throw e;
+    }
+
+    // Proxies may send their requests with these codecs
+    ProxyCodecs.register(vertx);
+
+    // And register it on the event bus against the configured address, the event bus spreads the requests over the
+    // instances registered on the same address
+    new MongoServiceProxyHandler(vertx, service, config()).registerHandler(address);
   }
 
   @Override
@@ -0,0 +1,414 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mongo.impl;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.eventbus.ReplyFailure;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.mongo.MongoService;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Limits the operations of a service in flight, overall, per operation type, per collection and per caller.
+ * <p>
+ * An operation is started when it is under all its limits, otherwise it waits in a bounded queue and is started when
+ * an operation sharing its limits completes. Once the queue is full, the operation fails straight away with
+ * {@link MongoService#REJECTED_FAILURE_CODE}: shedding the excess load keeps the other callers served quickly rather
+ * than letting every request wait until it times out.
+ * <p>
+ * Each caller has its own queue, and the queues are served by weighted fair queuing: the caller which used the least
+ * of its share, i.e. started the fewest operations for its weight since it has operations waiting, goes first. So a
+ * caller flooding the service only delays its own operations. The quotas of a caller also bound its operations in
+ * flight and waiting, and its rate: the operations over the rate are rejected.
+ */
+public class AdmissionControl {
+
+  /**
+   * The default maximum number of operations waiting to be started = 1000
+   */
+  public static final int DEFAULT_MAX_QUEUED = 1000;
+
+  /**
+   * The name of the quotas applying to the callers without quotas of their own
+   */
+  public static final String DEFAULT_QUOTA = "default";
+
+  private static final JsonObject NO_QUOTA = new JsonObject();
+
+  private static final int MIN_CALLERS_SWEEP = 1024;
+
+  private final Limit global;
+  private final Map<String, Limit> operations = new HashMap<>();
+  private final Map<String, Limit> collections = new HashMap<>();
+  private final int maxQueued;
+  private final JsonObject quotas;
+  private final Map<String, Caller> callers = new HashMap<>();
+  private int queued;
+  private long rejected;
+  // The number of callers above which the idle ones are forgotten, e.g. the callers throttled by their rate
+  private int callersSweep = MIN_CALLERS_SWEEP;
+  // The virtual time of the last operation started from a queue, the start of the callers becoming busy
+  private double virtualTime;
+
+  /**
+   * @param config  the {@code admission} configuration of the service, {@code null} for no limits
+   */
+  public AdmissionControl(JsonObject config) {
+    if (config == null) {
+      config = new JsonObject();
+    }
+    int maxInFlight = config.getInteger("maxInFlight", 0);
+    this.global = maxInFlight > 0 ? new Limit(maxInFlight) : null;
+    this.maxQueued = config.getInteger("maxQueued", DEFAULT_MAX_QUEUED);
+    if (maxInFlight < 0) {
+      throw new IllegalArgumentException("maxInFlight cannot be negative");
+    }
+    if (maxQueued < 0) {
+      throw new IllegalArgumentException("maxQueued cannot be negative");
+    }
+    parseLimits(config.getJsonObject("operations"), operations);
+    parseLimits(config.getJsonObject("collections"), collections);
+    this.quotas = config.getJsonObject("callers", new JsonObject());
+    for (String name : quotas.fieldNames()) {
+      Object quota = quotas.getValue(name);
+      if (!(quota instanceof JsonObject)) {
+        throw new IllegalArgumentException("Invalid quotas " + quota + " of caller " + name);
+      }
+      // Fail on invalid quotas now rather than on the first operation of the caller
+      new Caller(name, (JsonObject) quota);
+    }
+  }
+
+  private static void parseLimits(JsonObject config, Map<String, Limit> limits) {
+    if (config != null) {
+      for (String name : config.fieldNames()) {
+        int maxInFlight = config.getInteger(name);
+        if (maxInFlight <= 0) {
+          throw new IllegalArgumentException("The maximum number of operations in flight of " + name + " must be positive");
+        }
+        limits.put(name, new Limit(maxInFlight));
+      }
+    }
+  }
+
+  /**
+   * Start an operation of an anonymous caller once it is admitted
+   *
+   * @see #execute(String, String, String, Handler, Handler)
+   */
+  public <T> void execute(String operation, String collection, Handler<AsyncResult<T>> resultHandler, Handler<Handler<AsyncResult<T>>> task) {
+    execute(operation, collection, null, resultHandler, task);
+  }
+
+  /**
+   * Start an operation once it is admitted
+   *
+   * @param operation  the operation type, i.e. the name of the method
+   * @param collection  the collection of the operation, may be {@code null}
+   * @param caller  the identity of the caller, may be {@code null}
+   * @param resultHandler  the handler of the operation, it fails when the operation is rejected
+   * @param task  starts the operation with the handler to call on completion
+   */
+  public <T> void execute(String operation, String collection, String caller, Handler<AsyncResult<T>> resultHandler, Handler<Handler<AsyncResult<T>>> task) {
+    if (global == null && operations.isEmpty() && collections.isEmpty() && quotas.isEmpty()) {
+      task.handle(resultHandler);
+      return;
+    }
+    Pending pending = new Pending();
+    Handler<AsyncResult<T>> done = res -> {
+      List<Pending> started = release(pending);
+      started.forEach(Pending::start);
+      resultHandler.handle(res);
+    };
+    pending.task = () -> {
+      try {
+        task.handle(done);
+      } catch (RuntimeException e) {
+        // e.g. an invalid argument, the operation must not keep its place
+        done.handle(Future.failedFuture(e));
+      }
+    };
+    boolean start = false;
+    boolean reject = false;
+    synchronized (this) {
+      Caller state = callers.computeIfAbsent(caller == null ? "" : caller, this::newCaller);
+      pending.caller = state;
+      pending.limits = limits(operation, collection, state);
+      if (!state.acquireRate()) {
+        state.throttled++;
+        reject = true;
+      } else if (available(pending.limits)) {
+        pending.limits.forEach(limit -> limit.inFlight++);
+        state.started(virtualTime);
+        start = true;
+      } else if (queued >= maxQueued || state.queue.size() >= state.maxQueued) {
+        rejected++;
+        pending.limits.forEach(limit -> limit.rejected++);
+        // The operation does not run, so it does not count against the rate
+        state.refundRate();
+        reject = true;
+      } else {
+        if (state.queue.isEmpty()) {
+          // A caller does not save up its share while it has nothing waiting
+          state.virtualTime = Math.max(state.virtualTime, virtualTime);
+        }
+        state.queue.add(pending);
+        queued++;
+        pending.limits.forEach(limit -> limit.queued++);
+      }
+      if (reject) {
+        // A rejected caller must not keep an entry it never releases
+        forgetIfIdle(state);
+      }
+    }
+    if (reject) {
+      resultHandler.handle(Future.failedFuture(new ReplyException(ReplyFailure.RECIPIENT_FAILURE,
+          MongoService.REJECTED_FAILURE_CODE, "Too many operations in flight, " + operation + " rejected")));
+    } else if (start) {
+      pending.start();
+    }
+  }
+
+  private Caller newCaller(String name) {
+    if (callers.size() >= callersSweep) {
+      callers.values().removeIf(caller -> caller.idle() && !quotas.containsKey(caller.name));
+      callersSweep = Math.max(MIN_CALLERS_SWEEP, 2 * callers.size());
+    }
+    return new Caller(name, quotas.getJsonObject(name, quotas.getJsonObject(DEFAULT_QUOTA, NO_QUOTA)));
+  }
+
+  private void forgetIfIdle(Caller caller) {
+    if (caller.idle() && !quotas.containsKey(caller.name)) {
+      // Its state is the one of a new caller, a caller identity does not keep memory once it is gone
+      callers.remove(caller.name, caller);
+    }
+  }
+
+  private List<Limit> limits(String operation, String collection, Caller caller) {
+    List<Limit> limits = new ArrayList<>(4);
+    if (global != null) {
+      limits.add(global);
+    }
+    Limit limit = operations.get(operation);
+    if (limit != null) {
+      limits.add(limit);
+    }
+    limit = collection == null ? null : collections.get(collection);
+    if (limit != null) {
+      limits.add(limit);
+    }
+    if (caller.limit != null) {
+      limits.add(caller.limit);
+    }
+    return limits;
+  }
+
+  private synchronized List<Pending> release(Pending done) {
+    done.limits.forEach(limit -> limit.inFlight--);
+    done.caller.inFlight--;
+    List<Pending> started = new ArrayList<>();
+    while (queued > 0 && (global == null || global.inFlight < global.maxInFlight)) {
+      // The caller furthest behind its share with an operation under its limits goes first. An operation blocked
+      // by the limit of its collection does not hold back the ones behind it.
+      Caller next = null;
+      Pending pending = null;
+      for (Caller caller : callers.values()) {
+        if (next != null && caller.virtualTime >= next.virtualTime) {
+          continue;
+        }
+        for (Pending candidate : caller.queue) {
+          if (available(candidate.limits)) {
+            next = caller;
+            pending = candidate;
+            break;
+          }
+        }
+      }
+      if (pending == null) {
+        break;
+      }
+      next.queue.remove(pending);
+      queued--;
+      pending.limits.forEach(limit -> {
+        limit.queued--;
+        limit.inFlight++;
+      });
+      virtualTime = next.virtualTime;
+      next.started(virtualTime);
+      started.add(pending);
+    }
+    forgetIfIdle(done.caller);
+    return started;
+  }
+
+  private static boolean available(List<Limit> limits) {
+    for (Limit limit : limits) {
+      if (limit.inFlight >= limit.maxInFlight) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return the operations in flight, queued and rejected, overall, per operation type, per collection and per caller
+   */
+  public synchronized JsonObject metrics() {
+    JsonObject metrics = new JsonObject()
+        .put("queued", queued)
+        .put("maxQueued", maxQueued)
+        .put("rejected", rejected);
+    if (global != null) {
+      metrics.put("inFlight", global.inFlight).put("maxInFlight", global.maxInFlight);
+    }
+    metrics.put("operations", metrics(operations));
+    metrics.put("collections", metrics(collections));
+    JsonObject callers = new JsonObject();
+    this.callers.forEach((name, caller) -> {
+      JsonObject json = new JsonObject()
+          .put("inFlight", caller.inFlight)
+          .put("queued", caller.queue.size())
+          .put("throttled", caller.throttled)
+          .put("weight", caller.weight);
+      if (caller.limit != null) {
+        json.put("maxInFlight", caller.limit.maxInFlight)
+            .put("rejected", caller.limit.rejected);
+      }
+      callers.put(name, json);
+    });
+    metrics.put("callers", callers);
+    return metrics;
+  }
+
+  private static JsonObject metrics(Map<String, Limit> limits) {
+    JsonObject metrics = new JsonObject();
+    limits.forEach((name, limit) -> metrics.put(name, new JsonObject()
+        .put("inFlight", limit.inFlight)
+        .put("maxInFlight", limit.maxInFlight)
+        .put("queued", limit.queued)
+        .put("rejected", limit.rejected)));
+    return metrics;
+  }
+
+  private static class Limit {
+
+    final int maxInFlight;
+    int inFlight;
+    int queued;
+    long rejected;
+
+    Limit(int maxInFlight) {
+      this.maxInFlight = maxInFlight;
+    }
+  }
+
+  /**
+   * The queue and the quotas of a caller: {@code maxInFlight}, {@code maxQueued}, {@code rate} in operations per
+   * second and {@code weight}
+   */
+  private static class Caller {
+
+    final String name;
+    final Limit limit;
+    final int maxQueued;
+    final double rate;
+    final int weight;
+    final Deque<Pending> queue = new ArrayDeque<>();
+    double tokens;
+    long refilled = System.nanoTime();
+    double virtualTime;
+    int inFlight;
+    long throttled;
+
+    Caller(String name, JsonObject quota) {
+      this.name = name;
+      int maxInFlight = quota.getInteger("maxInFlight", 0);
+      this.limit = maxInFlight > 0 ? new Limit(maxInFlight) : null;
+      this.maxQueued = quota.getInteger("maxQueued", Integer.MAX_VALUE);
+      this.rate = quota.getDouble("rate", 0d);
+      this.weight = quota.getInteger("weight", 1);
+      if (maxInFlight < 0 || maxQueued < 0 || rate < 0) {
+        throw new IllegalArgumentException("Invalid quotas " + quota + " of caller " + name + ", they cannot be negative");
+      }
+      if (weight < 1) {
+        throw new IllegalArgumentException("Invalid weight " + weight + " of caller " + name);
+      }
+      // A second of operations can be sent at once
+      this.tokens = burst();
+    }
+
+    private double burst() {
+      return Math.max(1, rate);
+    }
+
+    boolean acquireRate() {
+      if (rate == 0) {
+        return true;
+      }
+      long now = System.nanoTime();
+      tokens = Math.min(burst(), tokens + (now - refilled) * rate / 1e9);
+      refilled = now;
+      if (tokens < 1) {
+        return false;
+      }
+      tokens--;
+      return true;
+    }
+
+    void refundRate() {
+      if (rate > 0) {
+        tokens = Math.min(burst(), tokens + 1);
+      }
+    }
+
+    void started(double virtualTime) {
+      inFlight++;
+      this.virtualTime = Math.max(this.virtualTime, virtualTime) + 1d / weight;
+    }
+
+    boolean idle() {
+      if (!queue.isEmpty() || inFlight > 0) {
+        return false;
+      }
+      if (rate == 0) {
+        return true;
+      }
+      return tokens + (System.nanoTime() - refilled) * rate / 1e9 >= burst();
+    }
+  }
+
+  private static class Pending {
+
+    Caller caller;
+    List<Limit> limits;
+    Runnable task;
+
+    void start() {
+      task.run();
+    }
+  }
+}
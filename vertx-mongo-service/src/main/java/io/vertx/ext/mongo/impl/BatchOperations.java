@@ -0,0 +1,225 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mongo.impl;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.mongo.AggregateOptions;
+import io.vertx.ext.mongo.FindOptions;
+import io.vertx.ext.mongo.MongoClient;
+import io.vertx.ext.mongo.UpdateOptions;
+import io.vertx.ext.mongo.WriteOption;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the operations of a {@link io.vertx.ext.mongo.MongoService#batch} request on a client.
+ * <p>
+ * An operation is a JSON object with the {@code action}, i.e. the name of the method, and the arguments of the method
+ * named after its parameters, as in the messages of the event bus proxy. The result of each operation is a JSON
+ * object with either its {@code result} or its {@code error}.
+ */
+public class BatchOperations {
+
+  private final MongoClient client;
+  private final JsonArray operations;
+  private final boolean ordered;
+  private final Handler<AsyncResult<JsonArray>> resultHandler;
+  private final JsonObject[] results;
+
+  private BatchOperations(MongoClient client, JsonArray operations, boolean ordered, Handler<AsyncResult<JsonArray>> resultHandler) {
+    this.client = client;
+    this.operations = operations;
+    this.ordered = ordered;
+    this.resultHandler = resultHandler;
+    this.results = new JsonObject[operations.size()];
+  }
+
+  /**
+   * Run the operations
+   *
+   * @param client  the client to run the operations on
+   * @param operations  the operations
+   * @param ordered  {@code true} to run the operations one after the other, stopping at the first failure, {@code false}
+   *                 to run them concurrently
+   * @param resultHandler  the handler of the results, in the order of the operations. The result of an operation not
+   *                       run after a failure is {@code null}.
+   */
+  public static void execute(MongoClient client, JsonArray operations, boolean ordered, Handler<AsyncResult<JsonArray>> resultHandler) {
+    BatchOperations batch = new BatchOperations(client, operations, ordered, resultHandler);
+    if (operations.isEmpty()) {
+      batch.complete();
+    } else if (ordered) {
+      batch.executeFrom(0);
+    } else {
+      batch.executeAll();
+    }
+  }
+
+  private void executeFrom(int index) {
+    execute(index, succeeded -> {
+      if (succeeded && index + 1 < results.length) {
+        executeFrom(index + 1);
+      } else {
+        complete();
+      }
+    });
+  }
+
+  private void executeAll() {
+    // The callbacks of the operations may run on different threads, the counter publishes their results
+    AtomicInteger pending = new AtomicInteger(results.length);
+    for (int i = 0; i < results.length; i++) {
+      execute(i, succeeded -> {
+        if (pending.decrementAndGet() == 0) {
+          complete();
+        }
+      });
+    }
+  }
+
+  private void complete() {
+    JsonArray reply = new JsonArray();
+    for (JsonObject result : results) {
+      reply.add(result);
+    }
+    resultHandler.handle(Future.succeededFuture(reply));
+  }
+
+  private void execute(int index, Handler<Boolean> next) {
+    Handler<AsyncResult<Object>> handler = res -> {
+      if (res.succeeded()) {
+        results[index] = new JsonObject().put("result", res.result());
+      } else {
+        results[index] = new JsonObject().put("error", String.valueOf(res.cause().getMessage()));
+      }
+      next.handle(res.succeeded());
+    };
+    try {
+      dispatch(operations.getJsonObject(index), handler);
+    } catch (RuntimeException e) {
+      // e.g. a missing argument
+      handler.handle(Future.failedFuture(e));
+    }
+  }
+
+  private void dispatch(JsonObject json, Handler<AsyncResult<Object>> handler) {
+    String action = json.getString("action");
+    if (action == null) {
+      throw new IllegalArgumentException("action not specified");
+    }
+    if (!dispatch(client, action, json, handler)) {
+      // Streams and the administration of the client are not part of a batch
+      throw new IllegalArgumentException("Invalid batch action: " + action);
+    }
+  }
+
+  /**
+   * Run an operation of a batch, or of a request of the event bus proxy
+   *
+   * @param client  the client to run the operation on
+   * @param action  the name of the method
+   * @param json  the arguments of the method
+   * @param handler  the handler of the result, a {@link JsonArray} for the lists
+   * @return {@code false} when the action is not an operation of a batch
+   */
+  static boolean dispatch(MongoClient client, String action, JsonObject json, Handler<AsyncResult<Object>> handler) {
+    switch (action) {
+      case "save":
+        client.save(json.getString("collection"), json.getJsonObject("document"), as(handler));
+        break;
+      case "saveWithOptions":
+        client.saveWithOptions(json.getString("collection"), json.getJsonObject("document"), writeOption(json), as(handler));
+        break;
+      case "insert":
+        client.insert(json.getString("collection"), json.getJsonObject("document"), as(handler));
+        break;
+      case "insertWithOptions":
+        client.insertWithOptions(json.getString("collection"), json.getJsonObject("document"), writeOption(json), as(handler));
+        break;
+      case "update":
+        client.update(json.getString("collection"), json.getJsonObject("query"), json.getJsonObject("update"), as(handler));
+        break;
+      case "updateWithOptions":
+        client.updateWithOptions(json.getString("collection"), json.getJsonObject("query"), json.getJsonObject("update"),
+            json.getJsonObject("options") == null ? null : new UpdateOptions(json.getJsonObject("options")), as(handler));
+        break;
+      case "replace":
+        client.replace(json.getString("collection"), json.getJsonObject("query"), json.getJsonObject("replace"), as(handler));
+        break;
+      case "replaceWithOptions":
+        client.replaceWithOptions(json.getString("collection"), json.getJsonObject("query"), json.getJsonObject("replace"),
+            json.getJsonObject("options") == null ? null : new UpdateOptions(json.getJsonObject("options")), as(handler));
+        break;
+      case "find":
+        client.find(json.getString("collection"), json.getJsonObject("query"), asList(handler));
+        break;
+      case "findWithOptions":
+        client.findWithOptions(json.getString("collection"), json.getJsonObject("query"),
+            json.getJsonObject("options") == null ? null : new FindOptions(json.getJsonObject("options")), asList(handler));
+        break;
+      case "findOne":
+        client.findOne(json.getString("collection"), json.getJsonObject("query"), json.getJsonObject("fields"), as(handler));
+        break;
+      case "count":
+        client.count(json.getString("collection"), json.getJsonObject("query"), as(handler));
+        break;
+      case "remove":
+        client.remove(json.getString("collection"), json.getJsonObject("query"), as(handler));
+        break;
+      case "removeWithOptions":
+        client.removeWithOptions(json.getString("collection"), json.getJsonObject("query"), writeOption(json), as(handler));
+        break;
+      case "removeOne":
+        client.removeOne(json.getString("collection"), json.getJsonObject("query"), as(handler));
+        break;
+      case "removeOneWithOptions":
+        client.removeOneWithOptions(json.getString("collection"), json.getJsonObject("query"), writeOption(json), as(handler));
+        break;
+      case "distinct":
+        client.distinct(json.getString("collection"), json.getString("fieldName"), json.getJsonObject("query"), as(handler));
+        break;
+      case "aggregate":
+        client.aggregate(json.getString("collection"), json.getJsonArray("pipeline"),
+            json.getJsonObject("options") == null ? null : new AggregateOptions(json.getJsonObject("options")), asList(handler));
+        break;
+      case "runCommand":
+        client.runCommand(json.getString("commandName"), json.getJsonObject("command"), as(handler));
+        break;
+      default:
+        return false;
+    }
+    return true;
+  }
+
+  private static WriteOption writeOption(JsonObject json) {
+    return json.getString("writeOption") == null ? null : WriteOption.valueOf(json.getString("writeOption"));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> Handler<AsyncResult<T>> as(Handler<AsyncResult<Object>> handler) {
+    return res -> handler.handle((AsyncResult<Object>) res);
+  }
+
+  private static <T> Handler<AsyncResult<List<T>>> asList(Handler<AsyncResult<Object>> handler) {
+    return res -> handler.handle(res.succeeded() ? Future.succeededFuture(new JsonArray(res.result())) : Future.failedFuture(res.cause()));
+  }
+}
@@ -0,0 +1,286 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mongo.impl;
+
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.eventbus.ReplyFailure;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.streams.ReadStream;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.UUID;
+
+/**
+ * A {@link ReadStream} of the documents, or of other JSON values, sent in chunks over the event bus by a
+ * {@link ChunkedStreamSender}.
+ * <p>
+ * The request is sent to the service when a handler is set. The service sends at most {@code credits} chunks of
+ * {@code chunkSize} documents ahead of the consumer, a credit is granted back each time a chunk was delivered to the
+ * handler. So a paused stream holds at most {@code credits * chunkSize} documents in memory, whatever the size of the
+ * result, and no message holds more than {@code chunkSize} documents.
+ * <p>
+ * A stream waiting for the service fails with a {@link ReplyFailure#TIMEOUT} when neither a chunk nor a heartbeat
+ * arrives within the timeout, e.g. when the node of the service left the cluster. The service sends heartbeats while it
+ * has no documents, so a tail or the oplog stays open on a quiet collection. The service gives up too when the
+ * consumer does not read for as long, so a consumer must not keep the stream paused for longer than the timeout.
+ */
+public class ChunkedStreamReceiver<T> implements ReadStream<T> {
+
+  /**
+   * The default number of documents per chunk = 100
+   */
+  public static final int DEFAULT_CHUNK_SIZE = 100;
+
+  /**
+   * The default number of chunks sent ahead of the consumer = 2
+   */
+  public static final int DEFAULT_CREDITS = 2;
+
+  private final Vertx vertx;
+  private final String serviceAddress;
+  private final JsonObject request;
+  private final DeliveryOptions deliveryOptions;
+  private final long timeout;
+  private final Deque<JsonArray> chunks = new ArrayDeque<>();
+
+  private MessageConsumer<JsonObject> consumer;
+  private String control;
+  private int position;
+  private int pendingCredits;
+  private long timerID = -1;
+  private Handler<T> handler;
+  private Handler<Throwable> exceptionHandler;
+  private Handler<Void> endHandler;
+  private boolean ended;
+  private boolean paused;
+  private boolean closed;
+
+  /**
+   * @param vertx  the Vert.x instance
+   * @param serviceAddress  the address of the service
+   * @param request  the arguments of the action
+   * @param deliveryOptions  the options of the request, with the {@code action} of the service sending the stream
+   */
+  public ChunkedStreamReceiver(Vertx vertx, String serviceAddress, JsonObject request, DeliveryOptions deliveryOptions) {
+    this(vertx, serviceAddress, request, deliveryOptions, ChunkedStreamSender.TIMEOUT_MS);
+  }
+
+  /**
+   * @param vertx  the Vert.x instance
+   * @param serviceAddress  the address of the service
+   * @param request  the arguments of the action
+   * @param deliveryOptions  the options of the request, with the {@code action} of the service sending the stream
+   * @param timeout  the time each side waits for the other, in milliseconds
+   */
+  public ChunkedStreamReceiver(Vertx vertx, String serviceAddress, JsonObject request, DeliveryOptions deliveryOptions, long timeout) {
+    this.vertx = vertx;
+    this.serviceAddress = serviceAddress;
+    this.request = request.copy().put("chunkSize", DEFAULT_CHUNK_SIZE).put("credits", DEFAULT_CREDITS).put("timeout", timeout);
+    this.deliveryOptions = deliveryOptions;
+    this.timeout = timeout;
+  }
+
+  @Override
+  public synchronized ChunkedStreamReceiver<T> exceptionHandler(Handler<Throwable> handler) {
+    this.exceptionHandler = handler;
+    return this;
+  }
+
+  @Override
+  public synchronized ChunkedStreamReceiver<T> handler(Handler<T> handler) {
+    if (handler == null) {
+      close();
+    } else {
+      this.handler = handler;
+      if (consumer == null && !closed) {
+        open();
+      } else {
+        doRead();
+      }
+    }
+    return this;
+  }
+
+  @Override
+  public synchronized ChunkedStreamReceiver<T> pause() {
+    paused = true;
+    cancelTimer();
+    return this;
+  }
+
+  @Override
+  public synchronized ChunkedStreamReceiver<T> resume() {
+    if (paused) {
+      paused = false;
+      doRead();
+    }
+    return this;
+  }
+
+  @Override
+  public synchronized ChunkedStreamReceiver<T> endHandler(Handler<Void> handler) {
+    this.endHandler = handler;
+    return this;
+  }
+
+  private void open() {
+    consumer = vertx.eventBus().consumer(UUID.randomUUID().toString(), this::handleMessage);
+    // The address must be known by the other nodes before the service sends the first chunk
+    consumer.completionHandler(ar -> {
+      synchronized (this) {
+        if (closed) {
+          return;
+        }
+        if (ar.failed()) {
+          handleException(ar.cause());
+          return;
+        }
+        JsonObject body = request.copy().put("address", consumer.address());
+        vertx.eventBus().<JsonObject>send(serviceAddress, body, deliveryOptions, reply -> started(reply.failed() ? null : reply.result().body(), reply.cause()));
+      }
+    });
+  }
+
+  private synchronized void started(JsonObject reply, Throwable error) {
+    if (error != null) {
+      if (!closed) {
+        handleException(error);
+      }
+      return;
+    }
+    control = reply.getString("control");
+    if (closed) {
+      vertx.eventBus().send(control, new JsonObject().put("cancel", true));
+    } else {
+      if (pendingCredits > 0) {
+        grant(pendingCredits);
+        pendingCredits = 0;
+      }
+      waitForChunks();
+    }
+  }
+
+  private synchronized void handleMessage(Message<JsonObject> message) {
+    if (closed) {
+      return;
+    }
+    JsonObject body = message.body();
+    if (body.containsKey("heartbeat")) {
+      // The service is there, the stream is just quiet
+      waitForChunks();
+      return;
+    } else if (body.containsKey("documents")) {
+      chunks.add(body.getJsonArray("documents"));
+    } else if (body.containsKey("error")) {
+      handleException(new ReplyException(ReplyFailure.RECIPIENT_FAILURE, -1, body.getString("error")));
+      return;
+    } else {
+      ended = true;
+    }
+    doRead();
+  }
+
+  @SuppressWarnings("unchecked")
+  private void doRead() {
+    while (!paused && !closed && handler != null && !chunks.isEmpty()) {
+      JsonArray chunk = chunks.peek();
+      T document = (T) chunk.getValue(position++);
+      if (position == chunk.size()) {
+        chunks.poll();
+        position = 0;
+        grant(1);
+      }
+      handler.handle(document);
+    }
+    if (ended && chunks.isEmpty() && !closed) {
+      Handler<Void> endHandler = this.endHandler;
+      release();
+      if (endHandler != null) {
+        endHandler.handle(null);
+      }
+    } else {
+      waitForChunks();
+    }
+  }
+
+  private void waitForChunks() {
+    cancelTimer();
+    // Only the chunks the service owes count, not the time the consumer keeps the stream paused
+    if (!closed && !ended && !paused && control != null && chunks.isEmpty()) {
+      timerID = vertx.setTimer(timeout, this::timedOut);
+    }
+  }
+
+  private synchronized void timedOut(long id) {
+    if (id == timerID) {
+      timerID = -1;
+      handleException(new ReplyException(ReplyFailure.TIMEOUT, -1, "No chunk received for " + timeout + "ms"));
+    }
+  }
+
+  private void cancelTimer() {
+    if (timerID != -1) {
+      vertx.cancelTimer(timerID);
+      timerID = -1;
+    }
+  }
+
+  private void grant(int credits) {
+    if (ended) {
+      return;
+    }
+    if (control == null) {
+      // A chunk may arrive before the reply to the request
+      pendingCredits += credits;
+    } else {
+      vertx.eventBus().send(control, new JsonObject().put("credits", credits));
+    }
+  }
+
+  private void handleException(Throwable t) {
+    Handler<Throwable> exceptionHandler = this.exceptionHandler;
+    close();
+    if (exceptionHandler != null) {
+      exceptionHandler.handle(t);
+    }
+  }
+
+  private void close() {
+    if (!closed) {
+      if (control != null && !ended) {
+        vertx.eventBus().send(control, new JsonObject().put("cancel", true));
+      }
+      release();
+    }
+  }
+
+  private void release() {
+    closed = true;
+    chunks.clear();
+    cancelTimer();
+    if (consumer != null) {
+      consumer.unregister();
+    }
+  }
+}
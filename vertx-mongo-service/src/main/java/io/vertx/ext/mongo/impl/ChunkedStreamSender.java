@@ -0,0 +1,200 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mongo.impl;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import io.vertx.core.streams.ReadStream;
+
+import java.util.UUID;
+
+/**
+ * The service side of a stream sent over the event bus, see {@link ChunkedStreamReceiver}.
+ * <p>
+ * Documents are sent in chunks to the address of the receiver. Each chunk uses one credit, the stream is paused when
+ * there are none left, and the receiver grants a new credit on the control address once it consumed a chunk. So the
+ * service holds at most one chunk and one batch of the driver in memory. A stream whose receiver does not grant
+ * credits for the {@code timeout} of the request, {@link #TIMEOUT_MS} by default, is closed with an error sent to the
+ * receiver, e.g. when the node of the receiver left the cluster or its consumer stopped reading.
+ * <p>
+ * A chunk is sent once it is full, or {@link #LINGER_MS} after its first document, so the documents of a quiet stream,
+ * e.g. a tail or the oplog, reach the receiver within milliseconds. A heartbeat, which uses no credit, is sent to the
+ * receiver every third of the {@code timeout} while the stream is open, so the receiver tells a quiet stream from a
+ * service which is gone.
+ */
+public class ChunkedStreamSender {
+
+  private static final Logger log = LoggerFactory.getLogger(ChunkedStreamSender.class);
+
+  static final long TIMEOUT_MS = 60000;
+
+  static final long LINGER_MS = 5;
+
+  private final Vertx vertx;
+  private final ReadStream<?> stream;
+  private final String address;
+  private final int chunkSize;
+  private final long timeout;
+  private final DeliveryOptions options;
+
+  private MessageConsumer<JsonObject> control;
+  private JsonArray chunk = new JsonArray();
+  private int credits;
+  private long timerID = -1;
+  private long lingerID = -1;
+  private long heartbeatID = -1;
+  private boolean closed;
+
+  /**
+   * @param vertx  the Vert.x instance
+   * @param stream  the stream to send, of documents or of other JSON values, its handlers must not be set
+   * @param request  the request of the receiver, with its {@code address}, {@code chunkSize}, initial {@code credits}
+   *                 and {@code timeout}
+   */
+  public ChunkedStreamSender(Vertx vertx, ReadStream<?> stream, Message<JsonObject> request) {
+    this.vertx = vertx;
+    this.stream = stream;
+    JsonObject body = request.body();
+    this.address = body.getString("address");
+    this.chunkSize = Math.max(1, body.getInteger("chunkSize", ChunkedStreamReceiver.DEFAULT_CHUNK_SIZE));
+    this.credits = Math.max(1, body.getInteger("credits", ChunkedStreamReceiver.DEFAULT_CREDITS));
+    this.timeout = Math.max(1, body.getLong("timeout", TIMEOUT_MS));
+    this.options = ProxyCodecs.replyOptions(request);
+    if (address == null) {
+      request.fail(-1, "address is required");
+      return;
+    }
+    control = vertx.eventBus().consumer(UUID.randomUUID().toString(), this::handleControl);
+    control.completionHandler(ar -> {
+      if (ar.failed()) {
+        control.unregister();
+        request.fail(-1, ar.cause().getMessage());
+        return;
+      }
+      // The receiver only grants credits once it got the control address
+      request.reply(new JsonObject().put("control", control.address()), options);
+      stream.exceptionHandler(this::handleException);
+      stream.endHandler(v -> handleEnd());
+      stream.handler(this::handleDocument);
+      heartbeatID = vertx.setPeriodic(Math.max(1, timeout / 3), id -> vertx.eventBus().send(address, new JsonObject().put("heartbeat", true), options));
+    });
+  }
+
+  private void handleDocument(Object document) {
+    chunk.add(document);
+    if (chunk.size() >= chunkSize) {
+      send();
+    } else if (lingerID == -1) {
+      lingerID = vertx.setTimer(LINGER_MS, id -> {
+        lingerID = -1;
+        // The stream is paused when no credit is left, a partial chunk waits for the next credit
+        if (!closed && !chunk.isEmpty() && credits > 0) {
+          send();
+        }
+      });
+    }
+  }
+
+  private void send() {
+    flush();
+    if (credits == 0 && !closed) {
+      stream.pause();
+      timerID = vertx.setTimer(timeout, id -> {
+        log.warn("No credits received for " + timeout + "ms, closing the stream sent to " + address);
+        timerID = -1;
+        // The receiver may still be there, e.g. its consumer paused the stream for too long
+        vertx.eventBus().send(address, new JsonObject().put("error", "No credits received for " + timeout + "ms"), options);
+        close();
+      });
+    }
+  }
+
+  private void flush() {
+    credits--;
+    vertx.eventBus().send(address, new JsonObject().put("documents", chunk), options);
+    chunk = new JsonArray();
+    if (lingerID != -1) {
+      vertx.cancelTimer(lingerID);
+      lingerID = -1;
+    }
+  }
+
+  private void handleEnd() {
+    // The stream was not paused so a credit is left for the last chunk
+    if (!chunk.isEmpty()) {
+      flush();
+    }
+    vertx.eventBus().send(address, new JsonObject().put("end", true), options);
+    closed = true;
+    release();
+  }
+
+  private void handleException(Throwable t) {
+    vertx.eventBus().send(address, new JsonObject().put("error", String.valueOf(t.getMessage())), options);
+    closed = true;
+    release();
+  }
+
+  private void handleControl(Message<JsonObject> message) {
+    JsonObject body = message.body();
+    if (body.getBoolean("cancel", false)) {
+      close();
+      return;
+    }
+    credits += body.getInteger("credits", 0);
+    if (credits > 0 && timerID != -1) {
+      vertx.cancelTimer(timerID);
+      timerID = -1;
+      stream.resume();
+    }
+    if (credits > 0 && !closed && !chunk.isEmpty() && lingerID == -1) {
+      // The partial chunk lingered while no credit was left
+      send();
+    }
+  }
+
+  private void close() {
+    if (!closed) {
+      closed = true;
+      stream.handler(null);
+      release();
+    }
+  }
+
+  private void release() {
+    chunk = new JsonArray();
+    if (timerID != -1) {
+      vertx.cancelTimer(timerID);
+      timerID = -1;
+    }
+    if (lingerID != -1) {
+      vertx.cancelTimer(lingerID);
+      lingerID = -1;
+    }
+    if (heartbeatID != -1) {
+      vertx.cancelTimer(heartbeatID);
+      heartbeatID = -1;
+    }
+    control.unregister();
+  }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mongo.impl;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.MessageCodec;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * An event bus codec carrying {@link JsonObject} and {@link JsonArray} bodies as JSON text between the nodes of a
+ * cluster, compressed with deflate when the text is larger than {@link #THRESHOLD} bytes.
+ * <p>
+ * Documents compress well, their field names repeat, so large results take a fraction of the bandwidth for the CPU
+ * time of the compression. The fastest compression level is used, smaller messages are sent as they are. Like the
+ * JSON codecs, bodies delivered locally are copied and never compressed.
+ */
+public class DeflateMessageCodec implements MessageCodec<Object, Object> {
+
+  /**
+   * The name of the codec
+   */
+  public static final String NAME = "mongo-deflate";
+
+  /**
+   * The size of the JSON text above which it is compressed = 8192 bytes
+   */
+  public static final int THRESHOLD = 8192;
+
+  private static final byte OBJECT = 1;
+  private static final byte ARRAY = 2;
+  private static final byte PLAIN = 0;
+  private static final byte DEFLATED = 1;
+
+  @Override
+  public void encodeToWire(Buffer buffer, Object body) {
+    String json;
+    if (body instanceof JsonArray) {
+      buffer.appendByte(ARRAY);
+      json = ((JsonArray) body).encode();
+    } else if (body instanceof JsonObject) {
+      buffer.appendByte(OBJECT);
+      json = ((JsonObject) body).encode();
+    } else {
+      throw new IllegalArgumentException("Only JsonObject and JsonArray bodies are supported, not " + body);
+    }
+    byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+    if (bytes.length <= THRESHOLD) {
+      buffer.appendByte(PLAIN);
+      buffer.appendInt(bytes.length);
+      buffer.appendBytes(bytes);
+      return;
+    }
+    Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    try {
+      deflater.setInput(bytes);
+      deflater.finish();
+      byte[] chunk = new byte[Math.min(bytes.length, 65536)];
+      Buffer deflated = Buffer.buffer(bytes.length / 4);
+      while (!deflater.finished()) {
+        int length = deflater.deflate(chunk);
+        deflated.appendBytes(chunk, 0, length);
+      }
+      buffer.appendByte(DEFLATED);
+      buffer.appendInt(bytes.length);
+      buffer.appendInt(deflated.length());
+      buffer.appendBuffer(deflated);
+    } finally {
+      deflater.end();
+    }
+  }
+
+  @Override
+  public Object decodeFromWire(int pos, Buffer buffer) {
+    byte type = buffer.getByte(pos);
+    byte encoding = buffer.getByte(pos + 1);
+    int length = buffer.getInt(pos + 2);
+    byte[] bytes;
+    if (encoding == DEFLATED) {
+      int deflatedLength = buffer.getInt(pos + 6);
+      Inflater inflater = new Inflater();
+      try {
+        inflater.setInput(buffer.getBytes(pos + 10, pos + 10 + deflatedLength));
+        bytes = new byte[length];
+        int inflated = 0;
+        while (inflated < length && !inflater.finished()) {
+          int count = inflater.inflate(bytes, inflated, length - inflated);
+          if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+            throw new IllegalStateException("Truncated compressed message");
+          }
+          inflated += count;
+        }
+      } catch (DataFormatException e) {
+        throw new IllegalStateException("Invalid compressed message", e);
+      } finally {
+        inflater.end();
+      }
+    } else {
+      bytes = buffer.getBytes(pos + 6, pos + 6 + length);
+    }
+    String json = new String(bytes, StandardCharsets.UTF_8);
+    return type == ARRAY ? new JsonArray(json) : new JsonObject(json);
+  }
+
+  @Override
+  public Object transform(Object body) {
+    if (body instanceof JsonObject) {
+      return ((JsonObject) body).copy();
+    } else if (body instanceof JsonArray) {
+      return ((JsonArray) body).copy();
+    }
+    return body;
+  }
+
+  @Override
+  public String name() {
+    return NAME;
+  }
+
+  @Override
+  public byte systemCodecID() {
+    return -1;
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.mongo.impl;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.MessageCodec;
+
+/**
+ * An event bus codec handing the bodies over to a consumer in the same JVM without copying them.
+ * <p>
+ * The ownership of the documents is transferred: the sender must not use, and in particular must not mutate, a
+ * document once it was sent, e.g. the document of an insert gets its generated {@code _id} on the service side as it
+ * would with the client. Documents cannot be sent to other nodes of a cluster with this codec.
+ */
+public class LocalMessageCodec implements MessageCodec<Object, Object> {
+
+  /**
+   * The name of the codec
+   */
+  public static final String NAME = "mongo-local";
+
+  @Override
+  public void encodeToWire(Buffer buffer, Object body) {
+    throw new IllegalStateException("The " + NAME + " codec only delivers messages to consumers of the same JVM");
+  }
+
+  @Override
+  public Object decodeFromWire(int pos, Buffer buffer) {
+    throw new IllegalStateException("The " + NAME + " codec only delivers messages to consumers of the same JVM");
+  }
+
+  @Override
+  public Object transform(Object body) {
+    return body;
+  }
+
+  @Override
+  public String name() {
+    return NAME;
+  }
+
+  @Override
+  public byte systemCodecID() {
+    return -1;
+  }
+}
@@ -0,0 +1,351 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mongo.impl;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.streams.ReadStream;
+import io.vertx.ext.mongo.AggregateOptions;
+import io.vertx.ext.mongo.FindOptions;
+import io.vertx.ext.mongo.MongoService;
+import io.vertx.ext.mongo.OplogOptions;
+import io.vertx.ext.mongo.TailOptions;
+import io.vertx.ext.mongo.UpdateOptions;
+import io.vertx.ext.mongo.WriteOption;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The event bus proxy of a {@link MongoService}, served by a {@link MongoServiceProxyHandler}.
+ * <p>
+ * The requests are the ones of the generated proxy, with the codec of the documents, the time the proxy waits for the
+ * replies and the identity of the caller as headers, see {@link ProxyCodecs}. The streams are sent in chunks, with
+ * flow control, see {@link ChunkedStreamReceiver}.
+ */
+public class MongoServiceEBProxy implements MongoService {
+
+  private final Vertx vertx;
+  private final String address;
+  private final String codecName;
+  private final long timeout;
+  private final String caller;
+  private final String database;
+  private final String pool;
+  private final AtomicInteger outstanding;
+  private boolean closed;
+
+  public MongoServiceEBProxy(Vertx vertx, String address) {
+    this(vertx, address, null, 0, null);
+  }
+
+  /**
+   * @param vertx  the Vert.x instance
+   * @param address  the address of the service
+   * @param codecName  the codec of the documents, or {@code null} for the default JSON codecs
+   * @param timeout  the time to wait for a reply, in milliseconds, or {@code 0} for the default timeout of the event
+   *                 bus without a deadline for the service
+   * @param caller  the identity of the caller, or {@code null}
+   */
+  public MongoServiceEBProxy(Vertx vertx, String address, String codecName, long timeout, String caller) {
+    this.vertx = vertx;
+    this.address = address;
+    this.codecName = codecName;
+    this.timeout = timeout;
+    this.caller = caller;
+    this.database = null;
+    this.pool = null;
+    this.outstanding = new AtomicInteger();
+  }
+
+  private MongoServiceEBProxy(MongoServiceEBProxy proxy, String database, String pool) {
+    this.vertx = proxy.vertx;
+    this.address = proxy.address;
+    this.codecName = proxy.codecName;
+    this.timeout = proxy.timeout;
+    this.caller = proxy.caller;
+    this.database = database;
+    this.pool = pool;
+    this.outstanding = proxy.outstanding;
+  }
+
+  @Override
+  public MongoService save(String collection, JsonObject document, Handler<AsyncResult<String>> resultHandler) {
+    send("save", new JsonObject().put("collection", collection).put("document", document), resultHandler);
+    return this;
+  }
+
+  @Override
+  public MongoService saveWithOptions(String collection, JsonObject document, WriteOption writeOption, Handler<AsyncResult<String>> resultHandler) {
+    send("saveWithOptions", new JsonObject().put("collection", collection).put("document", document)
+        .put("writeOption", writeOption == null ? null : writeOption.toString()), resultHandler);
+    return this;
+  }
+
+  @Override
+  public MongoService insert(String collection, JsonObject document, Handler<AsyncResult<String>> resultHandler) {
+    send("insert", new JsonObject().put("collection", collection).put("document", document), resultHandler);
+    return this;
+  }
+
+  @Override
+  public MongoService insertWithOptions(String collection, JsonObject document, WriteOption writeOption, Handler<AsyncResult<String>> resultHandler) {
+    send("insertWithOptions", new JsonObject().put("collection", collection).put("document", document)
+        .put("writeOption", writeOption == null ? null : writeOption.toString()), resultHandler);
+    return this;
+  }
+
+  @Override
+  public MongoService update(String collection, JsonObject query, JsonObject update, Handler<AsyncResult<Void>> resultHandler) {
+    send("update", new JsonObject().put("collection", collection).put("query", query).put("update", update), resultHandler);
+    return this;
+  }
+
+  @Override
+  public MongoService updateWithOptions(String collection, JsonObject query, JsonObject update, UpdateOptions options, Handler<AsyncResult<Void>> resultHandler) {
+    send("updateWithOptions", new JsonObject().put("collection", collection).put("query", query).put("update", update)
+        .put("options", options == null ? null : options.toJson()), resultHandler);
+    return this;
+  }
+
+  @Override
+  public MongoService replace(String collection, JsonObject query, JsonObject replace, Handler<AsyncResult<Void>> resultHandler) {
+    send("replace", new JsonObject().put("collection", collection).put("query", query).put("replace", replace), resultHandler);
+    return this;
+  }
+
+  @Override
+  public MongoService replaceWithOptions(String collection, JsonObject query, JsonObject replace, UpdateOptions options, Handler<AsyncResult<Void>> resultHandler) {
+    send("replaceWithOptions", new JsonObject().put("collection", collection).put("query", query).put("replace", replace)
+        .put("options", options == null ? null : options.toJson()), resultHandler);
+    return this;
+  }
+
+  @Override
+  public MongoService find(String collection, JsonObject query, Handler<AsyncResult<List<JsonObject>>> resultHandler) {
+    sendList("find", new JsonObject().put("collection", collection).put("query", query), resultHandler);
+    return this;
+  }
+
+  @Override
+  public MongoService findWithOptions(String collection, JsonObject query, FindOptions options, Handler<AsyncResult<List<JsonObject>>> resultHandler) {
+    sendList("findWithOptions", new JsonObject().put("collection", collection).put("query", query)
+        .put("options", options == null ? null : options.toJson()), resultHandler);
+    return this;
+  }
+
+  @Override
+  public ReadStream<JsonObject> findStream(String collection, JsonObject query, FindOptions options) {
+    return stream("findStream", new JsonObject().put("collection", collection).put("query", query)
+        .put("options", options == null ? null : options.toJson()));
+  }
+
+  @Override
+  public ReadStream<JsonObject> tail(String collection, JsonObject query, TailOptions options) {
+    return stream("tail", new JsonObject().put("collection", collection).put("query", query)
+        .put("options", options == null ? null : options.toJson()));
+  }
+
+  @Override
+  public ReadStream<JsonObject> oplog(OplogOptions options) {
+    return stream("oplog", new JsonObject().put("options", options == null ? null : options.toJson()));
+  }
+
+  @Override
+  public MongoService findOne(String collection, JsonObject query, JsonObject fields, Handler<AsyncResult<JsonObject>> resultHandler) {
+    send("findOne", new JsonObject().put("collection", collection).put("query", query).put("fields", fields), resultHandler);
+    return this;
+  }
+
+  @Override
+  public MongoService count(String collection, JsonObject query, Handler<AsyncResult<Long>> resultHandler) {
+    send("count", new JsonObject().put("collection", collection).put("query", query), resultHandler);
+    return this;
+  }
+
+  @Override
+  public MongoService remove(String collection, JsonObject query, Handler<AsyncResult<Void>> resultHandler) {
+    send("remove", new JsonObject().put("collection", collection).put("query", query), resultHandler);
+    return this;
+  }
+
+  @Override
+  public MongoService removeWithOptions(String collection, JsonObject query, WriteOption writeOption, Handler<AsyncResult<Void>> resultHandler) {
+    send("removeWithOptions", new JsonObject().put("collection", collection).put("query", query)
+        .put("writeOption", writeOption == null ? null : writeOption.toString()), resultHandler);
+    return this;
+  }
+
+  @Override
+  public MongoService removeOne(String collection, JsonObject query, Handler<AsyncResult<Void>> resultHandler) {
+    send("removeOne", new JsonObject().put("collection", collection).put("query", query), resultHandler);
+    return this;
+  }
+
+  @Override
+  public MongoService removeOneWithOptions(String collection, JsonObject query, WriteOption writeOption, Handler<AsyncResult<Void>> resultHandler) {
+    send("removeOneWithOptions", new JsonObject().put("collection", collection).put("query", query)
+        .put("writeOption", writeOption == null ? null : writeOption.toString()), resultHandler);
+    return this;
+  }
+
+  @Override
+  public MongoService createCollection(String collectionName, Handler<AsyncResult<Void>> resultHandler) {
+    send("createCollection", new JsonObject().put("collectionName", collectionName), resultHandler);
+    return this;
+  }
+
+  @Override
+  public MongoService getCollections(Handler<AsyncResult<List<String>>> resultHandler) {
+    sendList("getCollections", new JsonObject(), resultHandler);
+    return this;
+  }
+
+  @Override
+  public MongoService dropCollection(String collection, Handler<AsyncResult<Void>> resultHandler) {
+    send("dropCollection", new JsonObject().put("collection", collection), resultHandler);
+    return this;
+  }
+
+  @Override
+  public MongoService distinct(String collection, String fieldName, JsonObject query, Handler<AsyncResult<JsonArray>> resultHandler) {
+    send("distinct", new JsonObject().put("collection", collection).put("fieldName", fieldName).put("query", query), resultHandler);
+    return this;
+  }
+
+  @Override
+  public ReadStream<Object> distinctStream(String collection, String fieldName, JsonObject query) {
+    return stream("distinctStream", new JsonObject().put("collection", collection).put("fieldName", fieldName).put("query", query));
+  }
+
+  @Override
+  public MongoService aggregate(String collection, JsonArray pipeline, AggregateOptions options, Handler<AsyncResult<List<JsonObject>>> resultHandler) {
+    sendList("aggregate", new JsonObject().put("collection", collection).put("pipeline", pipeline)
+        .put("options", options == null ? null : options.toJson()), resultHandler);
+    return this;
+  }
+
+  @Override
+  public ReadStream<JsonObject> aggregateStream(String collection, JsonArray pipeline, AggregateOptions options) {
+    return stream("aggregateStream", new JsonObject().put("collection", collection).put("pipeline", pipeline)
+        .put("options", options == null ? null : options.toJson()));
+  }
+
+  @Override
+  public MongoService runCommand(String commandName, JsonObject command, Handler<AsyncResult<JsonObject>> resultHandler) {
+    send("runCommand", new JsonObject().put("commandName", commandName).put("command", command), resultHandler);
+    return this;
+  }
+
+  @Override
+  public MongoService batch(JsonArray operations, boolean ordered, Handler<AsyncResult<JsonArray>> resultHandler) {
+    send("batch", new JsonObject().put("operations", operations).put("ordered", ordered), resultHandler);
+    return this;
+  }
+
+  @Override
+  public MongoServiceEBProxy database(String name) {
+    requireNonNull(name, "name cannot be null");
+    return new MongoServiceEBProxy(this, name, pool);
+  }
+
+  @Override
+  public MongoServiceEBProxy pool(String name) {
+    requireNonNull(name, "name cannot be null");
+    return new MongoServiceEBProxy(this, database, name);
+  }
+
+  @Override
+  public MongoService updateConfig(JsonObject config, Handler<AsyncResult<Void>> resultHandler) {
+    resultHandler.handle(Future.failedFuture(new UnsupportedOperationException("updateConfig is not supported by the event bus proxy")));
+    return this;
+  }
+
+  /**
+   * @return the requests of the proxy, and of its views, waiting for their reply
+   */
+  @Override
+  public JsonObject poolMetrics() {
+    return new JsonObject().put("address", address).put("outstanding", outstanding.get());
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+  }
+
+  private DeliveryOptions deliveryOptions(String action) {
+    DeliveryOptions options = ProxyCodecs.requestOptions(codecName, timeout);
+    if (caller != null) {
+      options.addHeader(ProxyCodecs.CALLER_HEADER, caller);
+    }
+    if (database != null) {
+      options.addHeader(ProxyCodecs.DATABASE_HEADER, database);
+    }
+    if (pool != null) {
+      options.addHeader(ProxyCodecs.POOL_HEADER, pool);
+    }
+    return options.addHeader("action", action);
+  }
+
+  private <T> void send(String action, JsonObject json, Handler<AsyncResult<T>> resultHandler) {
+    send(action, json, resultHandler, Function.identity());
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> void sendList(String action, JsonObject json, Handler<AsyncResult<List<T>>> resultHandler) {
+    // The default JSON codec delivers the documents of a list as maps
+    send(action, json, resultHandler, body -> ((JsonArray) body).getList().stream()
+        .map(value -> value instanceof Map ? new JsonObject((Map<String, Object>) value) : value)
+        .map(value -> (T) value)
+        .collect(Collectors.toList()));
+  }
+
+  private <T, R> void send(String action, JsonObject json, Handler<AsyncResult<R>> resultHandler, Function<T, R> converter) {
+    if (closed) {
+      resultHandler.handle(Future.failedFuture(new IllegalStateException("Proxy is closed")));
+      return;
+    }
+    outstanding.incrementAndGet();
+    vertx.eventBus().<T>send(address, json, deliveryOptions(action), res -> {
+      outstanding.decrementAndGet();
+      if (res.failed()) {
+        resultHandler.handle(Future.failedFuture(res.cause()));
+      } else {
+        resultHandler.handle(Future.succeededFuture(converter.apply(res.result().body())));
+      }
+    });
+  }
+
+  private <T> ReadStream<T> stream(String action, JsonObject json) {
+    if (closed) {
+      throw new IllegalStateException("Proxy is closed");
+    }
+    // The proxy waits for the chunks as long as for a reply
+    return new ChunkedStreamReceiver<>(vertx, address, json, deliveryOptions(action), timeout > 0 ? timeout : ChunkedStreamSender.TIMEOUT_MS);
+  }
+}
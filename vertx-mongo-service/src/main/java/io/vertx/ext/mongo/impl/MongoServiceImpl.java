@@ -2,8 +2,13 @@ package io.vertx.ext.mongo.impl;
 
 import io.vertx.codegen.annotations.Fluent;
 import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
 import io.vertx.core.Handler;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.eventbus.ReplyFailure;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
+import io.vertx.core.streams.ReadStream;
 import io.vertx.ext.mongo.*;
 
 import java.util.List;
@@ -14,153 +19,315 @@ import java.util.List;
 public class MongoServiceImpl implements MongoService {
 
   private final MongoClient client;
+  private final AdmissionControl admission;
+  private final long deadline;
+  private final String caller;
 
   public MongoServiceImpl(MongoClient client) {
+    this(client, new JsonObject());
+  }
+
+  /**
+   * @param client  the client
+   * @param config  the configuration of the service, its {@code admission} limits the operations in flight
+   */
+  public MongoServiceImpl(MongoClient client, JsonObject config) {
+    this(client, new AdmissionControl(config.getJsonObject("admission")), 0, null);
+  }
+
+  private MongoServiceImpl(MongoClient client, AdmissionControl admission, long deadline, String caller) {
     this.client = client;
+    this.admission = admission;
+    this.deadline = deadline;
+    this.caller = caller;
+  }
+
+  /**
+   * @param deadline  the time, in milliseconds since the epoch, after which the caller does not wait for the results
+   * @return a service running the operations of the caller within the deadline: the operations not started by then
+   * fail with {@link MongoService#EXPIRED_FAILURE_CODE}, and the queries get the time left as {@code maxTimeMS}
+   */
+  public MongoServiceImpl withDeadline(long deadline) {
+    return new MongoServiceImpl(client, admission, deadline, caller);
+  }
+
+  /**
+   * @param caller  the identity of the caller
+   * @return a service admitting the operations within the quotas of the caller, and its fair share of the service
+   */
+  public MongoServiceImpl withCaller(String caller) {
+    return new MongoServiceImpl(client, admission, deadline, caller);
   }
 
   @Override
   @Fluent
   public MongoService save(String collection, JsonObject document, Handler<AsyncResult<String>> resultHandler) {
-    client.save(collection, document, resultHandler);
+    execute("save", collection, resultHandler, handler -> client.save(collection, document, handler));
     return this;
   }
 
   @Override
   @Fluent
   public MongoService saveWithOptions(String collection, JsonObject document, WriteOption writeOption, Handler<AsyncResult<String>> resultHandler) {
-    client.saveWithOptions(collection, document, writeOption, resultHandler);
+    execute("saveWithOptions", collection, resultHandler, handler -> client.saveWithOptions(collection, document, writeOption, handler));
     return this;
   }
 
   @Override
   @Fluent
   public MongoService insert(String collection, JsonObject document, Handler<AsyncResult<String>> resultHandler) {
-    client.insert(collection, document, resultHandler);
+    execute("insert", collection, resultHandler, handler -> client.insert(collection, document, handler));
     return this;
   }
 
   @Override
   @Fluent
   public MongoService insertWithOptions(String collection, JsonObject document, WriteOption writeOption, Handler<AsyncResult<String>> resultHandler) {
-    client.insertWithOptions(collection, document, writeOption, resultHandler);
+    execute("insertWithOptions", collection, resultHandler, handler -> client.insertWithOptions(collection, document, writeOption, handler));
     return this;
   }
 
   @Override
   @Fluent
   public MongoService update(String collection, JsonObject query, JsonObject update, Handler<AsyncResult<Void>> resultHandler) {
-    client.update(collection, query, update, resultHandler);
+    execute("update", collection, resultHandler, handler -> client.update(collection, query, update, handler));
     return this;
   }
 
   @Override
   @Fluent
   public MongoService updateWithOptions(String collection, JsonObject query, JsonObject update, UpdateOptions options, Handler<AsyncResult<Void>> resultHandler) {
-    client.updateWithOptions(collection, query, update, options, resultHandler);
+    execute("updateWithOptions", collection, resultHandler, handler -> client.updateWithOptions(collection, query, update, options, handler));
     return this;
   }
 
   @Override
   @Fluent
   public MongoService replace(String collection, JsonObject query, JsonObject replace, Handler<AsyncResult<Void>> resultHandler) {
-    client.replace(collection, query, replace, resultHandler);
+    execute("replace", collection, resultHandler, handler -> client.replace(collection, query, replace, handler));
     return this;
   }
 
   @Override
   @Fluent
   public MongoService replaceWithOptions(String collection, JsonObject query, JsonObject replace, UpdateOptions options, Handler<AsyncResult<Void>> resultHandler) {
-    client.replaceWithOptions(collection, query, replace, options, resultHandler);
+    execute("replaceWithOptions", collection, resultHandler, handler -> client.replaceWithOptions(collection, query, replace, options, handler));
     return this;
   }
 
   @Override
   @Fluent
   public MongoService find(String collection, JsonObject query, Handler<AsyncResult<List<JsonObject>>> resultHandler) {
-    client.find(collection, query, resultHandler);
+    execute("find", collection, resultHandler, handler -> client.findWithOptions(collection, query, withMaxTime(new FindOptions()), handler));
     return this;
   }
 
   @Override
   @Fluent
   public MongoService findWithOptions(String collection, JsonObject query, FindOptions options, Handler<AsyncResult<List<JsonObject>>> resultHandler) {
-    client.findWithOptions(collection, query, options, resultHandler);
+    execute("findWithOptions", collection, resultHandler, handler -> client.findWithOptions(collection, query, withMaxTime(options), handler));
     return this;
   }
 
+  @Override
+  public ReadStream<JsonObject> findStream(String collection, JsonObject query, FindOptions options) {
+    return client.findStream(collection, query, options);
+  }
+
+  @Override
+  public ReadStream<JsonObject> tail(String collection, JsonObject query, TailOptions options) {
+    return client.tail(collection, query, options);
+  }
+
+  @Override
+  public ReadStream<JsonObject> oplog(OplogOptions options) {
+    return client.oplog(options);
+  }
+
   @Override
   @Fluent
   public MongoService findOne(String collection, JsonObject query, JsonObject fields, Handler<AsyncResult<JsonObject>> resultHandler) {
-    client.findOne(collection, query, fields, resultHandler);
+    execute("findOne", collection, resultHandler, handler -> {
+      if (deadline == 0) {
+        client.findOne(collection, query, fields, handler);
+      } else {
+        FindOptions options = withMaxTime(new FindOptions().setFields(fields).setLimit(1));
+        client.findWithOptions(collection, query, options, res -> {
+          if (res.succeeded()) {
+            handler.handle(Future.succeededFuture(res.result().isEmpty() ? null : res.result().get(0)));
+          } else {
+            handler.handle(Future.failedFuture(res.cause()));
+          }
+        });
+      }
+    });
     return this;
   }
 
   @Override
   @Fluent
   public MongoService count(String collection, JsonObject query, Handler<AsyncResult<Long>> resultHandler) {
-    client.count(collection, query, resultHandler);
+    execute("count", collection, resultHandler, handler -> client.count(collection, query, handler));
     return this;
   }
 
   @Override
   @Fluent
   public MongoService remove(String collection, JsonObject query, Handler<AsyncResult<Void>> resultHandler) {
-    client.remove(collection, query, resultHandler);
+    execute("remove", collection, resultHandler, handler -> client.remove(collection, query, handler));
     return this;
   }
 
   @Override
   @Fluent
   public MongoService removeWithOptions(String collection, JsonObject query, WriteOption writeOption, Handler<AsyncResult<Void>> resultHandler) {
-    client.removeWithOptions(collection, query, writeOption, resultHandler);
+    execute("removeWithOptions", collection, resultHandler, handler -> client.removeWithOptions(collection, query, writeOption, handler));
     return this;
   }
 
   @Override
   @Fluent
   public MongoService removeOne(String collection, JsonObject query, Handler<AsyncResult<Void>> resultHandler) {
-    client.removeOne(collection, query, resultHandler);
+    execute("removeOne", collection, resultHandler, handler -> client.removeOne(collection, query, handler));
     return this;
   }
 
   @Override
   @Fluent
   public MongoService removeOneWithOptions(String collection, JsonObject query, WriteOption writeOption, Handler<AsyncResult<Void>> resultHandler) {
-    client.removeOneWithOptions(collection, query, writeOption, resultHandler);
+    execute("removeOneWithOptions", collection, resultHandler, handler -> client.removeOneWithOptions(collection, query, writeOption, handler));
     return this;
   }
 
   @Override
   @Fluent
   public MongoService createCollection(String collectionName, Handler<AsyncResult<Void>> resultHandler) {
-    client.createCollection(collectionName, resultHandler);
+    execute("createCollection", collectionName, resultHandler, handler -> client.createCollection(collectionName, handler));
     return this;
   }
 
   @Override
   @Fluent
   public MongoService getCollections(Handler<AsyncResult<List<String>>> resultHandler) {
-    client.getCollections(resultHandler);
+    execute("getCollections", null, resultHandler, client::getCollections);
     return this;
   }
 
   @Override
   @Fluent
   public MongoService dropCollection(String collection, Handler<AsyncResult<Void>> resultHandler) {
-    client.dropCollection(collection, resultHandler);
+    execute("dropCollection", collection, resultHandler, handler -> client.dropCollection(collection, handler));
+    return this;
+  }
+
+  @Override
+  @Fluent
+  public MongoService distinct(String collection, String fieldName, JsonObject query, Handler<AsyncResult<JsonArray>> resultHandler) {
+    execute("distinct", collection, resultHandler, handler -> client.distinct(collection, fieldName, query, handler));
+    return this;
+  }
+
+  @Override
+  public ReadStream<Object> distinctStream(String collection, String fieldName, JsonObject query) {
+    return client.distinctStream(collection, fieldName, query);
+  }
+
+  @Override
+  @Fluent
+  public MongoService aggregate(String collection, JsonArray pipeline, AggregateOptions options, Handler<AsyncResult<List<JsonObject>>> resultHandler) {
+    execute("aggregate", collection, resultHandler, handler -> client.aggregate(collection, pipeline, withMaxTime(options), handler));
     return this;
   }
 
+  @Override
+  public ReadStream<JsonObject> aggregateStream(String collection, JsonArray pipeline, AggregateOptions options) {
+    return client.aggregateStream(collection, pipeline, options);
+  }
+
   @Override
   @Fluent
   public MongoService runCommand(String commandName, JsonObject command, Handler<AsyncResult<JsonObject>> resultHandler) {
-    client.runCommand(commandName, command, resultHandler);
+    execute("runCommand", null, resultHandler, handler -> client.runCommand(commandName, command, handler));
+    return this;
+  }
+
+  @Override
+  @Fluent
+  public MongoService batch(JsonArray operations, boolean ordered, Handler<AsyncResult<JsonArray>> resultHandler) {
+    // Each operation is admitted, and runs within the deadline, as if it was sent alone
+    BatchOperations.execute(this, operations, ordered, resultHandler);
+    return this;
+  }
+
+  /**
+   * @return a view of the service, its operations share the admission of the service
+   */
+  @Override
+  public MongoServiceImpl database(String name) {
+    return new MongoServiceImpl(client.database(name), admission, deadline, caller);
+  }
+
+  /**
+   * @return a view of the service, its operations share the admission of the service
+   */
+  @Override
+  public MongoServiceImpl pool(String name) {
+    return new MongoServiceImpl(client.pool(name), admission, deadline, caller);
+  }
+
+  @Override
+  @Fluent
+  public MongoService updateConfig(JsonObject config, Handler<AsyncResult<Void>> resultHandler) {
+    client.updateConfig(config, resultHandler);
     return this;
   }
 
+  @Override
+  public JsonObject poolMetrics() {
+    return client.poolMetrics().put("admission", admission.metrics());
+  }
+
   @Override
   public void close() {
     client.close();
   }
+
+  private <T> void execute(String operation, String collection, Handler<AsyncResult<T>> resultHandler, Handler<Handler<AsyncResult<T>>> task) {
+    admission.execute(operation, collection, caller, resultHandler, handler -> {
+      // The operation may have waited for admission
+      if (deadline > 0 && System.currentTimeMillis() >= deadline) {
+        handler.handle(Future.failedFuture(new ReplyException(ReplyFailure.RECIPIENT_FAILURE,
+            MongoService.EXPIRED_FAILURE_CODE, "The caller stopped waiting, " + operation + " not started")));
+      } else {
+        task.handle(handler);
+      }
+    });
+  }
+
+  private long timeLeft() {
+    // At least a millisecond, 0 would mean no limit
+    return Math.max(1, deadline - System.currentTimeMillis());
+  }
+
+  private FindOptions withMaxTime(FindOptions options) {
+    if (deadline == 0 || options == null) {
+      return options;
+    }
+    long maxTimeMS = timeLeft();
+    if (options.getMaxTimeMS() > 0 && options.getMaxTimeMS() <= maxTimeMS) {
+      return options;
+    }
+    return new FindOptions(options).setMaxTimeMS(maxTimeMS);
+  }
+
+  private AggregateOptions withMaxTime(AggregateOptions options) {
+    if (deadline == 0 || options == null) {
+      return options;
+    }
+    long maxTimeMS = timeLeft();
+    if (options.getMaxTimeMS() > 0 && options.getMaxTimeMS() <= maxTimeMS) {
+      return options;
+    }
+    return new AggregateOptions(options).setMaxTimeMS(maxTimeMS);
+  }
 }
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mongo.impl;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.mongo.AggregateOptions;
+import io.vertx.ext.mongo.FindOptions;
+import io.vertx.ext.mongo.MongoClient;
+import io.vertx.ext.mongo.MongoService;
+import io.vertx.ext.mongo.OplogOptions;
+import io.vertx.ext.mongo.TailOptions;
+import io.vertx.serviceproxy.ProxyHandler;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Serves the requests of a {@link MongoServiceEBProxy}, and of the generated proxy, with a {@link MongoServiceImpl}.
+ * <p>
+ * The operations of a request run on the view of the service of its proxy, within the time its proxy waits for the
+ * reply and the quotas of its caller. The replies use the codec of the request, and the failures keep their failure
+ * code, e.g. {@link io.vertx.ext.mongo.MongoService#REJECTED_FAILURE_CODE}. The streams are sent in chunks, see
+ * {@link ChunkedStreamSender}.
+ * <p>
+ * The views of the proxies only reach the databases and the pools listed in the {@code views} of the configuration,
+ * {@code databases} and {@code pools}, besides the database of the service. The other views fail with
+ * {@link MongoService#FORBIDDEN_FAILURE_CODE}, like {@code updateConfig}, which only the deployer of the service runs.
+ */
+public class MongoServiceProxyHandler extends ProxyHandler {
+
+  private final Vertx vertx;
+  private final MongoServiceImpl service;
+  private final Set<String> databases = new HashSet<>();
+  private final Set<String> pools = new HashSet<>();
+
+  public MongoServiceProxyHandler(Vertx vertx, MongoServiceImpl service) {
+    this(vertx, service, new JsonObject());
+  }
+
+  /**
+   * @param vertx  the Vert.x instance
+   * @param service  the service
+   * @param config  the configuration of the service, its {@code views} list the {@code databases} and the
+   *                {@code pools} open to the proxies
+   */
+  public MongoServiceProxyHandler(Vertx vertx, MongoServiceImpl service, JsonObject config) {
+    this.vertx = vertx;
+    this.service = service;
+    databases.add(config.getString("db_name", MongoClient.DEFAULT_DB_NAME));
+    JsonObject views = config.getJsonObject("views", new JsonObject());
+    views.getJsonArray("databases", new JsonArray()).forEach(name -> databases.add((String) name));
+    views.getJsonArray("pools", new JsonArray()).forEach(name -> pools.add((String) name));
+  }
+
+  /**
+   * Register the handler on the event bus
+   *
+   * @param address  the address of the service
+   * @return the consumer of the requests
+   */
+  public MessageConsumer<JsonObject> registerHandler(String address) {
+    MessageConsumer<JsonObject> consumer = vertx.eventBus().<JsonObject>consumer(address).handler(this);
+    setConsumer(consumer);
+    return consumer;
+  }
+
+  @Override
+  public void handle(Message<JsonObject> msg) {
+    try {
+      JsonObject json = msg.body();
+      String action = msg.headers().get("action");
+      if (action == null) {
+        throw new IllegalStateException("action not specified");
+      }
+      MongoServiceImpl service = service(msg);
+      if (service == null) {
+        return;
+      }
+      switch (action) {
+        case "findStream":
+          new ChunkedStreamSender(vertx, service.findStream(json.getString("collection"), json.getJsonObject("query"),
+              json.getJsonObject("options") == null ? new FindOptions() : new FindOptions(json.getJsonObject("options"))), msg);
+          break;
+        case "tail":
+          new ChunkedStreamSender(vertx, service.tail(json.getString("collection"), json.getJsonObject("query"),
+              json.getJsonObject("options") == null ? new TailOptions() : new TailOptions(json.getJsonObject("options"))), msg);
+          break;
+        case "oplog":
+          new ChunkedStreamSender(vertx, service.oplog(
+              json.getJsonObject("options") == null ? new OplogOptions() : new OplogOptions(json.getJsonObject("options"))), msg);
+          break;
+        case "distinctStream":
+          new ChunkedStreamSender(vertx, service.distinctStream(json.getString("collection"), json.getString("fieldName"),
+              json.getJsonObject("query")), msg);
+          break;
+        case "aggregateStream":
+          new ChunkedStreamSender(vertx, service.aggregateStream(json.getString("collection"), json.getJsonArray("pipeline"),
+              json.getJsonObject("options") == null ? new AggregateOptions() : new AggregateOptions(json.getJsonObject("options"))), msg);
+          break;
+        case "createCollection":
+          service.createCollection(json.getString("collectionName"), createHandler(msg));
+          break;
+        case "getCollections":
+          service.getCollections(createListHandler(msg));
+          break;
+        case "dropCollection":
+          service.dropCollection(json.getString("collection"), createHandler(msg));
+          break;
+        case "batch":
+          service.batch(json.getJsonArray("operations"), json.getBoolean("ordered", true), createHandler(msg));
+          break;
+        case "updateConfig":
+          // Only the deployer of the service administers its data source
+          msg.fail(-1, "updateConfig is not supported over the event bus");
+          break;
+        case "close":
+          // The proxies do not close the service
+          break;
+        default:
+          if (!BatchOperations.dispatch(service, action, json, createHandler(msg))) {
+            throw new IllegalStateException("Invalid action: " + action);
+          }
+      }
+    } catch (RuntimeException e) {
+      // e.g. an unknown pool or invalid arguments, the caller would otherwise wait for its send timeout
+      msg.fail(MongoService.INVALID_REQUEST_FAILURE_CODE, String.valueOf(e.getMessage()));
+    }
+  }
+
+  /**
+   * @return the view of the service of the proxy, or {@code null} when the request was failed
+   */
+  private MongoServiceImpl service(Message<JsonObject> msg) {
+    MongoServiceImpl service = this.service;
+    String database = msg.headers().get(ProxyCodecs.DATABASE_HEADER);
+    if (database != null) {
+      if (!databases.contains(database)) {
+        msg.fail(MongoService.FORBIDDEN_FAILURE_CODE, "The database " + database + " is not open to the proxies");
+        return null;
+      }
+      service = service.database(database);
+    }
+    String pool = msg.headers().get(ProxyCodecs.POOL_HEADER);
+    if (pool != null) {
+      if (!pools.contains(pool)) {
+        msg.fail(MongoService.FORBIDDEN_FAILURE_CODE, "The pool " + pool + " is not open to the proxies");
+        return null;
+      }
+      service = service.pool(pool);
+    }
+    String timeout = msg.headers().get(ProxyCodecs.TIMEOUT_HEADER);
+    if (timeout != null) {
+      long millis;
+      try {
+        millis = Long.parseLong(timeout);
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("Invalid timeout header: " + timeout);
+      }
+      service = service.withDeadline(System.currentTimeMillis() + millis);
+    }
+    String caller = msg.headers().get(ProxyCodecs.CALLER_HEADER);
+    if (caller != null) {
+      service = service.withCaller(caller);
+    }
+    return service;
+  }
+
+  private <T> Handler<AsyncResult<T>> createHandler(Message<JsonObject> msg) {
+    return res -> {
+      if (res.failed()) {
+        msg.fail(res.cause() instanceof ReplyException ? ((ReplyException) res.cause()).failureCode() : -1, res.cause().getMessage());
+      } else {
+        msg.reply(res.result(), ProxyCodecs.replyOptions(msg, res.result()));
+      }
+    };
+  }
+
+  private <T> Handler<AsyncResult<List<T>>> createListHandler(Message<JsonObject> msg) {
+    Handler<AsyncResult<JsonArray>> handler = createHandler(msg);
+    return res -> {
+      if (res.failed()) {
+        handler.handle(Future.failedFuture(res.cause()));
+      } else {
+        handler.handle(Future.succeededFuture(new JsonArray(res.result())));
+      }
+    };
+  }
+}
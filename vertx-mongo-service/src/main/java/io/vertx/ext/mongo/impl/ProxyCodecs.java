@@ -0,0 +1,120 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.mongo.impl;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.MessageCodec;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * The event bus codecs a proxy can use for the documents of its requests, and ask the service to use for the
+ * documents of its replies. The requests of a proxy created with a timeout also carry the time the proxy waits for the
+ * reply, so the service does not keep working on requests whose caller gave up.
+ */
+public class ProxyCodecs {
+
+  /**
+   * The header of a request whose reply can use the codec, with the codec name as value
+   */
+  public static final String REPLY_CODEC_HEADER = "replyCodec";
+
+  /**
+   * The header of a request with the time, in milliseconds, the sender waits for the reply
+   */
+  public static final String TIMEOUT_HEADER = "timeout";
+
+  /**
+   * The header of a request with the identity of the caller, the service shares its capacity fairly between callers
+   */
+  public static final String CALLER_HEADER = "caller";
+
+  /**
+   * The header of a request of a view of the service, with the name of the database of the view
+   */
+  public static final String DATABASE_HEADER = "database";
+
+  /**
+   * The header of a request of a view of the service, with the name of the pool of the view
+   */
+  public static final String POOL_HEADER = "pool";
+
+  /**
+   * Register the codecs, unless they already are
+   *
+   * @param vertx  the Vert.x instance
+   */
+  public static void register(Vertx vertx) {
+    register(vertx, new BsonMessageCodec());
+    register(vertx, new LocalMessageCodec());
+    register(vertx, new DeflateMessageCodec());
+  }
+
+  private static void register(Vertx vertx, MessageCodec<?, ?> codec) {
+    try {
+      vertx.eventBus().registerCodec(codec);
+    } catch (IllegalStateException e) {
+      // Already registered
+    }
+  }
+
+  /**
+   * @param codecName  the codec of the proxy, or {@code null} for the default JSON codecs
+   * @param timeout  the time the proxy waits for the reply, in milliseconds, or {@code 0} when the proxy was not
+   *                 configured with a timeout: the request then has the default timeout and no deadline
+   * @return the options of a request of the proxy
+   */
+  public static DeliveryOptions requestOptions(String codecName, long timeout) {
+    DeliveryOptions options = new DeliveryOptions();
+    if (timeout > 0) {
+      options.setSendTimeout(timeout);
+      options.addHeader(TIMEOUT_HEADER, String.valueOf(timeout));
+    }
+    if (codecName != null) {
+      options.setCodecName(codecName);
+      options.addHeader(REPLY_CODEC_HEADER, codecName);
+    }
+    return options;
+  }
+
+  /**
+   * @param request  the request being replied to
+   * @param reply  the body of the reply
+   * @return the options of the reply, with the codec when the sender of the request asked for it
+   */
+  public static DeliveryOptions replyOptions(Message<?> request, Object reply) {
+    if (reply instanceof JsonObject || reply instanceof JsonArray) {
+      return replyOptions(request);
+    }
+    return new DeliveryOptions();
+  }
+
+  /**
+   * @param request  the request being replied to
+   * @return the options of the {@link JsonObject} or {@link JsonArray} messages sent back to the sender of the
+   * request, with the codec when the sender asked for it
+   */
+  public static DeliveryOptions replyOptions(Message<?> request) {
+    DeliveryOptions options = new DeliveryOptions();
+    String codecName = request.headers().get(REPLY_CODEC_HEADER);
+    if (codecName != null) {
+      options.setCodecName(codecName);
+    }
+    return options;
+  }
+}
@@ -0,0 +1,482 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mongo.impl;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.streams.ReadStream;
+import io.vertx.ext.mongo.AggregateOptions;
+import io.vertx.ext.mongo.FindOptions;
+import io.vertx.ext.mongo.MongoClient;
+import io.vertx.ext.mongo.MongoService;
+import io.vertx.ext.mongo.OplogOptions;
+import io.vertx.ext.mongo.TailOptions;
+import io.vertx.ext.mongo.UpdateOptions;
+import io.vertx.ext.mongo.WriteOption;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A proxy spreading the operations over the services listening on several addresses of the event bus.
+ * <p>
+ * With the {@code collection} routing, the collections are placed on a consistent hash ring of the addresses: all the
+ * operations on a collection go to the same service, which keeps its caches warm, and adding or removing an address
+ * only moves the collections it takes over or had. When a {@code shardKey} is configured, the operations on a single
+ * document, and the queries matching the key by equality, are placed by collection and key so that a hot collection
+ * is spread too. With the {@code leastOutstanding} routing, each operation goes to the address with the fewest
+ * requests waiting for their reply. The streams are routed like the other operations.
+ */
+public class RoutingMongoService implements MongoService {
+
+  private static final int DEFAULT_VIRTUAL_NODES = 160;
+
+  private final Vertx vertx;
+  private final boolean byCollection;
+  private final String shardKey;
+  private final int virtualNodes;
+  private final long timeout;
+  private final String caller;
+  private final RoutingMongoService root;
+  private final Function<MongoServiceEBProxy, MongoServiceEBProxy> view;
+  private volatile Members members;
+  private volatile boolean closed;
+
+  public RoutingMongoService(Vertx vertx, JsonObject config) {
+    requireNonNull(vertx, "vertx cannot be null");
+    requireNonNull(config, "config cannot be null");
+    this.vertx = vertx;
+    String routing = config.getString("routing", "collection");
+    switch (routing) {
+      case "collection":
+        byCollection = true;
+        break;
+      case "leastOutstanding":
+        byCollection = false;
+        break;
+      default:
+        throw new IllegalArgumentException("Invalid routing " + routing + ", collection or leastOutstanding is expected");
+    }
+    this.shardKey = config.getString("shardKey");
+    this.virtualNodes = config.getInteger("virtualNodes", DEFAULT_VIRTUAL_NODES);
+    if (virtualNodes < 1) {
+      throw new IllegalArgumentException("Invalid virtualNodes " + virtualNodes);
+    }
+    this.timeout = config.getLong("timeout", 0L);
+    this.caller = config.getString("caller");
+    this.root = this;
+    this.view = Function.identity();
+    this.members = new Members(Collections.emptyList());
+    JsonArray addresses = config.getJsonArray("addresses", new JsonArray());
+    for (Object address : addresses) {
+      if (!(address instanceof String)) {
+        throw new IllegalArgumentException("Invalid address " + address);
+      }
+      addAddress((String) address);
+    }
+  }
+
+  private RoutingMongoService(RoutingMongoService parent, Function<MongoServiceEBProxy, MongoServiceEBProxy> view) {
+    this.vertx = parent.vertx;
+    this.byCollection = parent.byCollection;
+    this.shardKey = parent.shardKey;
+    this.virtualNodes = parent.virtualNodes;
+    this.timeout = parent.timeout;
+    this.caller = parent.caller;
+    this.root = parent.root;
+    this.view = view;
+  }
+
+  /**
+   * Add the address of a service, the operations are routed to it from now on. The views of the proxy share its
+   * addresses.
+   *
+   * @param address  the address
+   * @return reference to this, for fluency
+   */
+  public synchronized RoutingMongoService addAddress(String address) {
+    requireNonNull(address, "address cannot be null");
+    if (root != this) {
+      root.addAddress(address);
+      return this;
+    }
+    List<Member> list = new ArrayList<>(members.list);
+    if (list.stream().noneMatch(member -> member.address.equals(address))) {
+      list.add(new Member(address, new MongoServiceEBProxy(vertx, address, null, timeout, caller)));
+      members = new Members(list);
+    }
+    return this;
+  }
+
+  /**
+   * Remove the address of a service, the operations already sent to it still get their reply
+   *
+   * @param address  the address
+   * @return reference to this, for fluency
+   */
+  public synchronized RoutingMongoService removeAddress(String address) {
+    requireNonNull(address, "address cannot be null");
+    if (root != this) {
+      root.removeAddress(address);
+      return this;
+    }
+    List<Member> list = new ArrayList<>(members.list);
+    if (list.removeIf(member -> member.address.equals(address))) {
+      members = new Members(list);
+    }
+    return this;
+  }
+
+  /**
+   * @return the addresses the operations are routed to
+   */
+  public List<String> addresses() {
+    List<String> addresses = new ArrayList<>();
+    root.members.list.forEach(member -> addresses.add(member.address));
+    return addresses;
+  }
+
+  @Override
+  public MongoService save(String collection, JsonObject document, Handler<AsyncResult<String>> resultHandler) {
+    route(collection, keyOf(document), resultHandler, (service, handler) -> service.save(collection, document, handler));
+    return this;
+  }
+
+  @Override
+  public MongoService saveWithOptions(String collection, JsonObject document, WriteOption writeOption, Handler<AsyncResult<String>> resultHandler) {
+    route(collection, keyOf(document), resultHandler, (service, handler) -> service.saveWithOptions(collection, document, writeOption, handler));
+    return this;
+  }
+
+  @Override
+  public MongoService insert(String collection, JsonObject document, Handler<AsyncResult<String>> resultHandler) {
+    route(collection, keyOf(document), resultHandler, (service, handler) -> service.insert(collection, document, handler));
+    return this;
+  }
+
+  @Override
+  public MongoService insertWithOptions(String collection, JsonObject document, WriteOption writeOption, Handler<AsyncResult<String>> resultHandler) {
+    route(collection, keyOf(document), resultHandler, (service, handler) -> service.insertWithOptions(collection, document, writeOption, handler));
+    return this;
+  }
+
+  @Override
+  public MongoService update(String collection, JsonObject query, JsonObject update, Handler<AsyncResult<Void>> resultHandler) {
+    route(collection, keyOf(query), resultHandler, (service, handler) -> service.update(collection, query, update, handler));
+    return this;
+  }
+
+  @Override
+  public MongoService updateWithOptions(String collection, JsonObject query, JsonObject update, UpdateOptions options, Handler<AsyncResult<Void>> resultHandler) {
+    route(collection, keyOf(query), resultHandler, (service, handler) -> service.updateWithOptions(collection, query, update, options, handler));
+    return this;
+  }
+
+  @Override
+  public MongoService replace(String collection, JsonObject query, JsonObject replace, Handler<AsyncResult<Void>> resultHandler) {
+    route(collection, keyOf(query), resultHandler, (service, handler) -> service.replace(collection, query, replace, handler));
+    return this;
+  }
+
+  @Override
+  public MongoService replaceWithOptions(String collection, JsonObject query, JsonObject replace, UpdateOptions options, Handler<AsyncResult<Void>> resultHandler) {
+    route(collection, keyOf(query), resultHandler, (service, handler) -> service.replaceWithOptions(collection, query, replace, options, handler));
+    return this;
+  }
+
+  @Override
+  public MongoService find(String collection, JsonObject query, Handler<AsyncResult<List<JsonObject>>> resultHandler) {
+    route(collection, keyOf(query), resultHandler, (service, handler) -> service.find(collection, query, handler));
+    return this;
+  }
+
+  @Override
+  public MongoService findWithOptions(String collection, JsonObject query, FindOptions options, Handler<AsyncResult<List<JsonObject>>> resultHandler) {
+    route(collection, keyOf(query), resultHandler, (service, handler) -> service.findWithOptions(collection, query, options, handler));
+    return this;
+  }
+
+  @Override
+  public ReadStream<JsonObject> findStream(String collection, JsonObject query, FindOptions options) {
+    return service(collection, keyOf(query)).findStream(collection, query, options);
+  }
+
+  @Override
+  public ReadStream<JsonObject> tail(String collection, JsonObject query, TailOptions options) {
+    return service(collection, keyOf(query)).tail(collection, query, options);
+  }
+
+  @Override
+  public ReadStream<JsonObject> oplog(OplogOptions options) {
+    return service(null, null).oplog(options);
+  }
+
+  @Override
+  public MongoService findOne(String collection, JsonObject query, JsonObject fields, Handler<AsyncResult<JsonObject>> resultHandler) {
+    route(collection, keyOf(query), resultHandler, (service, handler) -> service.findOne(collection, query, fields, handler));
+    return this;
+  }
+
+  @Override
+  public MongoService count(String collection, JsonObject query, Handler<AsyncResult<Long>> resultHandler) {
+    route(collection, keyOf(query), resultHandler, (service, handler) -> service.count(collection, query, handler));
+    return this;
+  }
+
+  @Override
+  public MongoService remove(String collection, JsonObject query, Handler<AsyncResult<Void>> resultHandler) {
+    route(collection, keyOf(query), resultHandler, (service, handler) -> service.remove(collection, query, handler));
+    return this;
+  }
+
+  @Override
+  public MongoService removeWithOptions(String collection, JsonObject query, WriteOption writeOption, Handler<AsyncResult<Void>> resultHandler) {
+    route(collection, keyOf(query), resultHandler, (service, handler) -> service.removeWithOptions(collection, query, writeOption, handler));
+    return this;
+  }
+
+  @Override
+  public MongoService removeOne(String collection, JsonObject query, Handler<AsyncResult<Void>> resultHandler) {
+    route(collection, keyOf(query), resultHandler, (service, handler) -> service.removeOne(collection, query, handler));
+    return this;
+  }
+
+  @Override
+  public MongoService removeOneWithOptions(String collection, JsonObject query, WriteOption writeOption, Handler<AsyncResult<Void>> resultHandler) {
+    route(collection, keyOf(query), resultHandler, (service, handler) -> service.removeOneWithOptions(collection, query, writeOption, handler));
+    return this;
+  }
+
+  @Override
+  public MongoService createCollection(String collectionName, Handler<AsyncResult<Void>> resultHandler) {
+    route(collectionName, null, resultHandler, (service, handler) -> service.createCollection(collectionName, handler));
+    return this;
+  }
+
+  @Override
+  public MongoService getCollections(Handler<AsyncResult<List<String>>> resultHandler) {
+    route(null, null, resultHandler, MongoService::getCollections);
+    return this;
+  }
+
+  @Override
+  public MongoService dropCollection(String collection, Handler<AsyncResult<Void>> resultHandler) {
+    route(collection, null, resultHandler, (service, handler) -> service.dropCollection(collection, handler));
+    return this;
+  }
+
+  @Override
+  public MongoService distinct(String collection, String fieldName, JsonObject query, Handler<AsyncResult<JsonArray>> resultHandler) {
+    route(collection, keyOf(query), resultHandler, (service, handler) -> service.distinct(collection, fieldName, query, handler));
+    return this;
+  }
+
+  @Override
+  public ReadStream<Object> distinctStream(String collection, String fieldName, JsonObject query) {
+    return service(collection, keyOf(query)).distinctStream(collection, fieldName, query);
+  }
+
+  @Override
+  public MongoService aggregate(String collection, JsonArray pipeline, AggregateOptions options, Handler<AsyncResult<List<JsonObject>>> resultHandler) {
+    route(collection, null, resultHandler, (service, handler) -> service.aggregate(collection, pipeline, options, handler));
+    return this;
+  }
+
+  @Override
+  public ReadStream<JsonObject> aggregateStream(String collection, JsonArray pipeline, AggregateOptions options) {
+    return service(collection, null).aggregateStream(collection, pipeline, options);
+  }
+
+  @Override
+  public MongoService runCommand(String commandName, JsonObject command, Handler<AsyncResult<JsonObject>> resultHandler) {
+    route(null, null, resultHandler, (service, handler) -> service.runCommand(commandName, command, handler));
+    return this;
+  }
+
+  @Override
+  public MongoService batch(JsonArray operations, boolean ordered, Handler<AsyncResult<JsonArray>> resultHandler) {
+    // The operations of a batch may use several collections, the first one places the batch
+    JsonObject first = operations != null && !operations.isEmpty() && operations.getValue(0) instanceof JsonObject ? operations.getJsonObject(0) : null;
+    String collection = first == null ? null : first.getString("collection");
+    route(collection, null, resultHandler, (service, handler) -> service.batch(operations, ordered, handler));
+    return this;
+  }
+
+  /**
+   * @return a view routing its operations over the addresses of this proxy, closing it does nothing
+   */
+  @Override
+  public MongoClient database(String name) {
+    requireNonNull(name, "name cannot be null");
+    return new RoutingMongoService(this, service -> view.apply(service).database(name));
+  }
+
+  /**
+   * @return a view routing its operations over the addresses of this proxy, closing it does nothing
+   */
+  @Override
+  public MongoClient pool(String name) {
+    requireNonNull(name, "name cannot be null");
+    return new RoutingMongoService(this, service -> view.apply(service).pool(name));
+  }
+
+  /**
+   * The router does not forward the update to the services it routes to, each service is configured where it is deployed
+   */
+  @Override
+  public MongoService updateConfig(JsonObject config, Handler<AsyncResult<Void>> resultHandler) {
+    resultHandler.handle(Future.failedFuture(new UnsupportedOperationException("updateConfig is not forwarded by the routing proxy, update each service where it is deployed")));
+    return this;
+  }
+
+  /**
+   * @return the requests waiting for their reply, per address
+   */
+  @Override
+  public JsonObject poolMetrics() {
+    JsonArray addresses = new JsonArray();
+    for (Member member : root.members.list) {
+      addresses.add(new JsonObject().put("address", member.address).put("outstanding", member.outstanding.get()));
+    }
+    return new JsonObject().put("addresses", addresses);
+  }
+
+  @Override
+  public void close() {
+    if (root == this) {
+      closed = true;
+    }
+  }
+
+  private Object keyOf(JsonObject json) {
+    if (shardKey == null || json == null) {
+      return null;
+    }
+    Object value = json.getValue(shardKey);
+    // Query operators and arrays may match several keys
+    return value instanceof JsonObject || value instanceof JsonArray ? null : value;
+  }
+
+  private <T> void route(String collection, Object key, Handler<AsyncResult<T>> resultHandler, Operation<T> operation) {
+    Member member;
+    try {
+      member = select(collection, key);
+    } catch (IllegalStateException e) {
+      resultHandler.handle(Future.failedFuture(e));
+      return;
+    }
+    member.send(view, operation, resultHandler);
+  }
+
+  private MongoService service(String collection, Object key) {
+    return view.apply(select(collection, key).service);
+  }
+
+  private Member select(String collection, Object key) {
+    if (root.closed) {
+      throw new IllegalStateException("Proxy is closed");
+    }
+    Members members = root.members;
+    if (members.list.isEmpty()) {
+      throw new IllegalStateException("No service address to route to");
+    }
+    if (byCollection && collection != null) {
+      String name = key == null ? collection : collection + "/" + key;
+      Map.Entry<Long, Member> node = members.ring.ceilingEntry(hash(name));
+      return node != null ? node.getValue() : members.ring.firstEntry().getValue();
+    }
+    Member least = null;
+    for (Member member : members.list) {
+      if (least == null || member.outstanding.get() < least.outstanding.get()) {
+        least = member;
+      }
+    }
+    return least;
+  }
+
+  /**
+   * FNV-1a followed by the MurmurHash3 finalizer, which spreads similar names over the whole ring
+   */
+  private static long hash(String s) {
+    long h = 0xcbf29ce484222325L;
+    for (byte b : s.getBytes(StandardCharsets.UTF_8)) {
+      h ^= b;
+      h *= 0x100000001b3L;
+    }
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+
+  private interface Operation<T> {
+    void send(MongoService service, Handler<AsyncResult<T>> handler);
+  }
+
+  /**
+   * An immutable set of addresses, replaced when the membership changes
+   */
+  private class Members {
+
+    final List<Member> list;
+    final TreeMap<Long, Member> ring = new TreeMap<>();
+
+    Members(List<Member> list) {
+      this.list = Collections.unmodifiableList(list);
+      for (Member member : list) {
+        for (int node = 0; node < virtualNodes; node++) {
+          // Only the addresses place the nodes, so a change only moves the collections of the address
+          ring.put(hash(member.address + "#" + node), member);
+        }
+      }
+    }
+  }
+
+  private static class Member {
+
+    final String address;
+    final MongoServiceEBProxy service;
+    final AtomicInteger outstanding = new AtomicInteger();
+
+    Member(String address, MongoServiceEBProxy service) {
+      this.address = address;
+      this.service = service;
+    }
+
+    <T> void send(Function<MongoServiceEBProxy, MongoServiceEBProxy> view, Operation<T> operation, Handler<AsyncResult<T>> handler) {
+      outstanding.incrementAndGet();
+      operation.send(view.apply(service), res -> {
+        outstanding.decrementAndGet();
+        handler.handle(res);
+      });
+    }
+  }
+}
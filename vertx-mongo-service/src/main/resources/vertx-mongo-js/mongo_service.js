@@ -24,6 +24,7 @@ var JMongoService = io.vertx.ext.mongo.MongoService;
 var UpdateOptions = io.vertx.ext.mongo.UpdateOptions;
 var UpdateOptions = io.vertx.ext.mongo.UpdateOptions;
 var FindOptions = io.vertx.ext.mongo.FindOptions;
+var AggregateOptions = io.vertx.ext.mongo.AggregateOptions;
 
 /**
 
@@ -461,6 +462,52 @@ var MongoService = function(j_val) {
     } else utils.invalidArgs();
   };
 
+  /**
+
+   @public
+   @param collection {string} 
+   @param fieldName {string} 
+   @param query {Object} 
+   @param resultHandler {function} 
+   @return {MongoService}
+   */
+  this.distinct = function(collection, fieldName, query, resultHandler) {
+    var __args = arguments;
+    if (__args.length === 4 && typeof __args[0] === 'string' && typeof __args[1] === 'string' && typeof __args[2] === 'object' && typeof __args[3] === 'function') {
+      j_mongoService["distinct(java.lang.String,java.lang.String,io.vertx.core.json.JsonObject,io.vertx.core.Handler)"](collection, fieldName, utils.convParamJsonObject(query), function(ar) {
+      if (ar.succeeded()) {
+        resultHandler(utils.convReturnJson(ar.result()), null);
+      } else {
+        resultHandler(null, ar.cause());
+      }
+    });
+      return that;
+    } else utils.invalidArgs();
+  };
+
+  /**
+
+   @public
+   @param collection {string} 
+   @param pipeline {Array} 
+   @param options {Object} 
+   @param resultHandler {function} 
+   @return {MongoService}
+   */
+  this.aggregate = function(collection, pipeline, options, resultHandler) {
+    var __args = arguments;
+    if (__args.length === 4 && typeof __args[0] === 'string' && typeof __args[1] === 'object' && typeof __args[2] === 'object' && typeof __args[3] === 'function') {
+      j_mongoService["aggregate(java.lang.String,io.vertx.core.json.JsonArray,io.vertx.ext.mongo.AggregateOptions,io.vertx.core.Handler)"](collection, utils.convParamJsonArray(pipeline), options != null ? new AggregateOptions(new JsonObject(JSON.stringify(options))) : null, function(ar) {
+      if (ar.succeeded()) {
+        resultHandler(utils.convReturnListSetJson(ar.result()), null);
+      } else {
+        resultHandler(null, ar.cause());
+      }
+    });
+      return that;
+    } else utils.invalidArgs();
+  };
+
   /**
 
    @public
@@ -483,6 +530,58 @@ var MongoService = function(j_val) {
     } else utils.invalidArgs();
   };
 
+  /**
+   Run several operations with a single request. Each operation is a JSON object with the <code>action</code>, i.e. the
+   name of the method, e.g. <code>insert</code> or <code>find</code>, and the arguments of the method named after its
+   parameters, e.g. <code>{"action": "count", "collection": "books", "query": {}}</code>. Streams and the methods
+   administering the client can not be batched.
+   <p>
+   The result of each operation is a JSON object with either its <code>result</code> or its <code>error</code> message. The
+   service admits each operation of a batch as if it was sent alone, the operations over its limits are rejected.
+
+   @public
+   @param operations {Array} the operations 
+   @param ordered {boolean} <code>true</code> to run the operations one after the other, stopping at the first failure: the results of the operations not run are <code>null</code>. <code>false</code> to run them concurrently. 
+   @param resultHandler {function} will be called with the results, in the order of the operations 
+   @return {MongoService}
+   */
+  this.batch = function(operations, ordered, resultHandler) {
+    var __args = arguments;
+    if (__args.length === 3 && typeof __args[0] === 'object' && typeof __args[1] === 'boolean' && typeof __args[2] === 'function') {
+      j_mongoService["batch(io.vertx.core.json.JsonArray,boolean,io.vertx.core.Handler)"](utils.convParamJsonArray(operations), ordered, function(ar) {
+      if (ar.succeeded()) {
+        resultHandler(utils.convReturnJson(ar.result()), null);
+      } else {
+        resultHandler(null, ar.cause());
+      }
+    });
+      return that;
+    } else utils.invalidArgs();
+  };
+
+  /**
+   The configuration of the data source can only be updated where the service is deployed, the event bus proxies
+   fail the update.
+
+   @public
+   @param config {Object} 
+   @param resultHandler {function} 
+   @return {MongoService}
+   */
+  this.updateConfig = function(config, resultHandler) {
+    var __args = arguments;
+    if (__args.length === 2 && typeof __args[0] === 'object' && typeof __args[1] === 'function') {
+      j_mongoService["updateConfig(io.vertx.core.json.JsonObject,io.vertx.core.Handler)"](utils.convParamJsonObject(config), function(ar) {
+      if (ar.succeeded()) {
+        resultHandler(null, null);
+      } else {
+        resultHandler(null, ar.cause());
+      }
+    });
+      return that;
+    } else utils.invalidArgs();
+  };
+
   /**
 
    @public
@@ -509,10 +608,14 @@ var MongoService = function(j_val) {
  @param address {string} the address the service is listening on on the event bus 
  @return {MongoService} the service
  */
-MongoService.createEventBusProxy = function(vertx, address) {
+MongoService.createEventBusProxy = function() {
   var __args = arguments;
   if (__args.length === 2 && typeof __args[0] === 'object' && __args[0]._jdel && typeof __args[1] === 'string') {
-    return utils.convReturnVertxGen(JMongoService["createEventBusProxy(io.vertx.core.Vertx,java.lang.String)"](vertx._jdel, address), MongoService);
+    return utils.convReturnVertxGen(JMongoService["createEventBusProxy(io.vertx.core.Vertx,java.lang.String)"](__args[0]._jdel, __args[1]), MongoService);
+  }else if (__args.length === 3 && typeof __args[0] === 'object' && __args[0]._jdel && typeof __args[1] === 'string' && typeof __args[2] === 'number') {
+    return utils.convReturnVertxGen(JMongoService["createEventBusProxy(io.vertx.core.Vertx,java.lang.String,long)"](__args[0]._jdel, __args[1], __args[2]), MongoService);
+  }else if (__args.length === 4 && typeof __args[0] === 'object' && __args[0]._jdel && typeof __args[1] === 'string' && typeof __args[2] === 'number' && typeof __args[3] === 'string') {
+    return utils.convReturnVertxGen(JMongoService["createEventBusProxy(io.vertx.core.Vertx,java.lang.String,long,java.lang.String)"](__args[0]._jdel, __args[1], __args[2], __args[3]), MongoService);
   } else utils.invalidArgs();
 };
 
@@ -15,15 +15,23 @@ module VertxMongo
     def j_del
       @j_del
     end
-    #  Create a proxy to a service that is deployed somewhere on the event bus
+    #  Create a proxy to a service that is deployed somewhere on the event bus, identifying its requests with the
+    #  given caller. When the operations of the service wait for admission, the service serves the callers fairly, within
+    #  the quotas configured for each caller.
     # @param [::Vertx::Vertx] vertx the Vert.x instance
     # @param [String] address the address the service is listening on on the event bus
+    # @param [Fixnum] timeout the time to wait for a reply, in milliseconds
+    # @param [String] caller the identity of the caller, e.g. the name of a tenant
     # @return [::VertxMongo::MongoService] the service
-    def self.create_event_bus_proxy(vertx=nil,address=nil)
-      if vertx.class.method_defined?(:j_del) && address.class == String && !block_given?
+    def self.create_event_bus_proxy(vertx=nil,address=nil,timeout=nil,caller=nil)
+      if vertx.class.method_defined?(:j_del) && address.class == String && !block_given? && timeout == nil && caller == nil
         return ::Vertx::Util::Utils.safe_create(Java::IoVertxExtMongo::MongoService.java_method(:createEventBusProxy, [Java::IoVertxCore::Vertx.java_class,Java::java.lang.String.java_class]).call(vertx.j_del,address),::VertxMongo::MongoService)
+      elsif vertx.class.method_defined?(:j_del) && address.class == String && timeout.class == Fixnum && !block_given? && caller == nil
+        return ::Vertx::Util::Utils.safe_create(Java::IoVertxExtMongo::MongoService.java_method(:createEventBusProxy, [Java::IoVertxCore::Vertx.java_class,Java::java.lang.String.java_class,Java::long.java_class]).call(vertx.j_del,address,timeout),::VertxMongo::MongoService)
+      elsif vertx.class.method_defined?(:j_del) && address.class == String && timeout.class == Fixnum && caller.class == String && !block_given?
+        return ::Vertx::Util::Utils.safe_create(Java::IoVertxExtMongo::MongoService.java_method(:createEventBusProxy, [Java::IoVertxCore::Vertx.java_class,Java::java.lang.String.java_class,Java::long.java_class,Java::java.lang.String.java_class]).call(vertx.j_del,address,timeout,caller),::VertxMongo::MongoService)
       end
-      raise ArgumentError, "Invalid arguments when calling create_event_bus_proxy(vertx,address)"
+      raise ArgumentError, "Invalid arguments when calling create_event_bus_proxy(vertx,address,timeout,caller)"
     end
     # @param [String] collection 
     # @param [Hash{String => Object}] document 
@@ -242,6 +250,30 @@ module VertxMongo
       end
       raise ArgumentError, "Invalid arguments when calling drop_collection(collection)"
     end
+    # @param [String] collection 
+    # @param [String] fieldName 
+    # @param [Hash{String => Object}] query 
+    # @yield 
+    # @return [self]
+    def distinct(collection=nil,fieldName=nil,query=nil)
+      if collection.class == String && fieldName.class == String && query.class == Hash && block_given?
+        @j_del.java_method(:distinct, [Java::java.lang.String.java_class,Java::java.lang.String.java_class,Java::IoVertxCoreJson::JsonObject.java_class,Java::IoVertxCore::Handler.java_class]).call(collection,fieldName,::Vertx::Util::Utils.to_json_object(query),(Proc.new { |ar| yield(ar.failed ? ar.cause : nil, ar.succeeded ? ar.result != nil ? JSON.parse(ar.result.encode) : nil : nil) }))
+        return self
+      end
+      raise ArgumentError, "Invalid arguments when calling distinct(collection,fieldName,query)"
+    end
+    # @param [String] collection 
+    # @param [Array<String,Object>] pipeline 
+    # @param [Hash] options 
+    # @yield 
+    # @return [self]
+    def aggregate(collection=nil,pipeline=nil,options=nil)
+      if collection.class == String && pipeline.class == Array && options.class == Hash && block_given?
+        @j_del.java_method(:aggregate, [Java::java.lang.String.java_class,Java::IoVertxCoreJson::JsonArray.java_class,Java::IoVertxExtMongo::AggregateOptions.java_class,Java::IoVertxCore::Handler.java_class]).call(collection,::Vertx::Util::Utils.to_json_array(pipeline),Java::IoVertxExtMongo::AggregateOptions.new(::Vertx::Util::Utils.to_json_object(options)),(Proc.new { |ar| yield(ar.failed ? ar.cause : nil, ar.succeeded ? ar.result.to_a.map { |elt| elt != nil ? JSON.parse(elt.encode) : nil } : nil) }))
+        return self
+      end
+      raise ArgumentError, "Invalid arguments when calling aggregate(collection,pipeline,options)"
+    end
     # @param [String] commandName 
     # @param [Hash{String => Object}] command 
     # @yield 
@@ -253,6 +285,36 @@ module VertxMongo
       end
       raise ArgumentError, "Invalid arguments when calling run_command(commandName,command)"
     end
+    #  Run several operations with a single request. Each operation is a JSON object with the action, i.e. the
+    #  name of the method, e.g. insert or find, and the arguments of the method named after its
+    #  parameters, e.g. {"action": "count", "collection": "books", "query": {}}. Streams and the methods
+    #  administering the client can not be batched.
+    #  <p>
+    #  The result of each operation is a JSON object with either its result or its error message. The
+    #  service admits each operation of a batch as if it was sent alone, the operations over its limits are rejected.
+    # @param [Array<String,Object>] operations the operations
+    # @param [true,false] ordered true to run the operations one after the other, stopping at the first failure: the results of the operations not run are null. false to run them concurrently.
+    # @yield will be called with the results, in the order of the operations
+    # @return [self]
+    def batch(operations=nil,ordered=nil)
+      if operations.class == Array && (ordered.class == TrueClass || ordered.class == FalseClass) && block_given?
+        @j_del.java_method(:batch, [Java::IoVertxCoreJson::JsonArray.java_class,Java::boolean.java_class,Java::IoVertxCore::Handler.java_class]).call(::Vertx::Util::Utils.to_json_array(operations),ordered,(Proc.new { |ar| yield(ar.failed ? ar.cause : nil, ar.succeeded ? ar.result != nil ? JSON.parse(ar.result.encode) : nil : nil) }))
+        return self
+      end
+      raise ArgumentError, "Invalid arguments when calling batch(operations,ordered)"
+    end
+    #  The configuration of the data source can only be updated where the service is deployed, the event bus proxies
+    #  fail the update.
+    # @param [Hash{String => Object}] config 
+    # @yield 
+    # @return [self]
+    def update_config(config=nil)
+      if config.class == Hash && block_given?
+        @j_del.java_method(:updateConfig, [Java::IoVertxCoreJson::JsonObject.java_class,Java::IoVertxCore::Handler.java_class]).call(::Vertx::Util::Utils.to_json_object(config),(Proc.new { |ar| yield(ar.failed ? ar.cause : nil) }))
+        return self
+      end
+      raise ArgumentError, "Invalid arguments when calling update_config(config)"
+    end
     # @return [void]
     def close
       if !block_given?
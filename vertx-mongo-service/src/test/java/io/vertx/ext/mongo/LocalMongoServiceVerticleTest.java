@@ -0,0 +1,43 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mongo;
+
+import io.vertx.core.json.JsonObject;
+import org.junit.Test;
+
+/**
+ * Runs the tests through a proxy handing the documents over without copying them.
+ */
+public class LocalMongoServiceVerticleTest extends MongoServiceVerticleTest {
+
+  @Override
+  protected MongoService createProxy() {
+    return MongoService.createLocalEventBusProxy(vertx, "vertx.mongo");
+  }
+
+  @Test
+  public void testRequestsAreNotCopied() throws Exception {
+    String collection = randomCollection();
+    JsonObject document = createDoc(0);
+    mongoClient.insert(collection, document, onSuccess(id -> {
+      // The service generated the id on the document of the caller
+      assertEquals(id, document.getString("_id"));
+      testComplete();
+    }));
+    await();
+  }
+}
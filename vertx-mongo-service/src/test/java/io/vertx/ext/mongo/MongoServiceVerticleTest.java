@@ -17,9 +17,19 @@
 package io.vertx.ext.mongo;
 
 import io.vertx.core.DeploymentOptions;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
+import io.vertx.core.streams.ReadStream;
+import io.vertx.ext.mongo.impl.MongoServiceImpl;
+import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author <a href="http://tfox.org">Tim Fox</a>
@@ -29,14 +39,242 @@ public class MongoServiceVerticleTest extends MongoClientTestBase {
   @Override
   public void setUp() throws Exception {
     super.setUp();
-    JsonObject config = getConfig();
-    DeploymentOptions options = new DeploymentOptions().setConfig(config);
+    DeploymentOptions options = deploymentOptions();
     CountDownLatch latch = new CountDownLatch(1);
     vertx.deployVerticle("service:io.vertx.mongo-service", options, onSuccess(id -> {
-      mongoClient = MongoService.createEventBusProxy(vertx, "vertx.mongo");
+      mongoClient = createProxy();
       dropCollections(latch);
     }));
     awaitLatch(latch);
   }
 
+  @Override
+  protected JsonObject getConfig() {
+    // The views the tests open on the service, the pool is not configured
+    JsonObject views = new JsonObject()
+        .put("databases", new JsonArray().add(getDatabaseName() + "_view"))
+        .put("pools", new JsonArray().add("nosuchpool"));
+    return super.getConfig().put("views", views);
+  }
+
+  protected DeploymentOptions deploymentOptions() {
+    return new DeploymentOptions().setConfig(getConfig());
+  }
+
+  protected MongoService createProxy() {
+    return MongoService.createEventBusProxy(vertx, "vertx.mongo");
+  }
+
+  @Test
+  public void testBatch() throws Exception {
+    String collection = randomCollection();
+    JsonArray operations = new JsonArray()
+        .add(new JsonObject().put("action", "insert").put("collection", collection).put("document", createDoc(0)))
+        .add(new JsonObject().put("action", "insert").put("collection", collection).put("document", createDoc(1)))
+        .add(new JsonObject().put("action", "count").put("collection", collection).put("query", new JsonObject()))
+        .add(new JsonObject().put("action", "find").put("collection", collection).put("query", new JsonObject().put("foo", "bar1")));
+    ((MongoService) mongoClient).batch(operations, true, onSuccess(results -> {
+      assertEquals(4, results.size());
+      assertNotNull(results.getJsonObject(0).getString("result"));
+      assertEquals(2, (long) results.getJsonObject(2).getLong("result"));
+      JsonArray found = results.getJsonObject(3).getJsonArray("result");
+      assertEquals(1, found.size());
+      assertEquals(results.getJsonObject(1).getString("result"), found.getJsonObject(0).getString("_id"));
+      testComplete();
+    }));
+    await();
+  }
+
+  @Test
+  public void testBatchFailures() throws Exception {
+    String collection = randomCollection();
+    JsonArray operations = new JsonArray()
+        .add(new JsonObject().put("action", "insert").put("collection", collection).put("document", createDoc(0)))
+        .add(new JsonObject().put("action", "tail").put("collection", collection))
+        .add(new JsonObject().put("action", "count").put("collection", collection).put("query", new JsonObject()));
+    MongoService service = (MongoService) mongoClient;
+    service.batch(operations, true, onSuccess(ordered -> {
+      assertNotNull(ordered.getJsonObject(0).getString("result"));
+      assertNotNull(ordered.getJsonObject(1).getString("error"));
+      // An ordered batch stops at the first failure
+      assertNull(ordered.getJsonObject(2));
+      service.batch(operations, false, onSuccess(unordered -> {
+        assertNotNull(unordered.getJsonObject(1).getString("error"));
+        assertTrue(unordered.getJsonObject(2).containsKey("result"));
+        testComplete();
+      }));
+    }));
+    await();
+  }
+
+  @Test
+  public void testBatchAdmission() throws Exception {
+    String collection = randomCollection();
+    JsonObject admission = new JsonObject().put("maxInFlight", 1).put("maxQueued", 1);
+    MongoService service = new MongoServiceImpl(mongoClient, new JsonObject().put("admission", admission));
+    JsonArray operations = new JsonArray();
+    for (int i = 0; i < 4; i++) {
+      operations.add(new JsonObject().put("action", "count").put("collection", collection).put("query", new JsonObject()));
+    }
+    service.batch(operations, false, onSuccess(results -> {
+      // One operation runs, one waits, the others do not fit in the queue
+      assertTrue(results.getJsonObject(0).containsKey("result"));
+      assertTrue(results.getJsonObject(1).containsKey("result"));
+      assertNotNull(results.getJsonObject(2).getString("error"));
+      assertNotNull(results.getJsonObject(3).getString("error"));
+      assertEquals(2, (long) service.poolMetrics().getJsonObject("admission").getLong("rejected"));
+      testComplete();
+    }));
+    await();
+  }
+
+  @Test
+  public void testStreams() throws Exception {
+    String collection = randomCollection();
+    insertDocs(collection, 250, onSuccess(res -> {
+      List<Object> values = new ArrayList<>();
+      ReadStream<Object> distinct = mongoClient.distinctStream(collection, "num", new JsonObject());
+      distinct.exceptionHandler(this::fail);
+      distinct.endHandler(v -> {
+        assertEquals(Collections.singletonList(123), values);
+        JsonArray pipeline = new JsonArray().add(new JsonObject().put("$project", new JsonObject().put("foo", 1)));
+        AtomicInteger count = new AtomicInteger();
+        ReadStream<JsonObject> aggregate = mongoClient.aggregateStream(collection, pipeline, new AggregateOptions());
+        aggregate.exceptionHandler(this::fail);
+        aggregate.endHandler(w -> {
+          assertEquals(250, count.get());
+          testComplete();
+        });
+        aggregate.handler(doc -> count.incrementAndGet());
+      });
+      distinct.handler(values::add);
+    }));
+    await();
+  }
+
+  @Test
+  public void testTail() throws Exception {
+    String collection = randomCollection();
+    JsonObject command = new JsonObject().put("create", collection).put("capped", true).put("size", 100000);
+    mongoClient.runCommand("create", command, onSuccess(res -> {
+      // The proxy waits as long for the chunks of a stream as for a reply
+      MongoService proxy = MongoService.createEventBusProxy(vertx, "vertx.mongo", 300);
+      ReadStream<JsonObject> stream = proxy.tail(collection, new JsonObject(), new TailOptions().setReconnectDelayMS(20));
+      stream.exceptionHandler(this::fail);
+      stream.handler(doc -> {
+        assertEquals("bar0", doc.getString("foo"));
+        stream.handler(null);
+        testComplete();
+      });
+      // The stream stays open while the collection is quiet for longer than the proxy waits
+      vertx.setTimer(1000, id -> mongoClient.insert(collection, createDoc(0), onSuccess(v -> {})));
+    }));
+    await();
+  }
+
+  @Test
+  public void testDatabaseView() throws Exception {
+    String collection = randomCollection();
+    MongoClient view = mongoClient.database(getDatabaseName() + "_view");
+    view.insert(collection, createDoc(0), onSuccess(id -> {
+      view.count(collection, new JsonObject(), onSuccess(viewCount -> {
+        assertEquals(1, viewCount.longValue());
+        mongoClient.count(collection, new JsonObject(), onSuccess(count -> {
+          // The document went to the database of the view
+          assertEquals(0, count.longValue());
+          view.dropCollection(collection, onSuccess(v -> testComplete()));
+        }));
+      }));
+    }));
+    await();
+  }
+
+  @Test
+  public void testForbiddenViews() throws Exception {
+    mongoClient.database("admin").getCollections(onFailure(err -> {
+      // Only the databases listed in the configuration are open to the proxies
+      assertEquals(MongoService.FORBIDDEN_FAILURE_CODE, ((ReplyException) err).failureCode());
+      mongoClient.pool("batch").count(randomCollection(), new JsonObject(), onFailure(other -> {
+        assertEquals(MongoService.FORBIDDEN_FAILURE_CODE, ((ReplyException) other).failureCode());
+        testComplete();
+      }));
+    }));
+    await();
+  }
+
+  @Test
+  public void testUnknownPool() throws Exception {
+    mongoClient.pool("nosuchpool").count(randomCollection(), new JsonObject(), onFailure(err -> {
+      // The caller gets a failure rather than waiting for its send timeout
+      assertEquals(MongoService.INVALID_REQUEST_FAILURE_CODE, ((ReplyException) err).failureCode());
+      testComplete();
+    }));
+    await();
+  }
+
+  @Test
+  public void testMalformedTimeout() throws Exception {
+    DeliveryOptions options = new DeliveryOptions().addHeader("action", "count").addHeader("timeout", "soon");
+    JsonObject body = new JsonObject().put("collection", randomCollection()).put("query", new JsonObject());
+    vertx.eventBus().send("vertx.mongo", body, options, onFailure(err -> {
+      assertEquals(MongoService.INVALID_REQUEST_FAILURE_CODE, ((ReplyException) err).failureCode());
+      testComplete();
+    }));
+    await();
+  }
+
+  @Test
+  public void testInvalidStreamArguments() throws Exception {
+    DeliveryOptions options = new DeliveryOptions().addHeader("action", "findStream");
+    JsonObject body = new JsonObject().put("collection", randomCollection()).put("query", new JsonObject())
+        .put("options", new JsonObject().put("limit", "all")).put("address", "nowhere");
+    vertx.eventBus().send("vertx.mongo", body, options, onFailure(err -> {
+      assertEquals(MongoService.INVALID_REQUEST_FAILURE_CODE, ((ReplyException) err).failureCode());
+      testComplete();
+    }));
+    await();
+  }
+
+  @Test
+  public void testUpdateConfigIsLocal() throws Exception {
+    JsonObject changes = new JsonObject().put("maxPoolSize", 5);
+    ((MongoService) mongoClient).updateConfig(changes, onFailure(err -> {
+      // Nor can another sender of the event bus reconfigure the service
+      DeliveryOptions options = new DeliveryOptions().addHeader("action", "updateConfig");
+      vertx.eventBus().send("vertx.mongo", new JsonObject().put("config", changes), options, onFailure(failure -> testComplete()));
+    }));
+    await();
+  }
+
+  @Test
+  public void testProxyTimeout() throws Exception {
+    String collection = randomCollection();
+    MongoService proxy = MongoService.createEventBusProxy(vertx, "vertx.mongo", 5000);
+    proxy.insert(collection, createDoc(0), onSuccess(id -> {
+      // The queries run with the time left as maxTimeMS
+      proxy.findOne(collection, new JsonObject(), null, onSuccess(doc -> {
+        assertEquals(id, doc.getString("_id"));
+        proxy.find(collection, new JsonObject(), onSuccess(docs -> {
+          assertEquals(1, docs.size());
+          testComplete();
+        }));
+      }));
+    }));
+    await();
+  }
+
+  @Test
+  public void testExpiredDeadline() throws Exception {
+    String collection = randomCollection();
+    MongoService service = new MongoServiceImpl(mongoClient).withDeadline(System.currentTimeMillis() - 1);
+    service.insert(collection, createDoc(0), onFailure(err -> {
+      assertEquals(MongoService.EXPIRED_FAILURE_CODE, ((ReplyException) err).failureCode());
+      mongoClient.count(collection, new JsonObject(), onSuccess(count -> {
+        // The operation was not run
+        assertEquals(0, count.longValue());
+        testComplete();
+      }));
+    }));
+    await();
+  }
 }
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mongo;
+
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.json.JsonObject;
+import org.junit.Test;
+
+/**
+ * Runs the tests against several instances of the verticle sharing one data source.
+ */
+public class SharedMongoServiceVerticleTest extends MongoServiceVerticleTest {
+
+  private static final String DATA_SOURCE_NAME = "shared-mongo-service";
+
+  @Override
+  protected DeploymentOptions deploymentOptions() {
+    JsonObject config = getConfig().put("dataSourceName", DATA_SOURCE_NAME).put("maxPoolSize", 7);
+    return new DeploymentOptions().setConfig(config).setInstances(3);
+  }
+
+  @Test
+  public void testInstancesShareDataSource() throws Exception {
+    // The configuration of the instances already deployed is used, not this one
+    MongoClient client = MongoClient.createShared(vertx, new JsonObject(), DATA_SOURCE_NAME);
+    JsonObject metrics = client.poolMetrics();
+    assertEquals(1, metrics.getJsonArray("partitions").size());
+    assertEquals(7, (int) metrics.getJsonArray("partitions").getJsonObject(0).getInteger("maxPoolSize"));
+    client.close();
+    mongoClient.count(randomCollection(), new JsonObject(), onSuccess(count -> {
+      // Closing one client of the data source leaves the pool of the instances open
+      assertEquals(0, count.longValue());
+      testComplete();
+    }));
+    await();
+  }
+}
@@ -0,0 +1,176 @@
+package io.vertx.ext.mongo.impl;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.mongo.MongoService;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class AdmissionControlTest {
+
+  private final List<Handler<AsyncResult<String>>> running = new ArrayList<>();
+  private final List<AsyncResult<String>> results = new ArrayList<>();
+
+  @Test
+  public void testNoLimits() {
+    AdmissionControl admission = new AdmissionControl(null);
+    for (int i = 0; i < 10; i++) {
+      execute(admission, "find", "books");
+    }
+    assertEquals(10, running.size());
+    assertEquals(0, (int) admission.metrics().getInteger("queued"));
+  }
+
+  @Test
+  public void testQueueAndReject() {
+    AdmissionControl admission = new AdmissionControl(new JsonObject().put("maxInFlight", 2).put("maxQueued", 1));
+    execute(admission, "find", "books");
+    execute(admission, "find", "books");
+    execute(admission, "find", "books");
+    assertEquals(2, running.size());
+    assertEquals(1, (int) admission.metrics().getInteger("queued"));
+    // The queue is full
+    execute(admission, "find", "books");
+    assertEquals(1, results.size());
+    assertTrue(results.get(0).failed());
+    assertEquals(MongoService.REJECTED_FAILURE_CODE, ((ReplyException) results.get(0).cause()).failureCode());
+    assertEquals(1, (long) admission.metrics().getLong("rejected"));
+    // A completion starts the queued operation
+    running.get(0).handle(Future.succeededFuture("done"));
+    assertEquals(3, running.size());
+    assertEquals(0, (int) admission.metrics().getInteger("queued"));
+    assertEquals(2, (int) admission.metrics().getInteger("inFlight"));
+    assertEquals("done", results.get(1).result());
+  }
+
+  @Test
+  public void testOperationAndCollectionLimits() {
+    AdmissionControl admission = new AdmissionControl(new JsonObject()
+        .put("operations", new JsonObject().put("aggregate", 1))
+        .put("collections", new JsonObject().put("logs", 1)));
+    execute(admission, "aggregate", "books");
+    execute(admission, "aggregate", "books");
+    execute(admission, "find", "logs");
+    execute(admission, "find", "logs");
+    // The operations under their limits are not held back by the queued ones
+    execute(admission, "find", "books");
+    assertEquals(3, running.size());
+    JsonObject metrics = admission.metrics();
+    assertEquals(2, (int) metrics.getInteger("queued"));
+    assertEquals(1, (int) metrics.getJsonObject("operations").getJsonObject("aggregate").getInteger("queued"));
+    assertEquals(1, (int) metrics.getJsonObject("collections").getJsonObject("logs").getInteger("queued"));
+    // Completing the find on logs starts the queued find on logs, not the queued aggregate
+    running.get(1).handle(Future.succeededFuture());
+    assertEquals(4, running.size());
+    assertEquals(1, (int) admission.metrics().getInteger("queued"));
+  }
+
+  @Test
+  public void testFailingTaskReleasesItsPlace() {
+    AdmissionControl admission = new AdmissionControl(new JsonObject().put("maxInFlight", 1));
+    admission.<String>execute("find", null, results::add, handler -> {
+      throw new IllegalArgumentException();
+    });
+    assertTrue(results.get(0).failed());
+    execute(admission, "find", null);
+    assertEquals(1, running.size());
+  }
+
+  @Test
+  public void testFairQueuing() {
+    AdmissionControl admission = new AdmissionControl(new JsonObject().put("maxInFlight", 1));
+    List<String> started = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      execute(admission, "noisy", started);
+    }
+    execute(admission, "quiet", started);
+    assertEquals(5, (int) admission.metrics().getInteger("queued"));
+    assertEquals(4, (int) admission.metrics().getJsonObject("callers").getJsonObject("noisy").getInteger("queued"));
+    // The quiet caller goes before the operations the noisy one queued
+    running.get(0).handle(Future.succeededFuture());
+    assertEquals("quiet", started.get(1));
+    running.get(1).handle(Future.succeededFuture());
+    assertEquals("noisy", started.get(2));
+  }
+
+  @Test
+  public void testWeights() {
+    AdmissionControl admission = new AdmissionControl(new JsonObject()
+        .put("maxInFlight", 1)
+        .put("callers", new JsonObject().put("web", new JsonObject().put("weight", 3))));
+    List<String> started = new ArrayList<>();
+    execute(admission, "other", started);
+    for (int i = 0; i < 4; i++) {
+      execute(admission, "other", started);
+      execute(admission, "web", started);
+    }
+    for (int i = 0; i < 8; i++) {
+      running.get(i).handle(Future.succeededFuture());
+    }
+    // The web caller gets three operations started for each one of the other caller
+    assertEquals(4, started.subList(1, 6).stream().filter("web"::equals).count());
+  }
+
+  @Test
+  public void testCallerQuotas() {
+    AdmissionControl admission = new AdmissionControl(new JsonObject().put("callers", new JsonObject()
+        .put("batch", new JsonObject().put("maxInFlight", 1).put("maxQueued", 1))
+        .put("default", new JsonObject().put("rate", 2))));
+    List<String> started = new ArrayList<>();
+    execute(admission, "batch", started);
+    execute(admission, "batch", started);
+    execute(admission, "batch", started);
+    // The concurrency of the batch caller does not hold back the others
+    execute(admission, "web", started);
+    execute(admission, "web", started);
+    assertEquals(3, running.size());
+    assertEquals(1, results.size());
+    JsonObject metrics = admission.metrics().getJsonObject("callers");
+    assertEquals(1, (int) metrics.getJsonObject("batch").getInteger("queued"));
+    assertEquals(1, (long) metrics.getJsonObject("batch").getLong("rejected"));
+    // The rate of the other callers is two operations per second
+    execute(admission, "web", started);
+    assertEquals(2, results.size());
+    assertEquals(MongoService.REJECTED_FAILURE_CODE, ((ReplyException) results.get(1).cause()).failureCode());
+    assertEquals(1, (long) admission.metrics().getJsonObject("callers").getJsonObject("web").getLong("throttled"));
+  }
+
+  @Test
+  public void testRejectedCallersAreForgotten() {
+    AdmissionControl admission = new AdmissionControl(new JsonObject().put("maxInFlight", 1).put("maxQueued", 0)
+        .put("callers", new JsonObject().put("default", new JsonObject().put("rate", 10))));
+    List<String> started = new ArrayList<>();
+    execute(admission, "a", started);
+    for (int i = 0; i < 100; i++) {
+      execute(admission, "b" + i, started);
+    }
+    assertEquals(101, results.size() + running.size());
+    assertEquals(1, running.size());
+    // Only the caller with an operation in flight is remembered
+    assertEquals(1, admission.metrics().getJsonObject("callers").size());
+    assertTrue(admission.metrics().getJsonObject("callers").containsKey("a"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidLimit() {
+    new AdmissionControl(new JsonObject().put("collections", new JsonObject().put("logs", 0)));
+  }
+
+  private void execute(AdmissionControl admission, String operation, String collection) {
+    admission.<String>execute(operation, collection, results::add, running::add);
+  }
+
+  private void execute(AdmissionControl admission, String caller, List<String> started) {
+    admission.<String>execute("find", null, caller, results::add, handler -> {
+      started.add(caller);
+      running.add(handler);
+    });
+  }
+}
@@ -0,0 +1,73 @@
+package io.vertx.ext.mongo.impl;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BsonMessageCodecTest {
+
+  private final BsonMessageCodec codec = new BsonMessageCodec();
+
+  @Test
+  public void testObject() {
+    JsonObject document = new JsonObject()
+        .put("_id", "id")
+        .put("string", "foo")
+        .put("int", 1)
+        .put("long", 1L << 40)
+        .put("double", 1.5)
+        .put("boolean", true)
+        .putNull("null")
+        .put("object", new JsonObject().put("nested", new JsonArray().add(1).add("two").addNull()))
+        .put("date", new JsonObject().put("$date", "2015-01-01T00:00:00Z"))
+        .put("query", new JsonObject().put("$gt", 3));
+    assertEquals(document, roundTrip(document));
+  }
+
+  @Test
+  public void testObjectId() {
+    // An ObjectId stays extended JSON, so queries by ObjectId match the same documents as with the JSON codecs
+    JsonObject document = new JsonObject()
+        .put("_id", new JsonObject().put("$oid", "55b9bbcd6abcf3b3a5e7ab0b"))
+        .put("query", new JsonObject().put("ref", new JsonObject().put("$oid", "55b9bbcd6abcf3b3a5e7ab0c")));
+    assertEquals(document, roundTrip(document));
+  }
+
+  @Test
+  public void testArray() {
+    JsonArray array = new JsonArray().add(new JsonObject().put("foo", "bar")).add(new JsonObject().put("foo", 2));
+    assertEquals(array, roundTrip(array));
+  }
+
+  @Test
+  public void testBinaryAndFloat() {
+    byte[] bytes = {1, 2, 3};
+    JsonObject decoded = (JsonObject) roundTrip(new JsonObject().put("binary", bytes).put("float", 1.5f));
+    assertArrayEquals(bytes, decoded.getBinary("binary"));
+    assertEquals(1.5, decoded.getDouble("float"), 0);
+  }
+
+  @Test
+  public void testDecodeAtPosition() {
+    Buffer buffer = Buffer.buffer("header");
+    codec.encodeToWire(buffer, new JsonObject().put("foo", "bar"));
+    assertEquals(new JsonObject().put("foo", "bar"), codec.decodeFromWire(6, buffer));
+  }
+
+  @Test
+  public void testTransformCopies() {
+    JsonObject document = new JsonObject().put("foo", new JsonObject().put("bar", 1));
+    Object copy = codec.transform(document);
+    assertEquals(document, copy);
+    assertNotSame(document.getJsonObject("foo"), ((JsonObject) copy).getJsonObject("foo"));
+  }
+
+  private Object roundTrip(Object body) {
+    Buffer buffer = Buffer.buffer();
+    codec.encodeToWire(buffer, body);
+    return codec.decodeFromWire(0, buffer);
+  }
+}
@@ -0,0 +1,135 @@
+package io.vertx.ext.mongo.impl;
+
+import io.vertx.core.Handler;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.eventbus.ReplyFailure;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.streams.ReadStream;
+import io.vertx.test.core.VertxTestBase;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ChunkedStreamTest extends VertxTestBase {
+
+  @Test
+  public void testStream() throws Exception {
+    vertx.eventBus().<JsonObject>consumer("service", msg -> new ChunkedStreamSender(vertx, new Documents(250), msg));
+    AtomicInteger count = new AtomicInteger();
+    ReadStream<JsonObject> stream = new ChunkedStreamReceiver<>(vertx, "service", new JsonObject(), new DeliveryOptions());
+    stream.exceptionHandler(this::fail);
+    stream.endHandler(v -> {
+      assertEquals(250, count.get());
+      testComplete();
+    });
+    stream.handler(document -> assertEquals(count.getAndIncrement(), (int) document.getInteger("i")));
+    await();
+  }
+
+  @Test
+  public void testSenderTimeout() throws Exception {
+    vertx.eventBus().<JsonObject>consumer("service", msg -> new ChunkedStreamSender(vertx, new Documents(1000), msg));
+    ReadStream<JsonObject> stream = new ChunkedStreamReceiver<>(vertx, "service", new JsonObject(), new DeliveryOptions(), 200);
+    stream.exceptionHandler(err -> {
+      // Sent by the service, which got no credit since the consumer paused the stream
+      assertTrue(err.getMessage().startsWith("No credits received"));
+      testComplete();
+    });
+    stream.handler(document -> stream.pause());
+    await();
+  }
+
+  @Test
+  public void testReceiverTimeout() throws Exception {
+    // A service which accepts the stream but never sends a chunk, e.g. its node left the cluster
+    vertx.eventBus().<JsonObject>consumer("service", msg -> msg.reply(new JsonObject().put("control", "nowhere")));
+    ReadStream<JsonObject> stream = new ChunkedStreamReceiver<>(vertx, "service", new JsonObject(), new DeliveryOptions(), 200);
+    stream.exceptionHandler(err -> {
+      assertEquals(ReplyFailure.TIMEOUT, ((ReplyException) err).failureType());
+      testComplete();
+    });
+    stream.handler(document -> fail("No document expected"));
+    await();
+  }
+
+  @Test
+  public void testQuietStream() throws Exception {
+    // A stream which has no document for longer than the timeout, and never ends, e.g. a tail on a quiet collection
+    Documents documents = new Documents(1, false);
+    documents.pause();
+    vertx.eventBus().<JsonObject>consumer("service", msg -> new ChunkedStreamSender(vertx, documents, msg));
+    ReadStream<JsonObject> stream = new ChunkedStreamReceiver<>(vertx, "service", new JsonObject(), new DeliveryOptions(), 200);
+    stream.exceptionHandler(this::fail);
+    stream.handler(document -> {
+      // The partial chunk was sent without waiting for more documents
+      assertEquals(0, (int) document.getInteger("i"));
+      stream.handler(null);
+      testComplete();
+    });
+    vertx.setTimer(1000, id -> documents.resume());
+    await();
+  }
+
+  private class Documents implements ReadStream<JsonObject> {
+
+    private final int size;
+    private final boolean ends;
+    private int position;
+    private boolean paused;
+    private Handler<JsonObject> handler;
+    private Handler<Void> endHandler;
+
+    Documents(int size) {
+      this(size, true);
+    }
+
+    Documents(int size, boolean ends) {
+      this.size = size;
+      this.ends = ends;
+    }
+
+    @Override
+    public Documents exceptionHandler(Handler<Throwable> handler) {
+      return this;
+    }
+
+    @Override
+    public Documents handler(Handler<JsonObject> handler) {
+      this.handler = handler;
+      if (handler != null) {
+        vertx.runOnContext(v -> emit());
+      }
+      return this;
+    }
+
+    @Override
+    public Documents pause() {
+      paused = true;
+      return this;
+    }
+
+    @Override
+    public Documents resume() {
+      paused = false;
+      vertx.runOnContext(v -> emit());
+      return this;
+    }
+
+    @Override
+    public Documents endHandler(Handler<Void> handler) {
+      this.endHandler = handler;
+      return this;
+    }
+
+    private void emit() {
+      while (!paused && handler != null && position < size) {
+        handler.handle(new JsonObject().put("i", position++));
+      }
+      if (ends && position == size && handler != null && endHandler != null) {
+        handler = null;
+        endHandler.handle(null);
+      }
+    }
+  }
+}
@@ -0,0 +1,55 @@
+package io.vertx.ext.mongo.impl;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DeflateMessageCodecTest {
+
+  private final DeflateMessageCodec codec = new DeflateMessageCodec();
+
+  @Test
+  public void testSmallObject() {
+    JsonObject document = new JsonObject().put("foo", "bar").put("num", 1).putNull("null");
+    Buffer buffer = Buffer.buffer();
+    codec.encodeToWire(buffer, document);
+    // Sent as it is, with the type, the encoding and the length
+    assertEquals(document.encode().length() + 6, buffer.length());
+    assertEquals(document, codec.decodeFromWire(0, buffer));
+  }
+
+  @Test
+  public void testLargeArray() {
+    JsonArray documents = new JsonArray();
+    for (int i = 0; i < 1000; i++) {
+      documents.add(new JsonObject()
+          .put("_id", "id" + i)
+          .put("title", "The title of book " + i)
+          .put("author", new JsonObject().put("name", "author" + (i % 10)).put("born", 1900 + i % 50))
+          .put("tags", new JsonArray().add("fiction").add("novel")));
+    }
+    Buffer buffer = Buffer.buffer();
+    codec.encodeToWire(buffer, documents);
+    assertTrue(buffer.length() < documents.encode().length() / 4);
+    assertEquals(documents, codec.decodeFromWire(0, buffer));
+  }
+
+  @Test
+  public void testDecodeAtPosition() {
+    JsonObject document = new JsonObject().put("text", new String(new char[DeflateMessageCodec.THRESHOLD]).replace('\0', 'a'));
+    Buffer buffer = Buffer.buffer("header");
+    codec.encodeToWire(buffer, document);
+    assertEquals(document, codec.decodeFromWire(6, buffer));
+  }
+
+  @Test
+  public void testTransformCopies() {
+    JsonObject document = new JsonObject().put("foo", new JsonObject().put("bar", 1));
+    Object copy = codec.transform(document);
+    assertEquals(document, copy);
+    assertNotSame(document.getJsonObject("foo"), ((JsonObject) copy).getJsonObject("foo"));
+  }
+}
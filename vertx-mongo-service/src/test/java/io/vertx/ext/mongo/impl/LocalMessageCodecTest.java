@@ -0,0 +1,27 @@
+package io.vertx.ext.mongo.impl;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LocalMessageCodecTest {
+
+  private final LocalMessageCodec codec = new LocalMessageCodec();
+
+  @Test
+  public void testTransformDoesNotCopy() {
+    JsonArray documents = new JsonArray();
+    for (int i = 0; i < 1000; i++) {
+      documents.add(new JsonObject().put("num", i).put("nested", new JsonObject().put("foo", "bar" + i)));
+    }
+    assertSame(documents, codec.transform(documents));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testEncodeToWire() {
+    codec.encodeToWire(Buffer.buffer(), new JsonObject());
+  }
+}
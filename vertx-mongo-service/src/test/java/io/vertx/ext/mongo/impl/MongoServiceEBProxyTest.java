@@ -0,0 +1,37 @@
+package io.vertx.ext.mongo.impl;
+
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.mongo.MongoService;
+import io.vertx.test.core.VertxTestBase;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class MongoServiceEBProxyTest extends VertxTestBase {
+
+  private final List<String> timeouts = new ArrayList<>();
+
+  @Override
+  public void setUp() throws Exception {
+    super.setUp();
+    vertx.eventBus().<JsonObject>consumer("mongo", msg -> {
+      timeouts.add(msg.headers().get(ProxyCodecs.TIMEOUT_HEADER));
+      msg.reply(0L);
+    });
+  }
+
+  @Test
+  public void testTimeoutHeader() throws Exception {
+    MongoService proxy = MongoService.createEventBusProxy(vertx, "mongo");
+    proxy.count("books", new JsonObject(), onSuccess(count -> {
+      // No deadline unless the proxy was given a timeout
+      assertNull(timeouts.get(0));
+      MongoService.createEventBusProxy(vertx, "mongo", 5000).count("books", new JsonObject(), onSuccess(other -> {
+        assertEquals("5000", timeouts.get(1));
+        testComplete();
+      }));
+    }));
+    await();
+  }
+}
@@ -0,0 +1,93 @@
+package io.vertx.ext.mongo.impl;
+
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.test.core.VertxTestBase;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class RoutingMongoServiceTest extends VertxTestBase {
+
+  private final List<String> received = new ArrayList<>();
+  private final List<Message<JsonObject>> pending = new ArrayList<>();
+
+  @Override
+  public void setUp() throws Exception {
+    super.setUp();
+    // Services replying to count with the number of requests received
+    for (String address : new String[]{"mongo.a", "mongo.b", "mongo.c"}) {
+      vertx.eventBus().<JsonObject>consumer(address, msg -> {
+        received.add(address);
+        if ("hold".equals(msg.body().getString("collection"))) {
+          pending.add(msg);
+        } else {
+          msg.reply((long) received.size());
+        }
+      });
+    }
+  }
+
+  @Test
+  public void testCollectionAffinity() throws Exception {
+    RoutingMongoService router = new RoutingMongoService(vertx, new JsonObject()
+        .put("addresses", new JsonArray().add("mongo.a").add("mongo.b").add("mongo.c")));
+    countAll(router, "books", 10, () -> {
+      // All the operations on a collection go to the same service
+      String address = received.get(0);
+      assertTrue(received.stream().allMatch(address::equals));
+      router.removeAddress(address);
+      assertFalse(router.addresses().contains(address));
+      received.clear();
+      countAll(router, "books", 10, () -> {
+        assertFalse(received.contains(address));
+        assertEquals(1, received.stream().distinct().count());
+        testComplete();
+      });
+    });
+    await();
+  }
+
+  @Test
+  public void testLeastOutstanding() throws Exception {
+    RoutingMongoService router = new RoutingMongoService(vertx, new JsonObject()
+        .put("routing", "leastOutstanding")
+        .put("addresses", new JsonArray().add("mongo.a").add("mongo.b")));
+    router.count("hold", new JsonObject(), onSuccess(count -> {}));
+    vertx.setTimer(50, id -> {
+      assertEquals(1, (int) router.poolMetrics().getJsonArray("addresses").getJsonObject(0).getInteger("outstanding"));
+      // The first service still holds a request
+      router.count("other", new JsonObject(), onSuccess(count -> {
+        assertEquals("mongo.b", received.get(1));
+        pending.get(0).reply(0L);
+        testComplete();
+      }));
+    });
+    await();
+  }
+
+  @Test
+  public void testNoAddress() throws Exception {
+    RoutingMongoService router = new RoutingMongoService(vertx, new JsonObject());
+    router.count("books", new JsonObject(), onFailure(err -> {
+      router.addAddress("mongo.a");
+      router.count("books", new JsonObject(), onSuccess(count -> testComplete()));
+    }));
+    await();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidRouting() {
+    new RoutingMongoService(vertx, new JsonObject().put("routing", "random"));
+  }
+
+  private void countAll(RoutingMongoService router, String collection, int num, Runnable done) {
+    if (num == 0) {
+      done.run();
+    } else {
+      router.count(collection, new JsonObject(), onSuccess(count -> countAll(router, collection, num - 1, done)));
+    }
+  }
+}